@@ -1,12 +1,18 @@
 package nl.uu.cs.ape;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -24,13 +30,22 @@ import nl.uu.cs.ape.domain.APEDimensionsException;
 import nl.uu.cs.ape.domain.APEDomainSetup;
 import nl.uu.cs.ape.domain.OWLReader;
 import nl.uu.cs.ape.models.MappingsException;
-import nl.uu.cs.ape.models.enums.SynthesisFlag;
+import nl.uu.cs.ape.models.enums.SolutionStreamFormat;
 import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
-import nl.uu.cs.ape.solver.SynthesisEngine;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.SynthesisResultCache;
+import nl.uu.cs.ape.solver.SynthesisSession;
+import nl.uu.cs.ape.solver.minisat.DimacsSymbolTable;
 import nl.uu.cs.ape.solver.minisat.SATSynthesisEngine;
+import nl.uu.cs.ape.solver.minisat.SynthesisCoordinator;
+import nl.uu.cs.ape.solver.solutionStructure.ModuleFragmentCache;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionStreamReader;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionStreamWriter;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
 import nl.uu.cs.ape.solver.solutionStructure.cwl.DefaultCWLCreator;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutionResult;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutor;
 import nl.uu.cs.ape.solver.solutionStructure.snakemake.SnakemakeCreator;
 import nl.uu.cs.ape.utils.APEFiles;
 import nl.uu.cs.ape.utils.APEUtils;
@@ -50,6 +65,9 @@ public class APE implements APEInterface {
 	/** Object containing general APE encoding. */
 	private APEDomainSetup apeDomainSetup;
 
+	/** Cache of the synthesis results, or {@code null} if not used. */
+	private SynthesisResultCache resultCache = null;
+
 	/**
 	 * Create instance of the APE solver.
 	 *
@@ -171,6 +189,27 @@ public class APE implements APEInterface {
 		return apeDomainSetup;
 	}
 
+	/**
+	 * Gets the cache of the synthesis results.
+	 *
+	 * @return The cache, or {@code null} if the results are not cached.
+	 */
+	public SynthesisResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Set the cache used to store the synthesis results. The runs whose
+	 * specification was already synthesised over the same domain return the
+	 * stored solutions without running the solver.
+	 *
+	 * @param resultCache The cache, or {@code null} if the results should not be
+	 *                    cached.
+	 */
+	public void setResultCache(SynthesisResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
 	/**
 	 * Returns all the taxonomy elements that are subclasses of the given element.
 	 * Can be used to retrieve all data types, formats or all taxonomy operations.
@@ -226,7 +265,7 @@ public class APE implements APEInterface {
 	 *                     file.
 	 */
 	public SolutionsList runSynthesis(JSONObject configObject) throws IOException, APEConfigException {
-		return runSynthesis(configObject, this.getDomainSetup());
+		return runSynthesis(configObject, new CancellationToken());
 	}
 
 	/**
@@ -239,7 +278,7 @@ public class APE implements APEInterface {
 	 */
 	public SolutionsList runSynthesis(String runConfigPath) throws IOException, JSONException, APEConfigException {
 		JSONObject configObject = APEFiles.readFileToJSONObject(new File(runConfigPath));
-		return runSynthesis(configObject, this.getDomainSetup());
+		return runSynthesis(configObject, new CancellationToken());
 	}
 
 	/**
@@ -251,93 +290,258 @@ public class APE implements APEInterface {
 	 *                     file.
 	 */
 	public SolutionsList runSynthesis(APERunConfig runConfig) throws IOException, JSONException {
-		runConfig.getApeDomainSetup().clearConstraints();
-		return executeSynthesis(runConfig);
+		return runSynthesis(runConfig, new CancellationToken());
 	}
 
 	/**
-	 * Setup a new run instance of the APE solver and run the synthesis algorithm.
+	 * Setup a new run instance of the APE solver and run the synthesis algorithm,
+	 * which can be stopped using the cancellation token. In case that the run is
+	 * cancelled or it reaches the deadline of the token, the solutions found so
+	 * far are returned (see {@link SolutionsList#getFlag()}).
+	 * <p>
+	 * The synthesis is performed over a run-local view of the domain (see
+	 * {@link APEDomainSetup#createRunOverlay()}), created from the view of the
+	 * configuration, thus multiple syntheses can run concurrently, even if they
+	 * share the configuration.
+	 *
+	 * @param runConfig    Configuration object that contains run configurations.
+	 * @param cancellation Token used to cancel the run or to limit its duration.
+	 * @return The list of all the solutions.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file.
+	 */
+	public SolutionsList runSynthesis(APERunConfig runConfig, CancellationToken cancellation)
+			throws IOException, JSONException {
+		APEDomainSetup runDomainSetup = runConfig.getApeDomainSetup().createRunOverlay();
+		return executeSynthesis(runConfig, runDomainSetup, cancellation, null);
+	}
+
+	/**
+	 * Setup a new run instance of the APE solver and run the synthesis algorithm
+	 * (see {@link #runSynthesis(APERunConfig, CancellationToken)}), writing each
+	 * solution to a file in the solution directory as soon as it is found (see
+	 * {@link SolutionStreamWriter}). The solutions written before the run is
+	 * cancelled or interrupted are kept in the file.
 	 *
-	 * @param runConfigJson  Object that contains run configurations.
-	 * @param apeDomainSetup Domain information, including all the existing tools
-	 *                       and types.
+	 * @param runConfig    Configuration object that contains run configurations.
+	 * @param cancellation Token used to cancel the run or to limit its duration.
+	 * @param streamFormat Format of the file that contains the solutions.
 	 * @return The list of all the solutions.
-	 * @throws IOException   Error in case of not providing a proper configuration
-	 *                       file.
-	 * @throws JSONException Error in configuration object.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file, or in writing the solutions.
 	 */
-	private SolutionsList runSynthesis(JSONObject runConfigJson, APEDomainSetup apeDomainSetup)
-			throws IOException, JSONException, APEConfigException {
-		apeDomainSetup.clearConstraints();
-		APERunConfig runConfig = new APERunConfig(runConfigJson, apeDomainSetup);
-		return executeSynthesis(runConfig);
+	public SolutionsList runSynthesis(APERunConfig runConfig, CancellationToken cancellation,
+			SolutionStreamFormat streamFormat) throws IOException, JSONException {
+		APEDomainSetup runDomainSetup = runConfig.getApeDomainSetup().createRunOverlay();
+		Path solutionsFile = runConfig.getSolutionDirPath2(streamFormat.getFileName());
+		Files.createDirectories(solutionsFile.toAbsolutePath().getParent());
+		try (SolutionStreamWriter writer = new SolutionStreamWriter(solutionsFile, streamFormat)) {
+			return executeSynthesis(runConfig, runDomainSetup, cancellation, writer);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
 	}
 
 	/**
-	 * Run the synthesis for the given workflow specification.
-	 * 
-	 * @param runConfig
+	 * Setup a new run instance of the APE solver and run the synthesis algorithm,
+	 * which can be stopped using the cancellation token. The synthesis is
+	 * performed over a run-local view of the domain (see
+	 * {@link APEDomainSetup#createRunOverlay()}), thus multiple syntheses can run
+	 * concurrently on the same APE instance.
 	 *
+	 * @param configObject Object that contains run configurations.
+	 * @param cancellation Token used to cancel the run or to limit its duration.
 	 * @return The list of all the solutions.
 	 * @throws IOException Error in case of not providing a proper configuration
 	 *                     file.
 	 */
-	private SolutionsList executeSynthesis(APERunConfig runConfig) throws IOException, JSONException {
+	public SolutionsList runSynthesis(JSONObject configObject, CancellationToken cancellation)
+			throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		return executeSynthesis(runConfig, runDomainSetup, cancellation, null);
+	}
 
-		/* List of all the solutions */
-		SolutionsList allSolutions = new SolutionsList(runConfig);
+	/**
+	 * Start a synthesis session, i.e. a run whose search for solutions can be
+	 * continued (see {@link SynthesisSession#next(int)}). The session is
+	 * performed over a run-local view of the domain. No solutions are searched
+	 * for until {@link SynthesisSession#next(int)} is called.
+	 *
+	 * @param configObject Object that contains run configurations.
+	 * @return The new synthesis session.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file.
+	 */
+	public SynthesisSession startSession(JSONObject configObject) throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		return new SynthesisSession(runConfig, runDomainSetup);
+	}
 
-		apeDomainSetup.updateConstraints(runConfig.getConstraintsJSON());
+	/**
+	 * Resume the synthesis session whose state was stored in the file (see
+	 * {@link SynthesisSession#save(Path)}).
+	 *
+	 * @param configObject Object that contains run configurations, the same as
+	 *                     the one used to start the session.
+	 * @param stateFile    File that contains the state of the session.
+	 * @return The resumed synthesis session.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file or the state file.
+	 */
+	public SynthesisSession resumeSession(JSONObject configObject, Path stateFile)
+			throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		return SynthesisSession.resume(runConfig, runDomainSetup, stateFile);
+	}
 
-		/* Print the setup information when necessary. */
-		APEUtils.debugPrintout(runConfig, apeDomainSetup);
+	/**
+	 * Run the synthesis, where the solutions of each workflow length are
+	 * enumerated by the worker processes of the coordinator (see
+	 * {@link SynthesisCoordinator}). The domain is held and the problems are
+	 * encoded by this instance, while the workers only need the encoded
+	 * problems.
+	 *
+	 * @param configObject Object that contains run configurations.
+	 * @param coordinator  Coordinator of the worker processes.
+	 * @param cancellation Token used to cancel the run or to limit its duration.
+	 * @return The list of all the solutions.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file.
+	 */
+	public SolutionsList runDistributedSynthesis(JSONObject configObject, SynthesisCoordinator coordinator,
+			CancellationToken cancellation) throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		try (SynthesisSession session = new SynthesisSession(runConfig, runDomainSetup)) {
+			session.setCoordinator(coordinator);
+			return session.next(runConfig.getMaxNoSolutions(), cancellation);
+		}
+	}
 
-		/*
-		 * Loop over different lengths of the workflow until either, max workflow length
-		 * or max number of solutions has been found.
-		 */
-		String globalTimerID = "globalTimer";
-		APEUtils.timerStart(globalTimerID, true);
-		int solutionLength = runConfig.getSolutionLength().getMin();
-		while (allSolutions.getNumberOfSolutions() < allSolutions.getMaxNumberOfSolutions()
-				&& solutionLength <= runConfig.getSolutionLength().getMax()
-				&& APEUtils.timerTimeLeft(globalTimerID, runConfig.getTimeoutMs()) > 0) {
-
-			SynthesisEngine implSynthesis = new SATSynthesisEngine(apeDomainSetup, allSolutions, runConfig,
-					solutionLength);
-
-			APEUtils.printHeader(implSynthesis.getSolutionSize(), "Workflow discovery - length");
-
-			/* Encoding of the synthesis problem */
-			if (!implSynthesis.synthesisEncoding()) {
-				log.error("Internal error in problem encoding.");
-				return null;
+	/**
+	 * Read the workflow solutions written by {@link SolutionStreamWriter}, without
+	 * running the synthesis again.
+	 *
+	 * @param configObject  Object that contains the run configuration used to
+	 *                      find the solutions.
+	 * @param solutionsFile File that contains the solutions.
+	 * @return The list of the solutions.
+	 * @throws IOException Error in reading the file, or the solutions do not
+	 *                     match the domain.
+	 */
+	public SolutionsList readSolutions(JSONObject configObject, Path solutionsFile)
+			throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		return SolutionStreamReader.readAll(solutionsFile, runConfig, runDomainSetup);
+	}
+
+	/**
+	 * Encode the synthesis problem of the given workflow length and write it as
+	 * a DIMACS file, together with the symbol table that describes its variables
+	 * (see {@link DimacsSymbolTable}). The problem can then be solved by an
+	 * external SAT solver and its models read using
+	 * {@link #importModels(JSONObject, Path, List)}.
+	 *
+	 * @param configObject   Object that contains run configurations.
+	 * @param solutionLength Length of the workflows described by the problem.
+	 * @param cnfFile        File used to store the problem.
+	 * @param symbolsFile    File used to store the symbol table.
+	 * @return The symbol table of the problem.
+	 * @throws IOException Error in encoding the problem or writing the files.
+	 */
+	public DimacsSymbolTable exportProblem(JSONObject configObject, int solutionLength, Path cnfFile,
+			Path symbolsFile) throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		runDomainSetup.updateConstraints(runConfig.getConstraintsJSON());
+
+		SATSynthesisEngine engine = new SATSynthesisEngine(runDomainSetup, new SolutionsList(runConfig), runConfig,
+				solutionLength);
+		try {
+			if (!engine.synthesisEncoding()) {
+				throw new IOException("Internal error in problem encoding.");
 			}
-			/* Execution of the synthesis - updates the object allSolutions */
-			allSolutions.addSolutions(implSynthesis.synthesisExecution());
-			implSynthesis.deleteTempFiles();
-			allSolutions.addNoSolutionsForLength(solutionLength, allSolutions.getNumberOfSolutions());
-
-			/* Increase the size of the workflow for the next depth iteration */
-			solutionLength++;
-		}
-
-		if ((allSolutions.getNumberOfSolutions() >= allSolutions.getMaxNumberOfSolutions() - 1)) {
-			allSolutions.setFlag(SynthesisFlag.NONE);
-		} else if (APEUtils.timerTimeLeft(globalTimerID, runConfig.getTimeoutMs()) <= 0) {
-			allSolutions.setFlag(SynthesisFlag.TIMEOUT);
-		} else if (allSolutions.getNumberOfSolutions() == 0) {
-			allSolutions.setFlag(SynthesisFlag.UNSAT);
-		} else if (solutionLength >= runConfig.getSolutionLength().getMax()) {
-			allSolutions.setFlag(SynthesisFlag.MAX_LENGTH);
-		} else {
-			allSolutions.setFlag(SynthesisFlag.UNKNOWN);
+			return DimacsSymbolTable.export(engine, cnfFile, symbolsFile);
+		} finally {
+			engine.deleteTempFiles();
+		}
+	}
+
+	/**
+	 * Read the models of a problem exported using
+	 * {@link #exportProblem(JSONObject, int, Path, Path)}, found by an external
+	 * SAT solver, and turn them into workflow solutions.
+	 *
+	 * @param configObject Object that contains the run configuration used to
+	 *                     present the solutions.
+	 * @param symbolsFile  File that contains the symbol table of the problem.
+	 * @param modelFiles   Files that contain the models (see
+	 *                     {@link DimacsSymbolTable#readModels(Path)}).
+	 * @return The list of the solutions.
+	 * @throws IOException Error in reading the files, or the symbol table does
+	 *                     not match the domain.
+	 */
+	public SolutionsList importModels(JSONObject configObject, Path symbolsFile, List<Path> modelFiles)
+			throws IOException, APEConfigException {
+		APEDomainSetup runDomainSetup = this.apeDomainSetup.createRunOverlay();
+		APERunConfig runConfig = new APERunConfig(configObject, runDomainSetup);
+		DimacsSymbolTable symbolTable = DimacsSymbolTable.read(symbolsFile);
+		List<int[]> models = new ArrayList<>();
+		for (Path modelFile : modelFiles) {
+			models.addAll(DimacsSymbolTable.readModels(modelFile));
 		}
+		return symbolTable.readSolutions(models, runConfig, runDomainSetup);
+	}
 
-		log.info(allSolutions.getFlag().getMessage());
-		long runTimeMS = APEUtils.timerPrintSolutions(globalTimerID, allSolutions.getNumberOfSolutions());
+	/**
+	 * Run the synthesis for the given workflow specification.
+	 * 
+	 * @param runConfig
+	 * @param apeDomainSetup   Run-local view of the domain.
+	 * @param cancellation     Token used to stop the run.
+	 * @param solutionListener Listener notified about each solution as soon as
+	 *                         it is found, or {@code null}.
+	 *
+	 * @return The list of all the solutions.
+	 * @throws IOException Error in case of not providing a proper configuration
+	 *                     file.
+	 */
+	private SolutionsList executeSynthesis(APERunConfig runConfig, APEDomainSetup apeDomainSetup,
+			CancellationToken cancellation, Consumer<SolutionWorkflow> solutionListener)
+			throws IOException, JSONException {
+
+		/* Reuse the results of the same specification, if available. */
+		String cacheKey = null;
+		if (resultCache != null) {
+			cacheKey = SynthesisResultCache.computeKey(runConfig, apeDomainSetup);
+			SolutionsList cachedSolutions = resultCache.lookup(cacheKey, runConfig, apeDomainSetup);
+			if (cachedSolutions != null) {
+				log.info("Synthesis results were retrieved from the cache ({} solutions).",
+						cachedSolutions.getNumberOfSolutions());
+				if (solutionListener != null) {
+					cachedSolutions.getStream().forEach(solutionListener);
+				}
+				return cachedSolutions;
+			}
+		}
 
-		allSolutions.setSolvingTime(runTimeMS);
+		SolutionsList allSolutions;
+		try (SynthesisSession session = new SynthesisSession(runConfig, apeDomainSetup)) {
+			if (solutionListener != null) {
+				session.getSolutions().addSolutionListener(solutionListener);
+			}
+			allSolutions = session.next(runConfig.getMaxNoSolutions(), cancellation);
+		}
+		if (allSolutions == null) {
+			return null;
+		}
+		if (resultCache != null) {
+			resultCache.store(cacheKey, allSolutions);
+		}
 		return allSolutions;
 	}
 
@@ -373,18 +577,43 @@ public class APE implements APEInterface {
 	 * @throws IOException Exception if file not found.
 	 */
 	public static boolean writeSolutionToFile(SolutionsList allSolutions) throws IOException {
-		StringBuilder solutions2write = new StringBuilder();
-
-		for (int i = 0; i < allSolutions.size(); i++) {
-			solutions2write
-					.append(allSolutions.get(i).getNativeSolution().getCompleteSolution()).append("\n");
+		Path solutionsFile = allSolutions.getRunConfiguration().getSolutionDirPath2("solutions.txt");
+		Files.createDirectories(solutionsFile.toAbsolutePath().getParent());
+		/* Write the solutions one by one, instead of building the whole text in memory. */
+		try (BufferedWriter writer = Files.newBufferedWriter(solutionsFile, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < allSolutions.size(); i++) {
+				writer.write(allSolutions.get(i).getNativeSolution().getCompleteSolution());
+				writer.write("\n");
+			}
 		}
-		APEFiles.write2file(solutions2write.toString(),
-				allSolutions.getRunConfiguration().getSolutionDirPath2("solutions.txt").toFile(), false);
 
 		return true;
 	}
 
+	/**
+	 * Write the workflow solutions to a file in the solution directory, in a
+	 * compact format that describes the tools, the data types and the data flow
+	 * of each solution (see {@link SolutionStreamWriter}). The solutions can be
+	 * read again using {@link #readSolutions(JSONObject, Path)}. In order to
+	 * write the solutions while they are being found, use
+	 * {@link #runSynthesis(APERunConfig, CancellationToken, SolutionStreamFormat)}
+	 * instead.
+	 *
+	 * @param allSolutions Set of {@link SolutionWorkflow}.
+	 * @param format       Format of the file.
+	 * @return true if the writing was successfully performed, false otherwise.
+	 * @throws IOException Exception if the file cannot be written.
+	 */
+	public static boolean writeSolutionsStream(SolutionsList allSolutions, SolutionStreamFormat format)
+			throws IOException {
+		Path solutionsFile = allSolutions.getRunConfiguration().getSolutionDirPath2(format.getFileName());
+		Files.createDirectories(solutionsFile.toAbsolutePath().getParent());
+		try (SolutionStreamWriter writer = new SolutionStreamWriter(solutionsFile, format)) {
+			writer.writeAll(allSolutions);
+		}
+		return true;
+	}
+
 	/**
 	 * Generating scripts that represent executable versions of the workflow
 	 * solutions and executing them.
@@ -426,6 +655,56 @@ public class APE implements APEInterface {
 		return true;
 	}
 
+	/**
+	 * Execute the first {@link APERunConfig#getNoExecutions()} workflow solutions
+	 * locally, in parallel, and attach the results to the solutions (see
+	 * {@link SolutionsList#getSolutionsRankedByRuntime()}). Each workflow is
+	 * executed in its own subdirectory of
+	 * {@link APERunConfig#getSolutionDirPath2Executions()}, and the summary of
+	 * the executions is written to the file {@code results.tsv} in the same
+	 * directory.
+	 *
+	 * @param allSolutions Set of {@link SolutionWorkflow}.
+	 * @param executor     Executor that defines the runner, the parallelism and
+	 *                     the limits of the executions.
+	 * @return The results of the executions, in the order of the solutions.
+	 * @throws IOException          Error while writing the workflows or the
+	 *                              summary.
+	 * @throws InterruptedException The thread was interrupted, the running
+	 *                              executions are stopped.
+	 */
+	public static List<WorkflowExecutionResult> executeWorkflows(SolutionsList allSolutions,
+			WorkflowExecutor executor) throws IOException, InterruptedException {
+		Path executionsFolder = allSolutions.getRunConfiguration().getSolutionDirPath2Executions();
+		Integer noExecutions = allSolutions.getRunConfiguration().getNoExecutions();
+		if (executionsFolder == null || noExecutions == null || noExecutions == 0 || allSolutions.isEmpty()) {
+			return new ArrayList<>();
+		}
+		final String timerID = allSolutions.getTimerID("runningWorkflows");
+		APEUtils.printHeader(null, String.format("Executing the first %d solution(s) using %s", noExecutions,
+				executor.getRunner()));
+		APEUtils.timerStart(timerID, true);
+		try {
+			List<WorkflowExecutionResult> results = executor.execute(allSolutions, noExecutions, executionsFolder);
+
+			try (BufferedWriter writer = Files.newBufferedWriter(executionsFolder.resolve("results.tsv"),
+					StandardCharsets.UTF_8)) {
+				writer.write("workflow\trunner\texit_code\ttimed_out\truntime_ms\n");
+				for (WorkflowExecutionResult result : results) {
+					writer.write(String.format("%s\t%s\t%s\t%b\t%d\n", result.getWorkingDirectory().getFileName(),
+							result.getRunner(), result.getExitCode() == null ? "" : result.getExitCode(),
+							result.isTimedOut(), result.getRuntimeMs()));
+				}
+			}
+			long noSuccessful = results.stream().filter(WorkflowExecutionResult::isSuccessful).count();
+			APEUtils.timerPrintText(timerID, String.format("%d of %d workflow(s) have been executed successfully.",
+					noSuccessful, results.size()));
+			return results;
+		} finally {
+			APEUtils.timerRemove(timerID);
+		}
+	}
+
 	/**
 	 * Generate the graphical representations of the workflow solutions, in top to
 	 * bottom orientation, and write them to the file system. Each graph is shown in
@@ -637,14 +916,14 @@ public class APE implements APEInterface {
 		}
 		log.debug("Generating CWL files.");
 
-		// Write the CWL files
+		// Write the CWL files, generating the parts of the steps that depend only on the tool once
+		ModuleFragmentCache fragmentCache = new ModuleFragmentCache();
 		allSolutions.getParallelStream().filter(solution -> solution.getIndex() < noCWLFiles).forEach(solution -> {
-			try {
-				// Write the cwl file to the file system
-				String titleCWL = solution.getFileName() + ".cwl";
-				File script = cwlFolder.resolve(titleCWL).toFile();
-				DefaultCWLCreator cwlCreator = new DefaultCWLCreator(solution);
-				APEFiles.write2file(cwlCreator.generate(), script, false);
+			// Write the cwl file to the file system
+			String titleCWL = solution.getFileName() + ".cwl";
+			Path script = cwlFolder.resolve(titleCWL);
+			try (BufferedWriter writer = Files.newBufferedWriter(script, StandardCharsets.UTF_8)) {
+				new DefaultCWLCreator(solution, fragmentCache).generate(writer);
 
 			} catch (IOException e) {
 				log.error("Error occurred while writing a CWL file to the file system.");
@@ -691,12 +970,12 @@ public class APE implements APEInterface {
         }
         log.debug("Generating Snakemake files.");
 
+        ModuleFragmentCache fragmentCache = new ModuleFragmentCache();
         allSolutions.getParallelStream().filter(solution -> solution.getIndex() < noSnakemakeFiles).forEach(solution -> {
-            try {
-				String titleSnakefile= solution.getFileName() + "_snakefile";
-				File script = snakemakeFolder.resolve(titleSnakefile).toFile();
-				SnakemakeCreator snakemakeCreator = new SnakemakeCreator(solution);
-				APEFiles.write2file(snakemakeCreator.generateSnakemakeRepresentation(), script, false);
+			String titleSnakefile= solution.getFileName() + "_snakefile";
+			Path script = snakemakeFolder.resolve(titleSnakefile);
+            try (BufferedWriter writer = Files.newBufferedWriter(script, StandardCharsets.UTF_8)) {
+				new SnakemakeCreator(solution, fragmentCache).generateSnakemakeRepresentation(writer);
 
             } catch (IOException e) {
                 log.error("Error occurred while writing a Snakemake file to the file system.");
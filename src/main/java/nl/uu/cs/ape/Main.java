@@ -8,9 +8,16 @@ import nl.uu.cs.ape.domain.BioToolsAPI;
 import nl.uu.cs.ape.utils.APEFiles;
 import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.utils.WorkflomicsConstants;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.minisat.SynthesisCoordinator;
+import nl.uu.cs.ape.solver.minisat.SynthesisWorker;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutor;
 import nl.uu.cs.ape.solver.solutionStructure.cwl.ToolCWLCreator;
 import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.enums.SolutionStreamFormat;
+import nl.uu.cs.ape.models.enums.WorkflowRunner;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.json.JSONArray;
@@ -20,6 +27,9 @@ import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,10 +62,29 @@ public class Main {
             case "convert-tools":
                 convertBioToolsAnnotations(ArrayUtils.remove(args, 0));
                 break;
+            case "export-dimacs":
+                exportDimacs(ArrayUtils.remove(args, 0));
+                break;
+            case "import-models":
+                importModels(ArrayUtils.remove(args, 0));
+                break;
+            case "distributed":
+                executeDistributedSynthesis(ArrayUtils.remove(args, 0));
+                break;
+            case "worker":
+                SynthesisWorker.main(ArrayUtils.remove(args, 0));
+                break;
+            case "execute":
+                executeWorkflows(ArrayUtils.remove(args, 0));
+                break;
             case "pull-a-tool":
                 pullATool(ArrayUtils.remove(args, 0));
                 break;
             case "bio.tools":
+                if (args.length > 1) {
+                    convertBioToolsDump(ArrayUtils.remove(args, 0));
+                    break;
+                }
                 try {
                     BioToolsAPI.getAndSaveFullBioTools("./tools.json");
                 } catch (IOException e) {
@@ -151,6 +180,38 @@ public class Main {
         log.info("File generated successfully in the current directory.");
     }
 
+    /**
+     * Convert a local bio.tools dump to APE-compatible tool annotation format. The
+     * dump is converted in a streaming fashion, so its size is not limited by the
+     * available memory.
+     * 
+     * @param args The arguments provided to the method. The first argument is the
+     *             path to the bio.tools dump, the second (optional) argument is the
+     *             path to the output file (default: ./tools.json).
+     */
+    public static void convertBioToolsDump(String[] args) {
+        if (args.length > 2) {
+            log.error("Error: bio.tools method expects at most two additional arguments.");
+            return;
+        }
+
+        String pathToDump = args[0];
+        if (!APEFiles.isValidReadFile(pathToDump)) {
+            log.error("Error: Invalid path provided.");
+            return;
+        }
+        String destinationPath = args.length == 2 ? args[1] : "./tools.json";
+
+        try {
+            BioToolsAPI.convertBioToolsDump2Ape(new File(pathToDump), new File(destinationPath), true);
+        } catch (IOException | JSONException e) {
+            log.error("Error in converting the bio.tools dump.");
+            log.error(e.getMessage());
+            return;
+        }
+        log.info("File " + destinationPath + " generated successfully.");
+    }
+
     /**
      * Executes the synthesis based on the provided configuration file.
      * 
@@ -203,8 +264,8 @@ public class Main {
             if (solutionsNo > 0) {
                 runConfig.setMaxNoSolutions(solutionsNo);
             }
-            // run the synthesis and retrieve the solutions
-            solutions = apeFramework.runSynthesis(runConfig);
+            // run the synthesis and retrieve the solutions, writing them as they are found
+            solutions = apeFramework.runSynthesis(runConfig, new CancellationToken(), SolutionStreamFormat.NDJSON);
 
         } catch (APEConfigException e) {
             log.error("Error in synthesis execution. APE configuration error:");
@@ -225,6 +286,218 @@ public class Main {
             return;
         }
 
+        writeSolutions(solutions);
+    }
+
+    /**
+     * Executes the synthesis based on the provided configuration file, where the
+     * solutions are enumerated by worker processes (see
+     * {@link SynthesisCoordinator}). The given number of workers is started on
+     * this machine, while further workers can connect using the {@code worker}
+     * method. The workers from other machines are accepted only if the
+     * {@code --accept-remote} option is given.
+     * 
+     * @param args The arguments provided to the method: the path to the
+     *             configuration file, the number of the local workers,
+     *             (optionally) the port used by the workers to connect (default:
+     *             any free port) and (optionally) {@code --accept-remote}.
+     */
+    public static void executeDistributedSynthesis(String[] args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        boolean acceptRemote = arguments.remove("--accept-remote");
+        if (arguments.size() < 2 || arguments.size() > 3) {
+            log.error("Error: distributed method expects the configuration file, the number of local workers and "
+                    + "optionally the port and --accept-remote as additional arguments.");
+            return;
+        }
+        int noWorkers;
+        int port;
+        try {
+            noWorkers = Integer.parseInt(arguments.get(1));
+            port = arguments.size() == 3 ? Integer.parseInt(arguments.get(2)) : 0;
+        } catch (NumberFormatException e) {
+            log.error("The number of workers and the port should be integers.");
+            return;
+        }
+        SolutionsList solutions;
+        try (SynthesisCoordinator coordinator = new SynthesisCoordinator(port, acceptRemote)) {
+            APE apeFramework = new APE(arguments.get(0));
+            JSONObject runConfigJson = APEFiles.readFileToJSONObject(new File(arguments.get(0)));
+            coordinator.startLocalWorkers(noWorkers);
+            solutions = apeFramework.runDistributedSynthesis(runConfigJson, coordinator, new CancellationToken());
+        } catch (APEConfigException | JSONException | IOException | OWLOntologyCreationException e) {
+            log.error("Error in synthesis execution.");
+            log.error(e.getMessage());
+            return;
+        }
+        if (solutions != null) {
+            writeSolutionsStream(solutions);
+            writeSolutions(solutions);
+        }
+    }
+
+    /**
+     * Executes the synthesis based on the provided configuration file and
+     * executes the first {@code number_of_execution_scripts} solutions locally
+     * (see {@link WorkflowExecutor}), reporting the successful workflows ordered
+     * by their running time.
+     * 
+     * @param args The arguments provided to the method: the path to the
+     *             configuration file, the runner ({@code script}, {@code cwl} or
+     *             {@code snakemake}), the max number of the workflows executed in
+     *             parallel, the time limit (in seconds) of each execution,
+     *             optionally the resource limits of each execution
+     *             ({@code --memory-limit=<MB>} and {@code --cpu-limit=<seconds>})
+     *             and the inputs given to the workflow scripts.
+     */
+    public static void executeWorkflows(String[] args) {
+        if (args.length < 4) {
+            log.error("Error: execute method expects the configuration file, the runner, the number of parallel "
+                    + "executions, the time limit in seconds and optionally the resource limits (--memory-limit=<MB>, "
+                    + "--cpu-limit=<seconds>) and the workflow inputs as additional arguments.");
+            return;
+        }
+        WorkflowExecutor executor;
+        List<String> inputs = new ArrayList<>();
+        try {
+            executor = new WorkflowExecutor(WorkflowRunner.valueOf(args[1].toUpperCase()));
+            executor.setMaxParallel(Integer.parseInt(args[2]));
+            executor.setTimeoutSec(Integer.parseInt(args[3]));
+            for (int i = 4; i < args.length; i++) {
+                if (args[i].startsWith("--memory-limit=")) {
+                    executor.setMemoryLimitMb(Long.parseLong(args[i].substring("--memory-limit=".length())));
+                } else if (args[i].startsWith("--cpu-limit=")) {
+                    executor.setCpuLimitSec(Integer.parseInt(args[i].substring("--cpu-limit=".length())));
+                } else {
+                    inputs.add(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("The runner should be one of " + Arrays.toString(WorkflowRunner.values())
+                    + " and the number of parallel executions and the limits should be integers.");
+            return;
+        }
+        executor.setInputs(inputs);
+
+        SolutionsList solutions;
+        try {
+            APE apeFramework = new APE(args[0]);
+            JSONObject runConfigJson = APEFiles.readFileToJSONObject(new File(args[0]));
+            APERunConfig runConfig = new APERunConfig(runConfigJson, apeFramework.getDomainSetup());
+            solutions = apeFramework.runSynthesis(runConfig, new CancellationToken(), SolutionStreamFormat.NDJSON);
+        } catch (APEConfigException | JSONException | IOException | OWLOntologyCreationException e) {
+            log.error("Error in synthesis execution.");
+            log.error(e.getMessage());
+            return;
+        }
+        writeSolutions(solutions);
+        if (solutions.isEmpty()) {
+            return;
+        }
+        try {
+            APE.executeWorkflows(solutions, executor);
+        } catch (IOException e) {
+            log.error("Error in executing the workflows.");
+            log.error(e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            log.error("The execution of the workflows was interrupted.");
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (SolutionWorkflow solution : solutions.getSolutionsRankedByRuntime()) {
+            log.info(solution.getExecutionResult().toString());
+        }
+    }
+
+    /**
+     * Encode the synthesis problem of the given workflow length and write it as
+     * a DIMACS file ({@code problem_<length>.cnf}) together with its symbol table
+     * ({@code problem_<length>.symbols.json}), in order to solve it using an
+     * external SAT solver.
+     * 
+     * @param args The arguments provided to the method: the path to the
+     *             configuration file, the workflow length and (optionally) the
+     *             directory where the files are written (default: current
+     *             directory).
+     */
+    public static void exportDimacs(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            log.error("Error: export-dimacs method expects the configuration file, the workflow length and "
+                    + "optionally the output directory as additional arguments.");
+            return;
+        }
+        int solutionLength;
+        try {
+            solutionLength = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            log.error("Second parameter is not an integer.");
+            return;
+        }
+        Path outputDir = Path.of(args.length == 3 ? args[2] : ".");
+        try {
+            APE apeFramework = new APE(args[0]);
+            JSONObject runConfigJson = APEFiles.readFileToJSONObject(new File(args[0]));
+            apeFramework.exportProblem(runConfigJson, solutionLength,
+                    outputDir.resolve("problem_" + solutionLength + ".cnf"),
+                    outputDir.resolve("problem_" + solutionLength + ".symbols.json"));
+        } catch (APEConfigException | JSONException | IOException | OWLOntologyCreationException e) {
+            log.error("Error in exporting the synthesis problem.");
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Read the models of a problem exported using {@link #exportDimacs(String[])},
+     * found by an external SAT solver, and write the corresponding solutions in
+     * the same way as the synthesis does.
+     * 
+     * @param args The arguments provided to the method: the path to the
+     *             configuration file, the path to the symbol table and the paths
+     *             to the files with the models.
+     */
+    public static void importModels(String[] args) {
+        if (args.length < 3) {
+            log.error("Error: import-models method expects the configuration file, the symbol table and "
+                    + "at least one model file as additional arguments.");
+            return;
+        }
+        SolutionsList solutions;
+        try {
+            APE apeFramework = new APE(args[0]);
+            JSONObject runConfigJson = APEFiles.readFileToJSONObject(new File(args[0]));
+            List<Path> modelFiles = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                modelFiles.add(Path.of(args[i]));
+            }
+            solutions = apeFramework.importModels(runConfigJson, Path.of(args[1]), modelFiles);
+        } catch (APEConfigException | JSONException | IOException | OWLOntologyCreationException e) {
+            log.error("Error in reading the models.");
+            log.error(e.getMessage());
+            return;
+        }
+        writeSolutionsStream(solutions);
+        writeSolutions(solutions);
+    }
+
+    /**
+     * Write the solutions that were not written while they were found to the
+     * solutions file (see {@link APE#writeSolutionsStream}).
+     */
+    private static void writeSolutionsStream(SolutionsList solutions) {
+        try {
+            APE.writeSolutionsStream(solutions, SolutionStreamFormat.NDJSON);
+        } catch (IOException e) {
+            log.error("Error in writing the solutions to the file system.");
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Write the solutions to the file system in all the other supported formats
+     * (the solutions file is written while the solutions are found).
+     */
+    private static void writeSolutions(SolutionsList solutions) {
         /*
          * Writing solutions to the specified file in human readable format
          */
@@ -21,6 +21,8 @@ public class State implements PredicateLabel, StateInterface {
     private final String stateName;
     /** Local number of the state (within the block) */
     private final int localStateNumber;
+    /** Number of the block that contains the state (-1 if not applicable) */
+    private final int blockNumber;
     /**
      * Order number of the state with respect to the state type (i.e., unique number
      * within the same type)
@@ -46,6 +48,7 @@ public class State implements PredicateLabel, StateInterface {
 
         this.stateName = AtomType.getStringShortcut(workflowStateType, blockNumber, stateNumber);
         this.localStateNumber = stateNumber;
+        this.blockNumber = (blockNumber == null) ? -1 : blockNumber;
         this.typeDependantStateNumber = calculateAutomatonStateNumber(blockNumber, stateNumber, inputBranching,
                 outputBranching, workflowStateType);
         this.absoluteStateNumber = calculateAbsStateNumber(blockNumber, stateNumber, inputBranching, outputBranching,
@@ -148,6 +151,16 @@ public class State implements PredicateLabel, StateInterface {
         return this.localStateNumber;
     }
 
+    /**
+     * Returns the number of the block (within the type automaton) that contains
+     * the state.
+     *
+     * @return Block number of the state or -1 for tool states and null state.
+     */
+    public int getBlockNumber() {
+        return this.blockNumber;
+    }
+
     /**
      * Returns the order number of the state with respect to the State Type
      * ({@link AtomType}). Unlike {@link #getLocalStateNumber}, this function
@@ -258,6 +258,34 @@ public class TypeAutomaton implements Automaton {
         return untilStates;
     }
 
+    /**
+     * Return all the type states that precede the given memory block in the data
+     * flow, i.e. all the slots of tool inputs and outputs that are created before
+     * the tool outputs in the memory block.
+     *
+     * @param blockNo Memory block before which we are looking into tool
+     *                inputs/outputs (this block is not included).
+     * @return List of Type States.
+     */
+    public List<State> getAllStatesBeforeMemoryBlockNo(int blockNo) {
+        return getAllStatesUntilBlockNo(blockNo - 1);
+    }
+
+    /**
+     * Return all the type states that precede the given used block in the data
+     * flow, i.e. all the slots of tool inputs and outputs that are created before
+     * the tool inputs in the used block.
+     *
+     * @param blockNo Used block before which we are looking into tool
+     *                inputs/outputs (this block is not included).
+     * @return List of Type States.
+     */
+    public List<State> getAllStatesBeforeUsedBlockNo(int blockNo) {
+        List<State> beforeStates = getAllStatesUntilBlockNo(blockNo - 1);
+        beforeStates.addAll(getMemoryTypesBlock(blockNo).getStates());
+        return beforeStates;
+    }
+
     /**
      * Return all the memory states that are available until (and including) a
      * certain block, i.e. all the slots of tool outputs that are created until the
@@ -15,6 +15,7 @@ import nl.uu.cs.ape.domain.APEDomainSetup;
 import nl.uu.cs.ape.models.Range;
 import nl.uu.cs.ape.models.Type;
 import nl.uu.cs.ape.models.enums.ConfigEnum;
+import nl.uu.cs.ape.models.enums.OptimizationObjective;
 import nl.uu.cs.ape.models.enums.SolverType;
 
 import java.io.IOException;
@@ -101,6 +102,35 @@ public class APERunConfig {
      * solutions.
      */
     private final APEConfigTag<Boolean> TOOL_SEQ_REPEAT = new APEConfigTagFactory.TAGS.TOOL_SEQ_REPEAT();
+    /**
+     * true iff the workflows that differ only in the order of the tools that do
+     * not depend on each other should be reported once.
+     */
+    private final APEConfigTag<Boolean> SYMMETRY_BREAKING = new APEConfigTagFactory.TAGS.SYMMETRY_BREAKING();
+    /**
+     * true iff the workflows with the same data flow (see
+     * {@link nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow#getFingerprint()})
+     * should be reported once.
+     */
+    private final APEConfigTag<Boolean> FILTER_DUPLICATES = new APEConfigTagFactory.TAGS.FILTER_DUPLICATES();
+    /**
+     * true iff the CNF encoding should be simplified before it is given to the
+     * solver.
+     */
+    private final APEConfigTag<Boolean> CNF_PREPROCESSING = new APEConfigTagFactory.TAGS.CNF_PREPROCESSING();
+    /**
+     * true iff the SLTLx formulas should be simplified before they are encoded.
+     */
+    private final APEConfigTag<Boolean> SLTLX_SIMPLIFICATION = new APEConfigTagFactory.TAGS.SLTLX_SIMPLIFICATION();
+    /**
+     * Number of solvers that enumerate the workflows of the same length in
+     * parallel.
+     */
+    private final APEConfigTag<Integer> SOLVER_THREADS = new APEConfigTagFactory.TAGS.SOLVER_THREADS();
+    /**
+     * Objective according to which the workflows of the same length are ordered.
+     */
+    private final APEConfigTag<OptimizationObjective> OPTIMIZATION_OBJECTIVE = new APEConfigTagFactory.TAGS.OPTIMIZATION_OBJECTIVE();
     /**
      * Input types of the workflow.
      */
@@ -130,6 +160,12 @@ public class APERunConfig {
             this.DEBUG_MODE,
             this.TIMEOUT_SEC,
             this.TOOL_SEQ_REPEAT,
+            this.SYMMETRY_BREAKING,
+            this.FILTER_DUPLICATES,
+            this.CNF_PREPROCESSING,
+            this.SLTLX_SIMPLIFICATION,
+            this.SOLVER_THREADS,
+            this.OPTIMIZATION_OBJECTIVE,
             this.PROGRAM_OUTPUTS,
             this.PROGRAM_INPUTS
     };
@@ -153,11 +189,19 @@ public class APERunConfig {
             new DEBUG_MODE(),
             new TIMEOUT_SEC(),
             new TOOL_SEQ_REPEAT(),
+            new SYMMETRY_BREAKING(),
+            new FILTER_DUPLICATES(),
+            new CNF_PREPROCESSING(),
+            new SLTLX_SIMPLIFICATION(),
+            new SOLVER_THREADS(),
+            new OPTIMIZATION_OBJECTIVE(),
             new PROGRAM_OUTPUTS(null),
             new PROGRAM_INPUTS(null));
 
     /**
-     * Object containing domain information needed for the execution.
+     * Object containing domain information needed for the execution, i.e. a
+     * run-local view of the domain (see {@link APEDomainSetup#createRunOverlay()}),
+     * to which the workflow inputs and outputs are added.
      */
     @Getter
     private APEDomainSetup apeDomainSetup;
@@ -176,12 +220,18 @@ public class APERunConfig {
             throw new APEConfigException("Domain setup provided cannot have null value.");
         }
 
-        this.apeDomainSetup = builder.apeDomainSetup;
+        this.apeDomainSetup = runOverlayOf(builder.apeDomainSetup);
 
         setConstraintsJSON(builder.constraintsJSON);
         setSolutionLength(builder.solutionMinLength, builder.solutionMaxLength);
         setMaxNoSolutions(builder.maxNoSolutions);
         setToolSeqRepeat(builder.toolSeqRepeat);
+        setSymmetryBreaking(builder.symmetryBreaking);
+        setFilterDuplicates(builder.filterDuplicates);
+        setCNFPreprocessing(builder.cnfPreprocessing);
+        setSLTLxSimplification(builder.sltlxSimplification);
+        setSolverThreads(builder.solverThreads);
+        setOptimizationObjective(builder.optimizationObjective);
         setSolutionPath(builder.solutionDirPath);
         setNoExecutions(builder.noExecutions);
         setNoGraphs(builder.noGraphs);
@@ -200,7 +250,7 @@ public class APERunConfig {
      * to create an empty instance.
      */
     private APERunConfig(APEDomainSetup setup) {
-        this.apeDomainSetup = setup;
+        this.apeDomainSetup = runOverlayOf(setup);
     }
 
     /**
@@ -248,7 +298,7 @@ public class APERunConfig {
             throw new APEConfigException("Domain setup provided cannot have null value.");
         }
 
-        this.apeDomainSetup = apeDomainSetup;
+        this.apeDomainSetup = runOverlayOf(apeDomainSetup);
 
         // set the apeDomain BEFORE setting the tags
         for (APEConfigTag<?> tag : all_tags) {
@@ -256,6 +306,17 @@ public class APERunConfig {
         }
     }
 
+    /**
+     * Get a run-local view of the domain, such that the workflow inputs and
+     * outputs of the run are not added to the loaded domain.
+     *
+     * @param apeDomainSetup The domain setup, or a run-local view of it.
+     * @return The given view, or a new view of the given domain.
+     */
+    private static APEDomainSetup runOverlayOf(APEDomainSetup apeDomainSetup) {
+        return apeDomainSetup.isRunOverlay() ? apeDomainSetup : apeDomainSetup.createRunOverlay();
+    }
+
     /**
      * Creates builder to build {@link APERunConfig}.
      *
@@ -307,6 +368,112 @@ public class APERunConfig {
         TOOL_SEQ_REPEAT.setValue(toolSeqRepeat);
     }
 
+    /**
+     * Returns true if the workflows that differ only in the order of the tools
+     * that do not depend on each other should be reported once.
+     *
+     * @return {@code true} if the symmetry breaking is used, {@code false}
+     *         otherwise.
+     */
+    public boolean getSymmetryBreaking() {
+        return SYMMETRY_BREAKING.getValue();
+    }
+
+    /**
+     * @param symmetryBreaking the symmetryBreaking to set
+     */
+    public void setSymmetryBreaking(boolean symmetryBreaking) {
+        SYMMETRY_BREAKING.setValue(symmetryBreaking);
+    }
+
+    /**
+     * Returns true if the workflows with the same data flow should be reported
+     * once.
+     *
+     * @return {@code true} if the duplicates are filtered, {@code false}
+     *         otherwise.
+     */
+    public boolean getFilterDuplicates() {
+        return FILTER_DUPLICATES.getValue();
+    }
+
+    /**
+     * @param filterDuplicates the filterDuplicates to set
+     */
+    public void setFilterDuplicates(boolean filterDuplicates) {
+        FILTER_DUPLICATES.setValue(filterDuplicates);
+    }
+
+    /**
+     * Returns true if the CNF encoding should be simplified before it is given to
+     * the solver (see {@link nl.uu.cs.ape.solver.minisat.CNFPreprocessor}).
+     *
+     * @return {@code true} if the encoding is simplified, {@code false}
+     *         otherwise.
+     */
+    public boolean getCNFPreprocessing() {
+        return CNF_PREPROCESSING.getValue();
+    }
+
+    /**
+     * @param cnfPreprocessing the cnfPreprocessing to set
+     */
+    public void setCNFPreprocessing(boolean cnfPreprocessing) {
+        CNF_PREPROCESSING.setValue(cnfPreprocessing);
+    }
+
+    /**
+     * Returns true if the SLTLx formulas should be simplified before they are
+     * encoded (see {@link nl.uu.cs.ape.models.sltlxStruc.SLTLxFormula#simplify()}).
+     *
+     * @return {@code true} if the formulas are simplified, {@code false}
+     *         otherwise.
+     */
+    public boolean getSLTLxSimplification() {
+        return SLTLX_SIMPLIFICATION.getValue();
+    }
+
+    /**
+     * @param sltlxSimplification the sltlxSimplification to set
+     */
+    public void setSLTLxSimplification(boolean sltlxSimplification) {
+        SLTLX_SIMPLIFICATION.setValue(sltlxSimplification);
+    }
+
+    /**
+     * Gets the number of solvers that enumerate the workflows of the same length
+     * in parallel (see {@link nl.uu.cs.ape.solver.minisat.CubeEnumeration}).
+     *
+     * @return Number of solver threads.
+     */
+    public int getSolverThreads() {
+        return SOLVER_THREADS.getValue();
+    }
+
+    /**
+     * @param solverThreads the solverThreads to set
+     */
+    public void setSolverThreads(int solverThreads) {
+        SOLVER_THREADS.setValue(solverThreads);
+    }
+
+    /**
+     * Gets the objective according to which the workflows of the same length are
+     * ordered.
+     *
+     * @return the value of {@link #OPTIMIZATION_OBJECTIVE}
+     */
+    public OptimizationObjective getOptimizationObjective() {
+        return OPTIMIZATION_OBJECTIVE.getValue();
+    }
+
+    /**
+     * @param optimizationObjective the optimizationObjective to set
+     */
+    public void setOptimizationObjective(OptimizationObjective optimizationObjective) {
+        OPTIMIZATION_OBJECTIVE.setValue(optimizationObjective);
+    }
+
     /**
      * Gets solution path.
      *
@@ -345,6 +512,20 @@ public class APERunConfig {
         return getSolutionDirPath2(EXECUTABLES_FOLDER_NAME);
     }
 
+    /** Tag value. */
+    public static final String EXECUTIONS_FOLDER_NAME = "Executions";
+
+    /**
+     * Get the path to the directory where the workflow solutions are executed
+     * locally, each in its own subdirectory.
+     *
+     * @return the path to the directory where the workflow solutions are
+     *         executed
+     */
+    public Path getSolutionDirPath2Executions() {
+        return getSolutionDirPath2(EXECUTIONS_FOLDER_NAME);
+    }
+
     /** Tag value. */
     public static final String FIGURES_FOLDER_NAME = "Figures";
 
@@ -677,6 +858,18 @@ public class APERunConfig {
 
         IBuildStage withToolSeqRepeat(boolean toolSeqRepeat);
 
+        IBuildStage withSymmetryBreaking(boolean symmetryBreaking);
+
+        IBuildStage withFilterDuplicates(boolean filterDuplicates);
+
+        IBuildStage withCNFPreprocessing(boolean cnfPreprocessing);
+
+        IBuildStage withSLTLxSimplification(boolean sltlxSimplification);
+
+        IBuildStage withSolverThreads(int solverThreads);
+
+        IBuildStage withOptimizationObjective(OptimizationObjective optimizationObjective);
+
         IBuildStage withSolutionDirPath(String solutionPath);
 
         IBuildStage withNoExecutions(int noExecutions);
@@ -711,6 +904,12 @@ public class APERunConfig {
         private APEDomainSetup apeDomainSetup;
         private JSONArray constraintsJSON;
         private boolean toolSeqRepeat;
+        private boolean symmetryBreaking;
+        private boolean filterDuplicates;
+        private boolean cnfPreprocessing;
+        private boolean sltlxSimplification = true;
+        private int solverThreads = 1;
+        private OptimizationObjective optimizationObjective;
         private String solutionDirPath;
         private int noExecutions;
         private int noGraphs;
@@ -761,6 +960,42 @@ public class APERunConfig {
             return this;
         }
 
+        @Override
+        public IBuildStage withSymmetryBreaking(boolean symmetryBreaking) {
+            this.symmetryBreaking = symmetryBreaking;
+            return this;
+        }
+
+        @Override
+        public IBuildStage withFilterDuplicates(boolean filterDuplicates) {
+            this.filterDuplicates = filterDuplicates;
+            return this;
+        }
+
+        @Override
+        public IBuildStage withCNFPreprocessing(boolean cnfPreprocessing) {
+            this.cnfPreprocessing = cnfPreprocessing;
+            return this;
+        }
+
+        @Override
+        public IBuildStage withSLTLxSimplification(boolean sltlxSimplification) {
+            this.sltlxSimplification = sltlxSimplification;
+            return this;
+        }
+
+        @Override
+        public IBuildStage withSolverThreads(int solverThreads) {
+            this.solverThreads = solverThreads;
+            return this;
+        }
+
+        @Override
+        public IBuildStage withOptimizationObjective(OptimizationObjective optimizationObjective) {
+            this.optimizationObjective = optimizationObjective;
+            return this;
+        }
+
         @Override
         public IBuildStage withSolutionDirPath(String solutionDirPath) {
             this.solutionDirPath = solutionDirPath;
@@ -54,7 +54,12 @@ public enum ToolAnnotationTag {
     /**
      * Represents the code of a tool.
      */
-    CODE("code");
+    CODE("code"),
+
+    /**
+     * Represents the cost of using a tool (positive integer, 1 by default).
+     */
+    COST("cost");
 
     @Getter
     private final String tagName;
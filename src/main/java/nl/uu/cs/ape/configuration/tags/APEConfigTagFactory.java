@@ -12,6 +12,7 @@ import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.models.Range;
 import nl.uu.cs.ape.models.Type;
 import nl.uu.cs.ape.models.enums.ConfigEnum;
+import nl.uu.cs.ape.models.enums.OptimizationObjective;
 
 import javax.inject.Provider;
 
@@ -1101,5 +1102,177 @@ public class APEConfigTagFactory {
                 return APEConfigDefaultValue.withDefault(true);
             }
         }
+
+        /**
+         * Configuration field.
+         */
+        public static class SYMMETRY_BREAKING extends TYPES.Bool {
+
+            @Override
+            public String getTagName() {
+                return "symmetry_breaking";
+            }
+
+            @Override
+            public String getLabel() {
+                return "Symmetry breaking";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Tag to indicate whether the workflows that differ only in the order of independent tools should be reported once.";
+            }
+
+            @Override
+            public APEConfigDefaultValue<Boolean> getDefault() {
+                return APEConfigDefaultValue.withDefault(false);
+            }
+        }
+
+        /**
+         * Configuration field.
+         */
+        public static class FILTER_DUPLICATES extends TYPES.Bool {
+
+            @Override
+            public String getTagName() {
+                return "filter_duplicates";
+            }
+
+            @Override
+            public String getLabel() {
+                return "Filter duplicates";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Tag to indicate whether the workflows with the same data flow should be reported once.";
+            }
+
+            @Override
+            public APEConfigDefaultValue<Boolean> getDefault() {
+                return APEConfigDefaultValue.withDefault(false);
+            }
+        }
+
+        /**
+         * Configuration field.
+         */
+        public static class CNF_PREPROCESSING extends TYPES.Bool {
+
+            @Override
+            public String getTagName() {
+                return "cnf_preprocessing";
+            }
+
+            @Override
+            public String getLabel() {
+                return "CNF preprocessing";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Tag to indicate whether the CNF encoding should be simplified before it is given to the solver.";
+            }
+
+            @Override
+            public APEConfigDefaultValue<Boolean> getDefault() {
+                return APEConfigDefaultValue.withDefault(false);
+            }
+        }
+
+        /**
+         * Configuration field.
+         */
+        public static class SLTLX_SIMPLIFICATION extends TYPES.Bool {
+
+            @Override
+            public String getTagName() {
+                return "sltlx_simplification";
+            }
+
+            @Override
+            public String getLabel() {
+                return "SLTLx simplification";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Tag to indicate whether the SLTLx formulas should be simplified before they are encoded.";
+            }
+
+            @Override
+            public APEConfigDefaultValue<Boolean> getDefault() {
+                return APEConfigDefaultValue.withDefault(true);
+            }
+        }
+
+        /**
+         * Configuration field.
+         */
+        public static class SOLVER_THREADS extends TYPES.Int {
+
+            public SOLVER_THREADS() {
+                super(Range.of(1, Integer.MAX_VALUE));
+            }
+
+            @Override
+            public String getTagName() {
+                return "solver_threads";
+            }
+
+            @Override
+            public String getLabel() {
+                return "Solver threads";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Number of solvers that enumerate the workflows of the same length in parallel, each exploring a "
+                        + "different part of the search space. The workflows are not reported in a fixed order if the "
+                        + "number is greater than 1.";
+            }
+
+            @Override
+            protected ValidationResults validate(Integer value, ValidationResults results) {
+                return results;
+            }
+
+            @Override
+            public APEConfigDefaultValue<Integer> getDefault() {
+                return APEConfigDefaultValue.withDefault(1);
+            }
+        }
+
+        /**
+         * Configuration field.
+         */
+        public static class OPTIMIZATION_OBJECTIVE extends TYPES.Option<OptimizationObjective> {
+
+            @Override
+            public Class<OptimizationObjective> getEnumClass() {
+                return OptimizationObjective.class;
+            }
+
+            @Override
+            public String getTagName() {
+                return "optimization_objective";
+            }
+
+            @Override
+            public String getLabel() {
+                return "Optimization objective";
+            }
+
+            @Override
+            public String getDescription() {
+                return "Objective according to which the workflows of the same length are ordered, starting with the lowest cost.";
+            }
+
+            @Override
+            public APEConfigDefaultValue<OptimizationObjective> getDefault() {
+                return APEConfigDefaultValue.withDefault(OptimizationObjective.NONE);
+            }
+        }
     }
 }
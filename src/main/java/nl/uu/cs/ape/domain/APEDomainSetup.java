@@ -3,7 +3,9 @@ package nl.uu.cs.ape.domain;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -22,7 +24,6 @@ import nl.uu.cs.ape.constraints.ConstraintTemplate;
 import nl.uu.cs.ape.constraints.ConstraintTemplateParameter;
 import nl.uu.cs.ape.utils.APEFiles;
 import nl.uu.cs.ape.utils.APEUtils;
-import nl.uu.cs.ape.utils.cwl_parser.CWLParser;
 import nl.uu.cs.ape.models.AbstractModule;
 import nl.uu.cs.ape.models.AllModules;
 import nl.uu.cs.ape.models.AllTypes;
@@ -97,6 +98,12 @@ public class APEDomainSetup {
      */
     private boolean useStrictToolAnnotations;
 
+    /**
+     * {@code true} if the object is a run-local view of the domain (see
+     * {@link #createRunOverlay()}).
+     */
+    private boolean runOverlay = false;
+
     private static final String CONSTR_JSON_TAG = "constraints";
     private static final String CONSTR_ID_TAG = "constraintid";
     private static final String CONSTR_SLTLx = "formula";
@@ -115,6 +122,52 @@ public class APEDomainSetup {
         this.useStrictToolAnnotations = config.getUseStrictToolAnnotations();
     }
 
+    /**
+     * Instantiates a run-local view of the given domain setup.
+     *
+     * @param original the domain setup that is viewed
+     */
+    private APEDomainSetup(APEDomainSetup original) {
+        this.emptyTools = original.emptyTools;
+        this.wrongToolIO = original.wrongToolIO;
+        this.wrongToolTax = original.wrongToolTax;
+        this.allModules = new AllModules(original.allModules);
+        this.allTypes = new AllTypes(original.allTypes);
+        this.ontologyPrefixIRI = original.ontologyPrefixIRI;
+        this.writeLocalCNF = original.writeLocalCNF;
+        this.constraintFactory = original.constraintFactory;
+        this.helperPredicates = new ArrayList<>(original.helperPredicates);
+        this.maxNoToolInputs = original.maxNoToolInputs;
+        this.maxNoToolOutputs = original.maxNoToolOutputs;
+        this.useStrictToolAnnotations = original.useStrictToolAnnotations;
+        this.runOverlay = true;
+    }
+
+    /**
+     * Create a run-local view of the domain, used to run a synthesis without
+     * modifying the domain. The view shares the taxonomies and the tool
+     * annotations with the domain, while the constraints and the auxiliary
+     * predicates (introduced by the constraints and the workflow inputs and
+     * outputs) are added to the view only. Multiple views of the same domain can
+     * therefore be used by concurrent synthesis runs, as long as the domain
+     * itself is not modified while they are in use.
+     *
+     * @return A new run-local view of the domain.
+     */
+    public APEDomainSetup createRunOverlay() {
+        return new APEDomainSetup(this);
+    }
+
+    /**
+     * Check whether the object is a run-local view of the domain (see
+     * {@link #createRunOverlay()}).
+     *
+     * @return {@code true} if the object is a run-local view.
+     */
+    public boolean isRunOverlay() {
+        return runOverlay;
+    }
+
     /**
      * Gets all modules.
      *
@@ -309,6 +362,11 @@ public class APEDomainSetup {
      * The existing modules (in {@link #allModules}) are updated, and new modules
      * are added to the list of modules.
      * Return true if the domain was updated, false otherwise.
+     * <p>
+     * The annotations are loaded in two phases. First, all the annotations
+     * (including the referenced CWL files) are parsed in parallel, independently
+     * of the domain. Afterwards, the parsed annotations are added to the domain
+     * one by one, in the order in which they were specified.
      *
      * @param toolAnnotationsFile JSON file containing tool annotations.
      * @return {@code true} if the domain was updated, {@code false} otherwise.
@@ -317,16 +375,18 @@ public class APEDomainSetup {
      * @throws JSONException Error if the tool annotation JSON file, bad format
      */
     public boolean annotateToolFromJson(JSONObject toolAnnotationsFile) throws IOException, JSONException {
-        int currModule = 0;
-        for (JSONObject jsonModule : APEUtils
-                .safe(APEUtils.getListFromJson(toolAnnotationsFile, TOOLS_JSON_TAG, JSONObject.class))) {
-            currModule++;
-            updateModuleFromJson(jsonModule);
-        }
-        if (currModule == 0) {
+        List<JSONObject> jsonModules = APEUtils.getListFromJson(toolAnnotationsFile, TOOLS_JSON_TAG,
+                JSONObject.class);
+        if (jsonModules.isEmpty()) {
             log.warn("No tools were annotated in the current domain.");
             return false;
         }
+        List<ParsedToolAnnotation> parsedModules = jsonModules.parallelStream()
+                .map(jsonModule -> ParsedToolAnnotation.parse(jsonModule, ontologyPrefixIRI))
+                .collect(Collectors.toList());
+        for (ParsedToolAnnotation parsedModule : parsedModules) {
+            updateModule(parsedModule);
+        }
         return true;
     }
 
@@ -342,26 +402,7 @@ public class APEDomainSetup {
      */
     public Optional<Module> updateModuleFromJson(JSONObject jsonModule)
             throws JSONException, APEDimensionsException, IOException {
-
-        ToolAnnotationType annotationType;
-        try {
-            annotationType = ToolAnnotationType
-                    .fromString(jsonModule.getString(ToolAnnotationTag.TYPE.toString()));
-        } catch (JSONException e) {
-            log.debug("Tool annotation type not specified. Defaulting to APE annotation.");
-            return updateModuleFromJsonAPE(jsonModule);
-        }
-
-        switch (annotationType) {
-            case APE_ANNOTATION:
-                return updateModuleFromJsonAPE(jsonModule);
-            case CWL_ANNOTATION:
-                String cwlURL = jsonModule.getString(ToolAnnotationTag.CWL_REFERENCE.toString());
-                return updateModuleFromCWL(cwlURL);
-            default:
-                log.warn("Tool annotation format not specified. Using default APE annotations.");
-                return updateModuleFromJsonAPE(jsonModule);
-        }
+        return updateModule(ParsedToolAnnotation.parse(jsonModule, ontologyPrefixIRI));
     }
 
     /**
@@ -375,117 +416,9 @@ public class APEDomainSetup {
      * @throws IOException Error in accessing or parsing the CWL file.
      */
     public Optional<Module> updateModuleFromCWL(String cwlFileLocation) throws IOException {
-
-        // Initialize CWL parser
-        CWLParser cwlParser = new CWLParser(cwlFileLocation);
-
-        // Extract the module's label and ID
-        String moduleLabel = cwlParser.getLabel();
-        String moduleIRI = APEUtils.createClassIRI(moduleLabel, ontologyPrefixIRI);
-
-        if (allModules.get(moduleIRI) != null) {
-            moduleIRI = moduleIRI + "[tool]";
-        }
-
-        // Extract taxonomy operations
-        Set<String> taxonomyOperations = new HashSet<>(cwlParser.getOperations());
-        Set<String> taxonomyParentModules = APEUtils.createIRIsFromLabels(taxonomyOperations, ontologyPrefixIRI);
-
-        // Validate taxonomy parent modules
-        List<String> toRemove = new ArrayList<>();
-        for (String parentModule : taxonomyParentModules) {
-            String parentModuleIRI = APEUtils.createClassIRI(parentModule, ontologyPrefixIRI);
-            if (allModules.get(parentModuleIRI) == null) {
-                log.debug("Tool '" + moduleIRI + "' annotation issue. " +
-                        "Referenced taxonomy operation: '" + parentModuleIRI + "' cannot be found.");
-                wrongToolTax.add(moduleLabel);
-                toRemove.add(parentModuleIRI);
-            }
-        }
-        taxonomyParentModules.removeAll(toRemove);
-
-        if (taxonomyParentModules.isEmpty()) {
-            log.debug("Tool '" + moduleIRI + "' annotation issue. " +
-                    "No valid taxonomy operations found. Using root module as fallback.");
-            taxonomyParentModules.add(allModules.getRootModuleID());
-        }
-
-        /*
-         * Set the inputs and outputs of the module. If the inputs and outputs are not
-         * valid, the module is not added to the domain.
-         */
-        List<Type> inputs = new ArrayList<>();
-        List<String> inputCWLKeys = new ArrayList<>();
-        List<Type> outputs = new ArrayList<>();
-        List<String> outputCWLKeys = new ArrayList<>();
-        try {
-            List<CommandInputParameter> inputsRaw = cwlParser.getInputs();
-            for (CommandInputParameter inputRaw : inputsRaw) {
-                if (inputRaw.getFormat() != null) {
-                    Type instance = Type.taxonomyInstanceFromCWLInput(inputRaw, this);
-                    if (instance != null) {
-                        inputs.add(instance);
-                        inputCWLKeys.add(inputRaw.getId().get());
-                    }
-                }
-            }
-            updateMaxNoToolInputs(inputs.size());
-
-            List<CommandOutputParameter> outputsRaw = cwlParser.getOutputs();
-            for (CommandOutputParameter outputRaw : outputsRaw) {
-                if (outputRaw.getFormat() != null) {
-                    Type instance = Type.taxonomyInstanceFromCWLOutput(outputRaw, this);
-                    if (instance != null) {
-                        outputs.add(instance);
-                        outputCWLKeys.add(outputRaw.getId().get());
-                    }
-                }
-            }
-            updateMaxNoToolOutputs(outputs.size());
-
-            if (inputs.isEmpty() && outputs.isEmpty()) {
-                emptyTools.add(moduleLabel);
-                log.debug("Operation '" + moduleLabel
-                        + "' was not included as it has no (valid) inputs and outputs specified.");
-                return Optional.empty();
-            }
-
-        } catch (APEDimensionsException badDimension) {
-            wrongToolIO.add(moduleLabel);
-            log.debug("Operation '" + moduleLabel + "' was not included. " + badDimension.getMessage());
-            return Optional.empty();
-        }
-
-        /* Set the implementation cwl file reference of the module, if specified. */
-        String cwlReference = cwlFileLocation;
-
-        /*
-         * Add the module and make it sub module of the currSuperModule (if it was not
-         * previously defined)
-         */
-        Module currModule = (Module) allModules
-                .addPredicate(
-                        new Module(moduleLabel, moduleIRI, allModules.getRootModuleID(), cwlReference, null));
-
-        /* For each parent module add the current module as a subset and vice versa. */
-        for (String parentModuleID : taxonomyParentModules) {
-            AbstractModule parentModule = allModules.get(parentModuleID);
-            if (parentModule != null) {
-                parentModule.addSubPredicate(currModule);
-                currModule.addParentPredicate(parentModule);
-            }
-        }
-
-        currModule.setModuleInput(inputs);
-        currModule.setModuleCWLInputKeys(inputCWLKeys);
-        currModule.setModuleOutput(outputs);
-        currModule.setModuleCWLOutputKeys(outputCWLKeys);
-        currModule.setAsRelevantTaxonomyTerm(allModules);
-
-        return Optional.of(currModule);
+        return updateModule(ParsedToolAnnotation.fromCWL(cwlFileLocation, ontologyPrefixIRI));
     }
 
-
     /**
      * Parse the tool annotation from a JSON file and update the module in the
      * domain ({@link AllModules}) accordingly.
@@ -496,21 +429,37 @@ public class APEDomainSetup {
      */
     public Optional<Module> updateModuleFromJsonAPE(JSONObject jsonModule)
             throws JSONException, APEDimensionsException {
+        try {
+            return updateModule(ParsedToolAnnotation.fromAPE(jsonModule, ontologyPrefixIRI));
+        } catch (IOException e) {
+            // APE annotations do not reference external files
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        String moduleIRI = APEUtils.createClassIRI(jsonModule.getString(ToolAnnotationTag.ID.toString()),
-                ontologyPrefixIRI);
+    /**
+     * Update the module in the domain ({@link AllModules}) according to the
+     * parsed tool annotation. The types used in the annotation are added to the
+     * domain ({@link AllTypes}) as well.
+     * 
+     * @param parsedModule Tool annotation, parsed independently of the domain.
+     * @return The updated module, or an empty optional if the annotation was not
+     *         valid.
+     * @throws IOException Error in accessing or parsing the CWL file.
+     */
+    private Optional<Module> updateModule(ParsedToolAnnotation parsedModule) throws IOException {
+        parsedModule.rethrowParsingError();
+
+        String moduleIRI = parsedModule.getModuleIRI();
         if (allModules.get(moduleIRI) != null) {
             moduleIRI = moduleIRI + "[tool]";
         }
-        String moduleLabel = jsonModule.getString(ToolAnnotationTag.LABEL.toString());
-        Set<String> taxonomyParentModules = new HashSet<>(
-                APEUtils.getListFromJson(jsonModule, ToolAnnotationTag.TAXONOMY_OPERATIONS.toString(), String.class));
-        taxonomyParentModules = APEUtils.createIRIsFromLabels(taxonomyParentModules, ontologyPrefixIRI);
+        String moduleLabel = parsedModule.getModuleLabel();
+        Set<String> taxonomyParentModules = new HashSet<>(parsedModule.getTaxonomyParentIRIs());
 
         /* Check if the referenced module taxonomy classes exist. */
         List<String> toRemove = new ArrayList<>();
-        for (String parentModule : taxonomyParentModules) {
-            String parentModuleIRI = APEUtils.createClassIRI(parentModule, ontologyPrefixIRI);
+        for (String parentModuleIRI : taxonomyParentModules) {
             if (allModules.get(parentModuleIRI) == null) {
                 log.debug("Tool '" + moduleIRI + "' annotation issue. "
                         + "Referenced '" + ToolAnnotationTag.TAXONOMY_OPERATIONS.toString() + "': '" + parentModuleIRI
@@ -536,13 +485,38 @@ public class APEDomainSetup {
          * Set the inputs and outputs of the module. If the inputs and outputs are not
          * valid, the module is not added to the domain.
          */
-        List<Type> inputs;
-        List<Type> outputs;
+        boolean isCWL = parsedModule.getAnnotationType() == ToolAnnotationType.CWL_ANNOTATION;
+        List<Type> inputs = new ArrayList<>();
+        List<String> inputCWLKeys = new ArrayList<>();
+        List<Type> outputs = new ArrayList<>();
+        List<String> outputCWLKeys = new ArrayList<>();
         try {
-            inputs = getToolInputsFromAnnotation(jsonModule);
+            for (JSONObject jsonInput : parsedModule.getJsonInputs()) {
+                inputs.add(Type.taxonomyInstanceFromJson(jsonInput, this, false));
+            }
+            for (CommandInputParameter inputRaw : parsedModule.getCwlInputs()) {
+                if (inputRaw.getFormat() != null) {
+                    Type instance = Type.taxonomyInstanceFromCWLInput(inputRaw, this);
+                    if (instance != null) {
+                        inputs.add(instance);
+                        inputCWLKeys.add(inputRaw.getId().get());
+                    }
+                }
+            }
             updateMaxNoToolInputs(inputs.size());
 
-            outputs = getToolOutputsFromAnnotation(jsonModule);
+            for (JSONObject jsonOutput : parsedModule.getJsonOutputs()) {
+                outputs.add(Type.taxonomyInstanceFromJson(jsonOutput, this, true));
+            }
+            for (CommandOutputParameter outputRaw : parsedModule.getCwlOutputs()) {
+                if (outputRaw.getFormat() != null) {
+                    Type instance = Type.taxonomyInstanceFromCWLOutput(outputRaw, this);
+                    if (instance != null) {
+                        outputs.add(instance);
+                        outputCWLKeys.add(outputRaw.getId().get());
+                    }
+                }
+            }
             updateMaxNoToolOutputs(outputs.size());
 
             if (inputs.isEmpty() && outputs.isEmpty()) {
@@ -558,19 +532,13 @@ public class APEDomainSetup {
             return Optional.empty();
         }
 
-        /* Set the implementation cwl file reference of the module, if specified. */
-        String cwlReference = getModuleImplementationFromAnnotation(jsonModule, ToolAnnotationTag.CWL_REFERENCE);
-
-        /* Set the implementation code of the module, if specified. */
-        String executionCode = getModuleImplementationFromAnnotation(jsonModule, ToolAnnotationTag.CODE);
-
         /*
          * Add the module and make it sub module of the currSuperModule (if it was not
          * previously defined)
          */
         Module currModule = (Module) allModules
-                .addPredicate(
-                        new Module(moduleLabel, moduleIRI, allModules.getRootModuleID(), cwlReference, executionCode));
+                .addPredicate(new Module(moduleLabel, moduleIRI, allModules.getRootModuleID(),
+                        parsedModule.getCwlReference(), parsedModule.getExecutionCode()));
 
         /* For each parent module add the current module as a subset and vice versa. */
         for (String parentModuleID : taxonomyParentModules) {
@@ -583,74 +551,16 @@ public class APEDomainSetup {
 
         currModule.setModuleInput(inputs);
         currModule.setModuleOutput(outputs);
+        currModule.setCost(parsedModule.getCost());
+        if (isCWL) {
+            currModule.setModuleCWLInputKeys(inputCWLKeys);
+            currModule.setModuleCWLOutputKeys(outputCWLKeys);
+        }
         currModule.setAsRelevantTaxonomyTerm(allModules);
 
         return Optional.of(currModule);
     }
 
-    /**
-     * Get tool inputs list from the tool annotation.
-     *
-     * @param jsonModule the json tool annotation
-     * @return The list of inputs of the module.
-     */
-    private List<Type> getToolInputsFromAnnotation(JSONObject jsonModule) throws APEDimensionsException {
-        /* Get the inputs of the module */
-        List<JSONObject> jsonModuleInput = APEUtils.getListFromJson(jsonModule, ToolAnnotationTag.INPUTS.toString(),
-                JSONObject.class);
-        List<Type> inputs = new ArrayList<>();
-        for (JSONObject jsonInput : jsonModuleInput) {
-            if (!jsonInput.isEmpty()) {
-                inputs.add(Type.taxonomyInstanceFromJson(jsonInput, this, false));
-            }
-        }
-        return inputs;
-    }
-
-    /**
-     * Get tool output list from the tool annotation.
-     *
-     * @param jsonModule the json tool annotation
-     * @return The list of outputs of the module.
-     */
-    private List<Type> getToolOutputsFromAnnotation(JSONObject jsonModule) throws APEDimensionsException {
-        /* Get the outputs of the module */
-        List<JSONObject> jsonModuleOutput = APEUtils.getListFromJson(jsonModule, ToolAnnotationTag.OUTPUTS.toString(),
-                JSONObject.class);
-        List<Type> outputs = new ArrayList<>();
-        for (JSONObject jsonOutput : jsonModuleOutput) {
-            if (!jsonOutput.isEmpty()) {
-                outputs.add(Type.taxonomyInstanceFromJson(jsonOutput, this, true));
-            }
-        }
-        return outputs;
-    }
-
-    /**
-     * Get the implementation code of the module, if specified.
-     *
-     * @param jsonToolAnnotation the json tool annotation
-     * @param implementationType the implementation type
-     *                           ({@link ToolAnnotationTag#CWL_REFERENCE} or
-     *                           {@link ToolAnnotationTag#CODE})
-     * @return The implementation code of the module, if specified.
-     */
-    private String getModuleImplementationFromAnnotation(JSONObject jsonToolAnnotation,
-            ToolAnnotationTag implementationType) {
-        try {
-            JSONObject implementationJson = jsonToolAnnotation
-                    .getJSONObject(ToolAnnotationTag.IMPLEMENTATION.toString());
-            String implementation = implementationJson.getString(implementationType.toString());
-            if (implementation.equals("")) {
-                return null;
-            }
-            return implementation;
-        } catch (JSONException e) {
-            /* Do not annotate the execution code. */
-            return null;
-        }
-    }
-
     /**
      * Gets ontology prefix IRI.
      *
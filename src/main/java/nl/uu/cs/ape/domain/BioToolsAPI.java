@@ -1,13 +1,27 @@
 package nl.uu.cs.ape.domain;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -15,6 +29,8 @@ import lombok.extern.slf4j.Slf4j;
 import nl.uu.cs.ape.utils.APEFiles;
 import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.utils.cwl_parser.CWLParser;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -22,13 +38,71 @@ import okhttp3.Response;
 /**
  * The {@code BioToolsAPI} class provides methods for fetching tool annotations
  * from bio.tools API.
+ * <p>
+ * Requests are sent concurrently, throttled to a maximum number of requests
+ * per second and, if configured, stored in an on-disk HTTP cache (see
+ * {@link BioToolsClientConfig}). Cached responses are always revalidated with
+ * the server (using ETag/Last-Modified), so the content is only re-downloaded
+ * when it has changed.
  */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BioToolsAPI {
 
-	/** Http-Client */
-	private static final OkHttpClient client = new OkHttpClient();
+	/**
+	 * Cache policy attached to the stored responses, which enforces their
+	 * revalidation with the server before they are reused.
+	 */
+	private static final String REVALIDATE = new CacheControl.Builder().noCache().build().toString();
+
+	/** Configuration of the client, together with the HTTP client it uses. */
+	private static volatile Client current = new Client(BioToolsClientConfig.DEFAULT);
+
+	/** Earliest time at which the next request can be sent (in ns). */
+	private static long nextRequestSlotNs = System.nanoTime();
+
+	/**
+	 * Set the configuration used to access bio.tools, e.g. to use a local mirror
+	 * or to cache the responses on disk. The requests that are already running
+	 * keep using the previous configuration.
+	 * 
+	 * @param config The configuration of the client.
+	 */
+	public static void setConfig(BioToolsClientConfig config) {
+		current = new Client(config);
+	}
+
+	/**
+	 * Get the configuration that is currently used to access bio.tools.
+	 * 
+	 * @return The configuration of the client.
+	 */
+	public static BioToolsClientConfig getConfig() {
+		return current.config;
+	}
+
+	/**
+	 * The configuration of the client and the HTTP client created for it.
+	 */
+	private static class Client {
+
+		private final BioToolsClientConfig config;
+
+		private final OkHttpClient httpClient;
+
+		Client(BioToolsClientConfig config) {
+			this.config = config;
+			OkHttpClient.Builder builder = new OkHttpClient.Builder();
+			if (config.getCacheDirectory() != null) {
+				builder.cache(new Cache(config.getCacheDirectory(), config.getCacheSize()))
+						.addNetworkInterceptor(chain -> chain.proceed(chain.request()).newBuilder()
+								.header("Cache-Control", REVALIDATE)
+								.removeHeader("Pragma")
+								.build());
+			}
+			this.httpClient = builder.build();
+		}
+	}
 
 	/**
 	 * Retrieve the list of tools from the bio.tools API and convert it to the
@@ -57,7 +131,7 @@ public class BioToolsAPI {
 	 * 
 	 * @param biotoolsIDs The list of bio.tools IDs.
 	 * @return The JSONObject with the tool annotations in the APE format.
-	 * @throws IOException If the file cannot be read or written.
+	 * @throws IOException If the tools cannot be fetched.
 	 */
 	public static JSONObject getAndConvertToolList(List<String> biotoolsIDs) throws IOException {
 
@@ -96,9 +170,9 @@ public class BioToolsAPI {
 	public static JSONObject getToolsFromDomain(String domainName, boolean excludeBadAnnotation) throws IOException {
 		JSONArray toolAnnotations = null;
 		if (domainName.isEmpty()) {
-			toolAnnotations = fetchToolsFromURI("https://bio.tools/api/t?format=json");
+			toolAnnotations = fetchToolsFromURI(getConfig().getBaseURL() + "t?format=json");
 		} else {
-			toolAnnotations = fetchToolsFromURI("https://bio.tools/api/t?domain=" + domainName + "&format=json");
+			toolAnnotations = fetchToolsFromURI(getConfig().getBaseURL() + "t?domain=" + domainName + "&format=json");
 		}
 		return convertBioTools2Ape(toolAnnotations, excludeBadAnnotation);
 	}
@@ -118,9 +192,9 @@ public class BioToolsAPI {
 			throws IOException {
 		JSONArray toolAnnotations = null;
 		if (topicName.isEmpty()) {
-			toolAnnotations = fetchToolsFromURI("https://bio.tools/api/t?format=json");
+			toolAnnotations = fetchToolsFromURI(getConfig().getBaseURL() + "t?format=json");
 		} else {
-			toolAnnotations = fetchToolsFromURI("https://bio.tools/api/t?topicID=\"" + topicName + "\"&format=json");
+			toolAnnotations = fetchToolsFromURI(getConfig().getBaseURL() + "t?topicID=\"" + topicName + "\"&format=json");
 		}
 
 		return convertBioTools2Ape(toolAnnotations, excludeBadAnnotation);
@@ -128,17 +202,20 @@ public class BioToolsAPI {
 
 	/**
 	 * Send GET request to get tool annotations for the given list of bio.tools IDs.
-	 * The
-	 * result is saved to a JSONArray.
+	 * The requests are sent concurrently, and the result is saved to a JSONArray
+	 * (in the order of the given IDs).
 	 * 
 	 * @param biotoolsIDList The list of bio.tools IDs.
 	 * @return The JSONArray with the tool annotations as provided by bio.tools API.
 	 * @throws IOException If an error occurs while fetching the tools.
 	 */
 	public static JSONArray getToolListFromBioTools(List<String> biotoolsIDList) throws IOException {
-		JSONArray bioToolAnnotations = new JSONArray();
+		List<Callable<JSONObject>> requests = new ArrayList<>();
 		for (String biotoolsID : biotoolsIDList) {
-			JSONObject toolJson = fetchToolFromBioTools(biotoolsID);
+			requests.add(() -> fetchToolFromBioTools(biotoolsID));
+		}
+		JSONArray bioToolAnnotations = new JSONArray();
+		for (JSONObject toolJson : executeConcurrently(requests)) {
 			bioToolAnnotations.put(toolJson);
 		}
 		log.debug("The list of tools successfully fetched from bio.tools.");
@@ -156,53 +233,157 @@ public class BioToolsAPI {
 	 *                       formatted.
 	 */
 	public static JSONObject fetchToolFromBioTools(String biotoolsID) throws IOException, JSONException {
-
-		Request request = new Request.Builder().url("https://bio.tools/api/" + biotoolsID + "?format=json").build();
-		try (Response response = client.newCall(request).execute()) {
-			if (!response.isSuccessful()) {
-				log.error("The tool " + biotoolsID + " could not be fetched from bio.tools.");
-			}
-			// Get response body
-			return new JSONObject(response.body().string());
-		}
+		return new JSONObject(fetchContent(getConfig().getBaseURL() + biotoolsID + "?format=json", false));
 	}
 
 	/**
 	 * Send Get request to get tool annotations Saves JSONArray with all the tool
-	 * annotations (in tool list)
+	 * annotations (in tool list). The first page is used to determine the number
+	 * of pages, after which the remaining pages are fetched concurrently.
 	 * 
-	 * @return
-	 * @throws IOException
-	 * @throws JSONException
+	 * @return JSONArray with the tool annotations.
+	 * @throws IOException   If an error occurs while fetching the tools.
+	 * @throws JSONException If the JSON returned by the bio.tools API is not well
+	 *                       formatted.
 	 */
 	private static JSONArray fetchToolsFromURI(String url) throws JSONException, IOException {
 		JSONArray bioToolAnnotations = new JSONArray();
 		log.info("Fetching tools from bio.tools: " + url);
-		String next = "";
-		int i = 1;
-		while (next != null) {
-			Request request = new Request.Builder().url(url + "&format=json" + next.replace('?', '&')).build();
-			try (Response response = client.newCall(request).execute()) {
-				if (!response.isSuccessful())
+
+		JSONObject firstPage = new JSONObject(fetchContent(url, true));
+		addToolsFromPage(firstPage, bioToolAnnotations);
+		log.info("bio.tools: page 1 fetched.");
+
+		int pageSize = firstPage.getJSONArray("list").length();
+		int count = firstPage.optInt("count", -1);
+		if (!firstPage.isNull("next") && count > 0 && pageSize > 0) {
+			/* Fetch the remaining pages concurrently. */
+			int noPages = (count + pageSize - 1) / pageSize;
+			List<Callable<JSONObject>> requests = new ArrayList<>();
+			for (int page = 2; page <= noPages; page++) {
+				String pageURL = url + "&page=" + page;
+				requests.add(() -> new JSONObject(fetchContent(pageURL, true)));
+			}
+			int i = 2;
+			for (JSONObject page : executeConcurrently(requests)) {
+				addToolsFromPage(page, bioToolAnnotations);
+				log.debug("bio.tools: page " + i++ + " fetched.");
+			}
+			log.info("bio.tools: " + noPages + " pages fetched.");
+		} else {
+			/* Number of pages is unknown, follow the links. */
+			String next = firstPage.optString("next", null);
+			int i = 2;
+			while (next != null) {
+				JSONObject page = new JSONObject(fetchContent(url + next.replace('?', '&'), true));
+				addToolsFromPage(page, bioToolAnnotations);
+				next = page.isNull("next") ? null : page.optString("next", null);
+				log.info("bio.tools: page " + i++ + " fetched.");
+			}
+		}
+		log.info("All tools fetched from a given URL.");
+		return bioToolAnnotations;
+	}
+
+	/**
+	 * Add all the tools listed in a page returned by bio.tools to the given array.
+	 * 
+	 * @param page               Page returned by the bio.tools API.
+	 * @param bioToolAnnotations Array that is extended with the tools.
+	 */
+	private static void addToolsFromPage(JSONObject page, JSONArray bioToolAnnotations) {
+		JSONArray toolListJson = page.getJSONArray("list");
+		for (int j = 0; j < toolListJson.length(); j++) {
+			bioToolAnnotations.put(toolListJson.getJSONObject(j));
+		}
+	}
+
+	/**
+	 * Send a GET request (respecting the rate limit) and return the content of the
+	 * response. Responses are stored in the cache (if configured), and revalidated
+	 * with the server before they are reused.
+	 * 
+	 * @param url          The requested URL.
+	 * @param failOnError  If {@code true} an exception is thrown when the request
+	 *                     was not successful, otherwise the error is only logged.
+	 * @return The body of the response.
+	 * @throws IOException If an error occurs while fetching the content.
+	 */
+	private static String fetchContent(String url, boolean failOnError) throws IOException {
+		Client client = current;
+		Request request = new Request.Builder().url(url).build();
+		acquireRequestSlot(client.config.getRequestIntervalNs());
+		try (Response response = client.httpClient.newCall(request).execute()) {
+			if (!response.isSuccessful()) {
+				if (failOnError) {
 					throw new IOException("Unexpected code when trying to fetch" + response);
-				// Get response body
-				JSONObject responseJson = new JSONObject(response.body().string());
-				JSONArray toolListJson = responseJson.getJSONArray("list");
-				for (int j = 0; j < toolListJson.length(); j++) {
-					JSONObject tool = toolListJson.getJSONObject(j);
-					bioToolAnnotations.put(tool);
-				}
-				try {
-					next = responseJson.getString("next");
-				} catch (JSONException e) {
-					next = null;
 				}
+				log.error("The content at " + url + " could not be fetched from bio.tools.");
+			} else if (response.networkResponse() == null || response.networkResponse().code() == 304) {
+				log.debug("Using cached bio.tools response for " + url);
 			}
-			log.info("bio.tools: page " + i++ + " fetched.");
+			// Get response body
+			return response.body().string();
+		}
+	}
 
+	/**
+	 * Block until the next request can be sent without exceeding the rate limit.
+	 * 
+	 * @param requestIntervalNs Minimal interval between two requests (in ns).
+	 * @throws IOException If the thread was interrupted while waiting.
+	 */
+	private static void acquireRequestSlot(long requestIntervalNs) throws IOException {
+		long waitNs;
+		synchronized (BioToolsAPI.class) {
+			long now = System.nanoTime();
+			nextRequestSlotNs = Math.max(nextRequestSlotNs, now);
+			waitNs = nextRequestSlotNs - now;
+			nextRequestSlotNs += requestIntervalNs;
 		}
-		log.info("All tools fetched from a given URL.");
-		return bioToolAnnotations;
+		if (waitNs > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(waitNs);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting to send a request to bio.tools.", e);
+			}
+		}
+	}
+
+	/**
+	 * Execute the given requests using at most the configured number of threads
+	 * (see {@link BioToolsClientConfig#getParallelism()}) and return the results
+	 * in the order of the requests.
+	 * 
+	 * @param requests The requests to be executed.
+	 * @return The list of results.
+	 * @throws IOException If any of the requests failed.
+	 */
+	private static <T> List<T> executeConcurrently(List<Callable<T>> requests) throws IOException {
+		List<T> results = new ArrayList<>();
+		if (requests.isEmpty()) {
+			return results;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(getConfig().getParallelism(), requests.size()));
+		try {
+			for (Future<T> result : executor.invokeAll(requests)) {
+				results.add(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while fetching tools from bio.tools.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
 	}
 
 	/**
@@ -238,46 +419,181 @@ public class BioToolsAPI {
 	public static JSONObject convertBioTools2Ape(JSONArray bioToolsAnnotation, boolean excludeBadAnnotation)
 			throws JSONException {
 
-		int notAcceptedOperations = 0;
-
-		int bioToolFunctions = 0;
-
 		JSONArray apeToolsAnnotations = new JSONArray();
+		int notAcceptedOperations = 0;
 
 		for (JSONObject bioJsonTool : APEUtils.getJSONListFromJSONArray(bioToolsAnnotation)) {
+			notAcceptedOperations += convertBioTool2Ape(bioJsonTool, excludeBadAnnotation, apeToolsAnnotations::put);
+		}
+		log.info("Provided bio.tools: " + bioToolsAnnotation.length());
+		log.info("Total bio.tools functions: " + apeToolsAnnotations.length());
+		log.info("Errored bio.tools functions: " + notAcceptedOperations);
+		log.info("Created APE annotations: " + apeToolsAnnotations.length());
 
-			String toolName = bioJsonTool.getString("name");
-			String biotoolsID = bioJsonTool.getString("biotoolsID");
+		return new JSONObject().put("functions", apeToolsAnnotations);
+	}
+
+	/**
+	 * Convert a local bio.tools dump file to the APE tool annotation format and
+	 * save the result to the destination file. The dump can be a JSON array of
+	 * bio.tools entries, or a JSON object with the entries under {@code "list"}
+	 * (format of the bio.tools API responses).
+	 * <p>
+	 * Unlike {@link #convertBioTools2Ape(JSONArray, boolean)}, the dump is read
+	 * and converted one tool at a time and each APE annotation is written as
+	 * soon as it is created, so the memory usage does not depend on the size of
+	 * the dump.
+	 * 
+	 * @param dumpFile             The file containing the bio.tools annotations.
+	 * @param destinationFile      The file where the APE tool annotations will be
+	 *                             saved.
+	 * @param excludeBadAnnotation If set to {@code true}, the method will exclude
+	 *                             tools that do not have both the input and the
+	 *                             output fully specified (see
+	 *                             {@link #convertBioTools2Ape(JSONArray, boolean)}).
+	 * @return The number of created APE annotations.
+	 * @throws IOException   If the files cannot be read or written.
+	 * @throws JSONException If the dump is not well formatted.
+	 */
+	public static int convertBioToolsDump2Ape(File dumpFile, File destinationFile, boolean excludeBadAnnotation)
+			throws IOException, JSONException {
+		int[] counts = new int[3]; // provided tools, created annotations, errored functions
+		try (Reader reader = Files.newBufferedReader(dumpFile.toPath(), StandardCharsets.UTF_8);
+				BufferedWriter writer = Files.newBufferedWriter(destinationFile.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("{\"functions\": [");
+			Consumer<JSONObject> apeToolWriter = apeTool -> {
+				try {
+					writer.write(counts[1]++ == 0 ? "\n" : ",\n");
+					apeTool.write(writer, 4, 4);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			};
+			streamBioToolsDump(reader, bioJsonTool -> {
+				counts[0]++;
+				counts[2] += convertBioTool2Ape(bioJsonTool, excludeBadAnnotation, apeToolWriter);
+			});
+			writer.write("\n]}\n");
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		log.info("Provided bio.tools: " + counts[0]);
+		log.info("Errored bio.tools functions: " + counts[2]);
+		log.info("Created APE annotations: " + counts[1]);
+		return counts[1];
+	}
 
-			List<JSONObject> functions = APEUtils.getJSONListFromJson(bioJsonTool, "function");
-			if (functions.isEmpty()) {
-				continue;
+	/**
+	 * Read the bio.tools entries from the reader one by one and pass each of them
+	 * to the consumer, without reading the whole content into memory.
+	 * 
+	 * @param reader       Reader providing a JSON array of bio.tools entries, or
+	 *                     a JSON object with the entries under {@code "list"}.
+	 * @param toolConsumer Consumer of the bio.tools entries.
+	 * @throws JSONException If the content is not well formatted.
+	 */
+	private static void streamBioToolsDump(Reader reader, Consumer<JSONObject> toolConsumer)
+			throws JSONException {
+		JSONTokener tokener = new JSONTokener(reader);
+		char c = tokener.nextClean();
+		if (c == '[') {
+			streamBioToolsArray(tokener, toolConsumer);
+			return;
+		} else if (c != '{') {
+			throw tokener.syntaxError("A bio.tools dump must be a JSON array or a JSON object with a 'list' of tools");
+		}
+		if (tokener.nextClean() == '}') {
+			return;
+		}
+		tokener.back();
+		while (true) {
+			String key = tokener.nextValue().toString();
+			if (tokener.nextClean() != ':') {
+				throw tokener.syntaxError("Expected a ':' after a key");
 			}
-			int functionNo = 1;
-
-			for (JSONObject function : functions) {
-				String toolID = biotoolsID +
-						(functions.size() > 1 ? "_op" + (functionNo) : "");
-
-				Optional<JSONObject> apeToolJson = convertSingleBioTool2Ape(toolName, toolID, biotoolsID, function,
-						excludeBadAnnotation);
-				if (apeToolJson.isPresent()) {
-					JSONObject implementation = new JSONObject().put("cwl_reference", "PATH_TO_CWL_FILE.cwl");
-					apeToolJson.get().put("implementation", implementation);
-					apeToolsAnnotations.put(apeToolJson.get());
-					bioToolFunctions++;
-					functionNo++;
-				} else {
-					notAcceptedOperations++;
+			if (key.equals("list")) {
+				if (tokener.nextClean() != '[') {
+					throw tokener.syntaxError("Expected 'list' to be a JSON array");
 				}
+				streamBioToolsArray(tokener, toolConsumer);
+			} else {
+				// skip the value (e.g., "count", "next")
+				tokener.nextValue();
+			}
+			c = tokener.nextClean();
+			if (c == '}') {
+				return;
+			} else if (c != ',') {
+				throw tokener.syntaxError("Expected a ',' or '}'");
 			}
 		}
-		log.info("Provided bio.tools: " + bioToolsAnnotation.length());
-		log.info("Total bio.tools functions: " + bioToolFunctions);
-		log.info("Errored bio.tools functions: " + notAcceptedOperations);
-		log.info("Created APE annotations: " + apeToolsAnnotations.length());
+	}
 
-		return new JSONObject().put("functions", apeToolsAnnotations);
+	/**
+	 * Read the elements of a JSON array (after the opening '[') one by one and
+	 * pass each of them to the consumer.
+	 * 
+	 * @param tokener      Tokener positioned after the opening '['.
+	 * @param toolConsumer Consumer of the bio.tools entries.
+	 * @throws JSONException If the content is not well formatted.
+	 */
+	private static void streamBioToolsArray(JSONTokener tokener, Consumer<JSONObject> toolConsumer)
+			throws JSONException {
+		if (tokener.nextClean() == ']') {
+			return;
+		}
+		tokener.back();
+		while (true) {
+			Object element = tokener.nextValue();
+			if (element instanceof JSONObject) {
+				toolConsumer.accept((JSONObject) element);
+			}
+			char c = tokener.nextClean();
+			if (c == ']') {
+				return;
+			} else if (c != ',') {
+				throw tokener.syntaxError("Expected a ',' or ']'");
+			}
+		}
+	}
+
+	/**
+	 * Convert each function of a bio.tools entry to an APE tool annotation and
+	 * pass the created annotations to the consumer.
+	 * 
+	 * @param bioJsonTool          The tool annotated using 'bio.tools' standard.
+	 * @param excludeBadAnnotation If set to {@code true}, the method will exclude
+	 *                             functions that do not have both the input and
+	 *                             the output fully specified.
+	 * @param apeToolConsumer      Consumer of the created APE annotations.
+	 * @return The number of functions that were not converted.
+	 * @throws JSONException If the JSON is not well formatted.
+	 */
+	private static int convertBioTool2Ape(JSONObject bioJsonTool, boolean excludeBadAnnotation,
+			Consumer<JSONObject> apeToolConsumer) throws JSONException {
+		String toolName = bioJsonTool.getString("name");
+		String biotoolsID = bioJsonTool.getString("biotoolsID");
+
+		List<JSONObject> functions = APEUtils.getJSONListFromJson(bioJsonTool, "function");
+		int notAcceptedOperations = 0;
+		int functionNo = 1;
+
+		for (JSONObject function : functions) {
+			String toolID = biotoolsID +
+					(functions.size() > 1 ? "_op" + (functionNo) : "");
+
+			Optional<JSONObject> apeToolJson = convertSingleBioTool2Ape(toolName, toolID, biotoolsID, function,
+					excludeBadAnnotation);
+			if (apeToolJson.isPresent()) {
+				JSONObject implementation = new JSONObject().put("cwl_reference", "PATH_TO_CWL_FILE.cwl");
+				apeToolJson.get().put("implementation", implementation);
+				apeToolConsumer.accept(apeToolJson.get());
+				functionNo++;
+			} else {
+				notAcceptedOperations++;
+			}
+		}
+		return notAcceptedOperations;
 	}
 
 	/**
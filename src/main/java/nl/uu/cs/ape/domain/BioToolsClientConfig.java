@@ -0,0 +1,125 @@
+package nl.uu.cs.ape.domain;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * The {@code BioToolsClientConfig} class describes how the {@link BioToolsAPI}
+ * accesses bio.tools, i.e. the location of the API, the number of concurrent
+ * requests, the rate limit and the on-disk cache of the responses. The
+ * configuration is immutable, the {@code with...} methods return a modified
+ * copy.
+ * <p>
+ * The responses are not cached unless a cache directory is provided (see
+ * {@link #withCache(File, long)}).
+ *
+ * @author Vedran Kasalica
+ */
+@Getter
+public final class BioToolsClientConfig {
+
+	/** Default location of the bio.tools API. */
+	public static final String DEFAULT_BASE_URL = "https://bio.tools/api/";
+
+	/** Default number of requests that are executed concurrently. */
+	public static final int DEFAULT_PARALLELISM = 4;
+
+	/** Default max number of requests per second. */
+	public static final int DEFAULT_RATE_LIMIT = 10;
+
+	/** Default configuration, which does not cache the responses. */
+	public static final BioToolsClientConfig DEFAULT = new BioToolsClientConfig(DEFAULT_BASE_URL,
+			DEFAULT_PARALLELISM, DEFAULT_RATE_LIMIT, null, 0);
+
+	/** Location of the bio.tools API, ending with '/'. */
+	private final String baseURL;
+
+	/** Max number of requests that are executed concurrently. */
+	private final int parallelism;
+
+	/** Max number of requests per second, not limited if not positive. */
+	private final int rateLimit;
+
+	/** Directory of the on-disk cache, {@code null} if the cache is not used. */
+	private final File cacheDirectory;
+
+	/** Max size of the on-disk cache (in bytes). */
+	private final long cacheSize;
+
+	private BioToolsClientConfig(String baseURL, int parallelism, int rateLimit, File cacheDirectory,
+			long cacheSize) {
+		this.baseURL = baseURL.endsWith("/") ? baseURL : baseURL + "/";
+		this.parallelism = parallelism;
+		this.rateLimit = rateLimit;
+		this.cacheDirectory = cacheDirectory;
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Use a different location of the bio.tools API, e.g. a local mirror or a
+	 * stub server instead of the public API.
+	 *
+	 * @param url The base URL of the API (e.g. "https://bio.tools/api/").
+	 * @return The modified configuration.
+	 */
+	public BioToolsClientConfig withBaseURL(String url) {
+		return new BioToolsClientConfig(url, parallelism, rateLimit, cacheDirectory, cacheSize);
+	}
+
+	/**
+	 * Use a different max number of concurrent requests.
+	 *
+	 * @param maxConcurrentRequests Number of concurrent requests (at least 1).
+	 * @return The modified configuration.
+	 */
+	public BioToolsClientConfig withParallelism(int maxConcurrentRequests) {
+		if (maxConcurrentRequests < 1) {
+			throw new IllegalArgumentException("The number of concurrent requests has to be at least 1.");
+		}
+		return new BioToolsClientConfig(baseURL, maxConcurrentRequests, rateLimit, cacheDirectory, cacheSize);
+	}
+
+	/**
+	 * Use a different max number of requests per second.
+	 *
+	 * @param requestsPerSecond Max number of requests per second, or a
+	 *                          non-positive number to disable the limit.
+	 * @return The modified configuration.
+	 */
+	public BioToolsClientConfig withRateLimit(int requestsPerSecond) {
+		return new BioToolsClientConfig(baseURL, parallelism, requestsPerSecond, cacheDirectory, cacheSize);
+	}
+
+	/**
+	 * Cache the responses in the given directory. The cached responses are
+	 * revalidated with the server (using ETag/Last-Modified) before they are
+	 * reused.
+	 *
+	 * @param cacheDir The cache directory.
+	 * @param maxSize  Max size of the cache (in bytes).
+	 * @return The modified configuration.
+	 */
+	public BioToolsClientConfig withCache(File cacheDir, long maxSize) {
+		return new BioToolsClientConfig(baseURL, parallelism, rateLimit, cacheDir, maxSize);
+	}
+
+	/**
+	 * Do not cache the responses.
+	 *
+	 * @return The modified configuration.
+	 */
+	public BioToolsClientConfig withoutCache() {
+		return new BioToolsClientConfig(baseURL, parallelism, rateLimit, null, 0);
+	}
+
+	/**
+	 * Get the minimal interval between two requests, given by the rate limit.
+	 *
+	 * @return The interval (in ns), 0 if the requests are not limited.
+	 */
+	long getRequestIntervalNs() {
+		return rateLimit > 0 ? TimeUnit.SECONDS.toNanos(1) / rateLimit : 0;
+	}
+}
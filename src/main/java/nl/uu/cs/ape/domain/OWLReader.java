@@ -3,10 +3,6 @@ package nl.uu.cs.ape.domain;
 import org.apache.commons.io.FileExistsException;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
-import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
-import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
-import org.semanticweb.owlapi.search.EntitySearcher;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.uu.cs.ape.models.AbstractModule;
@@ -18,11 +14,12 @@ import nl.uu.cs.ape.models.enums.NodeType;
 import java.io.File;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * The {@code OWLReader} class is used to extract the classification information
- * regarding the modules and data types from the OWL ontology.
+ * regarding the modules and data types from the OWL ontology. The subclass
+ * hierarchy is extracted into a {@link TaxonomyIndex}, after which the OWLAPI
+ * model is discarded.
  *
  * @author Vedran Kasalica
  */
@@ -35,11 +32,8 @@ public class OWLReader {
 	private final AllModules allModules;
 	/** List of all types in the domain */
 	private final AllTypes allTypes;
-	/** Mapping from each dimension to the list of the types within it */
-	private Map<String, Set<String>> typeDimensions = new HashMap<>();
-
-	private OWLOntology ontology;
-	private OWLDataFactory factory;
+	/** Index of the subclass hierarchy of the ontology */
+	private TaxonomyIndex taxonomy;
 	/** OWL logger */
 	private Logger logger = Logger.getLogger("OWLReader.class");
 	/**
@@ -60,7 +54,6 @@ public class OWLReader {
 		this.ontologyFile = ontologyFile;
 		this.allModules = domain.getAllModules();
 		this.allTypes = domain.getAllTypes();
-		this.factory = OWLManager.getOWLDataFactory();
 		this.useStrictToolAnnotations = domain.getUseStrictToolAnnotations();
 	}
 
@@ -75,30 +68,26 @@ public class OWLReader {
 	 */
 	public boolean readOntology() throws APEDimensionsException, OWLOntologyCreationException {
 
-		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
-		if (ontologyFile.exists()) {
-			ontology = manager.loadOntologyFromOntologyDocument(ontologyFile);
-		} else {
+		if (!ontologyFile.exists()) {
 			logger.warning("Provided ontology does not exist.");
 			return false;
 		}
-		OWLReasonerFactory reasonerFactory = new StructuralReasonerFactory();
-		OWLReasoner reasoner = reasonerFactory.createNonBufferingReasoner(ontology);
+		taxonomy = loadTaxonomyIndex(ontologyFile);
 
 		/* Get a root of the operations taxonomy. */
 		String moduleRootIRI = allModules.getRootModuleID();
-		OWLClass moduleRootClass = manager.getOWLDataFactory().getOWLClass(IRI.create(moduleRootIRI));
-		if (!ontology.containsClassInSignature(IRI.create(moduleRootIRI))) {
+		int moduleRootClass = taxonomy.indexOf(moduleRootIRI);
+		if (moduleRootClass < 0) {
 			/* Handle scenario when the tool taxonomy root was not defined properly. */
 			throw APEDimensionsException.notExistingDimension(
 					String.format("Operation root %s does not exist in the ontology.", moduleRootIRI));
 		}
 
 		/* Get roots for each of the data dimensions. */
-		List<OWLClass> dimensionRootClasses = new ArrayList<>();
+		List<Integer> dimensionRootClasses = new ArrayList<>();
 		for (String dimensionIRI : allTypes.getDataTaxonomyDimensionIDs()) {
-			OWLClass dimensionClass = manager.getOWLDataFactory().getOWLClass(IRI.create(dimensionIRI));
-			if (!ontology.containsClassInSignature(IRI.create(dimensionIRI))) {
+			int dimensionClass = taxonomy.indexOf(dimensionIRI);
+			if (dimensionClass < 0) {
 				throw APEDimensionsException.notExistingDimension(
 						String.format("Data dimension %s does not exist in the ontology.", dimensionIRI));
 			} else {
@@ -106,10 +95,9 @@ public class OWLReader {
 			}
 		}
 
-		exploreModuleOntologyRec(reasoner, moduleRootClass, null, null);
+		exploreModuleOntologyRec(moduleRootClass, -1, -1, new BitSet());
 
-		dimensionRootClasses.forEach(typeClass -> typeDimensions.put(getIRI(typeClass), new HashSet<>()));
-		dimensionRootClasses.forEach(typeClass -> exploreTypeOntologyRec(reasoner, typeClass, null, null));
+		dimensionRootClasses.forEach(typeClass -> exploreTypeOntologyRec(typeClass, -1, -1, new BitSet()));
 
 		String ovesrlap;
 		if ((ovesrlap = dimensionsDisjoint(dimensionRootClasses)) != null) {
@@ -123,61 +111,65 @@ public class OWLReader {
 			List<String> dataDimensionRoots)
 			throws APEDimensionsException, OWLOntologyCreationException, FileExistsException {
 
-		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
 		AllModules allModules = new AllModules(toolTaxonomyRoot);
 		AllTypes allTypes = new AllTypes(dataDimensionRoots);
-		OWLOntology ontology = null;
-		if (ontologyFile.exists()) {
-			ontology = manager.loadOntologyFromOntologyDocument(ontologyFile);
-		} else {
+		if (!ontologyFile.exists()) {
 			throw new FileExistsException("Ontology file does not exist.");
 		}
-		OWLReasonerFactory reasonerFactory = new StructuralReasonerFactory();
-		OWLReasoner reasoner = reasonerFactory.createNonBufferingReasoner(ontology);
-		OWLDataFactory factory = OWLManager.getOWLDataFactory();
+		TaxonomyIndex taxonomy = loadTaxonomyIndex(ontologyFile);
 
 		/* Get a root of the operations taxonomy. */
 		String moduleRootIRI = allModules.getRootModuleID();
-		OWLClass moduleRootClass = manager.getOWLDataFactory().getOWLClass(IRI.create(moduleRootIRI));
-		if (!ontology.containsClassInSignature(IRI.create(moduleRootIRI))) {
+		if (!taxonomy.contains(moduleRootIRI)) {
 			/* Handle scenario when the tool taxonomy root was not defined properly. */
 			throw APEDimensionsException.notExistingDimension(
 					String.format("Operation root %s does not exist in the ontology.", moduleRootIRI));
 		}
 
 		/* Get roots for each of the data dimensions. */
-		List<OWLClass> dimensionRootClasses = new ArrayList<OWLClass>();
 		for (String dimensionIRI : allTypes.getDataTaxonomyDimensionIDs()) {
-			OWLClass dimensionClass = manager.getOWLDataFactory().getOWLClass(IRI.create(dimensionIRI));
-			if (!ontology.containsClassInSignature(IRI.create(dimensionIRI))) {
+			if (!taxonomy.contains(dimensionIRI)) {
 				/* Handle scenario when the type taxonomy root was not defined properly. */
 				throw APEDimensionsException.notExistingDimension(
 						String.format("Data dimension %s does not exist in the ontology.", dimensionIRI));
-			} else {
-				dimensionRootClasses.add(dimensionClass);
 			}
 		}
 
 		return true;
 	}
 
+	/**
+	 * Load the ontology from the file and extract its subclass hierarchy. The
+	 * OWLAPI model is not kept in memory afterwards.
+	 *
+	 * @param ontologyFile The OWL file.
+	 * @return The index of the subclass hierarchy.
+	 * @throws OWLOntologyCreationException Error in reading the OWL file.
+	 */
+	private static TaxonomyIndex loadTaxonomyIndex(File ontologyFile) throws OWLOntologyCreationException {
+		final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLOntology ontology = manager.loadOntologyFromOntologyDocument(ontologyFile);
+		TaxonomyIndex taxonomy = TaxonomyIndex.fromOntology(ontology, manager.getOWLDataFactory());
+		manager.clearOntologies();
+		return taxonomy;
+	}
+
 	/**
 	 * Calculate whether the type dimensions are disjoint or have overlaps.
 	 *
-	 * @return {code true} if the dimensions are disjoint, false otherwise.
+	 * @return {@code null} if the dimensions are disjoint, or the IRIs of the
+	 *         overlapping dimensions otherwise.
 	 */
-	private String dimensionsDisjoint(List<OWLClass> typeClasses) {
-		if (typeClasses.size() < 2) {
-			return null;
+	private String dimensionsDisjoint(List<Integer> typeClasses) {
+		List<BitSet> dimensionClasses = new ArrayList<>();
+		for (int typeClass : typeClasses) {
+			dimensionClasses.add(taxonomy.getDescendants(typeClass));
 		}
-		for (OWLClass class1 : typeClasses) {
-			for (OWLClass class2 : typeClasses) {
-				String classID1 = getIRI(class1);
-				String classID2 = getIRI(class2);
-				if (!classID1.equals(classID2)
-						&& (!Collections.disjoint(typeDimensions.get(classID1), typeDimensions.get(classID2)))) {
-					return classID1 + " & " + classID2;
-
+		for (int i = 0; i < typeClasses.size(); i++) {
+			for (int j = i + 1; j < typeClasses.size(); j++) {
+				if (!typeClasses.get(i).equals(typeClasses.get(j))
+						&& dimensionClasses.get(i).intersects(dimensionClasses.get(j))) {
+					return getIRI(typeClasses.get(i)) + " & " + getIRI(typeClasses.get(j));
 				}
 			}
 		}
@@ -188,14 +180,14 @@ public class OWLReader {
 	 * Recursively exploring the hierarchy of the ontology and defining objects
 	 * ({@link AbstractModule}) on each step of the way.
 	 *
-	 * @param reasoner   Reasoner used to provide subclasses.
 	 * @param currClass  The class (node) currently explored.
-	 * @param superClass The superclass of the currClass.
+	 * @param superClass The superclass of the currClass (-1 for the root).
+	 * @param rootClass  The root of the taxonomy (-1 if not known yet).
+	 * @param onPath     Classes on the current path (used to detect cycles).
 	 */
-	private void exploreModuleOntologyRec(OWLReasoner reasoner, OWLClass currClass, OWLClass superClass,
-			OWLClass rootClass) {
+	private void exploreModuleOntologyRec(int currClass, int superClass, int rootClass, BitSet onPath) {
 		AbstractModule superModule = allModules.get(getIRI(superClass));
-		final OWLClass currRootClass;
+		final int currRootClass;
 		/*
 		 * Defining the Node Type based on the node.
 		 */
@@ -222,22 +214,29 @@ public class OWLReader {
 		if (currNodeType != NodeType.ROOT) {
 			currModule.addParentPredicate(superModule);
 		}
-		reasoner.getSubClasses(currClass, true).entities().filter(child -> reasoner.isSatisfiable(child))
-				.forEach(child -> exploreModuleOntologyRec(reasoner, child, currClass, currRootClass));
+		onPath.set(currClass);
+		for (int child : taxonomy.getSubClasses(currClass)) {
+			if (onPath.get(child)) {
+				warnCycle(child, currClass);
+			} else {
+				exploreModuleOntologyRec(child, currClass, currRootClass, onPath);
+			}
+		}
+		onPath.clear(currClass);
 	}
 
 	/**
 	 * Recursively exploring the hierarchy of the ontology and defining objects
 	 * ({@link Type}) on each step of the way.
 	 *
-	 * @param reasoner   Reasoner used to provide subclasses.
 	 * @param currClass  The class (node) currently explored.
-	 * @param superClass The superclass of the currClass.
+	 * @param superClass The superclass of the currClass (-1 for the root).
+	 * @param rootClass  The root of the dimension (-1 if not known yet).
+	 * @param onPath     Classes on the current path (used to detect cycles).
 	 */
-	private void exploreTypeOntologyRec(OWLReasoner reasoner, OWLClass currClass, OWLClass superClass,
-			OWLClass rootClass) {
+	private void exploreTypeOntologyRec(int currClass, int superClass, int rootClass, BitSet onPath) {
 
-		final OWLClass currRoot;
+		final int currRoot;
 		Type superType = null;
 		Type currType = null;
 
@@ -264,12 +263,19 @@ public class OWLReader {
 			currType.addParentPredicate(superType);
 		}
 
-		List<OWLClass> subClasses = reasoner.getSubClasses(currClass, true).entities()
-				.filter(reasoner::isSatisfiable).collect(Collectors.toList());
+		int[] subClasses = taxonomy.getSubClasses(currClass);
 
-		subClasses.forEach(child -> exploreTypeOntologyRec(reasoner, child, currClass, currRoot));
+		onPath.set(currClass);
+		for (int child : subClasses) {
+			if (onPath.get(child)) {
+				warnCycle(child, currClass);
+			} else {
+				exploreTypeOntologyRec(child, currClass, currRoot, onPath);
+			}
+		}
+		onPath.clear(currClass);
 
-		if (subClasses.isEmpty()) {
+		if (subClasses.length == 0) {
 			currType.setNodePredicate(NodeType.LEAF);
 		} else if (useStrictToolAnnotations) {
 			Type artificialSubType = addNewTypeToAllTypes(getLabel(currClass) + "_p", getIRI(currClass) + "_plain",
@@ -286,6 +292,19 @@ public class OWLReader {
 		}
 	}
 
+	/**
+	 * Report a cycle of the subclass hierarchy, i.e. a class that is asserted to
+	 * be a subclass of its own subclass. The subclass relation that closes the
+	 * cycle is ignored.
+	 *
+	 * @param subClass   The class that closes the cycle.
+	 * @param superClass Its asserted superclass.
+	 */
+	private void warnCycle(int subClass, int superClass) {
+		log.warn("Class '" + getIRI(subClass) + "' is a subclass of its own subclass '" + getIRI(superClass)
+				+ "', the cycle in the ontology is ignored.");
+	}
+
 	/**
 	 * Adding a new type to the {@link #allTypes} object.
 	 * 
@@ -301,7 +320,6 @@ public class OWLReader {
 		try {
 			currType = allTypes
 					.addPredicate(new Type(classLabel, classID, rootID, currNodeType));
-			typeDimensions.get(rootID).add(classID);
 		} catch (ExceptionInInitializerError e) {
 			e.printStackTrace();
 		}
@@ -309,42 +327,28 @@ public class OWLReader {
 	}
 
 	/**
-	 * Returning the label of the provided OWL class.
+	 * Returning the label of the provided class.
 	 *
-	 * @param currClass Provided OWL class.
+	 * @param currClass Index of the class (-1 if not defined).
 	 * @return String representation of the class name.
 	 */
-	private String getLabel(OWLClass currClass) {
-		if (currClass == null || currClass.isOWLNothing()) {
+	private String getLabel(int currClass) {
+		if (currClass < 0) {
 			return "N/A";
 		}
-		String label, classID = currClass.toStringID();
-		Optional<OWLAnnotation> classLabel = EntitySearcher.getAnnotations(currClass, ontology, factory.getRDFSLabel())
-				.findFirst();
-		if (classLabel.isPresent()) {
-			OWLAnnotationValue val = classLabel.get().getValue();
-			if (val instanceof OWLLiteral)
-				return ((OWLLiteral) val).getLiteral();
-		} else if (classID.contains("#")) {
-			label = classID.substring(classID.indexOf('#') + 1);
-			// label = label.replace(" ", "_");
-			return label;
-		}
-		logger.fine("Class '" + classID + "' has no label.");
-		return classID;
-
+		return taxonomy.getLabel(currClass);
 	}
 
 	/**
-	 * Returning the IRI of the provided OWL class.
+	 * Returning the IRI of the provided class.
 	 *
-	 * @param currClass Provided OWL class.
+	 * @param currClass Index of the class (-1 if not defined).
 	 * @return String representation of the class name.
 	 */
-	private String getIRI(OWLClass currClass) {
-		if (currClass == null) {
+	private String getIRI(int currClass) {
+		if (currClass < 0) {
 			return "N/A";
 		}
-		return currClass.toStringID();
+		return taxonomy.getIRI(currClass);
 	}
 }
@@ -0,0 +1,257 @@
+package nl.uu.cs.ape.domain;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.commonwl.cwlsdk.cwl1_2.CommandInputParameter;
+import org.commonwl.cwlsdk.cwl1_2.CommandOutputParameter;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.configuration.APEConfigException;
+import nl.uu.cs.ape.configuration.ToolAnnotationTag;
+import nl.uu.cs.ape.models.enums.ToolAnnotationType;
+import nl.uu.cs.ape.utils.APEUtils;
+import nl.uu.cs.ape.utils.cwl_parser.CWLParser;
+
+/**
+ * The {@code ParsedToolAnnotation} class represents a tool annotation (APE or
+ * CWL) that was parsed without accessing the domain taxonomies. Instances are
+ * immutable and independent of each other, which allows the annotations to be
+ * parsed in parallel, before they are added to the domain (one by one) by
+ * {@link APEDomainSetup}.
+ * <p>
+ * Errors that occur while parsing are stored and rethrown (see
+ * {@link #rethrowParsingError()}) when the annotation is added to the domain,
+ * in order to preserve the order in which the errors are reported.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+@Getter
+final class ParsedToolAnnotation {
+
+    /** Format of the original annotation. */
+    private final ToolAnnotationType annotationType;
+    /** IRI of the tool (before resolving clashes with the existing terms). */
+    private final String moduleIRI;
+    /** Label of the tool. */
+    private final String moduleLabel;
+    /** IRIs of the referenced taxonomy operations. */
+    private final Set<String> taxonomyParentIRIs;
+    /** Input annotations (only for APE annotations). */
+    private final List<JSONObject> jsonInputs;
+    /** Output annotations (only for APE annotations). */
+    private final List<JSONObject> jsonOutputs;
+    /** Input parameters (only for CWL annotations). */
+    private final List<CommandInputParameter> cwlInputs;
+    /** Output parameters (only for CWL annotations). */
+    private final List<CommandOutputParameter> cwlOutputs;
+    /** Reference to the CWL implementation, if specified. */
+    private final String cwlReference;
+    /** Implementation code, if specified. */
+    private final String executionCode;
+    /** Cost of using the tool (1 if not specified). */
+    private final int cost;
+    /** Error that occurred while parsing the annotation, if any. */
+    @Getter(AccessLevel.NONE)
+    private final Exception parsingError;
+
+    private ParsedToolAnnotation(ToolAnnotationType annotationType, String moduleIRI, String moduleLabel,
+            Set<String> taxonomyParentIRIs, List<JSONObject> jsonInputs, List<JSONObject> jsonOutputs,
+            List<CommandInputParameter> cwlInputs, List<CommandOutputParameter> cwlOutputs, String cwlReference,
+            String executionCode, int cost, Exception parsingError) {
+        this.annotationType = annotationType;
+        this.moduleIRI = moduleIRI;
+        this.moduleLabel = moduleLabel;
+        this.taxonomyParentIRIs = Collections.unmodifiableSet(taxonomyParentIRIs);
+        this.jsonInputs = Collections.unmodifiableList(jsonInputs);
+        this.jsonOutputs = Collections.unmodifiableList(jsonOutputs);
+        this.cwlInputs = Collections.unmodifiableList(cwlInputs);
+        this.cwlOutputs = Collections.unmodifiableList(cwlOutputs);
+        this.cwlReference = cwlReference;
+        this.executionCode = executionCode;
+        this.cost = cost;
+        this.parsingError = parsingError;
+    }
+
+    /**
+     * Parse a tool annotation, based on its type (APE annotation by default).
+     * The method does not throw exceptions, parsing errors are stored in the
+     * result instead.
+     *
+     * @param jsonModule        JSON annotation of a module/tool.
+     * @param ontologyPrefixIRI Prefix used to create the IRIs of the terms.
+     * @return The parsed tool annotation.
+     */
+    static ParsedToolAnnotation parse(JSONObject jsonModule, String ontologyPrefixIRI) {
+        try {
+            ToolAnnotationType annotationType;
+            try {
+                annotationType = ToolAnnotationType
+                        .fromString(jsonModule.getString(ToolAnnotationTag.TYPE.toString()));
+            } catch (JSONException e) {
+                log.debug("Tool annotation type not specified. Defaulting to APE annotation.");
+                return fromAPE(jsonModule, ontologyPrefixIRI);
+            }
+
+            switch (annotationType) {
+                case APE_ANNOTATION:
+                    return fromAPE(jsonModule, ontologyPrefixIRI);
+                case CWL_ANNOTATION:
+                    String cwlURL = jsonModule.getString(ToolAnnotationTag.CWL_REFERENCE.toString());
+                    return fromCWL(cwlURL, ontologyPrefixIRI);
+                default:
+                    log.warn("Tool annotation format not specified. Using default APE annotations.");
+                    return fromAPE(jsonModule, ontologyPrefixIRI);
+            }
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Parse a tool annotation that follows the APE annotation format.
+     *
+     * @param jsonModule        JSON annotation of a module/tool.
+     * @param ontologyPrefixIRI Prefix used to create the IRIs of the terms.
+     * @return The parsed tool annotation.
+     */
+    static ParsedToolAnnotation fromAPE(JSONObject jsonModule, String ontologyPrefixIRI) {
+        try {
+            String moduleIRI = APEUtils.createClassIRI(jsonModule.getString(ToolAnnotationTag.ID.toString()),
+                    ontologyPrefixIRI);
+            String moduleLabel = jsonModule.getString(ToolAnnotationTag.LABEL.toString());
+            Set<String> taxonomyOperations = new HashSet<>(APEUtils.getListFromJson(jsonModule,
+                    ToolAnnotationTag.TAXONOMY_OPERATIONS.toString(), String.class));
+
+            return new ParsedToolAnnotation(ToolAnnotationType.APE_ANNOTATION, moduleIRI, moduleLabel,
+                    APEUtils.createIRIsFromLabels(taxonomyOperations, ontologyPrefixIRI),
+                    getNonEmptyParameters(jsonModule, ToolAnnotationTag.INPUTS),
+                    getNonEmptyParameters(jsonModule, ToolAnnotationTag.OUTPUTS),
+                    new ArrayList<>(), new ArrayList<>(),
+                    getModuleImplementationFromAnnotation(jsonModule, ToolAnnotationTag.CWL_REFERENCE),
+                    getModuleImplementationFromAnnotation(jsonModule, ToolAnnotationTag.CODE),
+                    getCost(jsonModule), null);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Parse a tool annotation from a CWL file. The annotations are expected to
+     * follow EDAM ontology.
+     *
+     * @param cwlFileLocation   Path to the CWL file (URL or local file).
+     * @param ontologyPrefixIRI Prefix used to create the IRIs of the terms.
+     * @return The parsed tool annotation.
+     */
+    static ParsedToolAnnotation fromCWL(String cwlFileLocation, String ontologyPrefixIRI) {
+        try {
+            CWLParser cwlParser = new CWLParser(cwlFileLocation);
+
+            String moduleLabel = cwlParser.getLabel();
+            String moduleIRI = APEUtils.createClassIRI(moduleLabel, ontologyPrefixIRI);
+            Set<String> taxonomyOperations = new HashSet<>(cwlParser.getOperations());
+
+            return new ParsedToolAnnotation(ToolAnnotationType.CWL_ANNOTATION, moduleIRI, moduleLabel,
+                    APEUtils.createIRIsFromLabels(taxonomyOperations, ontologyPrefixIRI),
+                    new ArrayList<>(), new ArrayList<>(), cwlParser.getInputs(), cwlParser.getOutputs(),
+                    cwlFileLocation, null, 1, null);
+        } catch (IOException | RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Rethrow the error that occurred while parsing the annotation, if any.
+     *
+     * @throws IOException Error in accessing or parsing a CWL file.
+     */
+    void rethrowParsingError() throws IOException {
+        if (parsingError instanceof IOException) {
+            throw (IOException) parsingError;
+        } else if (parsingError instanceof RuntimeException) {
+            throw (RuntimeException) parsingError;
+        }
+    }
+
+    /**
+     * Create an annotation that represents a parsing error.
+     */
+    private static ParsedToolAnnotation failed(Exception parsingError) {
+        return new ParsedToolAnnotation(null, null, null, new HashSet<>(), new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(), null, null, 1, parsingError);
+    }
+
+    /**
+     * Get the non-empty input or output annotations of the tool.
+     *
+     * @param jsonModule the json tool annotation
+     * @param ioTag      {@link ToolAnnotationTag#INPUTS} or
+     *                   {@link ToolAnnotationTag#OUTPUTS}
+     * @return The list of input/output annotations.
+     */
+    private static List<JSONObject> getNonEmptyParameters(JSONObject jsonModule, ToolAnnotationTag ioTag) {
+        List<JSONObject> parameters = new ArrayList<>();
+        for (JSONObject jsonParameter : APEUtils.getListFromJson(jsonModule, ioTag.toString(), JSONObject.class)) {
+            if (!jsonParameter.isEmpty()) {
+                parameters.add(jsonParameter);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Get the cost of the tool, if specified (1 by default).
+     *
+     * @param jsonModule the json tool annotation
+     * @return The cost of the tool.
+     * @throws APEConfigException The cost is not a positive integer.
+     */
+    private static int getCost(JSONObject jsonModule) {
+        String costTag = ToolAnnotationTag.COST.toString();
+        if (!jsonModule.has(costTag)) {
+            return 1;
+        }
+        Object cost = jsonModule.get(costTag);
+        if (!(cost instanceof Integer) || (Integer) cost < 1) {
+            throw APEConfigException.invalidValue(costTag, cost,
+                    String.format("the cost of tool '%s' should be a positive integer.",
+                            jsonModule.opt(ToolAnnotationTag.ID.toString())));
+        }
+        return (Integer) cost;
+    }
+
+    /**
+     * Get the implementation code of the module, if specified.
+     *
+     * @param jsonToolAnnotation the json tool annotation
+     * @param implementationType the implementation type
+     *                           ({@link ToolAnnotationTag#CWL_REFERENCE} or
+     *                           {@link ToolAnnotationTag#CODE})
+     * @return The implementation code of the module, if specified.
+     */
+    private static String getModuleImplementationFromAnnotation(JSONObject jsonToolAnnotation,
+            ToolAnnotationTag implementationType) {
+        try {
+            JSONObject implementationJson = jsonToolAnnotation
+                    .getJSONObject(ToolAnnotationTag.IMPLEMENTATION.toString());
+            String implementation = implementationJson.getString(implementationType.toString());
+            if (implementation.equals("")) {
+                return null;
+            }
+            return implementation;
+        } catch (JSONException e) {
+            /* Do not annotate the execution code. */
+            return null;
+        }
+    }
+}
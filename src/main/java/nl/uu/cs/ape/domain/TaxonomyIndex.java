@@ -0,0 +1,317 @@
+package nl.uu.cs.ape.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.search.EntitySearcher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The {@code TaxonomyIndex} class is a compact, read-only representation of the
+ * (told) subclass hierarchy of an OWL ontology. Each named class is identified
+ * by an index, and the hierarchy is stored as arrays of direct sub/super
+ * classes, together with a precomputed set of ancestors (as a {@link BitSet})
+ * for each class.
+ * <p>
+ * Note that the hierarchy is read from the told {@code SubClassOf} and
+ * {@code EquivalentClasses} axioms, rather than inferred by the OWLAPI
+ * {@code StructuralReasoner} as it used to be. The two agree on the taxonomies
+ * supported by APE (named classes, conjunctions and {@code owl:Nothing}), but
+ * subclass relations that follow only from other constructs (e.g. disjunctions
+ * or property restrictions) are not taken into account.
+ * <p>
+ * The index holds no reference to the OWLAPI model, which can be discarded
+ * once the index was created.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public final class TaxonomyIndex {
+
+    /** IRIs of the classes, sorted alphabetically. */
+    private final String[] classIRIs;
+    /** Labels of the classes. */
+    private final String[] labels;
+    /** Direct (satisfiable) subclasses of each class. */
+    private final int[][] subClasses;
+    /** Direct superclasses of each class. */
+    private final int[][] superClasses;
+    /** Reflexive-transitive closure of the superclass relation. */
+    private final BitSet[] ancestors;
+    /** Classes that are (told to be) unsatisfiable. */
+    private final BitSet unsatisfiable;
+    /** Mapping from class IRI to its index. */
+    private final Map<String, Integer> indexByIRI;
+
+    private TaxonomyIndex(String[] classIRIs, String[] labels, List<List<Integer>> superClassLists) {
+        int size = classIRIs.length;
+        this.classIRIs = classIRIs;
+        this.labels = labels;
+        this.indexByIRI = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            indexByIRI.put(classIRIs[i], i);
+        }
+        this.superClasses = new int[size][];
+        for (int i = 0; i < size; i++) {
+            superClasses[i] = superClassLists.get(i).stream().distinct().sorted().mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        this.ancestors = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            computeAncestors(i, new BitSet(size));
+        }
+        this.unsatisfiable = new BitSet(size);
+        this.subClasses = new int[size][];
+        int[] noSubClasses = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int superClass : superClasses[i]) {
+                noSubClasses[superClass]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            subClasses[i] = new int[noSubClasses[i]];
+            noSubClasses[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int superClass : superClasses[i]) {
+                subClasses[superClass][noSubClasses[superClass]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Compute (and memoize) the ancestors of the class. Cycles in the hierarchy
+     * are tolerated, the classes on a cycle share the ancestors that were
+     * computed when the cycle was closed.
+     *
+     * @param classIndex Index of the class.
+     * @param onPath     Classes on the current path (used to detect cycles).
+     * @return The ancestors of the class (including the class itself).
+     */
+    private BitSet computeAncestors(int classIndex, BitSet onPath) {
+        if (ancestors[classIndex] != null) {
+            return ancestors[classIndex];
+        }
+        BitSet classAncestors = new BitSet(classIRIs.length);
+        classAncestors.set(classIndex);
+        onPath.set(classIndex);
+        for (int superClass : superClasses[classIndex]) {
+            if (!onPath.get(superClass)) {
+                classAncestors.or(computeAncestors(superClass, onPath));
+            } else {
+                classAncestors.set(superClass);
+            }
+        }
+        onPath.clear(classIndex);
+        ancestors[classIndex] = classAncestors;
+        return classAncestors;
+    }
+
+    /**
+     * Create the index of the subclass hierarchy of the given ontology (including
+     * its imports). A class is considered a direct subclass of each named class
+     * that is (a conjunct of) its asserted superclass or equivalent class
+     * expression. Classes that are subclasses of {@code owl:Nothing} are
+     * considered unsatisfiable.
+     *
+     * @param ontology The ontology.
+     * @param factory  The data factory used to access the {@code rdfs:label}
+     *                 annotations.
+     * @return The index of the ontology classes.
+     */
+    public static TaxonomyIndex fromOntology(OWLOntology ontology, OWLDataFactory factory) {
+        List<OWLClass> classes = new ArrayList<>(ontology.classesInSignature(Imports.INCLUDED)
+                .filter(cls -> !cls.isOWLThing() && !cls.isOWLNothing())
+                .collect(Collectors.toCollection(() -> new TreeSet<>(
+                        (c1, c2) -> c1.toStringID().compareTo(c2.toStringID())))));
+        int size = classes.size();
+        String[] classIRIs = new String[size];
+        String[] labels = new String[size];
+        Map<OWLClass, Integer> indices = new HashMap<>();
+        List<List<Integer>> superClassLists = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            OWLClass currClass = classes.get(i);
+            classIRIs[i] = currClass.toStringID();
+            labels[i] = readLabel(currClass, ontology, factory);
+            indices.put(currClass, i);
+            superClassLists.add(new ArrayList<>());
+        }
+
+        BitSet toldUnsatisfiable = new BitSet(size);
+        ontology.axioms(AxiomType.SUBCLASS_OF, Imports.INCLUDED)
+                .forEach(axiom -> addSuperClasses(axiom, indices, superClassLists, toldUnsatisfiable));
+        ontology.axioms(AxiomType.EQUIVALENT_CLASSES, Imports.INCLUDED)
+                .forEach(axiom -> addSuperClasses(axiom, indices, superClassLists, toldUnsatisfiable));
+
+        TaxonomyIndex index = new TaxonomyIndex(classIRIs, labels, superClassLists);
+        for (int i = toldUnsatisfiable.nextSetBit(0); i >= 0; i = toldUnsatisfiable.nextSetBit(i + 1)) {
+            index.unsatisfiable.or(index.getDescendants(i));
+        }
+        log.debug("Taxonomy index created for " + size + " classes.");
+        return index;
+    }
+
+    /**
+     * Register the named (conjuncts of) superclasses of a subclass axiom.
+     */
+    private static void addSuperClasses(OWLSubClassOfAxiom axiom, Map<OWLClass, Integer> indices,
+            List<List<Integer>> superClassLists, BitSet toldUnsatisfiable) {
+        if (axiom.getSubClass().isAnonymous()) {
+            return;
+        }
+        Integer subClass = indices.get(axiom.getSubClass().asOWLClass());
+        if (subClass != null) {
+            addNamedConjuncts(subClass, axiom.getSuperClass(), indices, superClassLists, toldUnsatisfiable);
+        }
+    }
+
+    /**
+     * Register the named conjuncts of the anonymous class expressions that are
+     * equivalent to a named class, as its superclasses.
+     */
+    private static void addSuperClasses(OWLEquivalentClassesAxiom axiom, Map<OWLClass, Integer> indices,
+            List<List<Integer>> superClassLists, BitSet toldUnsatisfiable) {
+        List<OWLClassExpression> expressions = axiom.classExpressions().collect(Collectors.toList());
+        for (OWLClassExpression namedClass : expressions) {
+            Integer subClass = namedClass.isAnonymous() ? null : indices.get(namedClass.asOWLClass());
+            if (subClass == null) {
+                continue;
+            }
+            for (OWLClassExpression expression : expressions) {
+                if (expression.isOWLNothing()) {
+                    toldUnsatisfiable.set(subClass);
+                } else if (expression.isAnonymous()) {
+                    addNamedConjuncts(subClass, expression, indices, superClassLists, toldUnsatisfiable);
+                }
+            }
+        }
+    }
+
+    /**
+     * Register the named conjuncts of the class expression as superclasses of the
+     * given class.
+     */
+    private static void addNamedConjuncts(int subClass, OWLClassExpression superClass,
+            Map<OWLClass, Integer> indices, List<List<Integer>> superClassLists, BitSet toldUnsatisfiable) {
+        for (OWLClassExpression conjunct : superClass.asConjunctSet()) {
+            if (conjunct.isOWLNothing()) {
+                toldUnsatisfiable.set(subClass);
+            } else if (!conjunct.isAnonymous()) {
+                Integer superIndex = indices.get(conjunct.asOWLClass());
+                if (superIndex != null && superIndex != subClass) {
+                    superClassLists.get(subClass).add(superIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the label of the provided OWL class.
+     *
+     * @param currClass Provided OWL class.
+     * @param ontology  Ontology containing the annotations.
+     * @param factory   Data factory.
+     * @return The {@code rdfs:label} of the class, or the fragment of its IRI if
+     *         not specified, or the full IRI otherwise.
+     */
+    private static String readLabel(OWLClass currClass, OWLOntology ontology, OWLDataFactory factory) {
+        String classID = currClass.toStringID();
+        Optional<OWLAnnotation> classLabel = EntitySearcher
+                .getAnnotations(currClass, ontology, factory.getRDFSLabel()).findFirst();
+        if (classLabel.isPresent()) {
+            OWLAnnotationValue val = classLabel.get().getValue();
+            if (val instanceof OWLLiteral)
+                return ((OWLLiteral) val).getLiteral();
+        } else if (classID.contains("#")) {
+            return classID.substring(classID.indexOf('#') + 1);
+        }
+        log.trace("Class '" + classID + "' has no label.");
+        return classID;
+    }
+
+    /**
+     * Get the index of the class with the given IRI.
+     *
+     * @param classIRI IRI of the class.
+     * @return The index of the class, or -1 if the class does not exist.
+     */
+    public int indexOf(String classIRI) {
+        Integer index = indexByIRI.get(classIRI);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Check whether the ontology contains a class with the given IRI.
+     *
+     * @param classIRI IRI of the class.
+     * @return {@code true} if the class exists, {@code false} otherwise.
+     */
+    public boolean contains(String classIRI) {
+        return indexByIRI.containsKey(classIRI);
+    }
+
+    /**
+     * Get the IRI of the class.
+     *
+     * @param classIndex Index of the class.
+     * @return IRI of the class.
+     */
+    public String getIRI(int classIndex) {
+        return classIRIs[classIndex];
+    }
+
+    /**
+     * Get the label of the class.
+     *
+     * @param classIndex Index of the class.
+     * @return Label of the class.
+     */
+    public String getLabel(int classIndex) {
+        return labels[classIndex];
+    }
+
+    /**
+     * Get the direct, satisfiable subclasses of the class.
+     *
+     * @param classIndex Index of the class.
+     * @return Indices of the direct subclasses (sorted by IRI).
+     */
+    public int[] getSubClasses(int classIndex) {
+        return Arrays.stream(subClasses[classIndex]).filter(i -> !unsatisfiable.get(i)).toArray();
+    }
+
+    /**
+     * Get all the descendants of the class, including the class itself.
+     *
+     * @param classIndex Index of the class.
+     * @return The set of descendant indices.
+     */
+    public BitSet getDescendants(int classIndex) {
+        BitSet descendants = new BitSet(classIRIs.length);
+        for (int i = 0; i < classIRIs.length; i++) {
+            if (ancestors[i].get(classIndex)) {
+                descendants.set(i);
+            }
+        }
+        return descendants;
+    }
+}
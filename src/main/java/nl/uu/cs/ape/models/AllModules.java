@@ -38,6 +38,16 @@ public class AllModules extends AllPredicates {
         super(Arrays.asList(moduleTaxonomyRoot));
     }
 
+    /**
+     * Instantiates a run-local copy of the given modules (see
+     * {@link AllPredicates#AllPredicates(AllPredicates)}).
+     *
+     * @param original the modules that are copied
+     */
+    public AllModules(AllModules original) {
+        super(original);
+    }
+
     /**
      * Gets modules.
      *
@@ -82,7 +92,7 @@ public class AllModules extends AllPredicates {
             if (tmpModule != null) {
                 return (AbstractModule) tmpModule;
             } else if (module instanceof AbstractModule) {
-                getMappedPredicates().put(module.getPredicateID(), module);
+                put(module.getPredicateID(), module);
                 return (AbstractModule) module;
             } else {
                 throw new ExceptionInInitializerError(String.format(
@@ -101,8 +111,8 @@ public class AllModules extends AllPredicates {
      * @param oldModule Object that will be removed.
      */
     public void swapAbstractModule2Module(Module newModule, TaxonomyPredicate oldModule) {
-        getMappedPredicates().remove(oldModule.getPredicateID());
-        getMappedPredicates().put(newModule.getPredicateID(), newModule);
+        remove(oldModule.getPredicateID());
+        put(newModule.getPredicateID(), newModule);
     }
 
     /**
@@ -23,6 +23,30 @@ public abstract class AllPredicates {
      */
     private List<String> dimensionRoots;
 
+    /**
+     * Dense indices of the predicates, used to represent sets of predicates as
+     * {@link BitSet}s. An index is never reassigned, the predicates that are new
+     * to the taxonomy are indexed in their natural order whenever the closures
+     * are computed (guarded by {@code this}).
+     */
+    private final Map<TaxonomyPredicate, Integer> predicateIndices = new HashMap<>();
+
+    /**
+     * Indices and closures of the current taxonomy, {@code null} if they have to
+     * be (re)computed.
+     */
+    private volatile TaxonomyClosures closures;
+
+    /**
+     * Predicates whose descendants were already set to be relevant.
+     */
+    private final Set<TaxonomyPredicate> relevantDescendants = new HashSet<>();
+
+    /**
+     * Predicates whose ancestors were already set to be relevant.
+     */
+    private final Set<TaxonomyPredicate> relevantAncestors = new HashSet<>();
+
     /**
      * Instantiates AllPredicates.
      *
@@ -33,6 +57,24 @@ public abstract class AllPredicates {
         this.mappedPredicates = new HashMap<>();
     }
 
+    /**
+     * Instantiates a copy of the given AllPredicates, used as a run-local view of
+     * the taxonomy. The predicates are shared with the original, while the
+     * mapping of the predicates and their indices are copied, thus the predicates
+     * added to the copy are not visible in the original.
+     *
+     * @param original the predicates that are copied
+     */
+    protected AllPredicates(AllPredicates original) {
+        this.dimensionRoots = original.dimensionRoots;
+        this.mappedPredicates = new HashMap<>(original.mappedPredicates);
+        synchronized (original) {
+            this.predicateIndices.putAll(original.predicateIndices);
+            this.relevantDescendants.addAll(original.relevantDescendants);
+            this.relevantAncestors.addAll(original.relevantAncestors);
+        }
+    }
+
     /**
      * Returns the root predicate of the taxonomy.
      *
@@ -80,19 +122,10 @@ public abstract class AllPredicates {
      */
     public boolean trimTaxonomy() {
         for (TaxonomyPredicate root : getRootPredicates()) {
-            List<TaxonomyPredicate> toRemove = new ArrayList<>();
-            for (TaxonomyPredicate subClass : APEUtils.safe(root.getSubPredicates())) {
-                if (subClass == null) {
-                    continue;
-                }
-                if (subClass.getIsRelevant()) {
-                    trimSubTaxonomy(subClass);
-                } else {
-                    toRemove.add(subClass);
-                    trimSubTaxonomy(subClass);
-                }
+            if (root == null) {
+                continue;
             }
-            root.removeAllSubPredicates(toRemove);
+            trimSubTaxonomy(root, root);
         }
         return true;
     }
@@ -108,23 +141,287 @@ public abstract class AllPredicates {
         if (subTaxRoot == null) {
             return true;
         }
-        List<TaxonomyPredicate> toRemove = new ArrayList<>();
-        for (TaxonomyPredicate subClass : APEUtils.safe(subTaxRoot.getSubPredicates())) {
-            if (subClass == null) {
-            } else if (subClass.getIsRelevant()) {
-                trimSubTaxonomy(subClass);
-            } else {
-                toRemove.add(subClass);
-                trimSubTaxonomy(subClass);
+        trimSubTaxonomy(subTaxRoot, null);
+        return true;
+    }
+
+    /**
+     * Remove all the predicates that are not relevant from the sub-taxonomy (each
+     * predicate is visited once).
+     *
+     * @param subTaxRoot SubTaxonomy that is to be trimmed.
+     * @param keep       Predicate that should not be removed from the mapping
+     *                   (used for the taxonomy roots), or {@code null}.
+     */
+    private void trimSubTaxonomy(TaxonomyPredicate subTaxRoot, TaxonomyPredicate keep) {
+        for (TaxonomyPredicate predicate : getSubTaxonomy(subTaxRoot)) {
+            List<TaxonomyPredicate> toRemove = new ArrayList<>();
+            for (TaxonomyPredicate subClass : APEUtils.safe(predicate.getSubPredicates())) {
+                if (subClass != null && !subClass.getIsRelevant()) {
+                    toRemove.add(subClass);
+                }
+            }
+            predicate.removeAllSubPredicates(toRemove);
+            if (!predicate.getIsRelevant() && predicate != keep) {
+                this.mappedPredicates.remove(predicate.getPredicateID());
             }
         }
-        if (!subTaxRoot.getIsRelevant()) {
-            this.mappedPredicates.remove(subTaxRoot.getPredicateID());
+        closures = null;
+    }
+
+    /**
+     * Get the index of the predicate, used to represent sets of predicates as
+     * {@link BitSet}s. The indices follow the natural order of the predicates
+     * that were in the taxonomy when it was first indexed, and do not change
+     * when the taxonomy is extended.
+     *
+     * @param predicate The predicate.
+     * @return The index of the predicate.
+     */
+    public int getPredicateIndex(TaxonomyPredicate predicate) {
+        return getClosures(predicate).indices.get(predicate);
+    }
+
+    /**
+     * Get all the predicates subsumed by the given predicate (including the
+     * predicate itself), i.e., the sub-taxonomy rooted in the predicate. Each
+     * predicate occurs once, even if it has multiple parents.
+     *
+     * @param subTreeRoot Root of the sub-taxonomy.
+     * @return List of predicates in the sub-taxonomy, ordered by their index.
+     */
+    public List<TaxonomyPredicate> getSubTaxonomy(TaxonomyPredicate subTreeRoot) {
+        TaxonomyClosures current = getClosures(subTreeRoot);
+        BitSet descendants = current.descendants[current.indices.get(subTreeRoot)];
+        List<TaxonomyPredicate> elements = new ArrayList<>(descendants.cardinality());
+        for (int i = descendants.nextSetBit(0); i >= 0; i = descendants.nextSetBit(i + 1)) {
+            elements.add(current.predicates[i]);
         }
-        subTaxRoot.removeAllSubPredicates(toRemove);
+        return elements;
+    }
+
+    /**
+     * Get the indices (see {@link #getPredicateIndex(TaxonomyPredicate)}) of all
+     * the descendants of the predicate, including the predicate itself.
+     *
+     * @param predicate The predicate.
+     * @return A copy of the set of descendant indices.
+     */
+    public BitSet getDescendants(TaxonomyPredicate predicate) {
+        TaxonomyClosures current = getClosures(predicate);
+        return (BitSet) current.descendants[current.indices.get(predicate)].clone();
+    }
+
+    /**
+     * Get the indices (see {@link #getPredicateIndex(TaxonomyPredicate)}) of all
+     * the ancestors of the predicate, including the predicate itself.
+     *
+     * @param predicate The predicate.
+     * @return A copy of the set of ancestor indices.
+     */
+    public BitSet getAncestors(TaxonomyPredicate predicate) {
+        TaxonomyClosures current = getClosures(predicate);
+        return (BitSet) current.ancestors[current.indices.get(predicate)].clone();
+    }
+
+    /**
+     * Check whether the predicate is subsumed by (or equal to) the given super
+     * predicate.
+     *
+     * @param predicate      The potential sub-predicate.
+     * @param superPredicate The potential super-predicate.
+     * @return {@code true} if the predicate is subsumed by the super-predicate.
+     */
+    public boolean isSubPredicateOf(TaxonomyPredicate predicate, TaxonomyPredicate superPredicate) {
+        TaxonomyClosures current = getClosures(predicate);
+        Integer superIndex = current.indices.get(superPredicate);
+        return superIndex != null && current.ancestors[current.indices.get(predicate)].get(superIndex);
+    }
+
+    /**
+     * Set the predicate, all its ancestors and all its descendants as relevant
+     * parts of the taxonomy. Parts of the taxonomy that were already set to be
+     * relevant by the previous calls are not visited again.
+     *
+     * @param predicate The predicate that is relevant.
+     * @return true if the predicates were successfully set to be relevant.
+     */
+    public synchronized boolean setAsRelevant(TaxonomyPredicate predicate) {
+        setAsRelevant(predicate, false, relevantAncestors);
+        setAsRelevant(predicate, true, relevantDescendants);
         return true;
     }
 
+    /**
+     * Set the predicates in the reflexive-transitive closure of the
+     * sub-predicate (or parent-predicate) relation as relevant, starting from the
+     * given predicate. The closure of a predicate is expanded only once.
+     *
+     * @param start     The first predicate.
+     * @param downwards {@code true} to follow the sub-predicates, {@code false}
+     *                  to follow the parent-predicates.
+     * @param expanded  Predicates whose closure was already set to be relevant.
+     */
+    private static void setAsRelevant(TaxonomyPredicate start, boolean downwards,
+            Set<TaxonomyPredicate> expanded) {
+        Deque<TaxonomyPredicate> toVisit = new ArrayDeque<>();
+        toVisit.push(start);
+        while (!toVisit.isEmpty()) {
+            TaxonomyPredicate curr = toVisit.pop();
+            curr.setIsRelevant();
+            if (!expanded.add(curr)) {
+                continue;
+            }
+            for (TaxonomyPredicate next : APEUtils
+                    .safe(downwards ? curr.getSubPredicates() : curr.getParentPredicates())) {
+                if (next != null && !expanded.contains(next)) {
+                    toVisit.push(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the indices and closures of the current taxonomy, which include the
+     * given predicate. They are computed once and reused until the taxonomy is
+     * modified (see {@link #put(String, TaxonomyPredicate)},
+     * {@link #remove(String)} and {@link #trimTaxonomy()}). The result is
+     * immutable, thus it can be used by concurrent runs.
+     *
+     * @param predicate The predicate that has to be indexed.
+     * @return The indices and closures of the taxonomy.
+     */
+    private TaxonomyClosures getClosures(TaxonomyPredicate predicate) {
+        TaxonomyClosures current = closures;
+        if (current == null || !current.indices.containsKey(predicate)) {
+            synchronized (this) {
+                current = closures;
+                if (current == null || !current.indices.containsKey(predicate)) {
+                    current = computeClosures(predicate);
+                    closures = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Index the predicates that are reachable from the mapped predicates (and
+     * the given one) and compute their descendant and ancestor closures.
+     *
+     * @param predicate Predicate that has to be indexed, even if it is not in
+     *                  the taxonomy.
+     * @return The indices and closures of the taxonomy.
+     */
+    private TaxonomyClosures computeClosures(TaxonomyPredicate predicate) {
+        Map<TaxonomyPredicate, TaxonomyPredicate> representatives = new HashMap<>();
+        Set<TaxonomyPredicate> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<TaxonomyPredicate> toVisit = new ArrayDeque<>(mappedPredicates.values());
+        toVisit.addLast(predicate);
+        while (!toVisit.isEmpty()) {
+            TaxonomyPredicate curr = toVisit.pollFirst();
+            if (!visited.add(curr)) {
+                continue;
+            }
+            representatives.putIfAbsent(curr, curr);
+            for (TaxonomyPredicate next : APEUtils.safe(curr.getSubPredicates())) {
+                if (next != null) {
+                    toVisit.addLast(next);
+                }
+            }
+            for (TaxonomyPredicate next : APEUtils.safe(curr.getParentPredicates())) {
+                if (next != null) {
+                    toVisit.addLast(next);
+                }
+            }
+        }
+        for (TaxonomyPredicate newPredicate : new TreeSet<>(representatives.keySet())) {
+            predicateIndices.putIfAbsent(newPredicate, predicateIndices.size());
+        }
+
+        int size = predicateIndices.size();
+        TaxonomyPredicate[] predicates = new TaxonomyPredicate[size];
+        List<Set<Integer>> subIndices = new ArrayList<>(size);
+        List<Set<Integer>> parentIndices = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            subIndices.add(new TreeSet<>());
+            parentIndices.add(new TreeSet<>());
+        }
+        for (TaxonomyPredicate curr : visited) {
+            int currIndex = predicateIndices.get(curr);
+            predicates[currIndex] = representatives.get(curr);
+            for (TaxonomyPredicate next : APEUtils.safe(curr.getSubPredicates())) {
+                if (next != null) {
+                    subIndices.get(currIndex).add(predicateIndices.get(next));
+                }
+            }
+            for (TaxonomyPredicate next : APEUtils.safe(curr.getParentPredicates())) {
+                if (next != null) {
+                    parentIndices.get(currIndex).add(predicateIndices.get(next));
+                }
+            }
+        }
+        BitSet[] descendants = new BitSet[size];
+        BitSet[] ancestors = new BitSet[size];
+        BitSet onPath = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (predicates[i] != null) {
+                computeClosure(i, subIndices, descendants, onPath);
+                computeClosure(i, parentIndices, ancestors, onPath);
+            }
+        }
+        return new TaxonomyClosures(Map.copyOf(predicateIndices), predicates, descendants, ancestors);
+    }
+
+    /**
+     * Compute (and memoize) the reflexive-transitive closure of the relation for
+     * the given predicate. Cycles are tolerated, the predicates on a cycle share
+     * the closure that was computed when the cycle was closed.
+     *
+     * @param index    Index of the predicate.
+     * @param relation Related predicates (sub or parent predicates) per index.
+     * @param closure  Memoized closures per index.
+     * @param onPath   Predicates on the current path (used to detect cycles).
+     * @return The closure of the predicate.
+     */
+    private static BitSet computeClosure(int index, List<Set<Integer>> relation, BitSet[] closure,
+            BitSet onPath) {
+        if (closure[index] != null) {
+            return closure[index];
+        }
+        BitSet related = new BitSet(closure.length);
+        related.set(index);
+        onPath.set(index);
+        for (int next : relation.get(index)) {
+            if (!onPath.get(next)) {
+                related.or(computeClosure(next, relation, closure, onPath));
+            } else {
+                related.set(next);
+            }
+        }
+        onPath.clear(index);
+        closure[index] = related;
+        return related;
+    }
+
+    /**
+     * Immutable indices and descendant/ancestor closures of a taxonomy.
+     */
+    private static final class TaxonomyClosures {
+        private final Map<TaxonomyPredicate, Integer> indices;
+        private final TaxonomyPredicate[] predicates;
+        private final BitSet[] descendants;
+        private final BitSet[] ancestors;
+
+        private TaxonomyClosures(Map<TaxonomyPredicate, Integer> indices, TaxonomyPredicate[] predicates,
+                BitSet[] descendants, BitSet[] ancestors) {
+            this.indices = indices;
+            this.predicates = predicates;
+            this.descendants = descendants;
+            this.ancestors = ancestors;
+        }
+    }
+
     /**
      * Gets mappedPredicates mapped to their IDs.
      *
@@ -158,14 +455,7 @@ public abstract class AllPredicates {
         if (subTreeRoot == null) {
             throw new NullPointerException("Given sub-taxonomy type cannot be null.");
         }
-        SortedSet<TaxonomyPredicate> elements = new TreeSet<>();
-        elements.add(subTreeRoot);
-
-        for (TaxonomyPredicate subType : APEUtils.safe(subTreeRoot.getSubPredicates())) {
-            elements.addAll(getElementsFromSubTaxonomy(subType));
-        }
-
-        return elements;
+        return new TreeSet<>(getSubTaxonomy(subTreeRoot));
     }
 
     /**
@@ -186,6 +476,7 @@ public abstract class AllPredicates {
      */
     public void put(String key, TaxonomyPredicate value) {
         mappedPredicates.put(key, value);
+        closures = null;
 
     }
 
@@ -196,6 +487,7 @@ public abstract class AllPredicates {
      */
     public void remove(String predicateID) {
         mappedPredicates.remove(predicateID);
+        closures = null;
 
     }
 }
@@ -78,6 +78,28 @@ public class AllTypes extends AllPredicates {
         emptyLabelType.addParentPredicate(apeLabelRoot);
     }
 
+    /**
+     * Instantiates a run-local copy of the given types (see
+     * {@link AllPredicates#AllPredicates(AllPredicates)}). The root of the label
+     * dimension is copied as well, as the labels of the workflow outputs are
+     * added to it during the run.
+     *
+     * @param original the types that are copied
+     */
+    public AllTypes(AllTypes original) {
+        super(original);
+        emptyType = original.emptyType;
+        emptyLabelType = original.emptyLabelType;
+        apeLabelRoot = new Type(apeLabel, apeLabel, apeLabel, NodeType.ROOT);
+        if (original.apeLabelRoot.getIsRelevant()) {
+            apeLabelRoot.setIsRelevant();
+        }
+        for (TaxonomyPredicate label : original.apeLabelRoot.getSubPredicates()) {
+            apeLabelRoot.addSubPredicate(label);
+        }
+        put(apeLabelRoot.getPredicateID(), apeLabelRoot);
+    }
+
     /**
      * Helper method that sets the type to be relevant in the current domain
      * 
@@ -85,7 +107,7 @@ public class AllTypes extends AllPredicates {
      */
     private void setRelevant(Type type) {
         type.setAsRelevantTaxonomyTerm(this);
-        getMappedPredicates().put(type.getPredicateID(), type);
+        put(type.getPredicateID(), type);
 
     }
 
@@ -116,7 +138,7 @@ public class AllTypes extends AllPredicates {
         if ((tmpType = get(type.getPredicateID(), type.getRootNodeID())) != null) {
             return tmpType;
         } else {
-            getMappedPredicates().put(type.getPredicateID(), type);
+            put(type.getPredicateID(), type);
             return type;
         }
     }
@@ -49,4 +49,18 @@ public class MappingsException extends RuntimeException {
                 String.format("Two or more predicates share the same signature (ID). %s", message));
     }
 
+    /**
+     * Exception is thrown when the encoding requires more auxiliary variables than
+     * the mapping can provide.
+     * 
+     * @param maxAuxiliary Max number of the auxiliary variables.
+     * @return Mappings exception with information that may help the user solve
+     *         the problem.
+     */
+    public static MappingsException auxiliaryVariablesExhausted(int maxAuxiliary) {
+        return new MappingsException(String.format(
+                "The encoding requires more than %d auxiliary variables, try to simplify the constraints.",
+                maxAuxiliary));
+    }
+
 }
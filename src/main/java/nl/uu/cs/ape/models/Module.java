@@ -58,6 +58,11 @@ public class Module extends AbstractModule {
     @Getter
     private final String executionCommand;
 
+    /**
+     * Cost of using the module in a workflow (1 by default).
+     */
+    private int cost = 1;
+
 
     /**
      * Constructs a new Module with already defined lists of input and output types.
@@ -112,6 +117,7 @@ public class Module extends AbstractModule {
         this.moduleOutput = module.getModuleOutput();
         this.cwlFileReference = module.getCwlFileReference();
         this.executionCommand = module.getExecutionCommand();
+        this.cost = module.getCost();
     }
 
     /**
@@ -179,6 +185,25 @@ public class Module extends AbstractModule {
         this.moduleOutput.add(moduleOutput);
     }
 
+    /**
+     * Returns the cost of using the module in a workflow, as specified in the tool
+     * annotation.
+     *
+     * @return The cost of the module.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Sets the cost of using the module in a workflow.
+     *
+     * @param cost The cost of the module.
+     */
+    public void setCost(int cost) {
+        this.cost = cost;
+    }
+
     /**
      * Returns the list of input keys used in the CWL file.
      * This is used to map the input types to the CWL inputs.
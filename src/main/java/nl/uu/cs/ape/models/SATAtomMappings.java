@@ -214,8 +214,12 @@ public class SATAtomMappings {
      * Get the next auxiliary number and increase the counterErrors by 1.
      *
      * @return Mapping number that can be used for auxiliary variables.
+     * @throws MappingsException All the auxiliary variables were used.
      */
-    public int getNextAuxNum() {
+    public int getNextAuxNum() throws MappingsException {
+        if (auxiliary > auxMax) {
+            throw MappingsException.auxiliaryVariablesExhausted(auxMax);
+        }
         return auxiliary++;
     }
 
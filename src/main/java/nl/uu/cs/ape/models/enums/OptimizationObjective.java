@@ -0,0 +1,40 @@
+package nl.uu.cs.ape.models.enums;
+
+/**
+ * Defines the objectives that can be used to order the workflow solutions,
+ * i.e. the solutions with the lower cost are provided first.
+ * <p>
+ * Values: [{@code NONE}, {@code FEWEST_TOOLS}, {@code FEWEST_INPUTS},
+ * {@code UNUSED_DATA}, {@code TOOL_COST}]
+ *
+ * @author Vedran Kasalica
+ */
+public enum OptimizationObjective {
+
+    /**
+     * The solutions are provided in the order in which they are found.
+     */
+    NONE,
+
+    /**
+     * The cost of a solution is the number of distinct tools used.
+     */
+    FEWEST_TOOLS,
+
+    /**
+     * The cost of a solution is the number of workflow inputs used.
+     */
+    FEWEST_INPUTS,
+
+    /**
+     * The cost of a solution is the number of generated data instances that are
+     * not used, i.e. the solutions that use all the generated data come first.
+     */
+    UNUSED_DATA,
+
+    /**
+     * The cost of a solution is the sum of the costs of the tools used (see the
+     * {@code cost} field of the tool annotations).
+     */
+    TOOL_COST
+}
@@ -0,0 +1,37 @@
+package nl.uu.cs.ape.models.enums;
+
+/**
+ * Defines the formats in which the workflow solutions can be streamed to a
+ * file (see {@link nl.uu.cs.ape.solver.solutionStructure.SolutionStreamWriter}).
+ *
+ * @author Vedran Kasalica
+ */
+public enum SolutionStreamFormat {
+
+    /**
+     * One JSON object per line, each describing a solution.
+     */
+    NDJSON("solutions.ndjson"),
+
+    /**
+     * Compact binary records, where the IDs of the tools and types are stored
+     * only once.
+     */
+    BINARY("solutions.bin");
+
+    /** Default name of the file in the solution directory. */
+    private final String fileName;
+
+    SolutionStreamFormat(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Get the default name of the file in the solution directory.
+     *
+     * @return Name of the file.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -30,6 +30,11 @@ public enum SynthesisFlag {
      */
     TIMEOUT,
 
+    /**
+     * Synthesis was interrupted because it was cancelled by the caller.
+     */
+    CANCELLED,
+
     /**
      * Synthesis was interrupted for an unknown reason.
      */
@@ -52,6 +57,8 @@ public enum SynthesisFlag {
             return "Synthesis was interrupted because it reached the maximum workflow length without finding the specified number of solutions.";
         } else if (this == SynthesisFlag.TIMEOUT) {
             return "Synthesis was interrupted because it reached the maximum run duration.";
+        } else if (this == SynthesisFlag.CANCELLED) {
+            return "Synthesis was interrupted because it was cancelled.";
         } else {
             return "Synthesis was interrupted for an unknown reason.";
         }
@@ -0,0 +1,57 @@
+package nl.uu.cs.ape.models.enums;
+
+/**
+ * Defines the representations of the workflow solutions that can be executed
+ * locally (see
+ * {@link nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutor}),
+ * together with the programs used to run them.
+ *
+ * @author Vedran Kasalica
+ */
+public enum WorkflowRunner {
+
+    /**
+     * The shell script of the workflow, run using bash.
+     */
+    SCRIPT("bash", "workflow.sh"),
+
+    /**
+     * The CWL workflow, run using cwltool.
+     */
+    CWL("cwltool", "workflow.cwl"),
+
+    /**
+     * The Snakemake workflow, run using snakemake.
+     */
+    SNAKEMAKE("snakemake", "Snakefile");
+
+    /** Default command that runs the workflow. */
+    private final String defaultCommand;
+
+    /** Name of the workflow file in the directory of the execution. */
+    private final String fileName;
+
+    WorkflowRunner(String defaultCommand, String fileName) {
+        this.defaultCommand = defaultCommand;
+        this.fileName = fileName;
+    }
+
+    /**
+     * Get the default command that runs the workflow, expected to be on the
+     * path.
+     *
+     * @return The command.
+     */
+    public String getDefaultCommand() {
+        return defaultCommand;
+    }
+
+    /**
+     * Get the name of the workflow file in the directory of the execution.
+     *
+     * @return Name of the file.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -41,12 +41,6 @@ public abstract class TaxonomyPredicate implements PredicateLabel {
      */
     private boolean isRelevant;
 
-    /** True if the parents were set to be relevant. */
-    private boolean parentPredRelevant = false;
-
-    /** True if the children were set to be relevant. */
-    private boolean childPredRelevant = false;
-
     /**
      * Set of all the predicates that are subsumed by the abstract
      * predicate (null if the predicate is a leaf).
@@ -180,9 +174,11 @@ public abstract class TaxonomyPredicate implements PredicateLabel {
     }
 
     /**
-     * Sets the node to be relevant.
+     * Sets the node to be relevant. To set the corresponding parent and child
+     * classes as relevant as well, use
+     * {@link #setAsRelevantTaxonomyTerm(AllPredicates)}.
      */
-    private void setIsRelevant() {
+    public void setIsRelevant() {
         this.isRelevant = true;
     }
 
@@ -218,64 +214,10 @@ public abstract class TaxonomyPredicate implements PredicateLabel {
      * @return true if the predicates were successfully set to be relevant.
      */
     public boolean setAsRelevantTaxonomyTerm(AllPredicates allPredicates) {
-        boolean succExe = true;
-        if (allPredicates == null) {
-            return false;
-        }
-        this.setIsRelevant();
-        for (TaxonomyPredicate parentPredicate : APEUtils.safe(this.parentPredicates)) {
-            succExe = succExe && parentPredicate.setAsRelevantTaxonomyTermBottomUp(allPredicates);
-        }
-        for (TaxonomyPredicate subPredicate : APEUtils.safe(this.subPredicates)) {
-            succExe = succExe && subPredicate.setAsRelevantTaxonomyTermTopDown(allPredicates);
-        }
-        return succExe;
-    }
-
-    /**
-     * Set the current predicate as a relevant part of the taxonomy
-     * and all the corresponding subClasses.
-     *
-     * @param allPredicates Map of all the predicates of the given type.
-     * @return true if the predicates were successfully set to be relevant.
-     */
-    private boolean setAsRelevantTaxonomyTermTopDown(AllPredicates allPredicates) {
-        this.setIsRelevant();
-        if (this.childPredRelevant) {
-            return true;
-        }
-        boolean succExe = true;
         if (allPredicates == null) {
             return false;
         }
-        for (TaxonomyPredicate subPredicate : APEUtils.safe(this.subPredicates)) {
-            succExe = succExe && subPredicate.setAsRelevantTaxonomyTermTopDown(allPredicates);
-        }
-        this.childPredRelevant = true;
-        return succExe;
-    }
-
-    /**
-     * Set the current predicate as a relevant part of the taxonomy
-     * and all the corresponding a parent classes.
-     *
-     * @param allPredicates Map of all the predicates of the given type.
-     * @return true if the predicates were successfully set to be relevant.
-     */
-    private boolean setAsRelevantTaxonomyTermBottomUp(AllPredicates allPredicates) {
-        this.setIsRelevant();
-        if (this.parentPredRelevant) {
-            return true;
-        }
-        boolean succExe = true;
-        if (allPredicates == null) {
-            return false;
-        }
-        for (TaxonomyPredicate parentPredicate : APEUtils.safe(this.parentPredicates)) {
-            succExe = succExe && parentPredicate.setAsRelevantTaxonomyTermBottomUp(allPredicates);
-        }
-        this.parentPredRelevant = true;
-        return succExe;
+        return allPredicates.setAsRelevant(this);
     }
 
     /**
@@ -87,6 +87,7 @@ public class SLTLxAtom extends SLTLxFormula implements Comparable<SLTLxAtom> {
         result = prime * result + ((argumentState == null) ? 0 : argumentState.hashCode());
         result = prime * result + ((elementType == null) ? 0 : elementType.hashCode());
         result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        result = prime * result + (isFalseConstant() ? 1 : 0);
         return result;
     }
 
@@ -116,6 +117,8 @@ public class SLTLxAtom extends SLTLxFormula implements Comparable<SLTLxAtom> {
                 return false;
         } else if (!predicate.equals(other.predicate))
             return false;
+        if (isFalseConstant() != other.isFalseConstant())
+            return false;
         return true;
     }
 
@@ -214,6 +217,28 @@ public class SLTLxAtom extends SLTLxFormula implements Comparable<SLTLxAtom> {
         return new SLTLxAtom(2);
     }
 
+    /**
+     * Check whether the atom is the {@code true} constant (see
+     * {@link #getTrue()}).
+     *
+     * @return {@code true} if the atom is the {@code true} constant.
+     */
+    @Override
+    public boolean isTrueConstant() {
+        return predicate == null && clause != null && clause.atoms.get(0) == 1;
+    }
+
+    /**
+     * Check whether the atom is the {@code false} constant (see
+     * {@link #getFalse()}).
+     *
+     * @return {@code true} if the atom is the {@code false} constant.
+     */
+    @Override
+    public boolean isFalseConstant() {
+        return predicate == null && clause != null && clause.atoms.get(0) == 2;
+    }
+
     @Override
     public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
             SATSynthesisEngine synthesisEngine) {
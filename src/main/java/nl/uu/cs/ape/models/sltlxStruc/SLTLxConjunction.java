@@ -45,6 +45,35 @@ public class SLTLxConjunction extends SLTLxFormula {
 		});
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		Set<SLTLxFormula> simplifiedFacts = new HashSet<>();
+		for (SLTLxFormula fact : conjunctedFacts) {
+			SLTLxFormula simplifiedFact = fact.simplify();
+			if (simplifiedFact.isFalseConstant()) {
+				return SLTLxAtom.getFalse();
+			} else if (simplifiedFact instanceof SLTLxConjunction) {
+				/* Flatten the nested conjunction. */
+				simplifiedFacts.addAll(((SLTLxConjunction) simplifiedFact).conjunctedFacts);
+			} else if (!simplifiedFact.isTrueConstant()) {
+				simplifiedFacts.add(simplifiedFact);
+			}
+		}
+		if (simplifiedFacts.isEmpty()) {
+			return SLTLxAtom.getTrue();
+		} else if (simplifiedFacts.size() == 1) {
+			return simplifiedFacts.iterator().next();
+		}
+		return new SLTLxConjunction(simplifiedFacts);
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		Set<SLTLxFormula> negatedFacts = new HashSet<>();
+		conjunctedFacts.forEach(fact -> negatedFacts.add(new SLTLxNegation(fact)));
+		return new SLTLxDisjunction(negatedFacts).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
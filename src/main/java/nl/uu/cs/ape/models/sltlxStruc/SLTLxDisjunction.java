@@ -34,6 +34,35 @@ public class SLTLxDisjunction extends SLTLxFormula {
 		});
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		Set<SLTLxFormula> simplifiedFacts = new HashSet<>();
+		for (SLTLxFormula fact : disjointFacts) {
+			SLTLxFormula simplifiedFact = fact.simplify();
+			if (simplifiedFact.isTrueConstant()) {
+				return SLTLxAtom.getTrue();
+			} else if (simplifiedFact instanceof SLTLxDisjunction) {
+				/* Flatten the nested disjunction. */
+				simplifiedFacts.addAll(((SLTLxDisjunction) simplifiedFact).disjointFacts);
+			} else if (!simplifiedFact.isFalseConstant()) {
+				simplifiedFacts.add(simplifiedFact);
+			}
+		}
+		if (simplifiedFacts.isEmpty()) {
+			return SLTLxAtom.getFalse();
+		} else if (simplifiedFacts.size() == 1) {
+			return simplifiedFacts.iterator().next();
+		}
+		return new SLTLxDisjunction(simplifiedFacts);
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		Set<SLTLxFormula> negatedFacts = new HashSet<>();
+		disjointFacts.forEach(fact -> negatedFacts.add(new SLTLxNegation(fact)));
+		return new SLTLxConjunction(negatedFacts).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
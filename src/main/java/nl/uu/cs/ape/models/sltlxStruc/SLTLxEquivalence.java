@@ -22,6 +22,27 @@ public class SLTLxEquivalence extends SLTLxFormula {
 		this.secondArg = secondArg;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		SLTLxFormula first = firstArg.simplify();
+		SLTLxFormula second = secondArg.simplify();
+		if (first.isTrueConstant()) {
+			return second;
+		} else if (first.isFalseConstant()) {
+			return second.simplifyNegated();
+		} else if (second.isTrueConstant()) {
+			return first;
+		} else if (second.isFalseConstant()) {
+			return first.simplifyNegated();
+		}
+		return new SLTLxEquivalence(first, second);
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		return new SLTLxXOR(firstArg, secondArg).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
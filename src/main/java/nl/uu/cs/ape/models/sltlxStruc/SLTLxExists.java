@@ -18,6 +18,11 @@ public class SLTLxExists extends SLTLxVarQuantification {
 		super(boundVariable, formula);
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxExists(boundVariable, formula.simplify());
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection curVarMapping,
 			SATSynthesisEngine synthesisEngine) {
@@ -49,8 +49,11 @@ public abstract class SLTLxFormula implements SLTLxElem {
 	private static Set<String> createCNFEncoding(Collection<SLTLxFormula> facts, int stateNo,
 			SATSynthesisEngine synthesisEngine) {
 		Set<String> clauses = new HashSet<>();
-		facts.forEach(fact -> clauses
-				.addAll(fact.getCNFEncoding(stateNo, new SLTLxVariableSubstitutionCollection(), synthesisEngine)));
+		for (SLTLxFormula fact : facts) {
+			synthesisEngine.getCancellation().checkStopped();
+			clauses.addAll(fact.getEncodedFormula(synthesisEngine).getCNFEncoding(stateNo,
+					new SLTLxVariableSubstitutionCollection(), synthesisEngine));
+		}
 		return clauses;
 	}
 
@@ -62,7 +65,64 @@ public abstract class SLTLxFormula implements SLTLxElem {
 	 * @return
 	 */
 	public Set<String> getConstraintCNFEncoding(SATSynthesisEngine synthesisEngine) {
-		return this.getCNFEncoding(0, new SLTLxVariableSubstitutionCollection(), synthesisEngine);
+		return getEncodedFormula(synthesisEngine).getCNFEncoding(0, new SLTLxVariableSubstitutionCollection(),
+				synthesisEngine);
+	}
+
+	/**
+	 * Get the formula that is encoded, i.e. the simplified formula (see
+	 * {@link #simplify()}), unless the simplification is turned off in the run
+	 * configuration.
+	 */
+	private SLTLxFormula getEncodedFormula(SATSynthesisEngine synthesisEngine) {
+		return synthesisEngine.getRunConfig().getSLTLxSimplification() ? simplify() : this;
+	}
+
+	/**
+	 * Create an equivalent formula that is simpler to encode. The simplification
+	 * folds the {@code true} and {@code false} constants, flattens the nested
+	 * conjunctions and disjunctions, removes the double negations and pushes the
+	 * negations over the boolean operators towards the atoms. The temporal
+	 * operators and the quantifiers are kept, but their subformulas are
+	 * simplified. The formula itself is not changed.
+	 * <p>
+	 * The {@code true} and {@code false} constants are kept only if the whole
+	 * formula is constant.
+	 * 
+	 * @return The simplified formula (possibly the formula itself).
+	 */
+	public SLTLxFormula simplify() {
+		return this;
+	}
+
+	/**
+	 * Create a simplified formula that is equivalent to the negation of the
+	 * formula (see {@link #simplify()}).
+	 * 
+	 * @return The simplified negation of the formula.
+	 */
+	public SLTLxFormula simplifyNegated() {
+		return new SLTLxNegation(simplify());
+	}
+
+	/**
+	 * Check whether the formula is the {@code true} constant or a negation of the
+	 * {@code false} constant.
+	 * 
+	 * @return {@code true} if the formula is always satisfied.
+	 */
+	public boolean isTrueConstant() {
+		return false;
+	}
+
+	/**
+	 * Check whether the formula is the {@code false} constant or a negation of
+	 * the {@code true} constant.
+	 * 
+	 * @return {@code true} if the formula is never satisfied.
+	 */
+	public boolean isFalseConstant() {
+		return false;
 	}
 
 }
@@ -20,6 +20,11 @@ public class SLTLxGlobally extends SLTLxFormula {
 		this.formula = formula;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxGlobally(formula.simplify());
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
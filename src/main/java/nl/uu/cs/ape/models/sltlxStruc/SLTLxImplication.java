@@ -22,6 +22,16 @@ public class SLTLxImplication extends SLTLxFormula {
 		this.thenFact = thenFact;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxDisjunction(new SLTLxNegation(ifFact), thenFact).simplify();
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		return new SLTLxConjunction(ifFact, new SLTLxNegation(thenFact)).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
@@ -29,6 +29,16 @@ public class SLTLxNegatedConjunction extends SLTLxFormula {
 		nconjunctedFacts.forEach(fact -> this.nconjunctedFacts.add(fact));
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxConjunction(nconjunctedFacts).simplifyNegated();
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		return new SLTLxConjunction(nconjunctedFacts).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
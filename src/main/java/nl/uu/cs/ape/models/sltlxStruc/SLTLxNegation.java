@@ -19,6 +19,26 @@ public class SLTLxNegation extends SLTLxFormula {
 		this.negatedFact = arg1;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return negatedFact.simplifyNegated();
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		return negatedFact.simplify();
+	}
+
+	@Override
+	public boolean isTrueConstant() {
+		return negatedFact.isFalseConstant();
+	}
+
+	@Override
+	public boolean isFalseConstant() {
+		return negatedFact.isTrueConstant();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
@@ -19,6 +19,11 @@ public class SLTLxNext extends SLTLxFormula {
 		this.formula = formula;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxNext(formula.simplify());
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
@@ -22,6 +22,11 @@ public class SLTLxNextOp extends SLTLxFormula {
 		this.formula = formula;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		return new SLTLxNextOp(operation.simplify(), formula.simplify());
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
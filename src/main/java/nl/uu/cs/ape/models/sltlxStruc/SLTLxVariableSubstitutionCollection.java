@@ -3,6 +3,7 @@ package nl.uu.cs.ape.models.sltlxStruc;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nl.uu.cs.ape.automaton.State;
 
@@ -20,7 +21,7 @@ public class SLTLxVariableSubstitutionCollection {
 	/** Variable mapping to its domain. */
 	private Map<SLTLxVariable, Set<State>> variableDomain;
 	/** Number of variables. */
-	private static int variableNo = 1;
+	private static final AtomicInteger variableNo = new AtomicInteger(1);
 
 	/**
 	 * Create a new variable mapping class.
@@ -59,7 +60,7 @@ public class SLTLxVariableSubstitutionCollection {
 	 * @return Unique variable that corresponds to the current variable binding.
 	 */
 	public SLTLxVariable addNewVariable(SLTLxVariable existingVar, Set<State> varDomain) {
-		SLTLxVariable newVar = new SLTLxVariable("uniqVar_" + (this.variableNo++));
+		SLTLxVariable newVar = new SLTLxVariable("uniqVar_" + variableNo.getAndIncrement());
 		this.mappedVariables.put(existingVar, newVar);
 		this.mappedVariables.put(newVar, newVar);
 		this.variableDomain.put(newVar, varDomain);
@@ -22,6 +22,27 @@ public class SLTLxXOR extends SLTLxFormula {
 		this.secondArg = secondArg;
 	}
 
+	@Override
+	public SLTLxFormula simplify() {
+		SLTLxFormula first = firstArg.simplify();
+		SLTLxFormula second = secondArg.simplify();
+		if (first.isTrueConstant()) {
+			return second.simplifyNegated();
+		} else if (first.isFalseConstant()) {
+			return second;
+		} else if (second.isTrueConstant()) {
+			return first.simplifyNegated();
+		} else if (second.isFalseConstant()) {
+			return first;
+		}
+		return new SLTLxXOR(first, second);
+	}
+
+	@Override
+	public SLTLxFormula simplifyNegated() {
+		return new SLTLxEquivalence(firstArg, secondArg).simplify();
+	}
+
 	@Override
 	public Set<String> getCNFEncoding(int stateNo, SLTLxVariableSubstitutionCollection variableMapping,
 			SATSynthesisEngine synthesisEngine) {
@@ -0,0 +1,161 @@
+package nl.uu.cs.ape.solver;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.sat4j.specs.ISolver;
+
+/**
+ * The {@code CancellationToken} class is used to stop a synthesis run that is
+ * in progress, either on request of the caller (see {@link #cancel()}) or once
+ * the given deadline is reached. The token is checked throughout the encoding
+ * of the synthesis problem and it interrupts the solver that is currently
+ * running, thus the synthesis stops promptly, reporting the solutions found so
+ * far.
+ * <p>
+ * The token is thread safe, i.e. it can be cancelled from a thread other than
+ * the one running the synthesis.
+ *
+ * @author Vedran Kasalica
+ */
+public class CancellationToken {
+
+    /** Time (in ms since the epoch) at which the run should stop, if any. */
+    private final long deadlineMs;
+    /** {@code true} if the run was cancelled by the caller. */
+    private volatile boolean cancelled = false;
+    /** Solvers that are currently running. */
+    private final Set<ISolver> activeSolvers = new HashSet<>();
+
+    /**
+     * Create a token without a deadline, i.e. the run stops only if cancelled.
+     */
+    public CancellationToken() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a token that expires at the given time.
+     *
+     * @param deadlineMs Time at which the run should stop, in milliseconds since
+     *                   the epoch (see {@link System#currentTimeMillis()}).
+     */
+    public CancellationToken(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Create a token that expires after the given duration.
+     *
+     * @param timeoutMs Duration (in ms) after which the run should stop.
+     * @return The new token.
+     */
+    public static CancellationToken withTimeout(long timeoutMs) {
+        long now = System.currentTimeMillis();
+        return new CancellationToken(timeoutMs > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutMs);
+    }
+
+    /**
+     * Cancel the run. The solvers that are currently running are interrupted and
+     * the encoding stops at the next check.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            activeSolvers.forEach(ISolver::expireTimeout);
+        }
+    }
+
+    /**
+     * Check whether the run was cancelled by the caller.
+     *
+     * @return {@code true} if {@link #cancel()} was called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Check whether the deadline was reached.
+     *
+     * @return {@code true} if the deadline was reached.
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= deadlineMs;
+    }
+
+    /**
+     * Check whether the run should stop, i.e. whether it was cancelled or the
+     * deadline was reached.
+     *
+     * @return {@code true} if the run should stop.
+     */
+    public boolean isStopped() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * Get the time left until the deadline.
+     *
+     * @return Time left in ms, {@link Long#MAX_VALUE} if there is no deadline, or
+     *         0 if the run should stop.
+     */
+    public long timeLeftMs() {
+        if (cancelled) {
+            return 0;
+        }
+        if (deadlineMs == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineMs - System.currentTimeMillis());
+    }
+
+    /**
+     * Throw an exception if the run should stop. Used to interrupt the encoding
+     * of the synthesis problem.
+     *
+     * @throws SynthesisInterruptedException if the run was cancelled or the
+     *                                       deadline was reached.
+     */
+    public void checkStopped() throws SynthesisInterruptedException {
+        if (isStopped()) {
+            throw new SynthesisInterruptedException(cancelled);
+        }
+    }
+
+    /**
+     * Register the solver that is currently running, such that it can be
+     * interrupted in case of a cancellation.
+     *
+     * @param solver The running solver, or {@code null} once the solver finished.
+     */
+    public synchronized void setActiveSolver(ISolver solver) {
+        activeSolvers.clear();
+        if (solver != null) {
+            addActiveSolver(solver);
+        }
+    }
+
+    /**
+     * Register one of the solvers that are currently running in parallel, such
+     * that it can be interrupted in case of a cancellation.
+     *
+     * @param solver The running solver.
+     */
+    public synchronized void addActiveSolver(ISolver solver) {
+        activeSolvers.add(solver);
+        if (cancelled) {
+            solver.expireTimeout();
+        }
+    }
+
+    /**
+     * Unregister the solver once it finished (see {@link #addActiveSolver(ISolver)}).
+     *
+     * @param solver The solver that finished.
+     */
+    public synchronized void removeActiveSolver(ISolver solver) {
+        activeSolvers.remove(solver);
+    }
+
+}
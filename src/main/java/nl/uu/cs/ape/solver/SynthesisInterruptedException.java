@@ -0,0 +1,37 @@
+package nl.uu.cs.ape.solver;
+
+/**
+ * The {@code SynthesisInterruptedException} exception is thrown when the
+ * synthesis run is stopped using the {@link CancellationToken}, i.e. when it
+ * was cancelled or it reached the deadline.
+ *
+ * @author Vedran Kasalica
+ */
+public class SynthesisInterruptedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** {@code true} if the run was cancelled, {@code false} if it expired. */
+    private final boolean cancelled;
+
+    /**
+     * Instantiates a new synthesis interrupted exception.
+     *
+     * @param cancelled {@code true} if the run was cancelled by the caller,
+     *                  {@code false} if it reached the deadline.
+     */
+    public SynthesisInterruptedException(boolean cancelled) {
+        super(cancelled ? "Synthesis was cancelled." : "Synthesis reached the deadline.");
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Check whether the run was cancelled by the caller.
+     *
+     * @return {@code true} if the run was cancelled, {@code false} if it reached
+     *         the deadline.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,514 @@
+package nl.uu.cs.ape.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.AllTypes;
+import nl.uu.cs.ape.models.AuxiliaryPredicate;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Pair;
+import nl.uu.cs.ape.models.SATAtomMappings;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.AtomType;
+import nl.uu.cs.ape.models.enums.SynthesisFlag;
+import nl.uu.cs.ape.models.logic.constructs.PredicateLabel;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.models.sltlxStruc.SLTLxLiteral;
+import nl.uu.cs.ape.solver.minisat.SATOutput;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.utils.APEFiles;
+
+/**
+ * The {@code SynthesisResultCache} class is used to store the results of the
+ * synthesis runs, such that repeated runs of the same specification over the
+ * same domain do not have to encode and solve the synthesis problems again.
+ * <p>
+ * The results are identified by a key (see
+ * {@link #computeKey(APERunConfig, APEDomainSetup)}) computed over the
+ * normalised run configuration (workflow inputs and outputs, constraints,
+ * solution length range, number of solutions and the options that affect the
+ * solutions) and the content of the domain (tools and taxonomies). Each
+ * solution is stored as the list of the atoms that are true in the solution
+ * (except the auxiliary ones), where the predicates and the states are
+ * identified by their IDs (stored once per result). The solutions are
+ * reconstructed from the atoms, without running the solver.
+ * <p>
+ * The cache keeps the most recently used results in memory and, optionally,
+ * stores all the results in a directory, one JSON file per result. Only the
+ * results of the runs that finished (i.e. that were not cancelled or
+ * interrupted) are stored. The cache is thread safe.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class SynthesisResultCache {
+
+    /** Flags of the runs whose results are complete, thus can be cached. */
+    private static final List<SynthesisFlag> CACHEABLE_FLAGS = List.of(SynthesisFlag.NONE, SynthesisFlag.UNSAT,
+            SynthesisFlag.MAX_LENGTH);
+
+    /** Extension of the files that store the results. */
+    private static final String FILE_EXTENSION = ".json";
+
+    /** Results that were used most recently, ordered by their last usage. */
+    private final LinkedHashMap<String, JSONObject> memoryCache;
+
+    /** Directory used to store the results, or {@code null}. */
+    private final Path cacheDir;
+
+    /**
+     * Create a cache that keeps the results in memory only.
+     *
+     * @param maxEntries Max number of results kept in memory.
+     */
+    public SynthesisResultCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Create a cache that keeps the most recently used results in memory and
+     * stores all the results in the given directory.
+     *
+     * @param maxEntries Max number of results kept in memory.
+     * @param cacheDir   Directory used to store the results, or {@code null} if
+     *                   the results should be kept in memory only.
+     */
+    public SynthesisResultCache(int maxEntries, Path cacheDir) {
+        this.memoryCache = new LinkedHashMap<String, JSONObject>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JSONObject> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Get the results of the synthesis run with the given configuration, if they
+     * were stored before. The solutions are reconstructed over the given domain.
+     *
+     * @param key         Key of the run (see
+     *                    {@link #computeKey(APERunConfig, APEDomainSetup)}).
+     * @param runConfig   Setup configuration for the synthesis.
+     * @param domainSetup Domain information used by the run (after the workflow
+     *                    inputs and outputs were added).
+     * @return The solutions, or {@code null} if the results are not available.
+     */
+    public SolutionsList lookup(String key, APERunConfig runConfig, APEDomainSetup domainSetup) {
+        JSONObject result;
+        synchronized (memoryCache) {
+            result = memoryCache.get(key);
+        }
+        if (result == null && cacheDir != null) {
+            result = readFromDisk(key);
+            if (result != null) {
+                synchronized (memoryCache) {
+                    memoryCache.put(key, result);
+                }
+            }
+        }
+        if (result == null) {
+            return null;
+        }
+        try {
+            return rebuildSolutions(result, runConfig, domainSetup);
+        } catch (JSONException | IllegalArgumentException e) {
+            log.warn("Cached synthesis results '{}' cannot be used: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store the results of the synthesis run. The results are not stored if the
+     * run did not finish, i.e. if it was cancelled or interrupted.
+     *
+     * @param key          Key of the run (see
+     *                     {@link #computeKey(APERunConfig, APEDomainSetup)}).
+     * @param allSolutions Solutions found by the run.
+     * @return {@code true} if the results were stored.
+     */
+    public boolean store(String key, SolutionsList allSolutions) {
+        if (!CACHEABLE_FLAGS.contains(allSolutions.getFlag())) {
+            return false;
+        }
+        JSONObject result = projectSolutions(allSolutions);
+        synchronized (memoryCache) {
+            memoryCache.put(key, result);
+        }
+        if (cacheDir != null) {
+            writeToDisk(key, result);
+        }
+        return true;
+    }
+
+    /**
+     * Remove all the results from the memory (the results stored in the
+     * directory are kept).
+     */
+    public void clear() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+    }
+
+    /**
+     * Compute the key that identifies the results of the synthesis run. Two runs
+     * have the same key if they have the same workflow inputs and outputs (in the
+     * same order), the same constraints (regardless of their order), the same
+     * solution length range and number of solutions, the same options that affect
+     * the solutions and if they are performed over the same domain.
+     * <p>
+     * The order of the workflow inputs and outputs is kept, as the stored
+     * solutions refer to them by position: the i-th workflow input (output) is
+     * the i-th state of the workflow input (output) block of the type automaton.
+     * Reusing the solutions of a run with the inputs in a different order would
+     * thus bind the inputs of the workflows (e.g. the arguments of the scripts)
+     * to the wrong data.
+     *
+     * @param runConfig   Setup configuration for the synthesis.
+     * @param domainSetup Domain information used by the run.
+     * @return Hexadecimal SHA-256 hash that identifies the run.
+     */
+    public static String computeKey(APERunConfig runConfig, APEDomainSetup domainSetup) {
+        StringBuilder spec = new StringBuilder();
+        spec.append("domain=").append(computeDomainFingerprint(domainSetup)).append("\n");
+        spec.append("solver=").append(runConfig.getSolverType()).append("\n");
+        spec.append("length=").append(runConfig.getSolutionLength().getMin()).append("-")
+                .append(runConfig.getSolutionLength().getMax()).append("\n");
+        spec.append("solutions=").append(runConfig.getMaxNoSolutions()).append("\n");
+        /* The solutions refer to the workflow inputs and outputs by position. */
+        spec.append("inputs=").append(typeIDs(runConfig.getProgramInputs())).append("\n");
+        spec.append("outputs=").append(typeIDs(runConfig.getProgramOutputs())).append("\n");
+        spec.append("use_workflow_input=").append(runConfig.getUseWorkflowInput()).append("\n");
+        spec.append("use_all_generated_data=").append(runConfig.getUseAllGeneratedData()).append("\n");
+        spec.append("tool_seq_repeat=").append(runConfig.getAllowToolSeqRepeat()).append("\n");
+        spec.append("symmetry_breaking=").append(runConfig.getSymmetryBreaking()).append("\n");
+        spec.append("filter_duplicates=").append(runConfig.getFilterDuplicates()).append("\n");
+        spec.append("cnf_preprocessing=").append(runConfig.getCNFPreprocessing()).append("\n");
+        spec.append("sltlx_simplification=").append(runConfig.getSLTLxSimplification()).append("\n");
+        spec.append("optimization_objective=").append(runConfig.getOptimizationObjective()).append("\n");
+
+        List<String> constraints = new ArrayList<>();
+        JSONArray constraintsJSON = runConfig.getConstraintsJSON();
+        if (constraintsJSON != null) {
+            for (int i = 0; i < constraintsJSON.length(); i++) {
+                constraints.add(canonicalJSON(constraintsJSON.get(i)));
+            }
+        }
+        /* The constraints are a conjunction, thus their order is not relevant. */
+        Collections.sort(constraints);
+        spec.append("constraints=").append(constraints).append("\n");
+
+        return sha256(spec.toString());
+    }
+
+    /**
+     * Compute the fingerprint of the domain, based on the tools (including their
+     * inputs, outputs and costs) and the taxonomies. The auxiliary predicates and
+     * the workflow output labels are not taken into account, as they are
+     * introduced by the synthesis runs.
+     *
+     * @param domainSetup Domain information.
+     * @return Hexadecimal SHA-256 hash of the domain.
+     */
+    public static String computeDomainFingerprint(APEDomainSetup domainSetup) {
+        List<String> entries = new ArrayList<>();
+        for (TaxonomyPredicate module : domainSetup.getAllModules().getModules()) {
+            if (module instanceof AuxiliaryPredicate) {
+                continue;
+            }
+            StringBuilder entry = describePredicate(module);
+            if (module instanceof Module) {
+                Module tool = (Module) module;
+                entry.append(" in=").append(typeIDs(tool.getModuleInput()));
+                entry.append(" out=").append(typeIDs(tool.getModuleOutput()));
+                entry.append(" cost=").append(tool.getCost());
+            }
+            entries.add(entry.toString());
+        }
+        for (TaxonomyPredicate type : domainSetup.getAllTypes().getTypes()) {
+            if (type instanceof AuxiliaryPredicate
+                    || (type.getRootNodeID().equals(AllTypes.getLabelRootID()) && !type.isRootPredicate())) {
+                continue;
+            }
+            entries.add(describePredicate(type).toString());
+        }
+        Collections.sort(entries);
+        return sha256(String.join("\n", entries));
+    }
+
+    /**
+     * Describe the predicate and its position in the taxonomy.
+     */
+    private static StringBuilder describePredicate(TaxonomyPredicate predicate) {
+        TreeSet<String> subPredicates = new TreeSet<>();
+        if (predicate.getSubPredicates() != null) {
+            for (TaxonomyPredicate subPredicate : predicate.getSubPredicates()) {
+                subPredicates.add(subPredicate.getPredicateID());
+            }
+        }
+        return new StringBuilder().append(predicate.getType()).append(" ").append(predicate.getPredicateID())
+                .append(" root=").append(predicate.getRootNodeID()).append(" node=")
+                .append(predicate.getNodeType()).append(" sub=").append(subPredicates);
+    }
+
+    /**
+     * Get the IDs of the types, in the given order.
+     */
+    private static List<String> typeIDs(List<Type> types) {
+        List<String> ids = new ArrayList<>();
+        for (Type type : types) {
+            ids.add(type == null ? "" : type.getPredicateID());
+        }
+        return ids;
+    }
+
+    /**
+     * Serialise the JSON element such that equivalent elements have the same
+     * representation, i.e. the keys of the objects are sorted, as well as the
+     * arrays of strings (which represent disjunctions of the taxonomy terms).
+     */
+    private static String canonicalJSON(Object element) {
+        if (element instanceof JSONObject) {
+            JSONObject object = (JSONObject) element;
+            List<String> fields = new ArrayList<>();
+            for (String key : new TreeSet<>(object.keySet())) {
+                fields.add(JSONObject.quote(key) + ":" + canonicalJSON(object.get(key)));
+            }
+            return "{" + String.join(",", fields) + "}";
+        } else if (element instanceof JSONArray) {
+            JSONArray array = (JSONArray) element;
+            List<String> items = new ArrayList<>();
+            boolean onlyStrings = true;
+            for (int i = 0; i < array.length(); i++) {
+                items.add(canonicalJSON(array.get(i)));
+                onlyStrings &= array.get(i) instanceof String;
+            }
+            if (onlyStrings) {
+                Collections.sort(items);
+            }
+            return "[" + String.join(",", items) + "]";
+        } else if (element instanceof String) {
+            return JSONObject.quote(((String) element).trim());
+        } else {
+            return String.valueOf(element);
+        }
+    }
+
+    /**
+     * Compute the SHA-256 hash of the text.
+     */
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+
+    /**
+     * Create the representation of the results that is stored in the cache.
+     */
+    static JSONObject projectSolutions(SolutionsList allSolutions) {
+        JSONObject result = new JSONObject();
+        if (allSolutions.getFlag() != null) {
+            result.put("flag", allSolutions.getFlag().name());
+        }
+        JSONArray solutionsPerLength = new JSONArray();
+        if (allSolutions.getSolutionsPerLength() != null) {
+            for (Pair<Integer> lengthPair : allSolutions.getSolutionsPerLength()) {
+                solutionsPerLength.put(new JSONArray().put(lengthPair.getFirst()).put(lengthPair.getSecond()));
+            }
+        }
+        result.put("solutions_per_length", solutionsPerLength);
+        /* Predicates, states and atom types are referred to by their index in the symbol table. */
+        Map<String, Integer> symbolIndices = new HashMap<>();
+        JSONArray symbols = new JSONArray();
+        JSONArray solutions = new JSONArray();
+        allSolutions.getStream().forEach(solution -> {
+            JSONArray atoms = new JSONArray();
+            SATOutput nativeSolution = (SATOutput) solution.getNativeSolution();
+            for (SLTLxLiteral literal : nativeSolution.getPositiveWorkflowLiterals()) {
+                PredicateLabel predicate = literal.getPredicate();
+                atoms.put(symbolIndex(literal.getWorkflowElementType().name(), symbolIndices, symbols));
+                atoms.put(predicate instanceof State ? 1 : 0);
+                atoms.put(symbolIndex(predicate.getPredicateID(), symbolIndices, symbols));
+                atoms.put(symbolIndex(literal.getUsedInStateArgument().getPredicateID(), symbolIndices, symbols));
+            }
+            solutions.put(new JSONObject().put("length", solution.getSolutionLength()).put("atoms", atoms));
+        });
+        result.put("symbols", symbols);
+        result.put("solutions", solutions);
+        return result;
+    }
+
+    /**
+     * Get the index of the symbol in the symbol table, adding it if necessary.
+     */
+    private static int symbolIndex(String symbol, Map<String, Integer> symbolIndices, JSONArray symbols) {
+        return symbolIndices.computeIfAbsent(symbol, newSymbol -> {
+            symbols.put(newSymbol);
+            return symbols.length() - 1;
+        });
+    }
+
+    /**
+     * Reconstruct the solutions from their representation in the cache.
+     *
+     * @throws IllegalArgumentException if an element of the solutions does not
+     *                                  exist in the domain.
+     */
+    static SolutionsList rebuildSolutions(JSONObject result, APERunConfig runConfig,
+            APEDomainSetup domainSetup) throws JSONException, IllegalArgumentException {
+        SolutionsList allSolutions = new SolutionsList(runConfig);
+        rebuildSolutions(result, runConfig, domainSetup, allSolutions);
+        return allSolutions;
+    }
+
+    /**
+     * Reconstruct the solutions from their representation in the cache and add
+     * them to the given (empty) list, keeping the listeners of the list.
+     *
+     * @throws IllegalArgumentException if an element of the solutions does not
+     *                                  exist in the domain.
+     */
+    static void rebuildSolutions(JSONObject result, APERunConfig runConfig, APEDomainSetup domainSetup,
+            SolutionsList allSolutions) throws JSONException, IllegalArgumentException {
+        SATAtomMappings mappings = allSolutions.getMappings();
+        int maxNoToolInputs = Math.max(domainSetup.getMaxNoToolInputs(), runConfig.getProgramOutputs().size());
+        int maxNoToolOutputs = Math.max(domainSetup.getMaxNoToolOutputs(), runConfig.getProgramInputs().size());
+
+        Map<Integer, ModuleAutomaton> moduleAutomata = new HashMap<>();
+        Map<Integer, TypeAutomaton> typeAutomata = new HashMap<>();
+        Map<Integer, Map<String, State>> automataStates = new HashMap<>();
+        List<SolutionWorkflow> solutions = new ArrayList<>();
+        JSONArray symbols = result.getJSONArray("symbols");
+        JSONArray solutionsJSON = result.getJSONArray("solutions");
+        for (int i = 0; i < solutionsJSON.length(); i++) {
+            JSONObject solutionJSON = solutionsJSON.getJSONObject(i);
+            int length = solutionJSON.getInt("length");
+            if (!moduleAutomata.containsKey(length)) {
+                ModuleAutomaton moduleAutomaton = new ModuleAutomaton(length, maxNoToolInputs, maxNoToolOutputs);
+                TypeAutomaton typeAutomaton = new TypeAutomaton(length, maxNoToolInputs, maxNoToolOutputs);
+                Map<String, State> states = new HashMap<>();
+                for (State state : moduleAutomaton.getAllStates()) {
+                    states.put(state.getPredicateID(), state);
+                }
+                for (State state : typeAutomaton.getAllStates()) {
+                    states.put(state.getPredicateID(), state);
+                }
+                states.put(typeAutomaton.getNullState().getPredicateID(), typeAutomaton.getNullState());
+                moduleAutomata.put(length, moduleAutomaton);
+                typeAutomata.put(length, typeAutomaton);
+                automataStates.put(length, states);
+            }
+            Map<String, State> states = automataStates.get(length);
+
+            JSONArray atoms = solutionJSON.getJSONArray("atoms");
+            int[] model = new int[atoms.length() / 4];
+            for (int j = 0; j < model.length; j++) {
+                AtomType atomType = AtomType.valueOf(symbols.getString(atoms.getInt(4 * j)));
+                String predicateID = symbols.getString(atoms.getInt(4 * j + 2));
+                PredicateLabel predicate = (atoms.getInt(4 * j + 1) == 1) ? states.get(predicateID)
+                        : findPredicate(predicateID, domainSetup);
+                State usedInState = states.get(symbols.getString(atoms.getInt(4 * j + 3)));
+                if (predicate == null || usedInState == null) {
+                    throw new IllegalArgumentException("Element '" + predicateID + "' does not exist in the domain.");
+                }
+                model[j] = mappings.add(predicate, usedInState, atomType);
+            }
+            solutions.add(new SolutionWorkflow(model, moduleAutomata.get(length), typeAutomata.get(length),
+                    mappings));
+        }
+        allSolutions.addSolutions(solutions);
+
+        JSONArray solutionsPerLength = result.getJSONArray("solutions_per_length");
+        for (int i = 0; i < solutionsPerLength.length(); i++) {
+            allSolutions.addNoSolutionsForLength(solutionsPerLength.getJSONArray(i).getInt(0),
+                    solutionsPerLength.getJSONArray(i).getInt(1));
+        }
+        if (result.has("flag")) {
+            allSolutions.setFlag(SynthesisFlag.valueOf(result.getString("flag")));
+        }
+    }
+
+    /**
+     * Find the tool or type with the given ID in the domain.
+     */
+    private static TaxonomyPredicate findPredicate(String predicateID, APEDomainSetup domainSetup) {
+        TaxonomyPredicate predicate = domainSetup.getAllModules().get(predicateID);
+        if (predicate == null) {
+            predicate = domainSetup.getAllTypes().get(predicateID);
+        }
+        return predicate;
+    }
+
+    /**
+     * Read the results from the directory, if they exist.
+     */
+    private JSONObject readFromDisk(String key) {
+        File resultFile = cacheDir.resolve(key + FILE_EXTENSION).toFile();
+        if (!resultFile.isFile()) {
+            return null;
+        }
+        try {
+            return APEFiles.readFileToJSONObject(resultFile);
+        } catch (IOException | JSONException e) {
+            log.warn("Cached synthesis results '{}' cannot be read: {}", resultFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the results to the directory. The results are written to a
+     * temporary file first, such that concurrent readers never read a partially
+     * written file.
+     */
+    private void writeToDisk(String key, JSONObject result) {
+        Path resultPath = cacheDir.resolve(key + FILE_EXTENSION);
+        try {
+            Files.createDirectories(cacheDir);
+            Path tempPath = Files.createTempFile(cacheDir, key, ".tmp");
+            Files.writeString(tempPath, result.toString());
+            try {
+                Files.move(tempPath, resultPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, resultPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Synthesis results cannot be written to '{}': {}", resultPath, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+package nl.uu.cs.ape.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.configuration.APEConfigException;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.enums.SynthesisFlag;
+import nl.uu.cs.ape.solver.minisat.SATSynthesisEngine;
+import nl.uu.cs.ape.solver.minisat.SynthesisCoordinator;
+import nl.uu.cs.ape.solver.minisat.WorkflowLengthBound;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.utils.APEFiles;
+import nl.uu.cs.ape.utils.APEUtils;
+
+/**
+ * The {@code SynthesisSession} class represents a synthesis run whose search
+ * for solutions can be continued, i.e. after the solutions were found, more of
+ * them can be requested (see {@link #next(int)}), without repeating the search
+ * for the solutions that were already found.
+ * <p>
+ * The session explores the workflow lengths in increasing order and keeps the
+ * solver of the length that is currently explored, together with the clauses
+ * that exclude the solutions found so far. The state of the session can be
+ * stored (see {@link #save(Path)}) and the session can be resumed later (see
+ * {@link #resume(APERunConfig, APEDomainSetup, Path)}). As the state of the
+ * solver cannot be stored, the resumed session encodes the current length
+ * again and excludes the solutions of that length that were found before.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class SynthesisSession implements AutoCloseable {
+
+    /** Setup configuration for the synthesis. */
+    @Getter
+    private final APERunConfig runConfig;
+
+    /** Run-local view of the domain used by the session. */
+    private final APEDomainSetup domainSetup;
+
+    /** Solutions found so far. */
+    private final SolutionsList allSolutions;
+
+    /**
+     * Key that identifies the specification of the session, computed when the
+     * session is stored or resumed (see {@link #getSpecKey()}).
+     */
+    private String specKey = null;
+
+    /** Workflow length that is currently explored. */
+    @Getter
+    private int solutionLength;
+
+    /** Engine of the length that is currently explored (null if not encoded). */
+    private SATSynthesisEngine currEngine = null;
+
+    /** Coordinator of the worker processes, if the synthesis is distributed. */
+    private SynthesisCoordinator coordinator = null;
+
+    /**
+     * Create a session for the given specification. The constraints of the
+     * specification are added to the domain, thus the domain should be a
+     * run-local view (see {@link APEDomainSetup#createRunOverlay()}).
+     *
+     * @param runConfig   Setup configuration for the synthesis.
+     * @param domainSetup Run-local view of the domain.
+     */
+    public SynthesisSession(APERunConfig runConfig, APEDomainSetup domainSetup) {
+        this.runConfig = runConfig;
+        this.domainSetup = domainSetup;
+        this.allSolutions = new SolutionsList(runConfig);
+        this.allSolutions.setMaxNumberOfSolutions(0);
+
+        domainSetup.updateConstraints(runConfig.getConstraintsJSON());
+
+        /* Print the setup information when necessary. */
+        APEUtils.debugPrintout(runConfig, domainSetup);
+
+        this.solutionLength = runConfig.getSolutionLength().getMin();
+        /* Skip the lengths for which the specification cannot be satisfied. */
+        int lengthBound = WorkflowLengthBound.lowerBound(domainSetup, runConfig);
+        if (lengthBound > solutionLength) {
+            log.info("Workflows shorter than {} cannot satisfy the specification, skipping lengths {} to {}.",
+                    lengthBound, solutionLength, lengthBound - 1);
+            solutionLength = lengthBound;
+        }
+    }
+
+    /**
+     * Resume the session whose state was stored in the file (see
+     * {@link #save(Path)}).
+     *
+     * @param runConfig   Setup configuration for the synthesis, the same as the
+     *                    one used to create the session.
+     * @param domainSetup Run-local view of the domain.
+     * @param stateFile   File that contains the state of the session.
+     * @return The resumed session.
+     * @throws IOException         Error in reading the file.
+     * @throws APEConfigException  The state does not belong to the given
+     *                             specification or domain.
+     */
+    public static SynthesisSession resume(APERunConfig runConfig, APEDomainSetup domainSetup, Path stateFile)
+            throws IOException, APEConfigException {
+        JSONObject state = APEFiles.readFileToJSONObject(stateFile.toFile());
+        SynthesisSession session = new SynthesisSession(runConfig, domainSetup);
+        if (!session.getSpecKey().equals(state.getString("spec"))) {
+            throw new APEConfigException(
+                    "The synthesis session cannot be resumed, as it was created for a different specification or domain.");
+        }
+        try {
+            SynthesisResultCache.rebuildSolutions(state.getJSONObject("results"), runConfig, domainSetup,
+                    session.allSolutions);
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new APEConfigException("The synthesis session cannot be resumed: " + e.getMessage());
+        }
+        session.solutionLength = state.getInt("length");
+        session.allSolutions.setMaxNumberOfSolutions(session.allSolutions.getNumberOfSolutions());
+        if (runConfig.getFilterDuplicates()) {
+            session.allSolutions.registerFingerprints();
+        }
+        log.info("Synthesis session was resumed at length {} ({} solutions found before).", session.solutionLength,
+                session.allSolutions.getNumberOfSolutions());
+        return session;
+    }
+
+    /**
+     * Get all the solutions found so far.
+     *
+     * @return The list of all the solutions.
+     */
+    public SolutionsList getSolutions() {
+        return allSolutions;
+    }
+
+    /**
+     * Distribute the enumeration of the solutions over the worker processes of
+     * the coordinator. The lengths are still explored in increasing order, while
+     * the solutions of each length are enumerated by the workers in parallel.
+     * The synthesis problems with an optimisation objective are solved locally.
+     *
+     * @param coordinator Coordinator of the worker processes, or {@code null} to
+     *                    solve the problems locally.
+     */
+    public void setCoordinator(SynthesisCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Check whether all the workflow lengths were explored, i.e. whether no more
+     * solutions can be found.
+     *
+     * @return {@code true} if no more solutions can be found.
+     */
+    public boolean isFinished() {
+        return solutionLength > runConfig.getSolutionLength().getMax();
+    }
+
+    /**
+     * Continue the search until the given number of new solutions is found.
+     *
+     * @param noSolutions Number of new solutions that should be found.
+     * @return The list of all the solutions, including the ones found before.
+     * @throws IOException Error in case of not providing a proper configuration
+     *                     file.
+     */
+    public SolutionsList next(int noSolutions) throws IOException {
+        return next(noSolutions, new CancellationToken());
+    }
+
+    /**
+     * Continue the search until the given number of new solutions is found. The
+     * search can be stopped using the cancellation token and it is limited by
+     * the timeout of the run configuration.
+     *
+     * @param noSolutions  Number of new solutions that should be found.
+     * @param cancellation Token used to cancel the search or to limit its
+     *                     duration.
+     * @return The list of all the solutions, including the ones found before, or
+     *         {@code null} in case of an error in the problem encoding.
+     * @throws IOException Error in case of not providing a proper configuration
+     *                     file.
+     */
+    public SolutionsList next(int noSolutions, CancellationToken cancellation) throws IOException {
+        allSolutions.setMaxNumberOfSolutions(allSolutions.getNumberOfSolutions() + noSolutions);
+
+        /*
+         * Loop over different lengths of the workflow until either, max workflow length
+         * or max number of solutions has been found.
+         */
+        String globalTimerID = allSolutions.getTimerID("globalTimer");
+        APEUtils.timerStart(globalTimerID, true);
+        while (allSolutions.getNumberOfSolutions() < allSolutions.getMaxNumberOfSolutions()
+                && solutionLength <= runConfig.getSolutionLength().getMax()
+                && APEUtils.timerTimeLeft(globalTimerID, runConfig.getTimeoutMs()) > 0
+                && !cancellation.isStopped()) {
+
+            try {
+                if (currEngine == null) {
+                    currEngine = new SATSynthesisEngine(domainSetup, allSolutions, runConfig, solutionLength,
+                            cancellation);
+                    currEngine.setCoordinator(coordinator);
+                    APEUtils.printHeader(currEngine.getSolutionSize(), "Workflow discovery - length");
+
+                    /* Encoding of the synthesis problem */
+                    if (!currEngine.synthesisEncoding()) {
+                        log.error("Internal error in problem encoding.");
+                        return null;
+                    }
+                    /* Exclude the solutions of the length that were found before. */
+                    allSolutions.getStream().filter(solution -> solution.getSolutionLength() == solutionLength)
+                            .forEach(currEngine::excludeSolution);
+                } else {
+                    APEUtils.printHeader(currEngine.getSolutionSize(), "Workflow discovery (continued) - length");
+                    currEngine.setCancellation(cancellation);
+                }
+                /* Execution of the synthesis - updates the object allSolutions */
+                allSolutions.addSolutions(currEngine.synthesisExecution());
+            } catch (SynthesisInterruptedException e) {
+                log.warn(e.getMessage());
+                closeEngine();
+                break;
+            }
+            allSolutions.addNoSolutionsForLength(solutionLength, allSolutions.getNumberOfSolutions());
+
+            /* Increase the size of the workflow once all its solutions are found. */
+            if (currEngine.isExhausted()) {
+                closeEngine();
+                solutionLength++;
+            }
+        }
+
+        if ((allSolutions.getNumberOfSolutions() >= allSolutions.getMaxNumberOfSolutions() - 1)) {
+            allSolutions.setFlag(SynthesisFlag.NONE);
+        } else if (cancellation.isCancelled()) {
+            allSolutions.setFlag(SynthesisFlag.CANCELLED);
+        } else if (APEUtils.timerTimeLeft(globalTimerID, runConfig.getTimeoutMs()) <= 0
+                || cancellation.isExpired()) {
+            allSolutions.setFlag(SynthesisFlag.TIMEOUT);
+        } else if (allSolutions.getNumberOfSolutions() == 0) {
+            allSolutions.setFlag(SynthesisFlag.UNSAT);
+        } else if (solutionLength >= runConfig.getSolutionLength().getMax()) {
+            allSolutions.setFlag(SynthesisFlag.MAX_LENGTH);
+        } else {
+            allSolutions.setFlag(SynthesisFlag.UNKNOWN);
+        }
+
+        log.info(allSolutions.getFlag().getMessage());
+        long runTimeMS = APEUtils.timerPrintSolutions(globalTimerID, allSolutions);
+        APEUtils.timerRemove(globalTimerID);
+
+        allSolutions.setSolvingTime(allSolutions.getSolvingTime() + runTimeMS);
+        return allSolutions;
+    }
+
+    /**
+     * Store the state of the session in the file, such that the session can be
+     * resumed later (see {@link #resume(APERunConfig, APEDomainSetup, Path)}).
+     *
+     * @param stateFile File used to store the state of the session.
+     * @throws IOException Error in writing the file.
+     */
+    public void save(Path stateFile) throws IOException {
+        JSONObject state = new JSONObject();
+        state.put("spec", getSpecKey());
+        state.put("length", solutionLength);
+        state.put("results", SynthesisResultCache.projectSolutions(allSolutions));
+        File parentDir = stateFile.toAbsolutePath().getParent().toFile();
+        Files.createDirectories(parentDir.toPath());
+        APEFiles.write2file(state.toString(), stateFile.toFile(), false);
+    }
+
+    /**
+     * Get the key that identifies the specification of the session, computing
+     * it on first use, as hashing the domain is needed only when the session is
+     * stored or resumed.
+     */
+    private String getSpecKey() {
+        if (specKey == null) {
+            specKey = SynthesisResultCache.computeKey(runConfig, domainSetup);
+        }
+        return specKey;
+    }
+
+    /**
+     * Delete the temporary files of the length that is currently explored. The
+     * session can still be continued, in which case the length is encoded again.
+     */
+    @Override
+    public void close() {
+        closeEngine();
+    }
+
+    /**
+     * Delete the temporary files of the current engine and release it.
+     */
+    private void closeEngine() {
+        if (currEngine != null) {
+            try {
+                currEngine.deleteTempFiles();
+            } catch (IOException e) {
+                log.warn("Temporary files of the synthesis could not be deleted: {}", e.getMessage());
+            }
+            currEngine = null;
+        }
+    }
+
+}
@@ -0,0 +1,577 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The {@code CNFPreprocessor} class is used to simplify the CNF encoding of the
+ * synthesis problem before it is given to the solver. The following techniques
+ * are applied until no more simplification is possible:
+ * <ul>
+ * <li>unit propagation,</li>
+ * <li>removal of the subsumed clauses (including the duplicates) and
+ * self-subsuming resolution,</li>
+ * <li>bounded variable elimination, i.e. replacing the clauses that contain a
+ * variable with their resolvents, if that does not increase the number of
+ * clauses.</li>
+ * </ul>
+ * The frozen variables (e.g. the ones that describe the solutions, used to
+ * decode and exclude the solutions) are never eliminated and their fixed
+ * values are kept as unit clauses. The simplified formula is satisfiable under
+ * the same assignments of the frozen variables as the original one, while the
+ * values of the other variables in the models may differ.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class CNFPreprocessor {
+
+    /** Max number of occurrences of each polarity of an eliminated variable. */
+    private static final int MAX_ELIMINATION_OCCURRENCES = 16;
+
+    /** Max length of the clauses created by the variable elimination. */
+    private static final int MAX_RESOLVENT_LENGTH = 24;
+
+    /** Max number of rounds of the simplification. */
+    private static final int MAX_ROUNDS = 5;
+
+    /** Result of the subsumption check when the clause does not subsume. */
+    private static final int NOT_SUBSUMED = Integer.MIN_VALUE;
+
+    /** Number of variables of the formula. */
+    private final int noVariables;
+
+    /** Variables that cannot be eliminated. */
+    private final IntPredicate frozen;
+
+    /** Clauses of the formula, where the removed clauses are {@code null}. */
+    private final List<int[]> clauses = new ArrayList<>();
+
+    /**
+     * Clauses in which each literal occurs (see {@link #index(int)}). The
+     * clauses are not removed from the lists when they are removed or
+     * strengthened, instead the lists are cleaned up when they are read.
+     */
+    private final int[][] occurrences;
+
+    /** Number of the entries in each occurrence list, including the stale ones. */
+    private final int[] occurrenceEntries;
+
+    /** Number of the clauses in which each literal occurs. */
+    private final int[] occurrenceCounts;
+
+    /** Values of the fixed variables (1 true, -1 false, 0 not fixed). */
+    private final byte[] values;
+
+    /** Literals that should be propagated. */
+    private final Deque<Integer> units = new ArrayDeque<>();
+
+    /** Clauses that should be checked for subsumption. */
+    private final Deque<Integer> touched = new ArrayDeque<>();
+
+    /** {@code true} if the formula was found to be unsatisfiable. */
+    private boolean unsat = false;
+
+    private int initialClauses = 0;
+    private long initialLiterals = 0;
+    private int fixedVariables = 0;
+    private int subsumedClauses = 0;
+    private int strengthenedClauses = 0;
+    private int eliminatedVariables = 0;
+
+    /**
+     * Create a preprocessor of the formula over the given number of variables.
+     *
+     * @param noVariables Number of variables of the formula.
+     * @param frozen      Variables that should not be eliminated.
+     */
+    public CNFPreprocessor(int noVariables, IntPredicate frozen) {
+        this.noVariables = noVariables;
+        this.frozen = frozen;
+        this.values = new byte[noVariables + 1];
+        this.occurrences = new int[2 * (noVariables + 1)][];
+        this.occurrenceEntries = new int[2 * (noVariables + 1)];
+        this.occurrenceCounts = new int[2 * (noVariables + 1)];
+    }
+
+    /**
+     * Create a preprocessor of the formula stored in the DIMACS format.
+     *
+     * @param cnfFile File that contains the formula.
+     * @param frozen  Variables that should not be eliminated.
+     * @return The preprocessor that contains the formula.
+     * @throws IOException Error in reading the file, or the file is not in the
+     *                     DIMACS format.
+     */
+    public static CNFPreprocessor fromDimacs(File cnfFile, IntPredicate frozen) throws IOException {
+        CNFPreprocessor preprocessor = null;
+        List<Integer> clause = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(cnfFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("c")) {
+                    continue;
+                } else if (line.startsWith("p")) {
+                    String[] header = line.split("\\s+");
+                    preprocessor = new CNFPreprocessor(Integer.parseInt(header[2]), frozen);
+                    continue;
+                } else if (preprocessor == null) {
+                    throw new IOException("The CNF encoding does not start with the DIMACS header.");
+                }
+                for (String token : line.split("\\s+")) {
+                    int literal = Integer.parseInt(token);
+                    if (literal == 0) {
+                        preprocessor.addClause(clause.stream().mapToInt(Integer::intValue).toArray());
+                        clause.clear();
+                    } else if (Math.abs(literal) > preprocessor.noVariables) {
+                        throw new IOException("Variable " + literal + " is not declared in the DIMACS header.");
+                    } else {
+                        clause.add(literal);
+                    }
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("The CNF encoding is not in the DIMACS format.", e);
+        }
+        if (preprocessor == null) {
+            throw new IOException("The CNF encoding does not contain the DIMACS header.");
+        }
+        return preprocessor;
+    }
+
+    /**
+     * Add the clause to the formula.
+     *
+     * @param literals Literals of the clause.
+     */
+    public void addClause(int[] literals) {
+        initialClauses++;
+        initialLiterals += literals.length;
+        int[] clause = normalise(literals);
+        if (clause != null) {
+            insertClause(clause);
+        }
+    }
+
+    /**
+     * Simplify the formula.
+     *
+     * @return {@code false} if the formula was found to be unsatisfiable,
+     *         {@code true} otherwise.
+     */
+    public boolean simplify() {
+        long startTime = System.currentTimeMillis();
+        for (int round = 0; round < MAX_ROUNDS && !unsat; round++) {
+            subsume();
+            if (unsat || !eliminate()) {
+                break;
+            }
+        }
+        subsume();
+
+        if (unsat) {
+            log.info("CNF preprocessing found the formula to be unsatisfiable.");
+        } else {
+            List<int[]> simplified = getClauses();
+            long literals = simplified.stream().mapToLong(clause -> clause.length).sum();
+            log.info("CNF preprocessing: clauses {} -> {}, literals {} -> {} ({} variables fixed, {} eliminated, "
+                    + "{} clauses subsumed, {} strengthened) in {} ms.", initialClauses, simplified.size(),
+                    initialLiterals, literals, fixedVariables, eliminatedVariables, subsumedClauses,
+                    strengthenedClauses, System.currentTimeMillis() - startTime);
+        }
+        return !unsat;
+    }
+
+    /**
+     * Get the clauses of the simplified formula, including the unit clauses that
+     * fix the frozen variables.
+     *
+     * @return List of the clauses.
+     */
+    public List<int[]> getClauses() {
+        List<int[]> simplified = new ArrayList<>();
+        for (int var = 1; var <= noVariables; var++) {
+            if (values[var] != 0 && frozen.test(var)) {
+                simplified.add(new int[] { values[var] * var });
+            }
+        }
+        for (int[] clause : clauses) {
+            if (clause != null) {
+                simplified.add(clause);
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Add the simplified formula to the solver.
+     *
+     * @param solver Solver used to solve the formula.
+     * @throws ContradictionException The formula is unsatisfiable.
+     */
+    public void load(ISolver solver) throws ContradictionException {
+        if (unsat) {
+            throw new ContradictionException("The formula is unsatisfiable.");
+        }
+        List<int[]> simplified = getClauses();
+        solver.newVar(noVariables);
+        solver.setExpectedNumberOfClauses(simplified.size());
+        for (int[] clause : simplified) {
+            solver.addClause(new VecInt(clause));
+        }
+    }
+
+    /**
+     * Sort the literals of the clause by their variables and remove the repeated
+     * literals.
+     *
+     * @return The normalised clause, or {@code null} if the clause is a tautology.
+     */
+    private static int[] normalise(int[] literals) {
+        int[] sorted = literals.clone();
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = index(sorted[i]);
+        }
+        Arrays.sort(sorted);
+        int[] clause = new int[sorted.length];
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                continue;
+            } else if (i > 0 && (sorted[i] >> 1) == (sorted[i - 1] >> 1)) {
+                return null;
+            }
+            clause[size++] = literal(sorted[i]);
+        }
+        return Arrays.copyOf(clause, size);
+    }
+
+    /**
+     * Index of the literal in the occurrence lists.
+     */
+    private static int index(int literal) {
+        return literal > 0 ? 2 * literal : -2 * literal + 1;
+    }
+
+    /**
+     * Literal with the given index in the occurrence lists.
+     */
+    private static int literal(int index) {
+        return (index & 1) == 0 ? index >> 1 : -(index >> 1);
+    }
+
+    /**
+     * Get the clauses in which the literal occurs, dropping the stale entries of
+     * the occurrence list.
+     *
+     * @return Copy of the occurrence list, which is not affected by the removal
+     *         of the clauses.
+     */
+    private int[] occurrences(int literal) {
+        int index = index(literal);
+        int[] entries = occurrences[index];
+        if (entries == null) {
+            return new int[0];
+        }
+        int size = 0;
+        for (int i = 0; i < occurrenceEntries[index]; i++) {
+            int[] clause = clauses.get(entries[i]);
+            if (clause != null && contains(clause, literal)) {
+                entries[size++] = entries[i];
+            }
+        }
+        occurrenceEntries[index] = size;
+        return Arrays.copyOf(entries, size);
+    }
+
+    /**
+     * Get the number of the clauses in which the literal occurs.
+     */
+    private int countOccurrences(int literal) {
+        return occurrenceCounts[index(literal)];
+    }
+
+    private void addOccurrence(int literal, int id) {
+        int index = index(literal);
+        int[] entries = occurrences[index];
+        if (entries == null) {
+            entries = new int[4];
+        } else if (occurrenceEntries[index] == entries.length) {
+            entries = Arrays.copyOf(entries, 2 * entries.length);
+        }
+        entries[occurrenceEntries[index]++] = id;
+        occurrences[index] = entries;
+        occurrenceCounts[index]++;
+    }
+
+    /**
+     * Check whether the clause, sorted by the variables, contains the literal.
+     */
+    private static boolean contains(int[] clause, int literal) {
+        int var = Math.abs(literal);
+        int low = 0;
+        int high = clause.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleVar = Math.abs(clause[middle]);
+            if (middleVar < var) {
+                low = middle + 1;
+            } else if (middleVar > var) {
+                high = middle - 1;
+            } else {
+                return clause[middle] == literal;
+            }
+        }
+        return false;
+    }
+
+    private void insertClause(int[] clause) {
+        if (clause.length == 0) {
+            unsat = true;
+            return;
+        }
+        int id = clauses.size();
+        clauses.add(clause);
+        for (int literal : clause) {
+            addOccurrence(literal, id);
+        }
+        if (clause.length == 1) {
+            units.add(clause[0]);
+        }
+        touched.add(id);
+    }
+
+    private void removeClause(int id) {
+        int[] clause = clauses.get(id);
+        clauses.set(id, null);
+        for (int literal : clause) {
+            occurrenceCounts[index(literal)]--;
+        }
+    }
+
+    /**
+     * Remove the literal from the clause.
+     */
+    private void strengthen(int id, int literal) {
+        int[] clause = clauses.get(id);
+        int[] strengthened = new int[clause.length - 1];
+        int size = 0;
+        for (int currLiteral : clause) {
+            if (currLiteral != literal) {
+                strengthened[size++] = currLiteral;
+            }
+        }
+        clauses.set(id, strengthened);
+        occurrenceCounts[index(literal)]--;
+        if (strengthened.length == 0) {
+            unsat = true;
+        } else if (strengthened.length == 1) {
+            units.add(strengthened[0]);
+        }
+        touched.add(id);
+    }
+
+    /**
+     * Fix the values of the literals of the unit clauses and simplify the clauses
+     * accordingly.
+     */
+    private boolean propagate() {
+        while (!units.isEmpty() && !unsat) {
+            int literal = units.poll();
+            int var = Math.abs(literal);
+            byte value = (byte) (literal > 0 ? 1 : -1);
+            if (values[var] == value) {
+                continue;
+            } else if (values[var] != 0) {
+                unsat = true;
+                break;
+            }
+            values[var] = value;
+            fixedVariables++;
+            for (int id : occurrences(literal)) {
+                removeClause(id);
+            }
+            for (int id : occurrences(-literal)) {
+                strengthen(id, -literal);
+            }
+        }
+        return !unsat;
+    }
+
+    /**
+     * Remove the clauses subsumed by the touched clauses and strengthen the
+     * clauses using self-subsuming resolution.
+     */
+    private void subsume() {
+        while (propagate() && !touched.isEmpty()) {
+            int id = touched.poll();
+            int[] clause = clauses.get(id);
+            if (clause == null) {
+                continue;
+            }
+            /* Each candidate contains the literal, or its negation, with the fewest occurrences. */
+            int best = clause[0];
+            for (int literal : clause) {
+                if (countOccurrences(literal) + countOccurrences(-literal) < countOccurrences(best)
+                        + countOccurrences(-best)) {
+                    best = literal;
+                }
+            }
+            long signature = signature(clause);
+            for (int candidateLiteral : new int[] { best, -best }) {
+                for (int otherId : occurrences(candidateLiteral)) {
+                    int[] other = clauses.get(otherId);
+                    if (otherId == id || other == null || other.length < clause.length
+                            || (signature & ~signature(other)) != 0) {
+                        continue;
+                    }
+                    int result = subsumes(clause, other);
+                    if (result == 0) {
+                        removeClause(otherId);
+                        subsumedClauses++;
+                    } else if (result != NOT_SUBSUMED) {
+                        strengthen(otherId, -result);
+                        strengthenedClauses++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether the clause subsumes the other clause.
+     *
+     * @return 0 if the clause subsumes the other one, literal {@code l} if the
+     *         other clause can be strengthened by removing {@code -l}, or
+     *         {@link #NOT_SUBSUMED} otherwise.
+     */
+    private static int subsumes(int[] clause, int[] other) {
+        int flipped = 0;
+        int j = 0;
+        for (int literal : clause) {
+            while (j < other.length && Math.abs(other[j]) < Math.abs(literal)) {
+                j++;
+            }
+            if (j == other.length || Math.abs(other[j]) != Math.abs(literal)) {
+                return NOT_SUBSUMED;
+            } else if (other[j] != literal) {
+                if (flipped != 0) {
+                    return NOT_SUBSUMED;
+                }
+                flipped = literal;
+            }
+            j++;
+        }
+        return flipped;
+    }
+
+    /**
+     * Signature of the variables of the clause, used to quickly discard the
+     * clauses that cannot be subsumed.
+     */
+    private static long signature(int[] clause) {
+        long signature = 0;
+        for (int literal : clause) {
+            signature |= 1L << (Math.abs(literal) & 63);
+        }
+        return signature;
+    }
+
+    /**
+     * Eliminate the variables that are not frozen, where possible.
+     *
+     * @return {@code true} if a variable was eliminated.
+     */
+    private boolean eliminate() {
+        boolean eliminated = false;
+        for (int var = 1; var <= noVariables && propagate(); var++) {
+            if (values[var] != 0 || frozen.test(var)) {
+                continue;
+            }
+            int noPositive = countOccurrences(var);
+            int noNegative = countOccurrences(-var);
+            if ((noPositive == 0 && noNegative == 0) || (noPositive != 0 && noNegative != 0
+                    && (noPositive > MAX_ELIMINATION_OCCURRENCES || noNegative > MAX_ELIMINATION_OCCURRENCES))) {
+                continue;
+            }
+            int[] positive = occurrences(var);
+            int[] negative = occurrences(-var);
+            List<int[]> resolvents = new ArrayList<>();
+            boolean bounded = true;
+            for (int i = 0; i < positive.length && bounded; i++) {
+                for (int j = 0; j < negative.length && bounded; j++) {
+                    int[] resolvent = resolve(clauses.get(positive[i]), clauses.get(negative[j]), var);
+                    if (resolvent == null) {
+                        continue;
+                    }
+                    resolvents.add(resolvent);
+                    bounded = resolvent.length <= MAX_RESOLVENT_LENGTH
+                            && resolvents.size() <= positive.length + negative.length;
+                }
+            }
+            if (!bounded) {
+                continue;
+            }
+            for (int id : positive) {
+                removeClause(id);
+            }
+            for (int id : negative) {
+                removeClause(id);
+            }
+            for (int[] resolvent : resolvents) {
+                insertClause(resolvent);
+            }
+            eliminatedVariables++;
+            eliminated = true;
+        }
+        return eliminated;
+    }
+
+    /**
+     * Resolve the two clauses on the variable.
+     *
+     * @return The resolvent, or {@code null} if it is a tautology.
+     */
+    private static int[] resolve(int[] positive, int[] negative, int var) {
+        int[] resolvent = new int[positive.length + negative.length - 2];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < positive.length || j < negative.length) {
+            int literal;
+            if (j == negative.length
+                    || (i < positive.length && Math.abs(positive[i]) < Math.abs(negative[j]))) {
+                literal = positive[i++];
+            } else if (i == positive.length || Math.abs(negative[j]) < Math.abs(positive[i])) {
+                literal = negative[j++];
+            } else if (positive[i] == negative[j]) {
+                literal = positive[i++];
+                j++;
+            } else if (Math.abs(positive[i]) == var) {
+                i++;
+                j++;
+                continue;
+            } else {
+                return null;
+            }
+            resolvent[size++] = literal;
+        }
+        return Arrays.copyOf(resolvent, size);
+    }
+}
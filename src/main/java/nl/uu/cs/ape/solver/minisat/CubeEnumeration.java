@@ -0,0 +1,490 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.reader.ParseFormatException;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.enums.AtomType;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.models.sltlxStruc.SLTLxAtom;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * The {@code CubeEnumeration} class is used to enumerate the solutions of a
+ * single synthesis problem (i.e. one workflow length) using several solvers in
+ * parallel. The search space is split into disjoint cubes, based on the tools
+ * used in the first and, if needed, the last step of the workflow. Each cube is
+ * a set of assumptions, given to one of the solvers, which enumerates the
+ * solutions within the cube and continues with the next cube once the current
+ * one is exhausted.
+ * <p>
+ * The enumeration can be continued after it was interrupted (e.g. once the
+ * required number of solutions is found), as the solvers and the cubes that
+ * were not exhausted are kept. The order of the solutions is not fixed, as it
+ * depends on the scheduling of the solvers. The solvers run on a thread pool
+ * that is created once per enumeration and shut down by {@link #close()}.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+class CubeEnumeration implements ParallelEnumeration {
+
+    /**
+     * Number of cubes per thread, below which the search space is split on the
+     * last step of the workflow as well.
+     */
+    private static final int MIN_CUBES_PER_THREAD = 4;
+
+    /** The synthesis problem. */
+    private final SATSynthesisEngine engine;
+
+    /** Number of solvers that run in parallel. */
+    private final int noThreads;
+
+    /** Threads that run the solvers, reused by the calls of {@link #enumerate}. */
+    private final ExecutorService executor;
+
+    /** Cubes that were not assigned to a solver yet. */
+    private final Deque<int[]> pendingCubes;
+
+    /** Solvers that are not running, the ones with an unfinished cube first. */
+    private final Deque<CubeSolver> idleSolvers = new ArrayDeque<>();
+
+    /** Solvers that are currently running. */
+    private final Set<ISolver> runningSolvers = new HashSet<>();
+
+    /** Solutions found during the current call of {@link #enumerate}. */
+    private List<SolutionWorkflow> solutions;
+
+    /** Max number of the solutions of the current call of {@link #enumerate}. */
+    private int solutionsMax;
+
+    /** Number of the skipped solutions during the current call. */
+    private int duplicatesFound;
+
+    /** {@code true} if the current call of {@link #enumerate} should stop. */
+    private volatile boolean stopped;
+
+    /** {@code true} if there are no more solutions in any of the cubes. */
+    private boolean exhausted = false;
+
+    /** Error in loading the problem into a solver, {@code null} if none. */
+    private IOException error = null;
+
+    /**
+     * Solver and the cube it currently enumerates, {@code null} if none.
+     */
+    private static class CubeSolver {
+        private final ISolver solver;
+        private int[] cube;
+
+        private CubeSolver(ISolver solver, int[] cube) {
+            this.solver = solver;
+            this.cube = cube;
+        }
+    }
+
+    /**
+     * Split the search space of the synthesis problem into cubes.
+     *
+     * @param engine    The synthesis problem, which was already encoded.
+     * @param noThreads Number of solvers that run in parallel.
+     */
+    CubeEnumeration(SATSynthesisEngine engine, int noThreads) {
+        this.engine = engine;
+        this.noThreads = noThreads;
+        this.executor = Executors.newFixedThreadPool(noThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ape-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingCubes = new ArrayDeque<>(createCubes(engine, noThreads * MIN_CUBES_PER_THREAD));
+        log.info("The search is split into " + pendingCubes.size() + " cubes, enumerated by " + noThreads
+                + " solvers.");
+    }
+
+    /**
+     * Enumerate the solutions within the cubes, continuing the previous
+     * enumeration.
+     *
+     * @param solutionsMax Max number of the solutions that should be found.
+     * @param timeoutMs    Time limit (in ms) of the enumeration.
+     * @param cancellation Token used to cancel the enumeration.
+     * @return List of the new solutions.
+     */
+    @Override
+    public List<SolutionWorkflow> enumerate(int solutionsMax, long timeoutMs, CancellationToken cancellation) {
+        this.solutions = new ArrayList<>();
+        this.solutionsMax = solutionsMax;
+        this.duplicatesFound = 0;
+        this.stopped = solutionsMax <= 0;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int i = 0; i < noThreads; i++) {
+                tasks.add(executor.submit(() -> runSolver(deadline, cancellation)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+            awaitTasks(tasks);
+        } catch (ExecutionException e) {
+            log.error("Error while enumerating the solutions in parallel.");
+            log.error(e.getCause().getMessage());
+            stop();
+            awaitTasks(tasks);
+        }
+
+        if (cancellation.isCancelled()) {
+            log.warn("Solving was cancelled.");
+        } else if (!isExhausted() && solutions.size() < solutionsMax) {
+            log.warn("Timeout. Total solving took longer than the timeout: " + engine.getRunConfig().getTimeoutMs()
+                    + " ms.");
+        }
+        if (duplicatesFound > 0) {
+            log.info("Skipped " + duplicatesFound + " solutions with the same data flow as the previous ones.");
+        }
+        return solutions;
+    }
+
+    /**
+     * Wait until the solvers of the current call stopped, so that they do not
+     * run during the next call. The solvers stop shortly, as the enumeration was
+     * stopped.
+     */
+    private static void awaitTasks(List<Future<?>> tasks) {
+        boolean interrupted = false;
+        for (Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Check whether all the solutions of the problem were found.
+     *
+     * @return {@code true} if all the cubes are exhausted.
+     */
+    @Override
+    public synchronized boolean isExhausted() {
+        return exhausted || (error == null && pendingCubes.isEmpty()
+                && idleSolvers.stream().allMatch(worker -> worker.cube == null));
+    }
+
+    /**
+     * Get the error in loading the problem into a solver.
+     *
+     * @return The error, or {@code null} if no error occurred.
+     */
+    @Override
+    public synchronized IOException getError() {
+        return error;
+    }
+
+    /**
+     * Exclude the solution, described by the clauses, from the solvers that were
+     * already created.
+     *
+     * @param clauses Clauses that exclude the solution.
+     */
+    @Override
+    public synchronized void exclude(List<int[]> clauses) {
+        try {
+            for (CubeSolver worker : idleSolvers) {
+                for (int[] clause : clauses) {
+                    worker.solver.addClause(new VecInt(clause));
+                }
+            }
+        } catch (ContradictionException e) {
+            exhaust();
+        }
+    }
+
+    /**
+     * Enumerate the solutions of the cubes until there are no more cubes, or the
+     * enumeration should stop.
+     */
+    private void runSolver(long deadline, CancellationToken cancellation) {
+        CubeSolver worker = nextWorker();
+        while (worker != null) {
+            ISolver solver = worker.solver;
+            cancellation.addActiveSolver(solver);
+            synchronized (this) {
+                runningSolvers.add(solver);
+            }
+            try {
+                while (worker.cube != null && !isStopped(cancellation)) {
+                    long timeLeft = deadline - System.currentTimeMillis();
+                    if (timeLeft <= 0) {
+                        stop();
+                        break;
+                    }
+                    solver.setTimeoutMs(timeLeft);
+                    if (!SATSynthesisEngine.isSatisfiable(solver, worker.cube)) {
+                        worker.cube = nextCube();
+                        continue;
+                    }
+                    SolutionWorkflow solution = new SolutionWorkflow(solver.model(), engine);
+                    if (!addSolution(solution)) {
+                        /* The solution is found again once the enumeration continues. */
+                        break;
+                    }
+                    for (int[] clause : engine.blockingClauses((SATOutput) solution.getNativeSolution())) {
+                        solver.addClause(new VecInt(clause));
+                    }
+                }
+            } catch (ContradictionException e) {
+                /*
+                 * The solutions that were not excluded from the solver include all the
+                 * remaining solutions, thus there are none left.
+                 */
+                worker = null;
+                exhaust();
+            } catch (TimeoutException e) {
+                /* The cube is kept and the enumeration continues with it later. */
+                stop();
+            } finally {
+                cancellation.removeActiveSolver(solver);
+                synchronized (this) {
+                    runningSolvers.remove(solver);
+                }
+            }
+            worker = releaseWorker(worker);
+        }
+    }
+
+    /**
+     * Add the solution to the solutions found, unless the required number of the
+     * solutions was reached or it has the same data flow as one of the previous
+     * ones.
+     *
+     * @return {@code false} if the solution was not used and it should not be
+     *         excluded.
+     */
+    private synchronized boolean addSolution(SolutionWorkflow solution) {
+        if (solutions.size() >= solutionsMax) {
+            return false;
+        }
+        if (engine.getRunConfig().getFilterDuplicates()
+                && !engine.getAllSolutions().registerFingerprint(solution)) {
+            duplicatesFound++;
+            return true;
+        }
+        solutions.add(solution);
+        if (solutions.size() >= solutionsMax) {
+            stop();
+        }
+        return true;
+    }
+
+    /**
+     * Get the next solver that should run, with its cube assigned.
+     *
+     * @return The solver, or {@code null} if there is no cube left or the
+     *         enumeration should stop.
+     */
+    private CubeSolver nextWorker() {
+        int[] cube;
+        synchronized (this) {
+            if (stopped || exhausted || error != null) {
+                return null;
+            }
+            CubeSolver idle = idleSolvers.peekFirst();
+            if (idle != null && (idle.cube != null || !pendingCubes.isEmpty())) {
+                idleSolvers.pollFirst();
+                if (idle.cube == null) {
+                    idle.cube = pendingCubes.poll();
+                }
+                return idle;
+            }
+            cube = pendingCubes.poll();
+            if (cube == null) {
+                return null;
+            }
+        }
+        try {
+            return new CubeSolver(engine.createSolver(), cube);
+        } catch (ContradictionException e) {
+            /* The problem is unsatisfiable. */
+            exhaust();
+        } catch (ParseFormatException | IOException e) {
+            log.error("Error while loading the cnf encoding of the problem by the MiniSAT solver.");
+            log.error(e.getMessage());
+            fail(new IOException("The problem could not be loaded by the solver: " + e.getMessage(), e));
+        }
+        return null;
+    }
+
+    /**
+     * Get the next cube that was not assigned to a solver yet.
+     *
+     * @return The cube, or {@code null} if there is none.
+     */
+    private synchronized int[] nextCube() {
+        return pendingCubes.poll();
+    }
+
+    /**
+     * Return the solver to the idle solvers and get the next solver that should
+     * run.
+     *
+     * @param worker The solver, or {@code null} if it should be discarded.
+     * @return The next solver, or {@code null} if there is none.
+     */
+    private CubeSolver releaseWorker(CubeSolver worker) {
+        synchronized (this) {
+            if (worker != null) {
+                if (worker.cube != null) {
+                    idleSolvers.addFirst(worker);
+                } else {
+                    idleSolvers.addLast(worker);
+                }
+            }
+        }
+        return nextWorker();
+    }
+
+    /**
+     * Stop the current enumeration, interrupting the solvers that are running.
+     */
+    private synchronized void stop() {
+        stopped = true;
+        runningSolvers.forEach(ISolver::expireTimeout);
+    }
+
+    /**
+     * Stop the enumeration, as there are no solutions left.
+     */
+    private synchronized void exhaust() {
+        exhausted = true;
+        pendingCubes.clear();
+        stop();
+    }
+
+    /**
+     * Stop the enumeration, as the problem cannot be loaded. The remaining cubes
+     * are kept, as their solutions were not searched for.
+     */
+    private synchronized void fail(IOException loadError) {
+        if (error == null) {
+            error = loadError;
+        }
+        stop();
+    }
+
+    /**
+     * Check whether the enumeration should stop.
+     */
+    private boolean isStopped(CancellationToken cancellation) {
+        return stopped || cancellation.isStopped();
+    }
+
+    /**
+     * Release the solvers and shut down their threads.
+     */
+    @Override
+    public synchronized void close() {
+        idleSolvers.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Split the search space based on the tools used in the first step of the
+     * workflow and, in case that there are not enough cubes, on the tools used in
+     * the last step as well.
+     *
+     * @param engine   The synthesis problem, which was already encoded.
+     * @param minCubes Number of cubes, below which the last step is used as well.
+     * @return List of the cubes, where each cube is a list of literals.
+     */
+    static List<int[]> createCubes(SATSynthesisEngine engine, int minCubes) {
+        ModuleAutomaton moduleAutomaton = engine.getModuleAutomaton();
+        List<int[]> cubes = partition(engine, moduleAutomaton.get(0));
+        if (moduleAutomaton.size() > 1 && cubes.size() < minCubes) {
+            List<int[]> lastStep = partition(engine, moduleAutomaton.get(moduleAutomaton.size() - 1));
+            List<int[]> product = new ArrayList<>();
+            for (int[] first : cubes) {
+                for (int[] last : lastStep) {
+                    int[] cube = Arrays.copyOf(first, first.length + last.length);
+                    System.arraycopy(last, 0, cube, first.length, last.length);
+                    product.add(cube);
+                }
+            }
+            cubes = product;
+        }
+        return cubes;
+    }
+
+    /**
+     * Split the search space based on the tool used in the given state. The i-th
+     * cube uses the i-th tool and none of the previous ones, while the last cube
+     * uses none of the tools, thus the cubes are disjoint and together cover the
+     * whole search space.
+     *
+     * @param engine      The synthesis problem.
+     * @param moduleState State of the module automaton.
+     * @return List of the cubes.
+     */
+    private static List<int[]> partition(SATSynthesisEngine engine, State moduleState) {
+        List<Integer> toolVariables = new ArrayList<>();
+        for (TaxonomyPredicate potentialModule : engine.getDomainSetup().getAllModules().getModules()) {
+            if (potentialModule instanceof Module
+                    && engine.getToolReachability().isReachable((Module) potentialModule, moduleState)) {
+                Integer variable = engine.getMappings()
+                        .findMapping(new SLTLxAtom(AtomType.MODULE, potentialModule, moduleState));
+                if (variable != null) {
+                    toolVariables.add(variable);
+                }
+            }
+        }
+        toolVariables.sort(null);
+        List<int[]> cubes = new ArrayList<>();
+        for (int i = 0; i <= toolVariables.size(); i++) {
+            int[] cube = new int[i < toolVariables.size() ? i + 1 : i];
+            for (int j = 0; j < i; j++) {
+                cube[j] = -toolVariables.get(j);
+            }
+            if (i < toolVariables.size()) {
+                cube[i] = toolVariables.get(i);
+            }
+            cubes.add(cube);
+        }
+        return cubes;
+    }
+}
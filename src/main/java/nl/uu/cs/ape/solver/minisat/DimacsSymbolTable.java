@@ -0,0 +1,419 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APEConfigException;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.AuxiliaryPredicate;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.SATAtomMappings;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.AtomType;
+import nl.uu.cs.ape.models.logic.constructs.PredicateLabel;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.models.sltlxStruc.SLTLxAtom;
+import nl.uu.cs.ape.solver.SynthesisResultCache;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.utils.APEFiles;
+
+/**
+ * The {@code DimacsSymbolTable} class describes the variables of a synthesis
+ * problem that was exported in the DIMACS format (see
+ * {@link #export(SATSynthesisEngine, Path, Path)}), such that the problem can
+ * be solved by an external SAT solver and its models can be turned into
+ * {@link SolutionWorkflow}s (see
+ * {@link #readSolutions(List, APERunConfig, APEDomainSetup)}).
+ * <p>
+ * The table contains the dimensions of the automata used to encode the problem,
+ * the fingerprint of the domain (see
+ * {@link SynthesisResultCache#computeDomainFingerprint(APEDomainSetup)}) and
+ * the variables that describe the solutions, i.e. the tools used at each step,
+ * the simple types of the data instances and the data flow. The other
+ * variables (e.g. the auxiliary ones) are not needed to interpret the models
+ * and are not described.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class DimacsSymbolTable {
+
+    /** Name of the format of the symbol table. */
+    private static final String FORMAT = "ape-dimacs-symbols";
+
+    /** Version of the format. */
+    private static final int VERSION = 1;
+
+    /** Types of the atoms that describe the solutions. */
+    private static final AtomType[] DESCRIBED_ATOM_TYPES = { AtomType.MODULE, AtomType.MEMORY_TYPE,
+            AtomType.MEM_TYPE_REFERENCE };
+
+    /** Fingerprint of the domain used to encode the problem. */
+    @Getter
+    private final String domainFingerprint;
+
+    /** Length of the workflows described by the problem. */
+    @Getter
+    private final int solutionLength;
+
+    /** Max number of inputs of a tool, used to create the automata. */
+    @Getter
+    private final int maxNoToolInputs;
+
+    /** Max number of outputs of a tool, used to create the automata. */
+    @Getter
+    private final int maxNoToolOutputs;
+
+    /** Number of the variables in the DIMACS file. */
+    @Getter
+    private final int noVariables;
+
+    /** Number of the clauses in the DIMACS file. */
+    @Getter
+    private final int noClauses;
+
+    /**
+     * IDs of the predicates (tools, types and states) used by the atoms, referred
+     * to by their index.
+     */
+    private final List<String> symbols;
+
+    /**
+     * Atoms of each type, stored as triples: [variable, predicate index, state
+     * index].
+     */
+    private final Map<AtomType, int[]> atoms;
+
+    private DimacsSymbolTable(String domainFingerprint, int solutionLength, int maxNoToolInputs,
+            int maxNoToolOutputs, int noVariables, int noClauses, List<String> symbols,
+            Map<AtomType, int[]> atoms) {
+        this.domainFingerprint = domainFingerprint;
+        this.solutionLength = solutionLength;
+        this.maxNoToolInputs = maxNoToolInputs;
+        this.maxNoToolOutputs = maxNoToolOutputs;
+        this.noVariables = noVariables;
+        this.noClauses = noClauses;
+        this.symbols = symbols;
+        this.atoms = atoms;
+    }
+
+    /**
+     * Write the encoded problem as a DIMACS file, together with the symbol table
+     * that describes its variables. The solutions excluded from the problem
+     * while it was solved by the engine are not part of the export.
+     *
+     * @param synthesisEngine Engine that encoded the problem (see
+     *                        {@link SATSynthesisEngine#synthesisEncoding()}).
+     * @param cnfFile         File used to store the problem.
+     * @param symbolsFile     File used to store the symbol table.
+     * @return The symbol table of the problem.
+     * @throws IOException Error in reading the encoding or writing the files.
+     */
+    public static DimacsSymbolTable export(SATSynthesisEngine synthesisEngine, Path cnfFile, Path symbolsFile)
+            throws IOException {
+        File satInputFile = synthesisEngine.getSatInputFile();
+        if (satInputFile == null) {
+            throw new IOException("The synthesis problem was not encoded.");
+        }
+        DimacsSymbolTable symbolTable = create(synthesisEngine);
+        createParentDir(cnfFile);
+        Files.copy(satInputFile.toPath(), cnfFile, StandardCopyOption.REPLACE_EXISTING);
+        createParentDir(symbolsFile);
+        APEFiles.write2file(symbolTable.toJSON().toString(), symbolsFile.toFile(), false);
+        log.info("The problem of length {} was exported to {} ({} variables, {} clauses).",
+                symbolTable.solutionLength, cnfFile, symbolTable.noVariables, symbolTable.noClauses);
+        return symbolTable;
+    }
+
+    /**
+     * Create the symbol table of the problem encoded by the engine.
+     */
+    private static DimacsSymbolTable create(SATSynthesisEngine synthesisEngine) throws IOException {
+        int noVariables;
+        int noClauses;
+        try (BufferedReader reader = Files.newBufferedReader(synthesisEngine.getSatInputFile().toPath(),
+                StandardCharsets.UTF_8)) {
+            String[] header = String.valueOf(reader.readLine()).trim().split("\\s+");
+            if (header.length != 4 || !header[0].equals("p") || !header[1].equals("cnf")) {
+                throw new IOException("The encoding of the problem does not start with a DIMACS header.");
+            }
+            noVariables = Integer.parseInt(header[2]);
+            noClauses = Integer.parseInt(header[3]);
+        }
+
+        SATAtomMappings mappings = synthesisEngine.getMappings();
+        List<String> symbols = new ArrayList<>();
+        Map<String, Integer> symbolIndices = new HashMap<>();
+        Map<AtomType, List<Integer>> atomLists = new HashMap<>();
+        for (AtomType atomType : DESCRIBED_ATOM_TYPES) {
+            atomLists.put(atomType, new ArrayList<>());
+        }
+        for (int variable = mappings.getInitialNumOfMappedAtoms(); variable <= mappings.getSize(); variable++) {
+            SLTLxAtom atom = mappings.findOriginal(variable);
+            if (atom == null || !describesSolution(atom)) {
+                continue;
+            }
+            List<Integer> atomList = atomLists.get(atom.getWorkflowElementType());
+            atomList.add(variable);
+            atomList.add(symbolIndices.computeIfAbsent(atom.getPredicate().getPredicateID(), id -> {
+                symbols.add(id);
+                return symbols.size() - 1;
+            }));
+            atomList.add(symbolIndices.computeIfAbsent(atom.getUsedInStateArgument().getPredicateID(), id -> {
+                symbols.add(id);
+                return symbols.size() - 1;
+            }));
+        }
+        Map<AtomType, int[]> atoms = new HashMap<>();
+        atomLists.forEach(
+                (atomType, atomList) -> atoms.put(atomType, atomList.stream().mapToInt(Integer::intValue).toArray()));
+
+        TypeAutomaton typeAutomaton = synthesisEngine.getTypeAutomaton();
+        return new DimacsSymbolTable(
+                SynthesisResultCache.computeDomainFingerprint(synthesisEngine.getDomainSetup()),
+                synthesisEngine.getSolutionSize(), typeAutomaton.getUsedTypesBlock(0).getStates().size(),
+                typeAutomaton.getMemoryTypesBlock(0).getStates().size(), noVariables, noClauses, symbols, atoms);
+    }
+
+    /**
+     * Check whether the atom is needed to interpret the solutions, i.e. whether
+     * it describes a tool, a simple type of a data instance or the data flow.
+     */
+    private static boolean describesSolution(SLTLxAtom atom) {
+        PredicateLabel predicate = atom.getPredicate();
+        switch (atom.getWorkflowElementType()) {
+            case MODULE:
+                return predicate instanceof Module && !(predicate instanceof AuxiliaryPredicate);
+            case MEMORY_TYPE:
+                return predicate instanceof Type && !(predicate instanceof AuxiliaryPredicate)
+                        && ((Type) predicate).isSimplePredicate();
+            case MEM_TYPE_REFERENCE:
+                return predicate instanceof State && ((State) predicate).getAbsoluteStateNumber() != -1;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Read the symbol table from the file.
+     *
+     * @param symbolsFile File that contains the symbol table.
+     * @return The symbol table.
+     * @throws IOException Error in reading the file, or the file does not
+     *                     contain a symbol table.
+     */
+    public static DimacsSymbolTable read(Path symbolsFile) throws IOException {
+        try {
+            JSONObject json = APEFiles.readFileToJSONObject(symbolsFile.toFile());
+            if (!FORMAT.equals(json.optString("format"))) {
+                throw new IOException("The file " + symbolsFile + " does not contain a symbol table.");
+            }
+            if (json.getInt("version") != VERSION) {
+                throw new IOException(
+                        "Version " + json.getInt("version") + " of the symbol table is not supported.");
+            }
+            List<String> symbols = new ArrayList<>();
+            JSONArray symbolsJSON = json.getJSONArray("symbols");
+            for (int i = 0; i < symbolsJSON.length(); i++) {
+                symbols.add(symbolsJSON.getString(i));
+            }
+            Map<AtomType, int[]> atoms = new HashMap<>();
+            JSONObject atomsJSON = json.getJSONObject("atoms");
+            for (AtomType atomType : DESCRIBED_ATOM_TYPES) {
+                JSONArray atomsOfType = atomsJSON.optJSONArray(atomType.name());
+                int[] values = new int[atomsOfType == null ? 0 : atomsOfType.length()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = atomsOfType.getInt(i);
+                }
+                atoms.put(atomType, values);
+            }
+            return new DimacsSymbolTable(json.getString("domain"), json.getInt("length"),
+                    json.getInt("max_tool_inputs"), json.getInt("max_tool_outputs"), json.getInt("variables"),
+                    json.getInt("clauses"), symbols, atoms);
+        } catch (JSONException e) {
+            throw new IOException("The symbol table " + symbolsFile + " is corrupted.", e);
+        }
+    }
+
+    /**
+     * Get the JSON representation of the symbol table.
+     *
+     * @return JSON object that represents the symbol table.
+     */
+    public JSONObject toJSON() {
+        JSONObject atomsJSON = new JSONObject();
+        atoms.forEach((atomType, values) -> atomsJSON.put(atomType.name(), new JSONArray(values)));
+        return new JSONObject()
+                .put("format", FORMAT)
+                .put("version", VERSION)
+                .put("domain", domainFingerprint)
+                .put("length", solutionLength)
+                .put("max_tool_inputs", maxNoToolInputs)
+                .put("max_tool_outputs", maxNoToolOutputs)
+                .put("variables", noVariables)
+                .put("clauses", noClauses)
+                .put("symbols", new JSONArray(symbols))
+                .put("atoms", atomsJSON);
+    }
+
+    /**
+     * Turn the models of the exported problem, found by an external solver, into
+     * workflow solutions. In case that the run configuration requires it, the
+     * models with the same data flow as one of the previous ones are skipped.
+     *
+     * @param models      Models of the problem (see {@link #readModels(Path)}).
+     * @param runConfig   Setup configuration used to present the solutions.
+     * @param domainSetup Domain used to encode the problem.
+     * @return The list of the solutions.
+     * @throws APEConfigException The symbol table does not belong to the domain.
+     */
+    public SolutionsList readSolutions(List<int[]> models, APERunConfig runConfig, APEDomainSetup domainSetup)
+            throws APEConfigException {
+        if (!domainFingerprint.equals(SynthesisResultCache.computeDomainFingerprint(domainSetup))) {
+            throw new APEConfigException(
+                    "The models cannot be read, as the problem was exported for a different domain.");
+        }
+        ModuleAutomaton moduleAutomaton = new ModuleAutomaton(solutionLength, maxNoToolInputs, maxNoToolOutputs);
+        TypeAutomaton typeAutomaton = new TypeAutomaton(solutionLength, maxNoToolInputs, maxNoToolOutputs);
+        SolutionsList allSolutions = new SolutionsList(runConfig);
+        Map<Integer, Integer> localVariables = mapVariables(allSolutions.getMappings(), moduleAutomaton,
+                typeAutomaton, domainSetup);
+
+        List<SolutionWorkflow> solutions = new ArrayList<>();
+        int duplicatesFound = 0;
+        for (int[] model : models) {
+            List<Integer> literals = new ArrayList<>();
+            for (int literal : model) {
+                Integer localVariable = localVariables.get(literal);
+                if (localVariable != null) {
+                    literals.add(localVariable);
+                }
+            }
+            SolutionWorkflow solution = new SolutionWorkflow(literals.stream().mapToInt(Integer::intValue).toArray(),
+                    moduleAutomaton, typeAutomaton, allSolutions.getMappings());
+            if (runConfig.getFilterDuplicates() && !allSolutions.registerFingerprint(solution)) {
+                duplicatesFound++;
+            } else {
+                solutions.add(solution);
+            }
+        }
+        allSolutions.addSolutions(solutions);
+        allSolutions.addNoSolutionsForLength(solutionLength, allSolutions.getNumberOfSolutions());
+        if (duplicatesFound > 0) {
+            log.info("Skipped " + duplicatesFound + " models with the same data flow as the previous ones.");
+        }
+        return allSolutions;
+    }
+
+    /**
+     * Map the described variables of the exported problem to the variables used
+     * by the given mappings.
+     */
+    private Map<Integer, Integer> mapVariables(SATAtomMappings mappings, ModuleAutomaton moduleAutomaton,
+            TypeAutomaton typeAutomaton, APEDomainSetup domainSetup) throws APEConfigException {
+        Map<String, State> states = new HashMap<>();
+        moduleAutomaton.getAllStates().forEach(state -> states.put(state.getPredicateID(), state));
+        typeAutomaton.getAllStates().forEach(state -> states.put(state.getPredicateID(), state));
+
+        Map<Integer, Integer> localVariables = new HashMap<>();
+        for (AtomType atomType : DESCRIBED_ATOM_TYPES) {
+            int[] values = atoms.get(atomType);
+            for (int i = 0; i + 2 < values.length; i += 3) {
+                String predicateID = symbols.get(values[i + 1]);
+                PredicateLabel predicate;
+                if (atomType == AtomType.MODULE) {
+                    TaxonomyPredicate tool = domainSetup.getAllModules().get(predicateID);
+                    predicate = (tool instanceof Module) ? tool : null;
+                } else if (atomType == AtomType.MEMORY_TYPE) {
+                    TaxonomyPredicate type = domainSetup.getAllTypes().get(predicateID);
+                    predicate = (type instanceof Type) ? type : null;
+                } else {
+                    predicate = states.get(predicateID);
+                }
+                State state = states.get(symbols.get(values[i + 2]));
+                if (predicate == null || state == null) {
+                    throw new APEConfigException("The symbol table refers to '" + predicateID + "' in state '"
+                            + symbols.get(values[i + 2]) + "', which does not exist in the domain.");
+                }
+                localVariables.put(values[i], mappings.add(predicate, state, atomType));
+            }
+        }
+        return localVariables;
+    }
+
+    /**
+     * Read the models of a DIMACS problem found by an external solver. Each model
+     * is a list of literals terminated by 0, optionally prefixed by {@code v} on
+     * each line (as in the SAT competition output). The comments ({@code c}),
+     * status lines ({@code s SATISFIABLE}, {@code SAT}, etc.) and empty lines are
+     * ignored, and the file may contain several models.
+     *
+     * @param modelFile File that contains the models.
+     * @return The list of the models, empty if the problem is unsatisfiable.
+     * @throws IOException Error in reading the file, or the file is not a model
+     *                     file.
+     */
+    public static List<int[]> readModels(Path modelFile) throws IOException {
+        List<int[]> models = new ArrayList<>();
+        List<Integer> currModel = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(modelFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("c") || line.startsWith("s")
+                        || line.equals("SAT") || line.equals("UNSAT") || line.equals("INDET")) {
+                    continue;
+                }
+                if (line.startsWith("v")) {
+                    line = line.substring(1).trim();
+                }
+                for (String token : line.split("\\s+")) {
+                    int literal;
+                    try {
+                        literal = Integer.parseInt(token);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("The file " + modelFile + " does not contain models ('" + token
+                                + "' is not a literal).");
+                    }
+                    if (literal == 0) {
+                        models.add(currModel.stream().mapToInt(Integer::intValue).toArray());
+                        currModel.clear();
+                    } else {
+                        currModel.add(literal);
+                    }
+                }
+            }
+        }
+        if (!currModel.isEmpty()) {
+            models.add(currModel.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return models;
+    }
+
+    private static void createParentDir(Path file) throws IOException {
+        Path parentDir = file.toAbsolutePath().getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The {@code DistributedProtocol} class defines the messages exchanged between
+ * the {@link SynthesisCoordinator} and the {@link SynthesisWorker}s. After the
+ * worker connects and sends the header, the coordinator sends the following
+ * messages:
+ * <ul>
+ * <li>PROBLEM - the ID of the problem, its compressed DIMACS encoding, the
+ * variables whose positive values are negated in order to exclude a solution
+ * and its data flow (see {@link SATSynthesisEngine#blockingClauses(SATOutput)})
+ * and the additional clauses of the problem,</li>
+ * <li>TASK - the ID of the task, the ID of the problem, the cube (see
+ * {@link CubeEnumeration}), the models that should be excluded, the max number
+ * of the models and the time limit,</li>
+ * <li>CANCEL - the ID of the task that should stop,</li>
+ * <li>STOP - the worker should disconnect.</li>
+ * </ul>
+ * The worker answers each task with MODEL messages, containing the ID of the
+ * task and the positive literals of the model that describe the solution,
+ * followed by a DONE message, containing the ID of the task and whether all
+ * the models of the cube were found.
+ * <p>
+ * All the numbers are written as variable-length integers and the lists of
+ * literals are prefixed by their size. The sizes are checked before anything
+ * is allocated, so that a malformed message cannot exhaust the memory.
+ *
+ * @author Vedran Kasalica
+ */
+final class DistributedProtocol {
+
+    /** Header sent by the worker. */
+    static final byte[] MAGIC = { 'A', 'P', 'E', 'W' };
+
+    /** Version of the protocol. */
+    static final int VERSION = 1;
+
+    /** Messages of the coordinator. */
+    static final int PROBLEM = 1;
+    static final int TASK = 2;
+    static final int CANCEL = 3;
+    static final int STOP = 4;
+
+    /** Messages of the worker. */
+    static final int MODEL = 1;
+    static final int DONE = 2;
+
+    /** Max size of a list of literals, e.g. a clause, a cube or a model. */
+    static final int MAX_LITERALS = 1 << 24;
+
+    /** Max size of an array of bytes, i.e. a compressed problem. */
+    static final int MAX_BYTES = 1 << 30;
+
+    /** Size of the chunks in which the arrays of bytes are read. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private DistributedProtocol() {
+    }
+
+    /**
+     * Write the non-negative integer using 7 bits per byte.
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read the integer written by {@link #writeVarInt(DataOutput, int)}.
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed message.");
+    }
+
+    /**
+     * Read the size of a list, written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param maxSize Max size of the list.
+     * @throws IOException if the size is negative or larger than the max size.
+     */
+    static int readSize(DataInput in, int maxSize) throws IOException {
+        int size = readVarInt(in);
+        if (size < 0 || size > maxSize) {
+            throw new IOException("Malformed message, size " + size + " is not in the range 0.." + maxSize + ".");
+        }
+        return size;
+    }
+
+    /**
+     * Write the list of literals, e.g. a clause or a cube.
+     */
+    static void writeLiterals(DataOutput out, int[] literals) throws IOException {
+        writeVarInt(out, literals.length);
+        for (int literal : literals) {
+            writeVarInt(out, (literal << 1) ^ (literal >> 31));
+        }
+    }
+
+    /**
+     * Read the list of literals written by
+     * {@link #writeLiterals(DataOutput, int[])}.
+     *
+     * @param maxSize Max number of the literals.
+     */
+    static int[] readLiterals(DataInput in, int maxSize) throws IOException {
+        int[] literals = new int[readSize(in, maxSize)];
+        for (int i = 0; i < literals.length; i++) {
+            int value = readVarInt(in);
+            literals[i] = (value >>> 1) ^ -(value & 1);
+        }
+        return literals;
+    }
+
+    /**
+     * Write the positive literals of a model, as the differences between the
+     * sorted literals.
+     */
+    static void writeModel(DataOutput out, int[] model) throws IOException {
+        int[] sorted = model.clone();
+        Arrays.sort(sorted);
+        writeVarInt(out, sorted.length);
+        int previous = 0;
+        for (int literal : sorted) {
+            writeVarInt(out, literal - previous);
+            previous = literal;
+        }
+    }
+
+    /**
+     * Read the model written by {@link #writeModel(DataOutput, int[])}.
+     *
+     * @param maxSize Max number of the literals, e.g. the number of variables.
+     */
+    static int[] readModel(DataInput in, int maxSize) throws IOException {
+        int[] model = new int[readSize(in, maxSize)];
+        int previous = 0;
+        for (int i = 0; i < model.length; i++) {
+            previous += readVarInt(in);
+            model[i] = previous;
+        }
+        return model;
+    }
+
+    /**
+     * Write the array of bytes, prefixed by its length.
+     */
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read the array of bytes written by {@link #writeBytes(DataOutput, byte[])}.
+     * The bytes are read in chunks, so that a large size is not allocated unless
+     * the bytes are actually received.
+     */
+    static byte[] readBytes(DataInput in) throws IOException {
+        int size = readSize(in, MAX_BYTES);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(size, CHUNK_SIZE));
+        byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+        for (int remaining = size; remaining > 0; remaining -= chunk.length) {
+            if (remaining < chunk.length) {
+                chunk = new byte[remaining];
+            }
+            in.readFully(chunk);
+            bytes.write(chunk);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Compress the content of the file.
+     */
+    static byte[] compress(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            Files.copy(file.toPath(), out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Get the stream that decompresses the bytes written by {@link #compress(File)}.
+     */
+    static InputStream decompress(byte[] bytes) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(bytes));
+    }
+}
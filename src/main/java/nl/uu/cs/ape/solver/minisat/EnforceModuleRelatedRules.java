@@ -1,6 +1,7 @@
 package nl.uu.cs.ape.solver.minisat;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -13,6 +14,7 @@ import nl.uu.cs.ape.automaton.TypeAutomaton;
 import nl.uu.cs.ape.domain.APEDomainSetup;
 import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.models.AllModules;
+import nl.uu.cs.ape.models.ConstraintTemplateData;
 import nl.uu.cs.ape.models.Module;
 import nl.uu.cs.ape.models.Pair;
 import nl.uu.cs.ape.models.Type;
@@ -29,6 +31,7 @@ import nl.uu.cs.ape.models.sltlxStruc.SLTLxImplication;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxNegatedConjunction;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxNegation;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxXOR;
+import nl.uu.cs.ape.solver.CancellationToken;
 
 /**
  * The {@code ModuleUtils} class is used to encode SLTLx constraints based on
@@ -39,6 +42,14 @@ import nl.uu.cs.ape.models.sltlxStruc.SLTLxXOR;
 @Slf4j
 public final class EnforceModuleRelatedRules {
 
+	/**
+	 * Constraint templates that do not depend on the order of the tools, but only
+	 * on the tools used and the data flow among them.
+	 */
+	private static final Set<String> ORDER_INDEPENDENT_CONSTRAINTS = Set.of("use_m", "nuse_m", "use_t", "nuse_t",
+			"gen_t", "ngen_t", "operationInput", "operationOutput", "connected_op", "not_connected_op",
+			"not_repeat_op");
+
 	/**
 	 * Private constructor is used to to prevent instantiation.
 	 */
@@ -59,7 +70,11 @@ public final class EnforceModuleRelatedRules {
 	 */
 	public static Set<SLTLxFormula> moduleAnnotations(SATSynthesisEngine synthesisInstance) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		CancellationToken cancellation = synthesisInstance.getCancellation();
+		fullEncoding.addAll(unreachableTools(synthesisInstance));
+		cancellation.checkStopped();
 		fullEncoding.addAll(toolInputTypes(synthesisInstance));
+		cancellation.checkStopped();
 
 		fullEncoding.addAll(toolOutputTypes(synthesisInstance));
 		return fullEncoding;
@@ -79,11 +94,15 @@ public final class EnforceModuleRelatedRules {
 	 */
 	public static Set<SLTLxFormula> memoryStructure(SATSynthesisEngine synthesisInstance) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		CancellationToken cancellation = synthesisInstance.getCancellation();
 
-		fullEncoding.addAll(allowDataReferencing(synthesisInstance.getTypeAutomaton()));
+		fullEncoding.addAll(allowDataReferencing(synthesisInstance.getTypeAutomaton(),
+				synthesisInstance.getCompatibilityIndex()));
+		cancellation.checkStopped();
 		fullEncoding.addAll(usageOfGeneratedTypes(synthesisInstance));
+		cancellation.checkStopped();
 		fullEncoding.addAll(dataReference(synthesisInstance.getDomainSetup(),
-				synthesisInstance.getTypeAutomaton()));
+				synthesisInstance.getTypeAutomaton(), synthesisInstance.getCompatibilityIndex()));
 		return fullEncoding;
 	}
 
@@ -98,26 +117,34 @@ public final class EnforceModuleRelatedRules {
 	public static Set<SLTLxFormula> ancestorRelationsDependency(SATSynthesisEngine synthesisInstance) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 		TypeAutomaton typeAutomaton = synthesisInstance.getTypeAutomaton();
+		CancellationToken cancellation = synthesisInstance.getCancellation();
 
 		/**
-		 * Encode reflexivity and transitivity of the relation.
+		 * Encode reflexivity and transitivity of the relation. As data only flows
+		 * forward through the workflow, transitivity is encoded only over the direct
+		 * ancestors (see {@link #ancestorRelTransitivity(TypeAutomaton)}).
 		 */
 		fullEncoding.addAll(relationalReflexivity(AtomType.R_RELATION, typeAutomaton));
-		fullEncoding.addAll(relationalTransitivity(AtomType.R_RELATION, typeAutomaton));
+		fullEncoding.addAll(ancestorRelTransitivity(typeAutomaton));
+		cancellation.checkStopped();
 
 		/**
 		 * Ancestor relation:
-		 * - encode restrictions
+		 * - encode restrictions (data cannot depend on data that comes later)
 		 * - preserve ancestor relation among tool I/O
 		 * - preserve ancestor relation when data referencing
 		 * - restrict that outputs can ONLY depend on inputs of the tool
 		 * ONLY
+		 * - restrict that inputs can ONLY depend on the referenced data
 		 * - restrict that empty types don't depend on anything
 		 */
-		fullEncoding.addAll(restrictAncestorRelationDomain(typeAutomaton));
+		fullEncoding.addAll(restrictAncestorRelationDomain(synthesisInstance));
 		fullEncoding.addAll(ancestorRelRestrictOverModules(synthesisInstance));
 		fullEncoding.addAll(ancestorRelDependencyOverModules(synthesisInstance));
-		fullEncoding.addAll(ancestorRelOverDataReferencing(typeAutomaton));
+		cancellation.checkStopped();
+		fullEncoding.addAll(ancestorRelOverDataReferencing(typeAutomaton, synthesisInstance.getCompatibilityIndex()));
+		fullEncoding.addAll(
+				ancestorRelRestrictOverDataReferencing(typeAutomaton, synthesisInstance.getCompatibilityIndex()));
 
 		return fullEncoding;
 	}
@@ -142,6 +169,34 @@ public final class EnforceModuleRelatedRules {
 		return fullEncoding;
 	}
 
+	/**
+	 * Generate constraints that ensure that the tools are not used in the states
+	 * in which they can never be used (see {@link ToolReachability}). The I/O
+	 * constraints, mutual exclusions and mandatory usage are not encoded for such
+	 * tools.
+	 *
+	 * @return Set of SLTLx formulas that represent the constraints.
+	 */
+	private static Set<SLTLxFormula> unreachableTools(SATSynthesisEngine synthesisInstance) {
+		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		for (TaxonomyPredicate potentialModule : synthesisInstance.getDomainSetup().getAllModules().getModules()) {
+			if ((potentialModule instanceof Module)) {
+				Module module = (Module) potentialModule;
+				for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+					if (!synthesisInstance.getToolReachability().isReachable(module, moduleState)) {
+						fullEncoding.add(
+								new SLTLxNegation(
+										new SLTLxAtom(
+												AtomType.MODULE,
+												module,
+												moduleState)));
+					}
+				}
+			}
+		}
+		return fullEncoding;
+	}
+
 	/**
 	 * Generate constraints that ensure that the set of inputs correspond to the
 	 * tool specifications.<br>
@@ -158,8 +213,11 @@ public final class EnforceModuleRelatedRules {
 			/* ..which is a Tool.. */
 			if ((potentialModule instanceof Module)) {
 				Module module = (Module) potentialModule;
-				/* ..iterate through all the states.. */
+				/* ..iterate through all the states (where the tool can be used).. */
 				for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+					if (!synthesisInstance.getToolReachability().isReachable(module, moduleState)) {
+						continue;
+					}
 					int moduleNo = moduleState.getLocalStateNumber();
 					/* ..and for each state and input state of that module state.. */
 					List<State> currInputStates = synthesisInstance.getTypeAutomaton().getUsedTypesBlock(moduleNo - 1)
@@ -218,7 +276,8 @@ public final class EnforceModuleRelatedRules {
 	 * @return String representing the constraints required to ensure that the
 	 *         {@link AtomType#MEM_TYPE_REFERENCE} are implemented correctly.
 	 */
-	private static Set<SLTLxFormula> dataReference(APEDomainSetup domainSetup, TypeAutomaton typeAutomaton) {
+	private static Set<SLTLxFormula> dataReference(APEDomainSetup domainSetup, TypeAutomaton typeAutomaton,
+			ToolCompatibilityIndex compatibilityIndex) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
 		/* For each type instance */
@@ -242,8 +301,15 @@ public final class EnforceModuleRelatedRules {
 												typeAutomaton.getNullState(),
 												currUsedTypeState)));
 
-						/* ..and for each state in which type can be created in memory .. */
-						for (State refMemoryTypeState : typeAutomaton.getAllMemoryTypesStates()) {
+						/*
+						 * ..and for each state in which type can be created in memory (and that
+						 * can be referenced) ..
+						 */
+						for (State refMemoryTypeState : typeAutomaton
+								.getMemoryStatesUntilBlockNo(currUsedTypeState.getBlockNumber())) {
+							if (!compatibilityIndex.isReferencePossible(refMemoryTypeState, currUsedTypeState)) {
+								continue;
+							}
 							/*
 							 * Pairs of referenced states have to be of the same types.
 							 */
@@ -297,7 +363,8 @@ public final class EnforceModuleRelatedRules {
 	 *
 	 * @return Set of SLTLx formulas that represent the constraints.
 	 */
-	private static Set<SLTLxFormula> allowDataReferencing(TypeAutomaton typeAutomaton) {
+	private static Set<SLTLxFormula> allowDataReferencing(TypeAutomaton typeAutomaton,
+			ToolCompatibilityIndex compatibilityIndex) {
 
 		// setting up input constraints (Shared Memory Approach)
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
@@ -307,9 +374,21 @@ public final class EnforceModuleRelatedRules {
 			for (State currInputState : currBlock.getStates()) {
 				/*
 				 * Used state can reference states that are currently in the shared memory, i.e.
-				 * already created.
+				 * already created, as long as their types can match.
 				 */
-				List<State> possibleMemStates = typeAutomaton.getMemoryStatesUntilBlockNo(blockNumber);
+				List<State> possibleMemStates = new ArrayList<>();
+				for (State existingMemState : typeAutomaton.getMemoryStatesUntilBlockNo(blockNumber)) {
+					if (compatibilityIndex.isReferencePossible(existingMemState, currInputState)) {
+						possibleMemStates.add(existingMemState);
+					} else {
+						fullEncoding.add(
+								new SLTLxNegation(
+										new SLTLxAtom(
+												AtomType.MEM_TYPE_REFERENCE,
+												existingMemState,
+												currInputState)));
+					}
+				}
 				possibleMemStates.add(typeAutomaton.getNullState());
 				Set<SLTLxFormula> allPossibilities = new HashSet<>();
 				for (State existingMemState : possibleMemStates) {
@@ -353,13 +432,17 @@ public final class EnforceModuleRelatedRules {
 
 	/**
 	 * Generate constraints that ensure the data objects cannot depend (have
-	 * ancestors) on
-	 * data objects that are not available in memory.
+	 * ancestors) on data objects that are not available in memory. As data only
+	 * flows forward through the workflow, a data object can depend only on the
+	 * data objects that precede it, i.e. the data objects from the previous blocks
+	 * (in order: memory block 0, used block 0, memory block 1, etc.). Empty data
+	 * objects have no data dependencies.
 	 * 
 	 * @return Set of SLTLx formulas that represent the constraints.
 	 */
-	private static Set<SLTLxFormula> restrictAncestorRelationDomain(TypeAutomaton typeAutomaton) {
-
+	private static Set<SLTLxFormula> restrictAncestorRelationDomain(SATSynthesisEngine synthesisInstance) {
+		TypeAutomaton typeAutomaton = synthesisInstance.getTypeAutomaton();
+		Type emptyType = synthesisInstance.getEmptyType();
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
 		/** For each used state... */
@@ -369,20 +452,24 @@ public final class EnforceModuleRelatedRules {
 
 				/*
 				 * Used state cannot depend on states that are yet to be created, i.e. not yet
-				 * in the shared memory.
+				 * in the shared memory, or on other inputs of the same or later tools.
 				 */
-				for (State nonExistingMemState : typeAutomaton.getMemoryStatesAfterBlockNo(blockNumber)) {
-					fullEncoding.add(
-							new SLTLxNegation(
-									new SLTLxAtom(
-											AtomType.R_RELATION,
-											nonExistingMemState,
-											currInputState)));
+				List<State> nonExistingStates = typeAutomaton.getMemoryStatesAfterBlockNo(blockNumber);
+				nonExistingStates.addAll(typeAutomaton.getUsedStatesAfterBlockNo(blockNumber - 1));
+				for (State nonExistingState : nonExistingStates) {
+					if (!nonExistingState.equals(currInputState)) {
+						fullEncoding.add(
+								new SLTLxNegation(
+										new SLTLxAtom(
+												AtomType.R_RELATION,
+												nonExistingState,
+												currInputState)));
+					}
 				}
 
 				// Empty inputs have no data dependencies
-				for (State existingMemState : typeAutomaton.getMemoryStatesUntilBlockNo(blockNumber)) {
-					/* !(input -> empty) || !R(mem,input) */
+				for (State existingState : typeAutomaton.getAllStatesBeforeUsedBlockNo(blockNumber)) {
+					/* !(input -> empty) || !R(existing,input) */
 					fullEncoding.add(
 							new SLTLxNegatedConjunction(
 									new SLTLxAtom(
@@ -391,7 +478,7 @@ public final class EnforceModuleRelatedRules {
 											currInputState),
 									new SLTLxAtom(
 											AtomType.R_RELATION,
-											existingMemState,
+											existingState,
 											currInputState)));
 				}
 			}
@@ -404,18 +491,35 @@ public final class EnforceModuleRelatedRules {
 
 				/*
 				 * Memory state cannot depend on states that are yet to be created or that were
-				 * just, i.e. not yet in the shared memory.
+				 * just, i.e. not yet in the shared memory, or on inputs of the later tools.
 				 */
-				for (State nonExistingMemState : typeAutomaton.getMemoryStatesAfterBlockNo(blockNumber - 1)) {
-					if (!nonExistingMemState.equals(currMemState)) {
+				List<State> nonExistingStates = typeAutomaton.getMemoryStatesAfterBlockNo(blockNumber - 1);
+				nonExistingStates.addAll(typeAutomaton.getUsedStatesAfterBlockNo(blockNumber - 1));
+				for (State nonExistingState : nonExistingStates) {
+					if (!nonExistingState.equals(currMemState)) {
 						fullEncoding.add(
 								new SLTLxNegation(
 										new SLTLxAtom(
 												AtomType.R_RELATION,
-												nonExistingMemState,
+												nonExistingState,
 												currMemState)));
 					}
 				}
+
+				// Empty outputs have no data dependencies
+				for (State existingState : typeAutomaton.getAllStatesBeforeMemoryBlockNo(blockNumber)) {
+					/* !(output = empty) || !R(existing,output) */
+					fullEncoding.add(
+							new SLTLxNegatedConjunction(
+									new SLTLxAtom(
+											AtomType.MEMORY_TYPE,
+											emptyType,
+											currMemState),
+									new SLTLxAtom(
+											AtomType.R_RELATION,
+											existingState,
+											currMemState)));
+				}
 			}
 		}
 		return fullEncoding;
@@ -427,7 +531,8 @@ public final class EnforceModuleRelatedRules {
 	 * 
 	 * @return Set of SLTLx formulas that represent the constraints.
 	 */
-	private static Set<SLTLxFormula> ancestorRelOverDataReferencing(TypeAutomaton typeAutomaton) {
+	private static Set<SLTLxFormula> ancestorRelOverDataReferencing(TypeAutomaton typeAutomaton,
+			ToolCompatibilityIndex compatibilityIndex) {
 
 		// setting up dependency constraints
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
@@ -439,6 +544,9 @@ public final class EnforceModuleRelatedRules {
 				 * and for each available memory state..
 				 */
 				for (State availableMemState : typeAutomaton.getMemoryStatesUntilBlockNo(blockNumber)) {
+					if (!compatibilityIndex.isReferencePossible(availableMemState, currInputState)) {
+						continue;
+					}
 					/*
 					 * If input references a memory, they are in ancestor relation
 					 * (used -> mem) => R(mem, used)
@@ -459,6 +567,56 @@ public final class EnforceModuleRelatedRules {
 		return fullEncoding;
 	}
 
+	/**
+	 * Generate constraints that ensure that tool inputs depend on the inputs of
+	 * the previous tools only through the referenced data, i.e. if an input of a
+	 * previous tool is an ancestor of the current input, it is an ancestor of the
+	 * referenced memory state as well.
+	 *
+	 * @return Set of SLTLx formulas that represent the constraints.
+	 */
+	private static Set<SLTLxFormula> ancestorRelRestrictOverDataReferencing(TypeAutomaton typeAutomaton,
+			ToolCompatibilityIndex compatibilityIndex) {
+
+		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		/** For each input state... */
+		for (Block currInputBlock : typeAutomaton.getUsedTypesBlocks()) {
+			int blockNumber = currInputBlock.getBlockNumber();
+			for (State currInputState : currInputBlock.getStates()) {
+				/* ..and each available memory state (that can be referenced).. */
+				for (State availableMemState : typeAutomaton.getMemoryStatesUntilBlockNo(blockNumber)) {
+					if (!compatibilityIndex.isReferencePossible(availableMemState, currInputState)) {
+						continue;
+					}
+					/* ..and each input of the previous tools.. */
+					for (int i = 0; i < blockNumber; i++) {
+						for (State prevInputState : typeAutomaton.getUsedTypesBlock(i).getStates()) {
+							/*
+							 * (used -> mem) & R(prevUsed, used) => R(prevUsed, mem)
+							 */
+							fullEncoding.add(
+									new SLTLxImplication(
+											new SLTLxConjunction(
+													new SLTLxAtom(
+															AtomType.MEM_TYPE_REFERENCE,
+															availableMemState,
+															currInputState),
+													new SLTLxAtom(
+															AtomType.R_RELATION,
+															prevInputState,
+															currInputState)),
+											new SLTLxAtom(
+													AtomType.R_RELATION,
+													prevInputState,
+													availableMemState)));
+						}
+					}
+				}
+			}
+		}
+		return fullEncoding;
+	}
+
 	/**
 	 * Function returns the encoding that ensures that tool inputs and outputs are
 	 * preserving the ancestor relation (R). Outputs have to depend on inputs.
@@ -530,10 +688,10 @@ public final class EnforceModuleRelatedRules {
 						AtomType.MEMORY_TYPE,
 						emptyType,
 						currMemState);
-				/* ..and an arbitrary element in the memory.. */
-				for (State existingType : typeAutomaton.getAllMemoryStatesUntilBlockNo(i)) {
+				/* ..and an arbitrary data object that precedes the tool inputs.. */
+				for (State existingType : typeAutomaton.getAllStatesBeforeUsedBlockNo(i)) {
 
-					/* ..if the element from the memory is not ancestor of any of the inputs.. */
+					/* ..if the data object is not ancestor of any of the inputs.. */
 					Set<SLTLxFormula> notInputAncestors = new HashSet<>();
 					for (State currInputState : currInputBlock.getStates()) {
 						notInputAncestors.add(
@@ -647,40 +805,79 @@ public final class EnforceModuleRelatedRules {
 	}
 
 	/**
-	 * Function returns the encoding that ensures that the relation (e.g., ancestor
-	 * relation (R)) is transitive.
-	 * 
-	 * @param binRel        relation that is transitive
+	 * Function returns the encoding that ensures that the ancestor relation (R) is
+	 * transitive. Instead of encoding the transitivity over all triples of states,
+	 * the encoding exploits the order of the blocks in the type automaton. A data object can
+	 * depend only on the preceding data objects (see
+	 * {@link #restrictAncestorRelationDomain(SATSynthesisEngine)}), and only
+	 * through its direct ancestors, i.e. the memory state it references (for tool
+	 * inputs) or the inputs of the tool (for tool outputs). Therefore, the
+	 * ancestors are propagated only from the direct ancestors, i.e. the previous
+	 * block:<br>
+	 * R(s1,mem) & R(mem,used) => R(s1,used), and<br>
+	 * R(s1,used) & R(used,out) => R(s1,out).
+	 *
 	 * @param typeAutomaton system that represents states in the workflow
 	 * @return Set of SLTLx formulas that represent the constraints.
 	 */
-	private static Set<SLTLxFormula> relationalTransitivity(AtomType binRel, TypeAutomaton typeAutomaton) {
+	private static Set<SLTLxFormula> ancestorRelTransitivity(TypeAutomaton typeAutomaton) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
-		/* Relation is transitive for any 3 states in the system. */
-		typeAutomaton.getAllStates()
-				.forEach(state1 -> typeAutomaton.getAllStates()
-						.forEach(state2 -> typeAutomaton.getAllStates()
-								.forEach(state3 ->
-								/*
-								 * Encode the transitivity.
-								 * E.g., R(s1,s2) & R(s2,s3) => R(s1,s3)
-								 */
-								fullEncoding.add(
-										new SLTLxImplication(
-												new SLTLxConjunction(
-														new SLTLxAtom(
-																binRel,
-																state1,
-																state2),
-														new SLTLxAtom(
-																binRel,
-																state2,
-																state3)),
-												new SLTLxAtom(
-														binRel,
-														state1,
-														state3))))));
+		/* For each tool input, propagate the ancestors of the available memory. */
+		for (Block currInputBlock : typeAutomaton.getUsedTypesBlocks()) {
+			for (State currInputState : currInputBlock.getStates()) {
+				for (int i = 0; i <= currInputBlock.getBlockNumber(); i++) {
+					List<State> precedingStates = typeAutomaton.getAllStatesBeforeMemoryBlockNo(i);
+					for (State memState : typeAutomaton.getMemoryTypesBlock(i).getStates()) {
+						fullEncoding.addAll(transitivityOverState(precedingStates, memState, currInputState));
+					}
+				}
+			}
+		}
+
+		/* For each tool output, propagate the ancestors of the tool inputs. */
+		for (int i = 0; i < typeAutomaton.getUsedTypesBlocks().size() - 1; i++) {
+			Block currInputBlock = typeAutomaton.getUsedTypesBlock(i);
+			List<State> precedingStates = typeAutomaton.getAllStatesBeforeUsedBlockNo(i);
+			for (State currMemState : typeAutomaton.getMemoryTypesBlock(i + 1).getStates()) {
+				for (State inputState : currInputBlock.getStates()) {
+					fullEncoding.addAll(transitivityOverState(precedingStates, inputState, currMemState));
+				}
+			}
+		}
+		return fullEncoding;
+	}
+
+	/**
+	 * Encode the transitivity of the ancestor relation (R) over the given
+	 * intermediate state, i.e. R(s1,s2) & R(s2,s3) => R(s1,s3) for each of the
+	 * preceding states s1.
+	 *
+	 * @param precedingStates states that precede the intermediate state
+	 * @param state2          the intermediate state
+	 * @param state3          the state that the intermediate state is ancestor of
+	 * @return Set of SLTLx formulas that represent the constraints.
+	 */
+	private static Set<SLTLxFormula> transitivityOverState(List<State> precedingStates, State state2,
+			State state3) {
+		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		for (State state1 : precedingStates) {
+			fullEncoding.add(
+					new SLTLxImplication(
+							new SLTLxConjunction(
+									new SLTLxAtom(
+											AtomType.R_RELATION,
+											state1,
+											state2),
+									new SLTLxAtom(
+											AtomType.R_RELATION,
+											state2,
+											state3)),
+							new SLTLxAtom(
+									AtomType.R_RELATION,
+									state1,
+									state3)));
+		}
 		return fullEncoding;
 	}
 
@@ -851,8 +1048,11 @@ public final class EnforceModuleRelatedRules {
 			// that is a Tool
 			if ((potentialModule instanceof Module)) {
 				Module module = (Module) potentialModule;
-				// iterate through all the states
+				// iterate through all the states (where the tool can be used)
 				for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+					if (!synthesisInstance.getToolReachability().isReachable(module, moduleState)) {
+						continue;
+					}
 					int moduleNo = moduleState.getLocalStateNumber();
 					// and for each state and output state of that module state
 					List<State> currOutputStates = synthesisInstance.getTypeAutomaton().getMemoryTypesBlock(moduleNo)
@@ -898,20 +1098,21 @@ public final class EnforceModuleRelatedRules {
 	}
 
 	/**
-	 * Generating the mutual exclusion constraints for the pair of tools from
-	 * modules (excluding abstract modules from the taxonomy) in each state of
-	 * moduleAutomaton.
+	 * Generating the mutual exclusion constraints for the pairs of tools from
+	 * modules (excluding abstract modules from the taxonomy) that can be used in
+	 * the given state of moduleAutomaton.
 	 *
-	 * @param pair            pair of modules.
-	 * @param moduleAutomaton Module automaton.
+	 * @param tools       tools that can be used in the state (see
+	 *                    {@link ToolReachability#getReachableTools(State)}).
+	 * @param moduleState state in the module automaton.
 	 * @return The Set of SLTLx formulas that represent the constraints.
 	 */
 
-	public static Set<SLTLxFormula> moduleMutualExclusion(Pair<PredicateLabel> pair, ModuleAutomaton moduleAutomaton) {
+	public static Set<SLTLxFormula> moduleMutualExclusion(Collection<Module> tools, State moduleState) {
 
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
-		for (State moduleState : moduleAutomaton.getAllStates()) {
+		for (Pair<PredicateLabel> pair : getPredicatePairs(new ArrayList<>(tools))) {
 			fullEncoding.add(
 					new SLTLxDisjunction(
 							new SLTLxNegation(
@@ -931,13 +1132,16 @@ public final class EnforceModuleRelatedRules {
 
 	/**
 	 * Generating the mandatory usage constraints of root module @rootModule in each
-	 * state of @moduleAutomaton.
+	 * state of @moduleAutomaton, i.e. one of the tools that can be used in the
+	 * state has to be used.
 	 *
-	 * @param allModules      All the modules.
-	 * @param moduleAutomaton Module automaton.
+	 * @param allModules       All the modules.
+	 * @param toolReachability Tools that can be used in each of the states.
+	 * @param moduleAutomaton  Module automaton.
 	 * @return Set of SLTLx formulas that represent the constraints.
 	 */
-	public static Set<SLTLxFormula> moduleMandatoryUsage(AllModules allModules, ModuleAutomaton moduleAutomaton) {
+	public static Set<SLTLxFormula> moduleMandatoryUsage(AllModules allModules, ToolReachability toolReachability,
+			ModuleAutomaton moduleAutomaton) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
 		if (allModules.getModules().isEmpty()) {
@@ -948,14 +1152,12 @@ public final class EnforceModuleRelatedRules {
 		for (State moduleState : moduleAutomaton.getAllStates()) {
 			Set<SLTLxFormula> allPossibilities = new HashSet<>();
 
-			for (TaxonomyPredicate tool : allModules.getModules()) {
-				if (tool instanceof Module) {
-					allPossibilities.add(
-							new SLTLxAtom(
-									AtomType.MODULE,
-									tool,
-									moduleState));
-				}
+			for (Module tool : toolReachability.getReachableTools(moduleState)) {
+				allPossibilities.add(
+						new SLTLxAtom(
+								AtomType.MODULE,
+								tool,
+								moduleState));
 			}
 			fullEncoding.add(new SLTLxDisjunction(allPossibilities));
 		}
@@ -963,6 +1165,111 @@ public final class EnforceModuleRelatedRules {
 		return fullEncoding;
 	}
 
+	/**
+	 * Generating the symmetry breaking constraints over the tools used in the
+	 * workflow. Reordering the tools that do not depend on each other results in
+	 * workflows with the same data flow, thus only the lexicographically smallest
+	 * tool sequence (w.r.t. the tool indices, see
+	 * {@link AllModules#getPredicateIndex(TaxonomyPredicate)}) is allowed. The
+	 * constraints (lex-leader) ensure that the tool in state k, that does not
+	 * depend on any of the tools in states j..k-1, does not precede the tool in
+	 * state j. As the data flows only forward, the tool in state k depends on
+	 * (i.e. is in the ancestor relation R with) one of the tools j..k-1 iff it
+	 * references one of their outputs directly.<br>
+	 * <br>
+	 * The constraints are only correct if the rest of the specification does not
+	 * depend on the order of the tools (see
+	 * {@link #symmetryBreakingApplicable(APEDomainSetup)}).
+	 *
+	 * @param synthesisInstance A specific synthesis run that contains all the
+	 *                          information specific for it.
+	 * @return Set of SLTLx formulas that represent the constraints.
+	 */
+	public static Set<SLTLxFormula> toolOrderSymmetryBreaking(SATSynthesisEngine synthesisInstance) {
+		Set<SLTLxFormula> fullEncoding = new HashSet<>();
+		ModuleAutomaton moduleAutomaton = synthesisInstance.getModuleAutomaton();
+		TypeAutomaton typeAutomaton = synthesisInstance.getTypeAutomaton();
+		ToolReachability toolReachability = synthesisInstance.getToolReachability();
+		AllModules allModules = synthesisInstance.getDomainSetup().getAllModules();
+		ToolCompatibilityIndex compatibilityIndex = synthesisInstance.getCompatibilityIndex();
+
+		List<State> moduleStates = moduleAutomaton.getAllStates();
+		for (int k = 1; k < moduleStates.size(); k++) {
+			synthesisInstance.getCancellation().checkStopped();
+			State laterModuleState = moduleStates.get(k);
+			List<State> laterInputs = typeAutomaton.getUsedTypesBlock(k).getStates();
+			/* Outputs of the tools in states j..k-1, that the tool in state k might depend on. */
+			List<State> intermediateOutputs = new ArrayList<>();
+			for (int j = k - 1; j >= 0; j--) {
+				State earlierModuleState = moduleStates.get(j);
+				intermediateOutputs.addAll(typeAutomaton.getMemoryTypesBlock(j + 1).getStates());
+
+				Set<SLTLxFormula> dependencies = new HashSet<>();
+				for (State output : intermediateOutputs) {
+					for (State input : laterInputs) {
+						if (compatibilityIndex.isReferencePossible(output, input)) {
+							dependencies.add(
+									new SLTLxAtom(
+											AtomType.MEM_TYPE_REFERENCE,
+											output,
+											input));
+						}
+					}
+				}
+				/* If the tool in state j is used and the tool in state k does not depend on the tools j..k-1.. */
+				for (Module earlierTool : toolReachability.getReachableTools(earlierModuleState)) {
+					int earlierIndex = allModules.getPredicateIndex(earlierTool);
+					Set<SLTLxFormula> allPossibilities = new HashSet<>(dependencies);
+					boolean restricted = false;
+					for (Module laterTool : toolReachability.getReachableTools(laterModuleState)) {
+						if (allModules.getPredicateIndex(laterTool) >= earlierIndex) {
+							allPossibilities.add(
+									new SLTLxAtom(
+											AtomType.MODULE,
+											laterTool,
+											laterModuleState));
+						} else {
+							restricted = true;
+						}
+					}
+					/* ..the tool in state k cannot have a lower index (unless any tool can follow). */
+					if (restricted) {
+						allPossibilities.add(
+								new SLTLxNegation(
+										new SLTLxAtom(
+												AtomType.MODULE,
+												earlierTool,
+												earlierModuleState)));
+						fullEncoding.add(new SLTLxDisjunction(allPossibilities));
+					}
+				}
+			}
+		}
+		return fullEncoding;
+	}
+
+	/**
+	 * Check whether the symmetry breaking constraints (see
+	 * {@link #toolOrderSymmetryBreaking(SATSynthesisEngine)}) can be applied to
+	 * the specification, i.e. whether none of the constraints depends on the order
+	 * of the tools that do not depend on each other.
+	 *
+	 * @param domainSetup Domain information, including the constraints.
+	 * @return {@code true} if the symmetry breaking does not exclude any workflow
+	 *         that has a unique data flow, {@code false} otherwise.
+	 */
+	public static boolean symmetryBreakingApplicable(APEDomainSetup domainSetup) {
+		if (!domainSetup.getSLTLxConstraints().isEmpty()) {
+			return false;
+		}
+		for (ConstraintTemplateData constraint : domainSetup.getUnformattedConstr()) {
+			if (!ORDER_INDEPENDENT_CONSTRAINTS.contains(constraint.getConstraintID())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Generating the mandatory usage of a submodules in case of the parent module
 	 * being used, with respect to the Module Taxonomy. The rule starts from
@@ -978,42 +1285,41 @@ public final class EnforceModuleRelatedRules {
 	public static Set<SLTLxFormula> moduleTaxonomyStructure(AllModules allModules, TaxonomyPredicate currModule,
 			ModuleAutomaton moduleAutomaton) {
 
+		/* Each module in the taxonomy is visited once, regardless of the number of parents. */
+		List<TaxonomyPredicate> taxonomyModules = allModules.getSubTaxonomy(currModule);
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 		for (State moduleState : moduleAutomaton.getAllStates()) {
-			fullEncoding.addAll(moduleTaxonomyStructureForState(allModules, currModule, moduleState));
+			fullEncoding.addAll(moduleTaxonomyStructureForState(taxonomyModules, moduleState));
 		}
 		return fullEncoding;
 	}
 
 	/**
-	 * The recursive method used in
-	 * {@link #moduleEnforceTaxonomyStructure}, to enforce the taxonomy structure in
-	 * the solution.
+	 * The method used in {@link #moduleTaxonomyStructure}, to enforce the taxonomy
+	 * structure in the solution.
 	 *
-	 * @param allModules  All the modules.
-	 * @param currModule  Module that should be used.
-	 * @param moduleState State in which the module should be used.
+	 * @param taxonomyModules All the modules in the taxonomy (sub-taxonomy) that is
+	 *                        enforced.
+	 * @param moduleState     State in which the module should be used.
 	 */
-	private static Set<SLTLxFormula> moduleTaxonomyStructureForState(AllModules allModules,
-			TaxonomyPredicate currModule, State moduleState) {
-		SLTLxAtom superModuleState = new SLTLxAtom(AtomType.MODULE, currModule, moduleState);
-
+	private static Set<SLTLxFormula> moduleTaxonomyStructureForState(List<TaxonomyPredicate> taxonomyModules,
+			State moduleState) {
 		Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
-		List<SLTLxAtom> subModulesStates = new ArrayList<>();
-		if (!(currModule.getSubPredicates() == null || currModule.getSubPredicates().isEmpty())) {
-			/*
-			 * Ensuring the TOP-DOWN taxonomy tree dependency
-			 */
-			for (TaxonomyPredicate subModule : APEUtils.safe(currModule.getSubPredicates())) {
+		for (TaxonomyPredicate currModule : taxonomyModules) {
+			if (currModule.getSubPredicates() == null || currModule.getSubPredicates().isEmpty()) {
+				continue;
+			}
+			SLTLxAtom superModuleState = new SLTLxAtom(AtomType.MODULE, currModule, moduleState);
+
+			List<SLTLxAtom> subModulesStates = new ArrayList<>();
+			for (TaxonomyPredicate subModule : currModule.getSubPredicates()) {
 				if (subModule == null) {
 					log.error("Submodule is 'null': " + currModule.getPredicateID() + " ->"
 							+ currModule.getSubPredicates().toString());
+					continue;
 				}
-				SLTLxAtom subModuleState = new SLTLxAtom(AtomType.MODULE, subModule, moduleState);
-				subModulesStates.add(subModuleState);
-
-				fullEncoding.addAll(moduleTaxonomyStructureForState(allModules, subModule, moduleState));
+				subModulesStates.add(new SLTLxAtom(AtomType.MODULE, subModule, moduleState));
 			}
 			/*
 			 * Ensuring the TOP-DOWN taxonomy tree dependency
@@ -25,6 +25,7 @@ import nl.uu.cs.ape.models.sltlxStruc.SLTLxFormula;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxImplication;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxNegatedConjunction;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxNegation;
+import nl.uu.cs.ape.solver.CancellationToken;
 
 /**
  * The {@code EnforceTypeRelatedRules} class is used to encode SLTLx constraints
@@ -111,9 +112,11 @@ public class EnforceTypeRelatedRules {
      *
      * @param domainSetup   Domain model
      * @param typeAutomaton System that represents states in the workflow
+     * @param cancellation  Token used to stop the encoding.
      * @return String representation of constraints.
      */
-    public static Set<SLTLxFormula> typeMandatoryUsage(APEDomainSetup domainSetup, TypeAutomaton typeAutomaton) {
+    public static Set<SLTLxFormula> typeMandatoryUsage(APEDomainSetup domainSetup, TypeAutomaton typeAutomaton,
+            CancellationToken cancellation) {
         Set<SLTLxFormula> fullEncoding = new HashSet<>();
         Type empty = domainSetup.getAllTypes().getEmptyType();
         Type dataType = AuxTypePredicate.generateAuxiliaryPredicate(
@@ -121,6 +124,7 @@ public class EnforceTypeRelatedRules {
         // enforcement of types in in all the states (those that represent general
         // memory and used data instances)
         for (Block typeBlock : typeAutomaton.getMemoryTypesBlocks()) {
+            cancellation.checkStopped();
             for (State memTypeState : typeBlock.getStates()) {
                 fullEncoding.add(
                         new SLTLxDisjunction(
@@ -135,6 +139,7 @@ public class EnforceTypeRelatedRules {
             }
         }
         for (Block typeBlock : typeAutomaton.getUsedTypesBlocks()) {
+            cancellation.checkStopped();
             for (State usedTypeState : typeBlock.getStates()) {
                 fullEncoding.add(
                         new SLTLxDisjunction(
@@ -160,24 +165,30 @@ public class EnforceTypeRelatedRules {
      *
      * @param allTypes      Collection of all the types in the domain.
      * @param typeAutomaton System that represents states in the workflow
+     * @param cancellation  Token used to stop the encoding.
      * @return The String representation of constraints enforcing taxonomy
      *         classifications.
      */
-    public static Set<SLTLxFormula> typeEnforceTaxonomyStructure(AllTypes allTypes, TypeAutomaton typeAutomaton) {
+    public static Set<SLTLxFormula> typeEnforceTaxonomyStructure(AllTypes allTypes, TypeAutomaton typeAutomaton,
+            CancellationToken cancellation) {
         Set<SLTLxFormula> fullEncoding = new HashSet<>();
         // taxonomy enforcement of types in in all the states (those that represent
         // general memory and used data instances)
         for (TaxonomyPredicate dimension : allTypes.getRootPredicates()) {
+            /* Each type in the dimension is visited once, regardless of the number of parents. */
+            List<TaxonomyPredicate> dimensionTypes = allTypes.getSubTaxonomy(dimension);
             for (Block memTypeBlock : typeAutomaton.getMemoryTypesBlocks()) {
                 for (State memTypeState : memTypeBlock.getStates()) {
+                    cancellation.checkStopped();
                     fullEncoding.addAll(
-                            typeEnforceTaxonomyStructureForState(dimension, memTypeState, AtomType.MEMORY_TYPE));
+                            typeEnforceTaxonomyStructureForState(dimensionTypes, memTypeState, AtomType.MEMORY_TYPE));
                 }
             }
             for (Block usedTypeBlock : typeAutomaton.getUsedTypesBlocks()) {
                 for (State usedTypeState : usedTypeBlock.getStates()) {
-                    fullEncoding
-                            .addAll(typeEnforceTaxonomyStructureForState(dimension, usedTypeState, AtomType.USED_TYPE));
+                    cancellation.checkStopped();
+                    fullEncoding.addAll(
+                            typeEnforceTaxonomyStructureForState(dimensionTypes, usedTypeState, AtomType.USED_TYPE));
                 }
             }
         }
@@ -185,31 +196,28 @@ public class EnforceTypeRelatedRules {
     }
 
     /**
-     * Supporting recursive method for typeEnforceTaxonomyStructure.
+     * Supporting method for typeEnforceTaxonomyStructure.
      * 
-     * @param currType    Current type
-     * @param typeState   Current type state
-     * @param typeElement Current type element
+     * @param dimensionTypes All the types in the taxonomy (sub-taxonomy) that is
+     *                       enforced.
+     * @param typeState      Current type state
+     * @param typeElement    Current type element
      * @return Set of the corresponding SLTLx formulas
      */
-    private static Set<SLTLxFormula> typeEnforceTaxonomyStructureForState(TaxonomyPredicate currType,
+    private static Set<SLTLxFormula> typeEnforceTaxonomyStructureForState(List<TaxonomyPredicate> dimensionTypes,
             State typeState, AtomType typeElement) {
 
-        SLTLxAtom superTypeState = new SLTLxAtom(typeElement, currType, typeState);
-
         Set<SLTLxFormula> fullEncoding = new HashSet<>();
 
-        List<SLTLxAtom> subTypesStates = new ArrayList<>();
-        if (!(currType.getSubPredicates() == null || currType.getSubPredicates().isEmpty())) {
-            /*
-             * Ensuring the TOP-DOWN taxonomy tree dependency
-             */
-            for (TaxonomyPredicate subType : currType.getSubPredicates()) {
-
-                SLTLxAtom subTypeState = new SLTLxAtom(typeElement, subType, typeState);
-                subTypesStates.add(subTypeState);
+        for (TaxonomyPredicate currType : dimensionTypes) {
+            if (currType.getSubPredicates() == null || currType.getSubPredicates().isEmpty()) {
+                continue;
+            }
+            SLTLxAtom superTypeState = new SLTLxAtom(typeElement, currType, typeState);
 
-                fullEncoding.addAll(typeEnforceTaxonomyStructureForState(subType, typeState, typeElement));
+            List<SLTLxAtom> subTypesStates = new ArrayList<>();
+            for (TaxonomyPredicate subType : currType.getSubPredicates()) {
+                subTypesStates.add(new SLTLxAtom(typeElement, subType, typeState));
             }
             /*
              * Ensuring the TOP-DOWN taxonomy tree dependency
@@ -0,0 +1,280 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.uu.cs.ape.automaton.Block;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APEConfigException;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.SATAtomMappings;
+import nl.uu.cs.ape.models.enums.AtomType;
+import nl.uu.cs.ape.models.enums.OptimizationObjective;
+
+/**
+ * The {@code ObjectiveEncoding} class is used to encode the cost of the
+ * workflow solutions, according to the {@link OptimizationObjective}, in order
+ * to find the solutions with the lowest cost first.
+ * <p>
+ * The cost is represented as the number of the true objective literals (a
+ * literal is repeated using auxiliary variables in order to represent a higher
+ * weight). The number of true literals is encoded using a sequential counter,
+ * whose outputs can be assumed to be false in order to bound the cost of the
+ * solutions (see {@link #getCostBound(int)}). The bound is given to the solver
+ * as an assumption, therefore the clauses learned under one bound remain valid
+ * when the bound is relaxed.
+ * <p>
+ * The size of the counter is checked before it is encoded, objectives that
+ * would require too many auxiliary variables are rejected.
+ *
+ * @author Vedran Kasalica
+ */
+public final class ObjectiveEncoding {
+
+    /** Max number of auxiliary variables that can be used by the counter. */
+    private static final int MAX_COUNTER_VARIABLES = 50000;
+
+    /** CNF encoding of the objective literals and the counter. */
+    private final StringBuilder clauses = new StringBuilder();
+    /** Mapping of the atoms. */
+    private final SATAtomMappings mappings;
+    /** Literals, each of which increases the cost by 1 if true. */
+    private final List<Integer> objectiveLiterals = new ArrayList<>();
+    /**
+     * Outputs of the counter, where the i-th literal is true if the cost is
+     * higher than i.
+     */
+    private int[] costExceeds = new int[0];
+
+    /**
+     * Encode the objective for the given synthesis run.
+     *
+     * @param synthesisInstance A specific synthesis run that contains all the
+     *                          information specific for it.
+     * @param objective         Objective that should be encoded.
+     * @throws APEConfigException The objective is too large to be encoded.
+     */
+    public ObjectiveEncoding(SATSynthesisEngine synthesisInstance, OptimizationObjective objective)
+            throws APEConfigException {
+        this.mappings = synthesisInstance.getMappings();
+        int maxCost;
+        switch (objective) {
+            case FEWEST_TOOLS:
+                maxCost = encodeUsedTools(synthesisInstance);
+                break;
+            case FEWEST_INPUTS:
+                maxCost = encodeUsedInputs(synthesisInstance);
+                break;
+            case UNUSED_DATA:
+                maxCost = encodeUnusedData(synthesisInstance);
+                break;
+            case TOOL_COST:
+                maxCost = encodeToolCosts(synthesisInstance);
+                break;
+            default:
+                maxCost = 0;
+        }
+        maxCost = Math.min(maxCost, objectiveLiterals.size());
+        checkCounterSize(objective, maxCost, objectiveLiterals.size());
+        encodeCounter(maxCost);
+    }
+
+    /**
+     * Get the CNF encoding of the objective.
+     *
+     * @return String that represents the clauses in DIMACS format.
+     */
+    public String getClauses() {
+        return clauses.toString();
+    }
+
+    /**
+     * Get the highest cost that can be bound by the encoding.
+     *
+     * @return The highest cost.
+     */
+    public int getMaxCost() {
+        return costExceeds.length;
+    }
+
+    /**
+     * Get the assumptions that restrict the cost of the solutions to the given
+     * value (or lower).
+     *
+     * @param cost The highest allowed cost.
+     * @return Array of literals that should be assumed, empty if the cost is not
+     *         restricted.
+     */
+    public int[] getCostBound(int cost) {
+        if (cost >= costExceeds.length) {
+            return new int[0];
+        }
+        return new int[] { -costExceeds[cost] };
+    }
+
+    /**
+     * The cost is the number of distinct tools used. A literal is introduced per
+     * tool, which has to be true if the tool is used in any of the states.
+     */
+    private int encodeUsedTools(SATSynthesisEngine synthesisInstance) {
+        List<Module> tools = new ArrayList<>();
+        for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+            for (Module tool : synthesisInstance.getToolReachability().getReachableTools(moduleState)) {
+                if (!tools.contains(tool)) {
+                    tools.add(tool);
+                }
+            }
+        }
+        for (Module tool : tools) {
+            int toolUsed = mappings.getNextAuxNum();
+            for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+                if (synthesisInstance.getToolReachability().isReachable(tool, moduleState)) {
+                    addClause(-mappings.add(tool, moduleState, AtomType.MODULE), toolUsed);
+                }
+            }
+            objectiveLiterals.add(toolUsed);
+        }
+        return synthesisInstance.getSolutionSize();
+    }
+
+    /**
+     * The cost is the number of workflow inputs used. A literal is introduced per
+     * workflow input, which has to be true if the input is referenced.
+     */
+    private int encodeUsedInputs(SATSynthesisEngine synthesisInstance) {
+        TypeAutomaton typeAutomaton = synthesisInstance.getTypeAutomaton();
+        int noInputs = synthesisInstance.getRunConfig().getProgramInputs().size();
+        for (State inputState : typeAutomaton.getWorkflowInputBlock().getStates()) {
+            if (inputState.getLocalStateNumber() >= noInputs) {
+                continue;
+            }
+            int inputUsed = mappings.getNextAuxNum();
+            for (State usedState : typeAutomaton.getUsedStatesAfterBlockNo(-1)) {
+                if (synthesisInstance.getCompatibilityIndex().isReferencePossible(inputState, usedState)) {
+                    addClause(-mappings.add(inputState, usedState, AtomType.MEM_TYPE_REFERENCE), inputUsed);
+                }
+            }
+            objectiveLiterals.add(inputUsed);
+        }
+        return noInputs;
+    }
+
+    /**
+     * The cost is the number of tool outputs that are not used. A literal is
+     * introduced per tool output, which has to be true if the output is not empty
+     * and not referenced.
+     */
+    private int encodeUnusedData(SATSynthesisEngine synthesisInstance) {
+        TypeAutomaton typeAutomaton = synthesisInstance.getTypeAutomaton();
+        for (Block memoryBlock : typeAutomaton.getMemoryTypesBlocks()) {
+            if (memoryBlock.getBlockNumber() == 0) {
+                continue;
+            }
+            for (State memoryState : memoryBlock.getStates()) {
+                int dataUnused = mappings.getNextAuxNum();
+                StringBuilder clause = new StringBuilder();
+                clause.append(mappings.add(synthesisInstance.getEmptyType(), memoryState, AtomType.MEMORY_TYPE))
+                        .append(" ");
+                for (State usedState : typeAutomaton.getUsedStatesAfterBlockNo(memoryBlock.getBlockNumber() - 1)) {
+                    if (synthesisInstance.getCompatibilityIndex().isReferencePossible(memoryState, usedState)) {
+                        clause.append(mappings.add(memoryState, usedState, AtomType.MEM_TYPE_REFERENCE))
+                                .append(" ");
+                    }
+                }
+                clauses.append(clause).append(dataUnused).append(" 0\n");
+                objectiveLiterals.add(dataUnused);
+            }
+        }
+        return objectiveLiterals.size();
+    }
+
+    /**
+     * The cost is the sum of the costs of the tools used. The tool literal is
+     * repeated (using auxiliary variables) in order to represent its cost.
+     */
+    private int encodeToolCosts(SATSynthesisEngine synthesisInstance) {
+        /* Check the size of the counter before the tool literals are repeated. */
+        long noLiterals = 0;
+        int maxToolCost = 0;
+        for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+            for (Module tool : synthesisInstance.getToolReachability().getReachableTools(moduleState)) {
+                noLiterals += tool.getCost();
+                maxToolCost = Math.max(maxToolCost, tool.getCost());
+            }
+        }
+        checkCounterSize(OptimizationObjective.TOOL_COST,
+                Math.min((long) maxToolCost * synthesisInstance.getSolutionSize(), noLiterals), noLiterals);
+
+        for (State moduleState : synthesisInstance.getModuleAutomaton().getAllStates()) {
+            for (Module tool : synthesisInstance.getToolReachability().getReachableTools(moduleState)) {
+                int toolLiteral = mappings.add(tool, moduleState, AtomType.MODULE);
+                for (int i = 0; i < tool.getCost(); i++) {
+                    if (i == 0) {
+                        objectiveLiterals.add(toolLiteral);
+                    } else {
+                        int toolCopy = mappings.getNextAuxNum();
+                        addClause(-toolLiteral, toolCopy);
+                        objectiveLiterals.add(toolCopy);
+                    }
+                }
+            }
+        }
+        return maxToolCost * synthesisInstance.getSolutionSize();
+    }
+
+    /**
+     * Check that the counter over the objective literals, up to the given cost,
+     * can be encoded.
+     *
+     * @throws APEConfigException The counter requires too many auxiliary
+     *                            variables.
+     */
+    private static void checkCounterSize(OptimizationObjective objective, long maxCost, long noLiterals)
+            throws APEConfigException {
+        if (maxCost * noLiterals > MAX_COUNTER_VARIABLES) {
+            throw APEConfigException.invalidValue("optimization_objective", objective, String.format(
+                    "the objective requires %d auxiliary variables to be encoded (at most %d are supported), "
+                            + "use lower tool costs or shorter workflows.",
+                    maxCost * noLiterals, MAX_COUNTER_VARIABLES));
+        }
+    }
+
+    /**
+     * Encode the sequential counter over the objective literals, up to the given
+     * cost.
+     */
+    private void encodeCounter(int maxCost) {
+        if (maxCost == 0) {
+            return;
+        }
+        int[] prevCounter = null;
+        for (int literal : objectiveLiterals) {
+            int[] counter = new int[maxCost];
+            for (int j = 0; j < maxCost; j++) {
+                counter[j] = mappings.getNextAuxNum();
+                if (prevCounter != null) {
+                    /* The count cannot decrease.. */
+                    addClause(-prevCounter[j], counter[j]);
+                }
+                /* ..and increases if the literal is true. */
+                if (j == 0) {
+                    addClause(-literal, counter[j]);
+                } else if (prevCounter != null) {
+                    clauses.append(-literal).append(" ").append(-prevCounter[j - 1]).append(" ").append(counter[j])
+                            .append(" 0\n");
+                }
+            }
+            prevCounter = counter;
+        }
+        this.costExceeds = prevCounter;
+    }
+
+    /**
+     * Add the binary clause to the encoding.
+     */
+    private void addClause(int first, int second) {
+        clauses.append(first).append(" ").append(second).append(" 0\n");
+    }
+
+}
@@ -0,0 +1,60 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.IOException;
+import java.util.List;
+
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * The {@code ParallelEnumeration} interface represents the enumeration of the
+ * solutions of a single synthesis problem by several solvers, either in the
+ * same process (see {@link CubeEnumeration}) or in worker processes (see
+ * {@link SynthesisCoordinator}). The enumeration can be continued after it was
+ * interrupted, e.g. once the required number of solutions is found.
+ *
+ * @author Vedran Kasalica
+ */
+interface ParallelEnumeration {
+
+    /**
+     * Enumerate the solutions, continuing the previous enumeration.
+     *
+     * @param solutionsMax Max number of the solutions that should be found.
+     * @param timeoutMs    Time limit (in ms) of the enumeration.
+     * @param cancellation Token used to cancel the enumeration.
+     * @return List of the new solutions.
+     */
+    List<SolutionWorkflow> enumerate(int solutionsMax, long timeoutMs, CancellationToken cancellation);
+
+    /**
+     * Check whether all the solutions of the problem were found.
+     *
+     * @return {@code true} if there are no more solutions.
+     */
+    boolean isExhausted();
+
+    /**
+     * Get the error that stopped the enumeration, e.g. the problem could not be
+     * loaded by a solver. Such an enumeration is not exhausted, as the remaining
+     * solutions were not searched for.
+     *
+     * @return The error, or {@code null} if no error occurred.
+     */
+    default IOException getError() {
+        return null;
+    }
+
+    /**
+     * Exclude the solution, described by the clauses, from the rest of the
+     * enumeration.
+     *
+     * @param clauses Clauses that exclude the solution.
+     */
+    void exclude(List<int[]> clauses);
+
+    /**
+     * Release the solvers used by the enumeration.
+     */
+    void close();
+}
@@ -7,6 +7,7 @@ import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.models.AllModules;
 import nl.uu.cs.ape.models.AuxiliaryPredicate;
 import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.SATAtomMappings;
 import nl.uu.cs.ape.models.Type;
 import nl.uu.cs.ape.models.enums.AtomType;
 import nl.uu.cs.ape.models.logic.constructs.PredicateLabel;
@@ -26,6 +27,12 @@ public class SATOutput extends SolutionInterpreter {
 
     private static final String textUnsat = "UNSAT";
 
+    /**
+     * The smallest literal that is taken into account, the literals below it
+     * describe the encoding variables that are not part of the solution.
+     */
+    public static final int MIN_INTERPRETED_LITERAL = 100000;
+
     /**
      * List of all the literals provided by the solution.
      */
@@ -72,6 +79,18 @@ public class SATOutput extends SolutionInterpreter {
      * @param synthesisInstance Mapping of the atoms.
      */
     public SATOutput(int[] satSolution, SATSynthesisEngine synthesisInstance) {
+        this(satSolution, synthesisInstance.getMappings());
+    }
+
+    /**
+     * Creating a list of Literals to represent the solution, based on the given
+     * mapping of the atoms.
+     *
+     * @param satSolution list of mapped literals given as a list of integers
+     *                    (library SAT output)
+     * @param mappings    Mapping of the atoms.
+     */
+    public SATOutput(int[] satSolution, SATAtomMappings mappings) {
         unsat = false;
         literals = new ArrayList<>();
         positiveLiterals = new ArrayList<>();
@@ -81,9 +100,8 @@ public class SATOutput extends SolutionInterpreter {
         references2MemTypes = new ArrayList<>();
         usedTypeStates = new HashSet<>();
         for (int mappedLiteral : satSolution) {
-            if (mappedLiteral >= synthesisInstance.getMappings().getInitialNumOfMappedAtoms()) {
-                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral),
-                        synthesisInstance.getMappings());
+            if (mappedLiteral >= mappings.getInitialNumOfMappedAtoms()) {
+                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral), mappings);
                 literals.add(currLiteral);
                 if (!currLiteral.isNegated()) {
                     positiveLiterals.add(currLiteral);
@@ -112,9 +130,8 @@ public class SATOutput extends SolutionInterpreter {
                         relevantElements.add(currLiteral);
                     }
                 }
-            } else if (mappedLiteral >= 100000) {
-                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral),
-                        synthesisInstance.getMappings());
+            } else if (mappedLiteral >= MIN_INTERPRETED_LITERAL) {
+                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral), mappings);
                 literals.add(currLiteral);
             }
         }
@@ -281,6 +298,53 @@ public class SATOutput extends SolutionInterpreter {
         return negSolList;
     }
 
+    /**
+     * Returns the negated data flow of the solution in mapped format, i.e. the
+     * negation of the tools, data references and data types (memory types) used in
+     * the solution. The clause excludes all the solutions that have the same data
+     * flow in the same order, regardless of the values of the remaining atoms.
+     *
+     * @return int[] representing the negated data flow
+     */
+    public int[] getNegatedMappedDataFlowArray() {
+        List<Integer> negSol = new ArrayList<>();
+        if (!unsat) {
+            for (SLTLxLiteral literal : relevantElements) {
+                if (literal.getWorkflowElementType() != AtomType.USED_TYPE) {
+                    negSol.add(literal.toNegatedMappedInt());
+                }
+            }
+        }
+        int[] negSolList = new int[negSol.size()];
+        for (int i = 0; i < negSol.size(); i++) {
+            negSolList[i] = negSol.get(i);
+        }
+
+        return negSolList;
+    }
+
+    /**
+     * Returns the positive literals of the solution that do not describe auxiliary
+     * predicates, in the order they were provided by the solver. The literals are
+     * sufficient to reconstruct the solution workflow (see
+     * {@link nl.uu.cs.ape.solver.SynthesisResultCache}).
+     *
+     * @return List of the positive literals, or {@code null} if the problem is
+     *         unsatisfiable.
+     */
+    public List<SLTLxLiteral> getPositiveWorkflowLiterals() {
+        if (unsat) {
+            return null;
+        }
+        List<SLTLxLiteral> workflowLiterals = new ArrayList<>();
+        for (SLTLxLiteral literal : positiveLiterals) {
+            if (!(literal.getPredicate() instanceof AuxiliaryPredicate)) {
+                workflowLiterals.add(literal);
+            }
+        }
+        return workflowLiterals;
+    }
+
     /**
      * Returns the satisfiability of the problem. Returns true if the problem is
      * satisfiable, false otherwise.
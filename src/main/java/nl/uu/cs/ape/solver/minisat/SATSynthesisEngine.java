@@ -8,8 +8,10 @@ import org.sat4j.reader.Reader;
 import org.sat4j.specs.*;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
 import nl.uu.cs.ape.automaton.TypeAutomaton;
 import nl.uu.cs.ape.configuration.APERunConfig;
 import nl.uu.cs.ape.domain.APEDomainSetup;
@@ -18,11 +20,14 @@ import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.models.Pair;
 import nl.uu.cs.ape.models.SATAtomMappings;
 import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.OptimizationObjective;
 import nl.uu.cs.ape.models.logic.constructs.PredicateLabel;
 import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxFormula;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxVariableOccurrenceCollection;
+import nl.uu.cs.ape.solver.CancellationToken;
 import nl.uu.cs.ape.solver.SynthesisEngine;
+import nl.uu.cs.ape.solver.SynthesisInterruptedException;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
 
@@ -32,8 +37,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
 
 /**
  * The {@code SATSynthesisEngine} class represents a <b>synthesis instance</b>,
@@ -99,22 +105,71 @@ public class SATSynthesisEngine implements SynthesisEngine {
     private TypeAutomaton typeAutomaton;
 
     /**
-     * Mapping of all the variables that are utilised in the encoding to the
-     * predicates use them.
+     * Index of the data references that are possible according to the tool
+     * annotations.
      */
-    private SLTLxVariableOccurrenceCollection varUsage;
+    @Getter
+    private ToolCompatibilityIndex compatibilityIndex;
+
+    /**
+     * Tools that can be used in each of the states of the module automaton.
+     */
+    @Getter
+    private ToolReachability toolReachability;
+
+    /**
+     * Encoding of the cost of the solutions, used to find the solutions with the
+     * lowest cost first (null if the solutions are not ordered).
+     */
+    private ObjectiveEncoding objectiveEncoding;
+
+    /**
+     * Token used to stop the encoding and solving, in case that the run is
+     * cancelled or it reaches the deadline.
+     */
+    @Getter
+    private CancellationToken cancellation;
 
     /**
-     * Variable used to count the encoding time of the APE instance run,
-     * strictly used to display the APE CLI run stats.
+     * Solver loaded with the encoding of the problem and the clauses that exclude
+     * the solutions found so far (null until the solving starts).
      */
-    private static AtomicLong totalEncodingTime = new AtomicLong(0);
+    private ISolver solver;
+
+    /** Problem loaded into the {@link #solver}. */
+    private IProblem problem;
+
+    /** The highest cost of the solutions that are currently allowed. */
+    private int cost = 0;
+
+    /** Clauses that exclude the solutions found previously. */
+    private final List<int[]> excludedClauses = new ArrayList<>();
+
+    /** Simplified encoding, loaded into the solvers of the parallel enumeration. */
+    private CNFPreprocessor preprocessor = null;
 
     /**
-     * Static variable used to count the SAT solving time of the APE instance run,
-     * strictly used to display the APE CLI run stats.
+     * Coordinator of the worker processes, used to enumerate the solutions if
+     * set.
      */
-    private static AtomicLong totalSolvingTime = new AtomicLong(0);
+    @Setter
+    private SynthesisCoordinator coordinator = null;
+
+    /** Parallel enumeration of the solutions, if used. */
+    private ParallelEnumeration parallelEnumeration = null;
+
+    /**
+     * {@code true} if all the solutions of the problem were found, i.e. the
+     * problem became unsatisfiable.
+     */
+    @Getter
+    private boolean exhausted = false;
+
+    /**
+     * Mapping of all the variables that are utilised in the encoding to the
+     * predicates use them.
+     */
+    private SLTLxVariableOccurrenceCollection varUsage;
 
     /**
      * Setup of an instance of the SAT synthesis engine.
@@ -128,6 +183,24 @@ public class SATSynthesisEngine implements SynthesisEngine {
      */
     public SATSynthesisEngine(APEDomainSetup domainSetup, SolutionsList allSolutions,
             APERunConfig runConfig, int workflowLength) throws IOException {
+        this(domainSetup, allSolutions, runConfig, workflowLength, new CancellationToken());
+    }
+
+    /**
+     * Setup of an instance of the SAT synthesis engine that can be stopped using
+     * the cancellation token.
+     *
+     * @param domainSetup    Domain information, including all the existing tools
+     *                       and types.
+     * @param allSolutions   Set of {@link SolutionWorkflow}.
+     * @param runConfig      Setup configuration for the synthesis.
+     * @param workflowLength Workflow length
+     * @param cancellation   Token used to stop the encoding and solving.
+     * @throws IOException Error if the temp file cannot be created
+     */
+    public SATSynthesisEngine(APEDomainSetup domainSetup, SolutionsList allSolutions,
+            APERunConfig runConfig, int workflowLength, CancellationToken cancellation) throws IOException {
+        this.cancellation = cancellation;
         this.domainSetup = domainSetup;
         this.allSolutions = allSolutions;
         this.runConfig = runConfig;
@@ -142,6 +215,9 @@ public class SATSynthesisEngine implements SynthesisEngine {
         int maxNoToolOutputs = Math.max(domainSetup.getMaxNoToolOutputs(), runConfig.getProgramInputs().size());
         moduleAutomaton = new ModuleAutomaton(workflowLength, maxNoToolInputs, maxNoToolOutputs);
         typeAutomaton = new TypeAutomaton(workflowLength, maxNoToolInputs, maxNoToolOutputs);
+        compatibilityIndex = new ToolCompatibilityIndex(domainSetup, runConfig.getProgramInputs(),
+                runConfig.getProgramOutputs(), typeAutomaton);
+        toolReachability = new ToolReachability(domainSetup, runConfig, compatibilityIndex, moduleAutomaton);
     }
 
     /**
@@ -149,7 +225,10 @@ public class SATSynthesisEngine implements SynthesisEngine {
      * string.
      *
      * @return true if the encoding was performed successfully, false otherwise.
-     * @throws IOException Error if taxonomies have not been setup properly.
+     * @throws IOException                    Error if taxonomies have not been
+     *                                        setup properly.
+     * @throws SynthesisInterruptedException Error if the run was cancelled or it
+     *                                        reached the deadline.
      */
     public boolean synthesisEncoding() throws IOException {
         long problemSetupStartTime = System.currentTimeMillis();
@@ -160,7 +239,7 @@ public class SATSynthesisEngine implements SynthesisEngine {
             return false;
         }
         /* Generate the automaton */
-        String currLengthTimer = "length" + this.getSolutionSize();
+        String currLengthTimer = allSolutions.getTimerID("length" + this.getSolutionSize());
         APEUtils.timerStart(currLengthTimer, runConfig.getDebugMode());
 
         APEUtils.timerRestartAndPrint(currLengthTimer, "Automaton encoding");
@@ -186,18 +265,32 @@ public class SATSynthesisEngine implements SynthesisEngine {
          * 2. Mandatory usage of the tools - from taxonomy.
          * 3. Adding the constraints enforcing the taxonomy structure.
          */
-        for (Pair<PredicateLabel> pair : domainSetup.getAllModules().getSimplePairs()) {
-            SLTLxFormula.appendCNFToFile(cnfEncoding, this,
-                    EnforceModuleRelatedRules.moduleMutualExclusion(pair, moduleAutomaton));
+        for (State moduleState : moduleAutomaton.getAllStates()) {
+            SLTLxFormula.appendCNFToFile(cnfEncoding, this, EnforceModuleRelatedRules
+                    .moduleMutualExclusion(toolReachability.getReachableTools(moduleState), moduleState));
         }
         APEUtils.timerRestartAndPrint(currLengthTimer, "Tool exclusions encoding");
 
-        SLTLxFormula.appendCNFToFile(cnfEncoding, this,
-                EnforceModuleRelatedRules.moduleMandatoryUsage(domainSetup.getAllModules(), moduleAutomaton));
+        SLTLxFormula.appendCNFToFile(cnfEncoding, this, EnforceModuleRelatedRules
+                .moduleMandatoryUsage(domainSetup.getAllModules(), toolReachability, moduleAutomaton));
 
         SLTLxFormula.appendCNFToFile(cnfEncoding, this, EnforceModuleRelatedRules
                 .moduleTaxonomyStructure(domainSetup.getAllModules(), rootModule, moduleAutomaton));
         APEUtils.timerRestartAndPrint(currLengthTimer, "Tool usage encoding");
+
+        /*
+         * Encode the symmetry breaking over the order of independent tools, if
+         * required and if the constraints do not depend on the order of the tools.
+         */
+        if (runConfig.getSymmetryBreaking()) {
+            if (EnforceModuleRelatedRules.symmetryBreakingApplicable(domainSetup)) {
+                SLTLxFormula.appendCNFToFile(cnfEncoding, this,
+                        EnforceModuleRelatedRules.toolOrderSymmetryBreaking(this));
+                APEUtils.timerRestartAndPrint(currLengthTimer, "Symmetry breaking encoding");
+            } else {
+                log.warn("Symmetry breaking is not applied, as the constraints depend on the order of the tools.");
+            }
+        }
         /*
          * Create the constraints enforcing:
          * 1. Mutual exclusion of the types/formats (according to the search model)
@@ -206,16 +299,18 @@ public class SATSynthesisEngine implements SynthesisEngine {
          * 3. Adding the constraints enforcing the taxonomy structure.
          */
         for (Pair<PredicateLabel> pair : domainSetup.getAllTypes().getTypePairsForEachSubTaxonomy()) {
+            cancellation.checkStopped();
             SLTLxFormula.appendCNFToFile(cnfEncoding, this,
                     EnforceTypeRelatedRules.memoryTypesMutualExclusion(pair, typeAutomaton));
         }
         APEUtils.timerRestartAndPrint(currLengthTimer, "Type exclusions encoding");
 
         SLTLxFormula.appendCNFToFile(cnfEncoding, this,
-                EnforceTypeRelatedRules.typeMandatoryUsage(domainSetup, typeAutomaton));
+                EnforceTypeRelatedRules.typeMandatoryUsage(domainSetup, typeAutomaton, cancellation));
 
         SLTLxFormula.appendCNFToFile(cnfEncoding, this,
-                EnforceTypeRelatedRules.typeEnforceTaxonomyStructure(domainSetup.getAllTypes(), typeAutomaton));
+                EnforceTypeRelatedRules.typeEnforceTaxonomyStructure(domainSetup.getAllTypes(), typeAutomaton,
+                        cancellation));
         APEUtils.timerRestartAndPrint(currLengthTimer, "Type usage encoding");
 
         /*
@@ -272,6 +367,16 @@ public class SATSynthesisEngine implements SynthesisEngine {
         SLTLxFormula.appendCNFToFile(cnfEncoding, this, EnforceSLTLxRelatedRules
                 .preserveAuxiliaryPredicateRules(moduleAutomaton, typeAutomaton, domainSetup.getHelperPredicates()));
 
+        /*
+         * Encode the cost of the solutions, in case that the solutions should be
+         * ordered according to an objective.
+         */
+        if (runConfig.getOptimizationObjective() != OptimizationObjective.NONE) {
+            objectiveEncoding = new ObjectiveEncoding(this, runConfig.getOptimizationObjective());
+            APEFiles.appendToFile(cnfEncoding, objectiveEncoding.getClauses());
+            APEUtils.timerRestartAndPrint(currLengthTimer, "Optimization objective encoding");
+        }
+
         /*
          * Counting the number of variables and clauses that will be given to the SAT
          * solver. As an improvement, the number of lines could be stored, not to be
@@ -281,6 +386,7 @@ public class SATSynthesisEngine implements SynthesisEngine {
         int clauses = APEUtils.countCNFClauses(new FileInputStream(cnfEncoding));
         String satInputHeader = "p cnf " + variables + " " + clauses + "\n";
         APEUtils.timerRestartAndPrint(currLengthTimer, "Reading rows");
+        APEUtils.timerRemove(currLengthTimer);
         satInputFile = APEFiles.prependToFile(satInputHeader, cnfEncoding);
         cnfEncoding.delete();
 
@@ -303,80 +409,281 @@ public class SATSynthesisEngine implements SynthesisEngine {
 
     /**
      * Using the SAT input generated from SAT encoding and running MiniSAT solver to
-     * find the solutions.
+     * find the solutions. The method can be called repeatedly (e.g. after the max
+     * number of solutions was increased), where each call continues the
+     * enumeration of the solutions where the previous one stopped.
      *
      * @return The list of new solutions.
-     * @throws IOException Error if the sat encoding file does not exist.
+     * @throws IOException Error if the sat encoding file does not exist, or if
+     *                     the problem could not be loaded by the parallel
+     *                     solvers.
      */
     public List<SolutionWorkflow> synthesisExecution() throws IOException {
+        return runMiniSAT(allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
+    }
+
+    /**
+     * Set the token used to stop the encoding and solving, used when the
+     * enumeration of the solutions is continued by another run.
+     *
+     * @param cancellation Token used to stop the encoding and solving.
+     */
+    public void setCancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Exclude the given solution, found previously, from the solutions of the
+     * problem. Used to continue the enumeration of the solutions after the
+     * problem was encoded again.
+     *
+     * @param solution Solution that was found previously for the same problem.
+     */
+    public void excludeSolution(SolutionWorkflow solution) {
+        List<int[]> clauses = blockingClauses((SATOutput) solution.getNativeSolution());
+        excludedClauses.addAll(clauses);
+        if (parallelEnumeration != null) {
+            parallelEnumeration.exclude(clauses);
+        }
+        if (problem != null) {
+            try {
+                for (int[] clause : clauses) {
+                    solver.addClause(new VecInt(clause));
+                }
+            } catch (ContradictionException e) {
+                exhausted = true;
+            }
+        }
+    }
+
+    /**
+     * Load the encoding of the problem into the solver, unless it was loaded
+     * before.
+     *
+     * @return {@code true} if the problem is loaded, {@code false} if it cannot
+     *         be loaded or it is trivially unsatisfiable.
+     */
+    private boolean loadProblem() {
+        if (problem != null) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        try {
+            solver = createSolver();
+            problem = solver;
+            /* The simplified encoding is not needed anymore. */
+            preprocessor = null;
+            return true;
+        } catch (ParseFormatException e) {
+            log.error("Error while parsing the cnf encoding of the problem by the MiniSAT solver.");
+            log.error(e.getMessage());
+        } catch (ContradictionException e) {
+            log.warn("Unsatisfiable");
+        } catch (IOException e) {
+            log.warn("Internal error while parsing the encoding.");
+            log.warn(e.getMessage());
+        }
+        exhausted = true;
+        return false;
+    }
+
+    /**
+     * Create a new solver and load the encoding of the problem into it, excluding
+     * the solutions found previously (see {@link #excludeSolution(SolutionWorkflow)}).
+     * In case that the CNF preprocessing is required, the encoding is simplified
+     * (see {@link CNFPreprocessor}) the first time a solver is created. The
+     * variables that describe the solutions and the variables used to bound the
+     * cost of the solutions are not eliminated.
+     *
+     * @return The solver that contains the problem.
+     * @throws ContradictionException The problem is unsatisfiable.
+     * @throws ParseFormatException   The encoding is not in the DIMACS format.
+     * @throws IOException            Error in reading the encoding.
+     */
+    ISolver createSolver() throws ContradictionException, ParseFormatException, IOException {
+        ISolver newSolver = SolverFactory.newDefault();
+        if (runConfig.getCNFPreprocessing()) {
+            synchronized (this) {
+                if (preprocessor == null) {
+                    preprocessor = createPreprocessor();
+                }
+                preprocessor.load(newSolver);
+            }
+        } else {
+            Reader reader = new DimacsReader(newSolver);
+            try (InputStream satInput = new FileInputStream(satInputFile)) {
+                reader.parseInstance(satInput);
+            }
+        }
+        for (int[] clause : excludedClauses) {
+            newSolver.addClause(new VecInt(clause));
+        }
+        return newSolver;
+    }
+
+    /**
+     * Read the CNF encoding of the problem and simplify it.
+     *
+     * @throws ContradictionException The problem is unsatisfiable.
+     */
+    private CNFPreprocessor createPreprocessor() throws ContradictionException, IOException {
+        Set<Integer> costVariables = new HashSet<>();
+        if (objectiveEncoding != null) {
+            for (int currCost = 0; currCost <= objectiveEncoding.getMaxCost(); currCost++) {
+                for (int literal : objectiveEncoding.getCostBound(currCost)) {
+                    costVariables.add(Math.abs(literal));
+                }
+            }
+        }
+        CNFPreprocessor simplified = CNFPreprocessor.fromDimacs(satInputFile,
+                var -> var >= SATOutput.MIN_INTERPRETED_LITERAL || costVariables.contains(var));
+        if (!simplified.simplify()) {
+            throw new ContradictionException("The formula is unsatisfiable.");
+        }
+        return simplified;
+    }
+
+    /**
+     * Get the clauses that exclude the solution from the solutions of the
+     * problem.
+     *
+     * @param satOutput Solution that should be excluded.
+     * @return The list of the clauses.
+     */
+    List<int[]> blockingClauses(SATOutput satOutput) {
+        List<int[]> clauses = new ArrayList<>();
+        /*
+         * Adding the negation of the positive part of the solution as a constraint
+         * (default negation does not work)
+         */
+        clauses.add(satOutput.getNegatedMappedSolutionArray(runConfig.getAllowToolSeqRepeat()));
+        /*
+         * In case of filtering, exclude the rest of the solutions with the same data
+         * flow as well.
+         */
+        if (runConfig.getFilterDuplicates() && runConfig.getAllowToolSeqRepeat()) {
+            clauses.add(satOutput.getNegatedMappedDataFlowArray());
+        }
+        return clauses;
+    }
+
+    /**
+     * Add the clauses that exclude the solution to the solver.
+     */
+    private void blockSolution(SATOutput satOutput) throws ContradictionException {
+        for (int[] clause : blockingClauses(satOutput)) {
+            solver.addClause(new VecInt(clause));
+        }
+    }
 
-        InputStream tmpSatInput = new FileInputStream(satInputFile);
-        List<SolutionWorkflow> currSolutions = runMiniSAT(tmpSatInput,
-                allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
-        tmpSatInput.close();
-        /* Add current solutions to list of all solutions. */
-        return currSolutions;
+    /**
+     * Check whether the problem has a solution under the given assumptions. The
+     * solver can be interrupted by {@link ISolver#expireTimeout()} from another
+     * thread (e.g. by the {@link CancellationToken}). The solver (sat4j 2.3.1)
+     * then fails with a {@link NullPointerException} at the end of the search,
+     * as it does not expect its timer to be cancelled already. Such an
+     * interruption is reported as a timeout.
+     *
+     * @param problem     The problem loaded into the solver.
+     * @param assumptions Literals that are assumed to be true.
+     * @return {@code true} if the problem is satisfiable.
+     * @throws TimeoutException The solver reached the time limit or it was
+     *                          interrupted.
+     */
+    static boolean isSatisfiable(IProblem problem, int[] assumptions) throws TimeoutException {
+        try {
+            return problem.isSatisfiable(new VecInt(assumptions));
+        } catch (NullPointerException e) {
+            throw new TimeoutException("The solver was interrupted.", e);
+        }
     }
 
     /**
      * Returns a set of {@link SATOutput SAT_solutions} by parsing the SAT
      * output. In case of the UNSAT the list is empty.
      *
-     * @param satInput CNF formula in dimacs form.
      * @return List of {@link SATOutput SAT_solutions}. Possibly empty list.
+     * @throws IOException The problem could not be loaded by the parallel
+     *                     solvers.
      */
-    private List<SolutionWorkflow> runMiniSAT(InputStream satInput, int solutionsFound, int solutionsFoundMax) {
+    private List<SolutionWorkflow> runMiniSAT(int solutionsFound, int solutionsFoundMax) throws IOException {
         List<SolutionWorkflow> solutions = new ArrayList<>();
-        ISolver solver = SolverFactory.newDefault();
         long globalTimeoutMs = runConfig.getTimeoutMs();
-        long currTimeout = APEUtils.timerTimeLeft("globalTimer", globalTimeoutMs);
+        long currTimeout = Math.min(APEUtils.timerTimeLeft(allSolutions.getTimerID("globalTimer"), globalTimeoutMs),
+                cancellation.timeLeftMs());
         if (currTimeout <= 0) {
             log.warn("Timeout. Total solving took longer than the timeout: " + globalTimeoutMs + " ms.");
             return solutions;
         }
+        if (coordinator != null || runConfig.getSolverThreads() > 1) {
+            if (objectiveEncoding == null) {
+                return runParallelEnumeration(solutionsFound, solutionsFoundMax, currTimeout);
+            }
+            log.info("The workflows are ordered by the objective, thus they are enumerated by a single solver.");
+        }
+        if (!loadProblem()) {
+            return solutions;
+        }
         // set timeout (in ms)
         solver.setTimeoutMs(currTimeout);
-        long realStartTime = 0;
+        /* The solver is interrupted in case that the run is cancelled. */
+        cancellation.setActiveSolver(solver);
+        long realStartTime = System.currentTimeMillis();
         long realTimeElapsedMillis;
-        Reader reader = new DimacsReader(solver);
+        int duplicatesFound = 0;
+        int maxCost = (objectiveEncoding == null) ? 0 : objectiveEncoding.getMaxCost();
         try {
-            // loading CNF encoding of the problem
-            IProblem problem = reader.parseInstance(satInput);
-            realStartTime = System.currentTimeMillis();
-            while (solutionsFound < solutionsFoundMax && problem.isSatisfiable()) {
+            while (solutionsFound < solutionsFoundMax && !cancellation.isStopped()) {
+                if (!isSatisfiable(problem,
+                        (objectiveEncoding == null) ? new int[0] : objectiveEncoding.getCostBound(cost))) {
+                    /* Allow the solutions of higher cost, once the cheaper ones are exhausted. */
+                    if (cost < maxCost) {
+                        cost++;
+                        continue;
+                    }
+                    exhausted = true;
+                    break;
+                }
                 SolutionWorkflow satSolution = new SolutionWorkflow(problem.model(), this);
-                solutions.add(satSolution);
-                solutionsFound++;
-                if (solutionsFound % 500 == 0) {
-                    realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
-                    log.info("Found in total " + solutionsFound + " solutions. Solving time: "
-                            + (realTimeElapsedMillis / 1000F) + " sec.");
+                /* Skip the solutions with the same data flow as one of the previous ones. */
+                if (runConfig.getFilterDuplicates() && !allSolutions.registerFingerprint(satSolution)) {
+                    duplicatesFound++;
+                } else {
+                    solutions.add(satSolution);
+                    solutionsFound++;
+                    if (solutionsFound % 500 == 0) {
+                        realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
+                        log.info("Found in total " + solutionsFound + " solutions. Solving time: "
+                                + (realTimeElapsedMillis / 1000F) + " sec.");
+                    }
                 }
-                /*
-                 * Adding the negation of the positive part of the solution as a constraint
-                 * (default negation does not work)
-                 */
-                IVecInt negSol = new VecInt(((SATOutput) satSolution.getNativeSolution())
-                        .getNegatedMappedSolutionArray(runConfig.getAllowToolSeqRepeat()));
-                solver.addClause(negSol);
+                blockSolution((SATOutput) satSolution.getNativeSolution());
             }
-            satInput.close();
-        } catch (ParseFormatException e) {
-            log.error("Error while parsing the cnf encoding of the problem by the MiniSAT solver.");
-            log.error(e.getMessage());
-            return solutions;
         } catch (ContradictionException e) {
+            exhausted = true;
             if (solutionsFound == 0) {
                 log.warn("Unsatisfiable");
                 return solutions;
             }
         } catch (TimeoutException e) {
-            log.warn("Timeout. Total solving took longer than the timeout: " + globalTimeoutMs + " ms.");
-        } catch (IOException e) {
-            log.warn("Internal error while parsing the encoding.");
-            return solutions;
+            if (cancellation.isCancelled()) {
+                log.warn("Solving was cancelled.");
+            } else {
+                log.warn("Timeout. Total solving took longer than the timeout: " + globalTimeoutMs + " ms.");
+            }
+        } finally {
+            cancellation.setActiveSolver(null);
         }
 
+        if (objectiveEncoding != null) {
+            log.info("The cost of the solutions found is at most " + cost + " ("
+                    + runConfig.getOptimizationObjective() + ").");
+        }
+        if (duplicatesFound > 0) {
+            log.info("Skipped " + duplicatesFound + " solutions with the same data flow as the previous ones.");
+        }
         if (solutionsFound == 0 || solutionsFound % 500 != 0) {
             realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
             log.info("Found " + solutionsFound + " solutions. Solving time: "
@@ -387,20 +694,56 @@ public class SATSynthesisEngine implements SynthesisEngine {
         return solutions;
     }
 
-    private void addEncodingTime(long time) {
-        totalEncodingTime.addAndGet(time);
-    }
+    /**
+     * Enumerate the solutions using several solvers in parallel, either in the
+     * worker processes of the {@link #coordinator} or in this process (see
+     * {@link CubeEnumeration}). The method can be called repeatedly, where each
+     * call continues the enumeration where the previous one stopped.
+     *
+     * @return List of the new solutions.
+     * @throws IOException The problem could not be loaded by the solvers.
+     */
+    private List<SolutionWorkflow> runParallelEnumeration(int solutionsFound, int solutionsFoundMax,
+            long currTimeout) throws IOException {
+        if (exhausted) {
+            return new ArrayList<>();
+        }
+        if (parallelEnumeration == null) {
+            try {
+                parallelEnumeration = (coordinator != null) ? coordinator.createJob(this, excludedClauses)
+                        : new CubeEnumeration(this, runConfig.getSolverThreads());
+            } catch (IOException e) {
+                log.warn("Internal error while reading the encoding.");
+                log.warn(e.getMessage());
+                exhausted = true;
+                return new ArrayList<>();
+            }
+        }
+        long realStartTime = System.currentTimeMillis();
+        List<SolutionWorkflow> solutions = parallelEnumeration.enumerate(solutionsFoundMax - solutionsFound,
+                currTimeout, cancellation);
+        if (parallelEnumeration.getError() != null) {
+            /* Unlike an exhausted problem, the remaining solutions are unknown. */
+            throw parallelEnumeration.getError();
+        }
+        exhausted = parallelEnumeration.isExhausted();
+        if (solutions.isEmpty() && exhausted) {
+            log.warn("Unsatisfiable");
+        }
 
-    public static long getTotalEncodingTime() {
-        return totalEncodingTime.get();
+        long realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
+        log.info("Found " + (solutionsFound + solutions.size()) + " solutions. Solving time: "
+                + (realTimeElapsedMillis / 1000F) + " sec.");
+        addSolvingTime(realTimeElapsedMillis);
+        return solutions;
     }
 
-    private void addSolvingTime(long time) {
-        totalSolvingTime.addAndGet(time);
+    private void addEncodingTime(long time) {
+        allSolutions.addEncodingTime(time);
     }
 
-    public static long getTotalSolvingTime() {
-        return totalSolvingTime.get();
+    private void addSolvingTime(long time) {
+        allSolutions.addSatSolvingTime(time);
     }
 
     /**
@@ -433,14 +776,20 @@ public class SATSynthesisEngine implements SynthesisEngine {
     }
 
     /**
-     * Delete all temporary files created.
+     * Delete all temporary files created and release the solvers of the parallel
+     * enumeration, if used.
      * 
      * @throws IOException Failed to delete temp files.
      */
     public void deleteTempFiles() throws IOException {
+        if (parallelEnumeration != null) {
+            parallelEnumeration.close();
+        }
         try {
-            Files.delete(cnfEncoding.toPath());
-            Files.delete(satInputFile.toPath());
+            Files.deleteIfExists(cnfEncoding.toPath());
+            if (satInputFile != null) {
+                Files.deleteIfExists(satInputFile.toPath());
+            }
         } catch (IOException ignored) {
         }
     }
@@ -43,6 +43,7 @@ public class SatEncodingUtils {
         int currConst = 0;
 
         for (ConstraintTemplateData constraint : domainSetup.getUnformattedConstr()) {
+            synthesisEngine.getCancellation().checkStopped();
             currConst++;
             /* ENCODE THE CONSTRAINT */
             if (domainSetup.getConstraintTemplate(constraint.getConstraintID()) == null) {
@@ -63,6 +64,7 @@ public class SatEncodingUtils {
          * Parse the constraints specified in SLTLx.
          */
         for (String constraint : domainSetup.getSLTLxConstraints()) {
+            synthesisEngine.getCancellation().checkStopped();
             Set<SLTLxFormula> sltlxFormulas = SLTLxSATVisitor.parseFormula(synthesisEngine, constraint);
             for (SLTLxFormula sltlxFormula : sltlxFormulas) {
                 sltlxFormula.getConstraintCNFEncoding(synthesisEngine)
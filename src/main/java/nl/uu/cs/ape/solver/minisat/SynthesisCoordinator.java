@@ -0,0 +1,592 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * The {@code SynthesisCoordinator} class is used to distribute the enumeration
+ * of the solutions over several worker processes (see {@link SynthesisWorker}),
+ * which may run on different machines. The synthesis itself runs in the
+ * process of the coordinator, which holds the domain, explores the workflow
+ * lengths in increasing order and encodes the problem of each length (see
+ * {@link nl.uu.cs.ape.solver.SynthesisSession#setCoordinator(SynthesisCoordinator)}).
+ * <p>
+ * The problem is split into cubes (see {@link CubeEnumeration}), which are
+ * dispatched to the workers that are connected. Each worker receives the
+ * compressed encoding of the problem once, enumerates the solutions within the
+ * cubes it is given and streams back the positive literals that describe each
+ * solution, which are turned into workflows by the coordinator. The messages
+ * are described by {@link DistributedProtocol}. A task of a worker that
+ * disconnects is dispatched to another worker.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class SynthesisCoordinator implements AutoCloseable {
+
+    /** Number of cubes per worker, below which the last step is split as well. */
+    private static final int MIN_CUBES_PER_WORKER = 4;
+
+    /** Time (in ms) given to the worker processes to stop. */
+    private static final long WORKER_STOP_TIMEOUT_MS = 5000;
+
+    /** Socket used by the workers to connect. */
+    private final ServerSocket serverSocket;
+
+    /** Workers that are connected. */
+    private final List<WorkerConnection> connections = new ArrayList<>();
+
+    /** Worker processes started by the coordinator. */
+    private final List<Process> localWorkers = new ArrayList<>();
+
+    /** Problems whose solutions are enumerated. */
+    private final List<Job> jobs = new ArrayList<>();
+
+    /** Last ID assigned to a problem or a task. */
+    private int lastId = 0;
+
+    /** {@code true} if the coordinator was closed. */
+    private boolean closed = false;
+
+    /**
+     * Create a coordinator that accepts the workers on the given port of the
+     * loopback interface, i.e. only the workers that run on this machine.
+     *
+     * @param port Port used by the workers to connect, or 0 to use any free port.
+     * @throws IOException Error in opening the socket.
+     */
+    public SynthesisCoordinator(int port) throws IOException {
+        this(port, false);
+    }
+
+    /**
+     * Create a coordinator that accepts the workers on the given port. The
+     * workers are not authenticated, thus the remote workers should be accepted
+     * only in a trusted network.
+     *
+     * @param port          Port used by the workers to connect, or 0 to use any
+     *                      free port.
+     * @param acceptRemote  {@code true} if the socket should listen on all the
+     *                      network interfaces, {@code false} if it should listen
+     *                      on the loopback interface only.
+     * @throws IOException Error in opening the socket.
+     */
+    public SynthesisCoordinator(int port, boolean acceptRemote) throws IOException {
+        this.serverSocket = acceptRemote ? new ServerSocket(port)
+                : new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptWorkers, "ape-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Synthesis coordinator is listening on port {} ({}).", getPort(),
+                acceptRemote ? "all interfaces" : "loopback interface only");
+    }
+
+    /**
+     * Get the port used by the workers to connect.
+     *
+     * @return The port number.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Get the number of the workers that are connected.
+     *
+     * @return Number of the workers.
+     */
+    public synchronized int getNumberOfWorkers() {
+        return connections.size();
+    }
+
+    /**
+     * Start worker processes on this machine, using the same Java runtime and
+     * class path as the current process. The processes are stopped when the
+     * coordinator is closed.
+     *
+     * @param noWorkers Number of the worker processes.
+     * @throws IOException Error in starting the processes.
+     */
+    public void startLocalWorkers(int noWorkers) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 0; i < noWorkers; i++) {
+            Process worker = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SynthesisWorker.class.getName(), InetAddress.getLoopbackAddress().getHostAddress(),
+                    Integer.toString(getPort()))
+                    .inheritIO().start();
+            synchronized (this) {
+                localWorkers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Create the job that enumerates the solutions of the encoded problem using
+     * the workers.
+     *
+     * @param engine          The synthesis problem, which was already encoded.
+     * @param excludedClauses Clauses that exclude the solutions found before.
+     * @return The new job.
+     * @throws IOException Error in reading the encoding of the problem.
+     */
+    ParallelEnumeration createJob(SATSynthesisEngine engine, List<int[]> excludedClauses) throws IOException {
+        int noWorkers = getNumberOfWorkers();
+        if (noWorkers == 0) {
+            log.info("Waiting for the workers to connect.");
+        }
+        return new Job(engine, excludedClauses, CubeEnumeration.createCubes(engine,
+                Math.max(1, noWorkers) * MIN_CUBES_PER_WORKER));
+    }
+
+    /**
+     * Stop the workers and close the socket.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            /* The workers stop even if they are running a task. */
+            connections.forEach(WorkerConnection::sendStop);
+            notifyAll();
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Process worker : localWorkers) {
+            try {
+                if (!worker.waitFor(WORKER_STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    worker.destroy();
+                }
+            } catch (InterruptedException e) {
+                worker.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Accept the workers until the coordinator is closed.
+     */
+    private void acceptWorkers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> serve(socket), "ape-coordinator-worker");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Error while accepting a worker: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatch the tasks to the worker until the coordinator is closed or the
+     * worker disconnects.
+     */
+    private void serve(Socket socket) {
+        WorkerConnection connection = null;
+        Task task = null;
+        try (socket) {
+            connection = new WorkerConnection(socket);
+            synchronized (this) {
+                connections.add(connection);
+                notifyAll();
+            }
+            log.info("Worker {} connected.", socket.getRemoteSocketAddress());
+            while (true) {
+                int limit;
+                synchronized (this) {
+                    while (!closed && (task = nextTask()) == null) {
+                        wait();
+                    }
+                    if (closed) {
+                        break;
+                    }
+                    limit = task.job.wanted - task.job.received.size();
+                    task.id = ++lastId;
+                    task.job.inFlight++;
+                    connection.task = task;
+                }
+                long timeoutMs = Math.max(1, task.job.deadline - System.currentTimeMillis());
+                if (connection.problemId != task.job.problemId) {
+                    connection.sendProblem(task.job);
+                }
+                connection.sendTask(task, limit, timeoutMs);
+                boolean exhausted = connection.receiveModels(task);
+                synchronized (this) {
+                    finishTask(connection, task, exhausted);
+                    task = null;
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                if (!closed) {
+                    log.warn("Worker {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                if (task != null) {
+                    finishTask(connection, task, false);
+                }
+                connections.remove(connection);
+            }
+        }
+    }
+
+    /**
+     * Get the next task that should be dispatched, if any.
+     */
+    private Task nextTask() {
+        for (Job job : jobs) {
+            if (job.active && !job.pending.isEmpty() && job.wanted > job.received.size()) {
+                return job.pending.poll();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mark the task as finished, where the cube that is not exhausted is
+     * dispatched again.
+     */
+    private void finishTask(WorkerConnection connection, Task task, boolean exhausted) {
+        task.job.inFlight--;
+        if (connection != null) {
+            connection.task = null;
+        }
+        if (!exhausted) {
+            task.job.pending.addFirst(task);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Connection to a worker.
+     */
+    private class WorkerConnection {
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        /** Problem that was sent to the worker last. */
+        private int problemId = -1;
+        /** Task that is currently run by the worker. */
+        private Task task = null;
+
+        private WorkerConnection(Socket socket) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            byte[] magic = new byte[DistributedProtocol.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, DistributedProtocol.MAGIC)
+                    || DistributedProtocol.readVarInt(in) != DistributedProtocol.VERSION) {
+                throw new IOException("Unsupported worker.");
+            }
+        }
+
+        private void sendProblem(Job job) throws IOException {
+            synchronized (out) {
+                DistributedProtocol.writeVarInt(out, DistributedProtocol.PROBLEM);
+                DistributedProtocol.writeVarInt(out, job.problemId);
+                DistributedProtocol.writeBytes(out, job.encoding);
+                DistributedProtocol.writeLiterals(out, job.solutionVariables);
+                DistributedProtocol.writeLiterals(out, job.dataFlowVariables);
+                DistributedProtocol.writeVarInt(out, job.extraClauses.size());
+                for (int[] clause : job.extraClauses) {
+                    DistributedProtocol.writeLiterals(out, clause);
+                }
+                out.flush();
+            }
+            problemId = job.problemId;
+        }
+
+        private void sendTask(Task task, int limit, long timeoutMs) throws IOException {
+            synchronized (out) {
+                DistributedProtocol.writeVarInt(out, DistributedProtocol.TASK);
+                DistributedProtocol.writeVarInt(out, task.id);
+                DistributedProtocol.writeVarInt(out, task.job.problemId);
+                DistributedProtocol.writeLiterals(out, task.cube);
+                DistributedProtocol.writeVarInt(out, task.models.size());
+                for (int[] model : task.models) {
+                    DistributedProtocol.writeModel(out, model);
+                }
+                DistributedProtocol.writeVarInt(out, limit);
+                out.writeLong(timeoutMs);
+                out.flush();
+            }
+        }
+
+        private void sendCancel(Task task) {
+            try {
+                synchronized (out) {
+                    DistributedProtocol.writeVarInt(out, DistributedProtocol.CANCEL);
+                    DistributedProtocol.writeVarInt(out, task.id);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                /* The disconnection is handled by the thread that serves the worker. */
+            }
+        }
+
+        private void sendStop() {
+            try {
+                synchronized (out) {
+                    DistributedProtocol.writeVarInt(out, DistributedProtocol.STOP);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                /* The worker already disconnected. */
+            }
+        }
+
+        /**
+         * Receive the models of the task, until the worker finishes it.
+         *
+         * @return {@code true} if all the models of the cube were found.
+         */
+        private boolean receiveModels(Task task) throws IOException {
+            while (true) {
+                int message = DistributedProtocol.readVarInt(in);
+                int taskId = DistributedProtocol.readVarInt(in);
+                if (taskId != task.id) {
+                    throw new IOException("Unexpected task " + taskId + ".");
+                }
+                if (message == DistributedProtocol.MODEL) {
+                    int noVariables = task.job.engine.getMappings().getSize();
+                    int[] model = DistributedProtocol.readModel(in, noVariables);
+                    checkModel(model, noVariables);
+                    synchronized (SynthesisCoordinator.this) {
+                        task.models.add(model);
+                        task.job.received.add(model);
+                        SynthesisCoordinator.this.notifyAll();
+                    }
+                } else if (message == DistributedProtocol.DONE) {
+                    return in.readBoolean();
+                } else {
+                    throw new IOException("Unexpected message " + message + ".");
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the model received from a worker describes a solution of the
+     * job, i.e. that it consists of the sorted positive literals of the variables
+     * of the problem, each of them used once.
+     *
+     * @param model       The model, as sent by the worker.
+     * @param noVariables Number of the variables of the problem.
+     * @throws IOException if the model contains a variable that is not mapped, a
+     *                     negated (i.e. contradictory) literal or a literal that
+     *                     is repeated.
+     */
+    static void checkModel(int[] model, int noVariables) throws IOException {
+        int previous = 0;
+        for (int literal : model) {
+            if (literal <= 0) {
+                throw new IOException("Invalid model, literal " + literal + " is not positive.");
+            }
+            if (literal > noVariables) {
+                throw new IOException("Invalid model, variable " + literal + " is not in the range 1.."
+                        + noVariables + ".");
+            }
+            if (literal <= previous) {
+                throw new IOException("Invalid model, literal " + literal + " is repeated or not sorted.");
+            }
+            previous = literal;
+        }
+    }
+
+    /**
+     * Cube of a problem and the models of the cube that were found so far.
+     */
+    private class Task {
+        /** ID of the task, assigned each time it is dispatched. */
+        private int id;
+        private final Job job;
+        private final int[] cube;
+        private final List<int[]> models = new ArrayList<>();
+
+        private Task(Job job, int[] cube) {
+            this.job = job;
+            this.cube = cube;
+        }
+    }
+
+    /**
+     * Enumeration of the solutions of a problem by the workers.
+     */
+    private class Job implements ParallelEnumeration {
+        private final SATSynthesisEngine engine;
+        /** Compressed DIMACS encoding of the problem. */
+        private final byte[] encoding;
+        /** Variables used to exclude the solutions and their data flow. */
+        private final int[] solutionVariables;
+        private final int[] dataFlowVariables;
+        /** Clauses added to the encoding. */
+        private final List<int[]> extraClauses;
+        /** ID of the problem, changed if the clauses are added. */
+        private int problemId;
+        /** Tasks that were not dispatched yet. */
+        private final Deque<Task> pending = new ArrayDeque<>();
+        /** Number of the dispatched tasks. */
+        private int inFlight = 0;
+        /** Models that were received, but not turned into solutions yet. */
+        private final Deque<int[]> received = new ArrayDeque<>();
+        /** {@code true} if the tasks of the job should be dispatched. */
+        private boolean active = false;
+        /** Number of the models needed by the current enumeration. */
+        private int wanted = 0;
+        /** Time (in ms since the epoch) at which the current enumeration stops. */
+        private long deadline = Long.MAX_VALUE;
+
+        private Job(SATSynthesisEngine engine, List<int[]> excludedClauses, List<int[]> cubes) throws IOException {
+            this.engine = engine;
+            this.encoding = DistributedProtocol.compress(engine.getSatInputFile());
+            /* The clauses that exclude a solution that contains all the atoms. */
+            int[] allAtoms = IntStream.rangeClosed(engine.getMappings().getInitialNumOfMappedAtoms() + 1,
+                    engine.getMappings().getSize()).toArray();
+            List<int[]> blocking = engine.blockingClauses(new SATOutput(allAtoms, engine.getMappings()));
+            this.solutionVariables = Arrays.stream(blocking.get(0)).map(Math::abs).toArray();
+            this.dataFlowVariables = blocking.size() > 1 ? Arrays.stream(blocking.get(1)).map(Math::abs).toArray()
+                    : new int[0];
+            this.extraClauses = new ArrayList<>(excludedClauses);
+            synchronized (SynthesisCoordinator.this) {
+                problemId = ++lastId;
+                cubes.forEach(cube -> pending.add(new Task(this, cube)));
+                jobs.add(this);
+            }
+            log.info("The search is split into " + cubes.size() + " cubes, enumerated by " + getNumberOfWorkers()
+                    + " workers.");
+        }
+
+        @Override
+        public List<SolutionWorkflow> enumerate(int solutionsMax, long timeoutMs, CancellationToken cancellation) {
+            List<SolutionWorkflow> solutions = new ArrayList<>();
+            int duplicatesFound = 0;
+            long now = System.currentTimeMillis();
+            synchronized (SynthesisCoordinator.this) {
+                deadline = timeoutMs > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutMs;
+                wanted = solutionsMax;
+                active = true;
+                SynthesisCoordinator.this.notifyAll();
+            }
+            try {
+                while (solutions.size() < solutionsMax) {
+                    List<int[]> models = new ArrayList<>();
+                    synchronized (SynthesisCoordinator.this) {
+                        while (received.isEmpty() && !isFinished() && !closed && !cancellation.isStopped()
+                                && System.currentTimeMillis() < deadline) {
+                            SynthesisCoordinator.this.wait(100);
+                        }
+                        while (!received.isEmpty() && models.size() < solutionsMax - solutions.size()) {
+                            models.add(received.poll());
+                        }
+                    }
+                    if (models.isEmpty()) {
+                        break;
+                    }
+                    for (int[] model : models) {
+                        SolutionWorkflow solution = new SolutionWorkflow(model, engine);
+                        /* Skip the solutions with the same data flow as one of the previous ones. */
+                        if (engine.getRunConfig().getFilterDuplicates()
+                                && !engine.getAllSolutions().registerFingerprint(solution)) {
+                            duplicatesFound++;
+                        } else {
+                            solutions.add(solution);
+                        }
+                    }
+                    synchronized (SynthesisCoordinator.this) {
+                        wanted = solutionsMax - solutions.size();
+                        SynthesisCoordinator.this.notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                deactivate();
+            }
+
+            if (cancellation.isCancelled()) {
+                log.warn("Solving was cancelled.");
+            } else if (!isExhausted() && solutions.size() < solutionsMax) {
+                log.warn("Timeout. Total solving took longer than the timeout: "
+                        + engine.getRunConfig().getTimeoutMs() + " ms.");
+            }
+            if (duplicatesFound > 0) {
+                log.info("Skipped " + duplicatesFound + " solutions with the same data flow as the previous ones.");
+            }
+            return solutions;
+        }
+
+        @Override
+        public boolean isExhausted() {
+            synchronized (SynthesisCoordinator.this) {
+                return isFinished() && received.isEmpty();
+            }
+        }
+
+        @Override
+        public void exclude(List<int[]> clauses) {
+            synchronized (SynthesisCoordinator.this) {
+                extraClauses.addAll(clauses);
+                /* The workers load the problem again. */
+                problemId = ++lastId;
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (SynthesisCoordinator.this) {
+                deactivate();
+                jobs.remove(this);
+            }
+        }
+
+        /**
+         * Check whether all the tasks were finished.
+         */
+        private boolean isFinished() {
+            return pending.isEmpty() && inFlight == 0;
+        }
+
+        /**
+         * Stop dispatching the tasks of the job and cancel the tasks that are
+         * running. The models found by the cancelled tasks are kept for the next
+         * enumeration.
+         */
+        private void deactivate() {
+            synchronized (SynthesisCoordinator.this) {
+                active = false;
+                for (WorkerConnection connection : connections) {
+                    if (connection.task != null && connection.task.job == this) {
+                        connection.sendCancel(connection.task);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.reader.ParseFormatException;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The {@code SynthesisWorker} class is a worker process of the distributed
+ * synthesis (see {@link SynthesisCoordinator}). The worker connects to the
+ * coordinator, receives the encodings of the synthesis problems and enumerates
+ * the models within the cubes it is given. The worker does not need the domain
+ * of the synthesis, as it only sends back the positive literals of the models
+ * that describe the solutions.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public class SynthesisWorker {
+
+    /** Host of the coordinator. */
+    private final String host;
+
+    /** Port of the coordinator. */
+    private final int port;
+
+    /** Connection to the coordinator. */
+    private Socket socket;
+    private DataOutputStream out;
+
+    /** Problem that was received last. */
+    private int problemId = -1;
+    private byte[] encoding;
+    private BitSet solutionVariables;
+    private BitSet dataFlowVariables;
+    private List<int[]> extraClauses;
+
+    /** Solver that contains the problem, null if it was not created yet. */
+    private ISolver solver = null;
+
+    /** Task that is currently running and the highest ID of a cancelled task. */
+    private volatile int runningTaskId = -1;
+    private volatile int cancelledTaskId = -1;
+
+    /**
+     * Create a worker of the coordinator on the given host and port.
+     *
+     * @param host Host of the coordinator.
+     * @param port Port of the coordinator.
+     */
+    public SynthesisWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Start a worker process, connected to the coordinator given by the
+     * arguments.
+     *
+     * @param args The host and the port of the coordinator.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            log.error("Error: the worker expects the host and the port of the coordinator as arguments.");
+            return;
+        }
+        try {
+            new SynthesisWorker(args[0], Integer.parseInt(args[1])).run();
+        } catch (NumberFormatException e) {
+            log.error("The port is not an integer.");
+        } catch (IOException e) {
+            log.error("Error in the connection to the coordinator.");
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Connect to the coordinator and run the tasks, until the coordinator stops
+     * the worker or closes the connection.
+     *
+     * @throws IOException Error in the connection to the coordinator.
+     */
+    public void run() throws IOException {
+        /* The solving thread does not keep the process alive once the worker stops. */
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ape-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (Socket connection = new Socket(host, port)) {
+            socket = connection;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            out.write(DistributedProtocol.MAGIC);
+            DistributedProtocol.writeVarInt(out, DistributedProtocol.VERSION);
+            out.flush();
+            log.info("Worker connected to the coordinator {}:{}.", host, port);
+            while (true) {
+                int message;
+                try {
+                    message = DistributedProtocol.readVarInt(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (message == DistributedProtocol.PROBLEM) {
+                    readProblem(in);
+                } else if (message == DistributedProtocol.TASK) {
+                    int taskId = DistributedProtocol.readVarInt(in);
+                    int taskProblemId = DistributedProtocol.readVarInt(in);
+                    int[] cube = DistributedProtocol.readLiterals(in, DistributedProtocol.MAX_LITERALS);
+                    List<int[]> excludedModels = new ArrayList<>();
+                    int noModels = DistributedProtocol.readSize(in, Integer.MAX_VALUE);
+                    for (int i = 0; i < noModels; i++) {
+                        excludedModels.add(DistributedProtocol.readModel(in, DistributedProtocol.MAX_LITERALS));
+                    }
+                    int limit = DistributedProtocol.readVarInt(in);
+                    long timeoutMs = in.readLong();
+                    if (taskProblemId != problemId) {
+                        throw new IOException("The problem of the task was not received.");
+                    }
+                    executor.submit(() -> runTask(taskId, cube, excludedModels, limit, timeoutMs));
+                } else if (message == DistributedProtocol.CANCEL) {
+                    cancel(DistributedProtocol.readVarInt(in));
+                } else if (message == DistributedProtocol.STOP) {
+                    break;
+                } else {
+                    throw new IOException("Unexpected message " + message + ".");
+                }
+            }
+        } finally {
+            cancel(Integer.MAX_VALUE);
+            executor.shutdownNow();
+        }
+        log.info("Worker stopped.");
+    }
+
+    /**
+     * Read the problem. The solver is created once the first task of the
+     * problem runs, as the previous task may still be running.
+     */
+    private void readProblem(DataInputStream in) throws IOException {
+        int newProblemId = DistributedProtocol.readVarInt(in);
+        byte[] newEncoding = DistributedProtocol.readBytes(in);
+        BitSet newSolutionVariables = toBitSet(
+                DistributedProtocol.readLiterals(in, DistributedProtocol.MAX_LITERALS));
+        BitSet newDataFlowVariables = toBitSet(
+                DistributedProtocol.readLiterals(in, DistributedProtocol.MAX_LITERALS));
+        List<int[]> newExtraClauses = new ArrayList<>();
+        int noClauses = DistributedProtocol.readSize(in, Integer.MAX_VALUE);
+        for (int i = 0; i < noClauses; i++) {
+            newExtraClauses.add(DistributedProtocol.readLiterals(in, DistributedProtocol.MAX_LITERALS));
+        }
+        synchronized (this) {
+            problemId = newProblemId;
+            encoding = newEncoding;
+            solutionVariables = newSolutionVariables;
+            dataFlowVariables = newDataFlowVariables;
+            extraClauses = newExtraClauses;
+            solver = null;
+        }
+    }
+
+    /**
+     * Enumerate the models of the cube and send them to the coordinator.
+     */
+    private void runTask(int taskId, int[] cube, List<int[]> excludedModels, int limit, long timeoutMs) {
+        long now = System.currentTimeMillis();
+        long deadline = timeoutMs > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutMs;
+        boolean exhausted = false;
+        runningTaskId = taskId;
+        try {
+            ISolver taskSolver = getSolver();
+            for (int[] model : excludedModels) {
+                block(taskSolver, model);
+            }
+            int noModels = 0;
+            while (noModels < limit && cancelledTaskId < taskId) {
+                long timeLeft = deadline - System.currentTimeMillis();
+                if (timeLeft <= 0) {
+                    break;
+                }
+                taskSolver.setTimeoutMs(timeLeft);
+                if (!SATSynthesisEngine.isSatisfiable(taskSolver, cube)) {
+                    exhausted = true;
+                    break;
+                }
+                int[] model = Arrays.stream(taskSolver.model())
+                        .filter(literal -> literal >= SATOutput.MIN_INTERPRETED_LITERAL).toArray();
+                send(DistributedProtocol.MODEL, taskId, model);
+                noModels++;
+                block(taskSolver, model);
+            }
+        } catch (ContradictionException e) {
+            /* No models are left, the solver is created again for the next task. */
+            synchronized (this) {
+                solver = null;
+            }
+            exhausted = true;
+        } catch (TimeoutException e) {
+            /* The task was cancelled or it reached the time limit. */
+        } catch (ParseFormatException | IOException e) {
+            log.error("Error while running the task " + taskId + ".");
+            log.error(e.getMessage());
+            /* The coordinator gives the task to another worker. */
+            closeConnection();
+            return;
+        } finally {
+            runningTaskId = -1;
+        }
+        try {
+            synchronized (out) {
+                DistributedProtocol.writeVarInt(out, DistributedProtocol.DONE);
+                DistributedProtocol.writeVarInt(out, taskId);
+                out.writeBoolean(exhausted);
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.error("Error in the connection to the coordinator.");
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Get the solver that contains the current problem, creating it if needed.
+     */
+    private synchronized ISolver getSolver() throws ContradictionException, ParseFormatException, IOException {
+        if (solver == null) {
+            ISolver newSolver = SolverFactory.newDefault();
+            try (InputStream satInput = DistributedProtocol.decompress(encoding)) {
+                new DimacsReader(newSolver).parseInstance(satInput);
+            }
+            for (int[] clause : extraClauses) {
+                newSolver.addClause(new VecInt(clause));
+            }
+            solver = newSolver;
+        }
+        return solver;
+    }
+
+    /**
+     * Exclude the solution described by the model, and its data flow if
+     * required, from the models of the solver.
+     */
+    private void block(ISolver taskSolver, int[] model) throws ContradictionException {
+        taskSolver.addClause(new VecInt(negate(model, solutionVariables)));
+        if (!dataFlowVariables.isEmpty()) {
+            taskSolver.addClause(new VecInt(negate(model, dataFlowVariables)));
+        }
+    }
+
+    /**
+     * Get the negation of the positive literals of the model whose variables are
+     * in the given set.
+     */
+    private static int[] negate(int[] model, BitSet variables) {
+        return Arrays.stream(model).filter(literal -> literal > 0 && variables.get(literal))
+                .map(literal -> -literal).toArray();
+    }
+
+    /**
+     * Stop the task with the given ID if it is running and the tasks with lower
+     * IDs that were not started yet.
+     */
+    private void cancel(int taskId) {
+        cancelledTaskId = Math.max(cancelledTaskId, taskId);
+        ISolver currSolver;
+        synchronized (this) {
+            currSolver = solver;
+        }
+        if (currSolver != null && runningTaskId != -1 && runningTaskId <= taskId) {
+            currSolver.expireTimeout();
+        }
+    }
+
+    /**
+     * Send the model of the task to the coordinator.
+     */
+    private void send(int message, int taskId, int[] model) throws IOException {
+        synchronized (out) {
+            DistributedProtocol.writeVarInt(out, message);
+            DistributedProtocol.writeVarInt(out, taskId);
+            DistributedProtocol.writeModel(out, model);
+            out.flush();
+        }
+    }
+
+    private static BitSet toBitSet(int[] variables) throws IOException {
+        BitSet bitSet = new BitSet();
+        for (int variable : variables) {
+            if (variable <= 0) {
+                throw new IOException("Malformed message, invalid variable " + variable + ".");
+            }
+            bitSet.set(variable);
+        }
+        return bitSet;
+    }
+}
@@ -0,0 +1,245 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.AllTypes;
+import nl.uu.cs.ape.models.AuxTypePredicate;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.LogicOperation;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code ToolCompatibilityIndex} class is used to determine, before the
+ * encoding, which memory states can ever be referenced by which used states
+ * (see {@link nl.uu.cs.ape.models.enums.AtomType#MEM_TYPE_REFERENCE}). The
+ * index is computed over the input and output annotations of the tools, the
+ * workflow inputs and outputs, and the type taxonomy. A memory state (tool
+ * output or workflow input) can be referenced by a used state (tool input or
+ * workflow output) only if, in each data dimension, the annotated types of the
+ * two share a subtype.
+ * <p>
+ * The index over-approximates the compatibility, i.e. a reference that is not
+ * possible according to the index can never be part of a solution, while a
+ * reference that is possible might still be excluded by the encoding.
+ *
+ * @author Vedran Kasalica
+ */
+public final class ToolCompatibilityIndex {
+
+    /** Type taxonomy of the domain. */
+    private final AllTypes allTypes;
+    /** Number of the used block that represents the workflow outputs. */
+    private final int workflowOutputBlockNo;
+    /** Compatibility of tool output slots (rows) and tool input slots. */
+    private final boolean[][] toolOutputToToolInput;
+    /** Compatibility of workflow input slots (rows) and tool input slots. */
+    private final boolean[][] workflowInputToToolInput;
+    /** Compatibility of tool output slots (rows) and workflow output slots. */
+    private final boolean[][] toolOutputToWorkflowOutput;
+    /** Compatibility of workflow input slots (rows) and workflow output slots. */
+    private final boolean[][] workflowInputToWorkflowOutput;
+    /** Types allowed by an annotation, per data dimension (see {@link #getDimensions(Type)}). */
+    private final Map<Type, Map<String, BitSet>> dimensionsCache = new HashMap<>();
+    /** Compatibility of the produced (keys) and consumed type annotations. */
+    private final Map<Type, Map<Type, Boolean>> compatibleTypes = new HashMap<>();
+
+    /**
+     * Compute the compatibility index for the given synthesis run.
+     *
+     * @param domainSetup    Domain information, including all the existing tools
+     *                       and types.
+     * @param programInputs  Workflow inputs.
+     * @param programOutputs Workflow outputs.
+     * @param typeAutomaton  Automaton representing the type states in the model.
+     */
+    public ToolCompatibilityIndex(APEDomainSetup domainSetup, List<Type> programInputs, List<Type> programOutputs,
+            TypeAutomaton typeAutomaton) {
+        this.allTypes = domainSetup.getAllTypes();
+        this.workflowOutputBlockNo = typeAutomaton.getWorkflowOutputBlock().getBlockNumber();
+
+        List<Set<Type>> toolOutputs = new ArrayList<>();
+        List<Set<Type>> toolInputs = new ArrayList<>();
+        for (TaxonomyPredicate potentialModule : domainSetup.getAllModules().getModules()) {
+            if (potentialModule instanceof Module) {
+                Module module = (Module) potentialModule;
+                addSlotTypes(toolOutputs, module.getModuleOutput());
+                addSlotTypes(toolInputs, module.getModuleInput());
+            }
+        }
+        List<Set<Type>> workflowInputs = new ArrayList<>();
+        addSlotTypes(workflowInputs, programInputs);
+        List<Set<Type>> workflowOutputs = new ArrayList<>();
+        addSlotTypes(workflowOutputs, programOutputs);
+
+        this.toolOutputToToolInput = computeCompatibility(toolOutputs, toolInputs);
+        this.workflowInputToToolInput = computeCompatibility(workflowInputs, toolInputs);
+        this.toolOutputToWorkflowOutput = computeCompatibility(toolOutputs, workflowOutputs);
+        this.workflowInputToWorkflowOutput = computeCompatibility(workflowInputs, workflowOutputs);
+    }
+
+    /**
+     * Check whether the memory state can be referenced by the used state, based on
+     * the types that can be generated in the memory state and the types that can
+     * be used in the used state. The order of the states in the workflow is not
+     * taken into account.
+     *
+     * @param memState  Memory state (tool output or workflow input).
+     * @param usedState Used state (tool input or workflow output).
+     * @return {@code true} if the reference is possible, {@code false} if it can
+     *         never be part of a solution.
+     */
+    public boolean isReferencePossible(State memState, State usedState) {
+        boolean[][] compatibility;
+        if (memState.getBlockNumber() == 0) {
+            compatibility = (usedState.getBlockNumber() == workflowOutputBlockNo) ? workflowInputToWorkflowOutput
+                    : workflowInputToToolInput;
+        } else {
+            compatibility = (usedState.getBlockNumber() == workflowOutputBlockNo) ? toolOutputToWorkflowOutput
+                    : toolOutputToToolInput;
+        }
+        int memSlot = memState.getLocalStateNumber();
+        int usedSlot = usedState.getLocalStateNumber();
+        return memSlot < compatibility.length && usedSlot < compatibility[memSlot].length
+                && compatibility[memSlot][usedSlot];
+    }
+
+    /**
+     * Add the types annotated in each of the slots to the corresponding set of
+     * types.
+     */
+    private static void addSlotTypes(List<Set<Type>> slotTypes, List<Type> annotations) {
+        for (int i = 0; i < annotations.size(); i++) {
+            if (slotTypes.size() <= i) {
+                slotTypes.add(new LinkedHashSet<>());
+            }
+            slotTypes.get(i).add(annotations.get(i));
+        }
+    }
+
+    /**
+     * Compute which of the producer slots (memory states) are compatible with
+     * which of the consumer slots (used states).
+     */
+    private boolean[][] computeCompatibility(List<Set<Type>> producerSlots, List<Set<Type>> consumerSlots) {
+        boolean[][] compatibility = new boolean[producerSlots.size()][consumerSlots.size()];
+        for (int i = 0; i < producerSlots.size(); i++) {
+            for (int j = 0; j < consumerSlots.size(); j++) {
+                compatibility[i][j] = anyCompatible(producerSlots.get(i), consumerSlots.get(j));
+            }
+        }
+        return compatibility;
+    }
+
+    /**
+     * Check whether any of the produced types is compatible with any of the
+     * consumed types.
+     *
+     * @param producedTypes Annotations of the data that is produced (tool outputs
+     *                      or workflow inputs).
+     * @param consumedTypes Annotations of the data that is consumed (tool inputs
+     *                      or workflow outputs).
+     * @return {@code true} if at least one pair of annotations is compatible.
+     */
+    public boolean anyCompatible(Collection<Type> producedTypes, Collection<Type> consumedTypes) {
+        for (Type producedType : producedTypes) {
+            for (Type consumedType : consumedTypes) {
+                if (areCompatible(producedType, consumedType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the data produced according to one annotation can be consumed
+     * according to the other annotation, i.e. whether the two type annotations
+     * share a subtype in each of the data dimensions that both of them restrict.
+     *
+     * @param producedType Annotation of the data that is produced.
+     * @param consumedType Annotation of the data that is consumed.
+     * @return {@code true} if the annotations are compatible.
+     */
+    public boolean areCompatible(Type producedType, Type consumedType) {
+        return compatibleTypes.computeIfAbsent(producedType, t -> new HashMap<>())
+                .computeIfAbsent(consumedType, t -> checkCompatibility(producedType, t));
+    }
+
+    /**
+     * Check whether the two type annotations share a subtype in each of the data
+     * dimensions that both of them restrict.
+     */
+    private boolean checkCompatibility(Type producedType, Type consumedType) {
+        if (producedType == null || consumedType == null) {
+            return true;
+        }
+        Map<String, BitSet> producedDimensions = getDimensions(producedType);
+        for (Map.Entry<String, BitSet> consumedDimension : getDimensions(consumedType).entrySet()) {
+            BitSet producedDimension = producedDimensions.get(consumedDimension.getKey());
+            if (producedDimension != null && !producedDimension.intersects(consumedDimension.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the types allowed by the annotation, per data dimension (the dimension
+     * root is used as the key). Dimensions that are not restricted by the
+     * annotation are omitted. Disjunctions over multiple dimensions are treated as
+     * unrestricted.
+     *
+     * @param type Type annotation.
+     * @return Map of dimension roots to the indices (see
+     *         {@link AllTypes#getPredicateIndex(TaxonomyPredicate)}) of the
+     *         allowed types.
+     */
+    private Map<String, BitSet> getDimensions(Type type) {
+        Map<String, BitSet> cachedDimensions = dimensionsCache.get(type);
+        if (cachedDimensions != null) {
+            return cachedDimensions;
+        }
+        Map<String, BitSet> dimensions = new HashMap<>();
+        if (type instanceof AuxTypePredicate) {
+            AuxTypePredicate auxType = (AuxTypePredicate) type;
+            List<Map<String, BitSet>> subDimensions = new ArrayList<>();
+            for (TaxonomyPredicate subType : auxType.getGeneralizedPredicates()) {
+                subDimensions.add(getDimensions((Type) subType));
+            }
+            if (auxType.getLogicOp() == LogicOperation.AND) {
+                for (Map<String, BitSet> subDimension : subDimensions) {
+                    subDimension.forEach((root, types) -> dimensions.merge(root, (BitSet) types.clone(),
+                            (allowed, newTypes) -> {
+                                allowed.and(newTypes);
+                                return allowed;
+                            }));
+                }
+            } else if (subDimensions.stream().allMatch(sub -> sub.size() == 1
+                    && sub.keySet().equals(subDimensions.get(0).keySet()))) {
+                for (Map<String, BitSet> subDimension : subDimensions) {
+                    subDimension.forEach((root, types) -> dimensions.merge(root, (BitSet) types.clone(),
+                            (allowed, newTypes) -> {
+                                allowed.or(newTypes);
+                                return allowed;
+                            }));
+                }
+            }
+        } else {
+            dimensions.put(type.getRootNodeID(), allTypes.getDescendants(type));
+        }
+        dimensionsCache.put(type, dimensions);
+        return dimensions;
+    }
+
+}
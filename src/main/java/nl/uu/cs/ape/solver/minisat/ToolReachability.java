@@ -0,0 +1,144 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.ConfigEnum;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code ToolReachability} class is used to determine, before the encoding,
+ * which tools can be used in which states of the workflow. The analysis
+ * consists of two passes over the tool annotations:
+ * <ul>
+ * <li>the forward pass determines the tools whose inputs can be provided by the
+ * workflow inputs or by the outputs of the tools that can be used in the
+ * previous states, and</li>
+ * <li>the backward pass (performed only if the generated data has to be used,
+ * see {@link APERunConfig#getUseAllGeneratedData()}) determines the tools
+ * whose outputs can be used by the tools that can be used in the following
+ * states or as workflow outputs.</li>
+ * </ul>
+ * A tool is reachable in a state if it passes both analyses. The compatibility
+ * of the data is determined using {@link ToolCompatibilityIndex}, therefore
+ * the analysis over-approximates the tools that can be used, i.e. a tool that
+ * is not reachable in a state can never be used in that state.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public final class ToolReachability {
+
+    /** Tools that are reachable in each of the module states (in order). */
+    private final List<Set<Module>> reachableTools;
+
+    /**
+     * Perform the reachability analysis for the given synthesis run.
+     *
+     * @param domainSetup        Domain information, including all the existing
+     *                           tools and types.
+     * @param runConfig          Setup configuration for the synthesis.
+     * @param compatibilityIndex Index used to determine the data compatibility.
+     * @param moduleAutomaton    Automaton representing the tool states in the
+     *                           model.
+     */
+    public ToolReachability(APEDomainSetup domainSetup, APERunConfig runConfig,
+            ToolCompatibilityIndex compatibilityIndex, ModuleAutomaton moduleAutomaton) {
+        List<Module> allTools = new ArrayList<>();
+        for (TaxonomyPredicate potentialModule : domainSetup.getAllModules().getModules()) {
+            if (potentialModule instanceof Module) {
+                allTools.add((Module) potentialModule);
+            }
+        }
+        int workflowLength = moduleAutomaton.size();
+
+        /* Forward pass: the inputs of the tool have to be available in memory. */
+        List<Set<Module>> forwardReachable = new ArrayList<>();
+        Set<Type> availableTypes = new LinkedHashSet<>(runConfig.getProgramInputs());
+        for (int i = 0; i < workflowLength; i++) {
+            Set<Module> stateTools = new LinkedHashSet<>();
+            for (Module tool : allTools) {
+                if (inputsAvailable(tool, availableTypes, compatibilityIndex)) {
+                    stateTools.add(tool);
+                }
+            }
+            forwardReachable.add(stateTools);
+            for (Module tool : stateTools) {
+                availableTypes.addAll(tool.getModuleOutput());
+            }
+        }
+
+        /* Backward pass: the outputs of the tool have to be used later on. */
+        boolean outputsUsed = runConfig.getUseAllGeneratedData() != ConfigEnum.NONE;
+        List<Set<Module>> reachable = new ArrayList<>(Collections.nCopies(workflowLength, null));
+        Set<Type> requiredTypes = new LinkedHashSet<>(runConfig.getProgramOutputs());
+        for (int i = workflowLength - 1; i >= 0; i--) {
+            Set<Module> stateTools = new LinkedHashSet<>();
+            for (Module tool : forwardReachable.get(i)) {
+                if (!outputsUsed || tool.getModuleOutput().isEmpty()
+                        || compatibilityIndex.anyCompatible(tool.getModuleOutput(), requiredTypes)) {
+                    stateTools.add(tool);
+                }
+            }
+            reachable.set(i, stateTools);
+            for (Module tool : stateTools) {
+                requiredTypes.addAll(tool.getModuleInput());
+            }
+        }
+        this.reachableTools = reachable;
+
+        if (log.isDebugEnabled()) {
+            for (int i = 0; i < workflowLength; i++) {
+                log.debug("Tools reachable in state {}: {} of {}.", i + 1, reachable.get(i).size(),
+                        allTools.size());
+            }
+        }
+    }
+
+    /**
+     * Check whether the tool can be used in the given module state.
+     *
+     * @param tool        The tool.
+     * @param moduleState State in the module automaton.
+     * @return {@code true} if the tool is reachable in the state, {@code false}
+     *         if it can never be used in the state.
+     */
+    public boolean isReachable(Module tool, State moduleState) {
+        return getReachableTools(moduleState).contains(tool);
+    }
+
+    /**
+     * Get the tools that can be used in the given module state.
+     *
+     * @param moduleState State in the module automaton.
+     * @return Set of the reachable tools.
+     */
+    public Set<Module> getReachableTools(State moduleState) {
+        return Collections.unmodifiableSet(reachableTools.get(moduleState.getLocalStateNumber() - 1));
+    }
+
+    /**
+     * Check whether each of the tool inputs can be provided by one of the
+     * available types.
+     */
+    private static boolean inputsAvailable(Module tool, Set<Type> availableTypes,
+            ToolCompatibilityIndex compatibilityIndex) {
+        for (Type input : tool.getModuleInput()) {
+            if (!compatibilityIndex.anyCompatible(availableTypes, Collections.singletonList(input))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,184 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.AllModules;
+import nl.uu.cs.ape.models.AuxModulePredicate;
+import nl.uu.cs.ape.models.ConstraintTemplateData;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.ConfigEnum;
+import nl.uu.cs.ape.models.enums.LogicOperation;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code WorkflowLengthBound} class is used to compute, before the
+ * synthesis, a lower bound on the length of the workflows that satisfy the
+ * specification. Workflows shorter than the bound cannot be solutions, thus
+ * the synthesis does not have to encode and solve the corresponding problems.
+ * <p>
+ * The bound is computed over a relaxed planning graph, where the tools that
+ * can be used in a state are the ones whose inputs are compatible (see
+ * {@link ToolCompatibilityIndex}) with the workflow inputs or with the outputs
+ * of the tools that can be used in the previous states. The bound takes into
+ * account that:
+ * <ul>
+ * <li>each workflow output has to be provided by a tool output (workflow
+ * inputs cannot be used as workflow outputs),</li>
+ * <li>each operation required by the constraints ({@code use_m} and
+ * {@code last_m}) has to be used, and</li>
+ * <li>each workflow input has to be used as a tool input, in case that all
+ * of them have to be used.</li>
+ * </ul>
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+public final class WorkflowLengthBound {
+
+    /** Constraint templates that require the operation to be used. */
+    private static final Set<String> REQUIRED_OPERATION_CONSTRAINTS = Set.of("use_m", "last_m");
+
+    /**
+     * Private constructor is used to to prevent instantiation.
+     */
+    private WorkflowLengthBound() {
+    }
+
+    /**
+     * Compute the minimal length of a workflow that can satisfy the
+     * specification. The constraints have to be set up in the domain (see
+     * {@link APEDomainSetup#updateConstraints}) before the bound is computed.
+     *
+     * @param domainSetup Domain information, including all the existing tools and
+     *                    types.
+     * @param runConfig   Setup configuration for the synthesis.
+     * @return The lower bound on the workflow length, or the maximal solution
+     *         length increased by one, if the specification cannot be
+     *         satisfied by the workflows of the allowed lengths.
+     */
+    public static int lowerBound(APEDomainSetup domainSetup, APERunConfig runConfig) {
+        int maxLength = runConfig.getSolutionLength().getMax();
+        int maxNoToolInputs = Math.max(domainSetup.getMaxNoToolInputs(), runConfig.getProgramOutputs().size());
+        int maxNoToolOutputs = Math.max(domainSetup.getMaxNoToolOutputs(), runConfig.getProgramInputs().size());
+        ToolCompatibilityIndex compatibilityIndex = new ToolCompatibilityIndex(domainSetup,
+                runConfig.getProgramInputs(), runConfig.getProgramOutputs(),
+                new TypeAutomaton(1, maxNoToolInputs, maxNoToolOutputs));
+
+        List<Module> allTools = new ArrayList<>();
+        for (TaxonomyPredicate potentialModule : domainSetup.getAllModules().getModules()) {
+            if (potentialModule instanceof Module) {
+                allTools.add((Module) potentialModule);
+            }
+        }
+        List<TaxonomyPredicate> requiredOperations = new ArrayList<>();
+        for (ConstraintTemplateData constraint : domainSetup.getUnformattedConstr()) {
+            if (REQUIRED_OPERATION_CONSTRAINTS.contains(constraint.getConstraintID())
+                    && !constraint.getParameters().isEmpty()) {
+                requiredOperations.add(constraint.getParameters().get(0));
+            }
+        }
+
+        /* The workflow length cannot be lower than 1 (see ModuleAutomaton). */
+        int bound = 1;
+        String reason = "minimal workflow length";
+
+        /* Each of the workflow inputs has to be consumed by a tool. */
+        if (runConfig.getUseWorkflowInput() == ConfigEnum.ALL && domainSetup.getMaxNoToolInputs() > 0) {
+            int inputsBound = (runConfig.getProgramInputs().size() + domainSetup.getMaxNoToolInputs() - 1)
+                    / domainSetup.getMaxNoToolInputs();
+            if (inputsBound > bound) {
+                bound = inputsBound;
+                reason = "usage of all workflow inputs";
+            }
+        }
+
+        /*
+         * Build the layers of the relaxed planning graph and record the first layer
+         * in which each of the workflow outputs and required operations can be
+         * provided.
+         */
+        List<Type> missingOutputs = new ArrayList<>(runConfig.getProgramOutputs());
+        List<TaxonomyPredicate> missingOperations = new ArrayList<>(requiredOperations);
+        Set<Type> availableTypes = new LinkedHashSet<>(runConfig.getProgramInputs());
+        Set<Module> usableTools = new LinkedHashSet<>();
+        int length = 0;
+        while ((!missingOutputs.isEmpty() || !missingOperations.isEmpty()) && length < maxLength) {
+            length++;
+            Set<Module> newTools = new LinkedHashSet<>();
+            for (Module tool : allTools) {
+                if (!usableTools.contains(tool) && inputsAvailable(tool, availableTypes, compatibilityIndex)) {
+                    newTools.add(tool);
+                }
+            }
+            if (newTools.isEmpty()) {
+                /* The graph reached the fixpoint, the following layers are the same. */
+                break;
+            }
+            usableTools.addAll(newTools);
+            for (Module tool : newTools) {
+                availableTypes.addAll(tool.getModuleOutput());
+            }
+            if (missingOutputs.removeIf(output -> newTools.stream()
+                    .anyMatch(tool -> compatibilityIndex.anyCompatible(tool.getModuleOutput(), List.of(output))))
+                    && length > bound) {
+                bound = length;
+                reason = "providing the workflow outputs";
+            }
+            if (missingOperations.removeIf(operation -> newTools.stream()
+                    .anyMatch(tool -> implementsOperation(tool, operation, domainSetup.getAllModules())))
+                    && length > bound) {
+                bound = length;
+                reason = "usage of the required operations";
+            }
+        }
+
+        if (!missingOutputs.isEmpty() || !missingOperations.isEmpty()) {
+            log.info("The specification cannot be satisfied by the workflows of length up to {} ({}).", maxLength,
+                    missingOutputs.isEmpty() ? "required operations cannot be used"
+                            : "workflow outputs cannot be provided");
+            return maxLength + 1;
+        }
+        log.debug("Lower bound on the workflow length is {} ({}).", bound, reason);
+        return bound;
+    }
+
+    /**
+     * Check whether each of the tool inputs can be provided by one of the
+     * available types.
+     */
+    private static boolean inputsAvailable(Module tool, Set<Type> availableTypes,
+            ToolCompatibilityIndex compatibilityIndex) {
+        for (Type input : tool.getModuleInput()) {
+            if (!compatibilityIndex.anyCompatible(availableTypes, List.of(input))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the tool implements the operation, i.e. whether using the tool
+     * satisfies the operation (possibly an auxiliary predicate).
+     */
+    private static boolean implementsOperation(Module tool, TaxonomyPredicate operation, AllModules allModules) {
+        if (operation instanceof AuxModulePredicate) {
+            AuxModulePredicate auxOperation = (AuxModulePredicate) operation;
+            if (auxOperation.getLogicOp() == LogicOperation.AND) {
+                return auxOperation.getGeneralizedPredicates().stream()
+                        .allMatch(subOperation -> implementsOperation(tool, subOperation, allModules));
+            }
+            return auxOperation.getGeneralizedPredicates().stream()
+                    .anyMatch(subOperation -> implementsOperation(tool, subOperation, allModules));
+        }
+        return allModules.isSubPredicateOf(tool, operation);
+    }
+
+}
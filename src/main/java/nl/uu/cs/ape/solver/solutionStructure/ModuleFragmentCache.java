@@ -0,0 +1,39 @@
+package nl.uu.cs.ape.solver.solutionStructure;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import nl.uu.cs.ape.models.Module;
+
+/**
+ * The {@code ModuleFragmentCache} class stores the parts of the workflow
+ * representations (e.g. CWL steps or Snakemake rules) that depend only on the
+ * tool, so that they are generated once per tool instead of once per use of the
+ * tool in each solution. The cache can be shared by the creators that write the
+ * solutions in parallel.
+ *
+ * @author Vedran Kasalica
+ */
+public class ModuleFragmentCache {
+
+    /** Fragments of the tools, grouped by the kind of the fragment. */
+    private final Map<String, Map<Module, Object>> fragments = new ConcurrentHashMap<>();
+
+    /**
+     * Get the fragment of the given kind that represents the tool, generating it
+     * if it was not used before. The kind should describe everything that the
+     * fragment depends on besides the tool, e.g. the indentation style.
+     *
+     * @param <T>       Type of the fragment.
+     * @param kind      Kind of the fragment.
+     * @param tool      Tool represented by the fragment.
+     * @param generator Function that generates the fragment of the tool.
+     * @return The fragment that represents the tool.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, Module tool, Function<Module, T> generator) {
+        return (T) fragments.computeIfAbsent(kind, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tool, generator);
+    }
+}
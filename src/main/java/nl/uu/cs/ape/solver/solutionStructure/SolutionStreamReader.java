@@ -0,0 +1,374 @@
+package nl.uu.cs.ape.solver.solutionStructure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.AtomType;
+import nl.uu.cs.ape.models.enums.SolutionStreamFormat;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code SolutionStreamReader} class is used to read the workflow
+ * solutions written by {@link SolutionStreamWriter}, one by one. The format of
+ * the file is recognised automatically. The solutions are reconstructed based
+ * on the domain and the run configuration of the synthesis run that produced
+ * them, without running the solver.
+ *
+ * @author Vedran Kasalica
+ */
+public class SolutionStreamReader implements AutoCloseable {
+
+    private final APERunConfig runConfig;
+    private final APEDomainSetup domainSetup;
+    private final SolutionStreamFormat format;
+
+    /** Input of the binary format. */
+    private DataInputStream binaryIn;
+
+    /** Input of the NDJSON format. */
+    private BufferedReader ndjsonIn;
+
+    /** IDs read so far (binary format). */
+    private final List<String> symbols = new ArrayList<>();
+
+    /** Solutions read so far, they share the mapping of the atoms. */
+    private final SolutionsList allSolutions;
+
+    /** Automata of the workflow lengths read so far. */
+    private final Map<Integer, ModuleAutomaton> moduleAutomata = new HashMap<>();
+    private final Map<Integer, TypeAutomaton> typeAutomata = new HashMap<>();
+
+    /**
+     * Create a reader of the solutions stored in the file.
+     *
+     * @param file        File that contains the solutions.
+     * @param runConfig   Setup configuration of the synthesis run that produced
+     *                    the solutions.
+     * @param domainSetup Domain of the synthesis run.
+     * @throws IOException Error in reading the file, or the file is not in a
+     *                     supported format.
+     */
+    public SolutionStreamReader(Path file, APERunConfig runConfig, APEDomainSetup domainSetup)
+            throws IOException {
+        this(Files.newInputStream(file), runConfig, domainSetup);
+    }
+
+    /**
+     * Create a reader of the solutions provided by the input stream. The stream
+     * is closed when the reader is closed.
+     *
+     * @param inputStream Stream that provides the solutions.
+     * @param runConfig   Setup configuration of the synthesis run that produced
+     *                    the solutions.
+     * @param domainSetup Domain of the synthesis run.
+     * @throws IOException Error in reading the stream, or the stream is not in a
+     *                     supported format.
+     */
+    public SolutionStreamReader(InputStream inputStream, APERunConfig runConfig, APEDomainSetup domainSetup)
+            throws IOException {
+        this.runConfig = runConfig;
+        this.domainSetup = domainSetup;
+        this.allSolutions = new SolutionsList(runConfig);
+
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        byte[] magic = new byte[SolutionStreamWriter.BINARY_MAGIC.length];
+        in.mark(magic.length);
+        int read = in.readNBytes(magic, 0, magic.length);
+        if (read == magic.length && Arrays.equals(magic, SolutionStreamWriter.BINARY_MAGIC)) {
+            this.format = SolutionStreamFormat.BINARY;
+            this.binaryIn = new DataInputStream(in);
+            checkVersion(binaryIn.readUnsignedByte());
+        } else {
+            in.reset();
+            this.format = SolutionStreamFormat.NDJSON;
+            this.ndjsonIn = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String header = ndjsonIn.readLine();
+            try {
+                JSONObject headerJSON = new JSONObject(header == null ? "" : header);
+                if (!SolutionStreamWriter.NDJSON_FORMAT.equals(headerJSON.optString("format"))) {
+                    throw new IOException("The file does not contain APE solutions.");
+                }
+                checkVersion(headerJSON.getInt("version"));
+            } catch (JSONException e) {
+                throw new IOException("The file does not contain APE solutions.", e);
+            }
+        }
+    }
+
+    /**
+     * Read all the solutions stored in the file.
+     *
+     * @param file        File that contains the solutions.
+     * @param runConfig   Setup configuration of the synthesis run that produced
+     *                    the solutions.
+     * @param domainSetup Domain of the synthesis run.
+     * @return The list of the solutions.
+     * @throws IOException Error in reading the file.
+     */
+    public static SolutionsList readAll(Path file, APERunConfig runConfig, APEDomainSetup domainSetup)
+            throws IOException {
+        try (SolutionStreamReader reader = new SolutionStreamReader(file, runConfig, domainSetup)) {
+            while (reader.read() != null) {
+                /* The solutions are collected by the reader. */
+            }
+            return reader.getSolutions();
+        }
+    }
+
+    /**
+     * Get the format of the file.
+     *
+     * @return The format.
+     */
+    public SolutionStreamFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Get the solutions read so far.
+     *
+     * @return The list of the solutions.
+     */
+    public SolutionsList getSolutions() {
+        return allSolutions;
+    }
+
+    /**
+     * Read the next solution from the file.
+     *
+     * @return The solution, or {@code null} if all the solutions were read.
+     * @throws IOException Error in reading the file, or the file is corrupted or
+     *                     does not match the domain.
+     */
+    public SolutionWorkflow read() throws IOException {
+        List<Integer> model = new ArrayList<>();
+        int length;
+        if (format == SolutionStreamFormat.BINARY) {
+            int tag;
+            try {
+                tag = binaryIn.readUnsignedByte();
+            } catch (EOFException e) {
+                throw new IOException("The file with the solutions is incomplete.", e);
+            }
+            if (tag == SolutionStreamWriter.END_TAG) {
+                return null;
+            } else if (tag != SolutionStreamWriter.SOLUTION_TAG) {
+                throw new IOException("The file with the solutions is corrupted.");
+            }
+            readVarInt(); // index, assigned again when the solution is added
+            length = readVarInt();
+            int noTools = readVarInt();
+            for (int step = 0; step < noTools; step++) {
+                addToolAtom(model, readSymbol(), length, step);
+            }
+            int noData = readVarInt();
+            for (int i = 0; i < noData; i++) {
+                int block = readVarInt();
+                int slot = readVarInt();
+                int noTypes = readVarInt();
+                for (int j = 0; j < noTypes; j++) {
+                    addTypeAtom(model, readSymbol(), length, block, slot);
+                }
+            }
+            int noEdges = readVarInt();
+            for (int i = 0; i < noEdges; i++) {
+                addEdgeAtom(model, length, readVarInt(), readVarInt(), readVarInt(), readVarInt());
+            }
+        } else {
+            String line = ndjsonIn.readLine();
+            while (line != null && line.isBlank()) {
+                line = ndjsonIn.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            try {
+                JSONObject solutionJSON = new JSONObject(line);
+                length = solutionJSON.getInt("length");
+                JSONArray tools = solutionJSON.getJSONArray("tools");
+                for (int step = 0; step < tools.length(); step++) {
+                    addToolAtom(model, tools.isNull(step) ? null : tools.getString(step), length, step);
+                }
+                JSONArray data = solutionJSON.getJSONArray("data");
+                for (int i = 0; i < data.length(); i++) {
+                    JSONArray dataNode = data.getJSONArray(i);
+                    JSONArray types = dataNode.getJSONArray(2);
+                    for (int j = 0; j < types.length(); j++) {
+                        addTypeAtom(model, types.getString(j), length, dataNode.getInt(0), dataNode.getInt(1));
+                    }
+                }
+                JSONArray edges = solutionJSON.getJSONArray("edges");
+                for (int i = 0; i < edges.length(); i++) {
+                    JSONArray edge = edges.getJSONArray(i);
+                    addEdgeAtom(model, length, edge.getInt(0), edge.getInt(1), edge.getInt(2), edge.getInt(3));
+                }
+            } catch (JSONException e) {
+                throw new IOException("The file with the solutions is corrupted.", e);
+            }
+        }
+
+        SolutionWorkflow solution = new SolutionWorkflow(model.stream().mapToInt(Integer::intValue).toArray(),
+                moduleAutomata.get(length), typeAutomata.get(length), allSolutions.getMappings());
+        allSolutions.addSolutions(List.of(solution));
+        return solution;
+    }
+
+    /**
+     * Close the file.
+     *
+     * @throws IOException Error in closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (binaryIn != null) {
+            binaryIn.close();
+        } else {
+            ndjsonIn.close();
+        }
+    }
+
+    /**
+     * Add the atom that describes the tool used at the given step.
+     */
+    private void addToolAtom(List<Integer> model, String toolID, int length, int step) throws IOException {
+        if (toolID == null) {
+            return;
+        }
+        TaxonomyPredicate tool = domainSetup.getAllModules().get(toolID);
+        if (!(tool instanceof Module)) {
+            throw new IOException("Tool '" + toolID + "' does not exist in the domain.");
+        }
+        State state = getModuleAutomaton(length).getSafe(step);
+        if (state == null) {
+            throw new IOException("The file with the solutions is corrupted.");
+        }
+        model.add(allSolutions.getMappings().add(tool, state, AtomType.MODULE));
+    }
+
+    /**
+     * Add the atom that describes a type of the data instance.
+     */
+    private void addTypeAtom(List<Integer> model, String typeID, int length, int block, int slot)
+            throws IOException {
+        TaxonomyPredicate type = typeID == null ? null : domainSetup.getAllTypes().get(typeID);
+        if (!(type instanceof Type)) {
+            throw new IOException("Type '" + typeID + "' does not exist in the domain.");
+        }
+        model.add(allSolutions.getMappings().add(type, getMemoryState(length, block, slot), AtomType.MEMORY_TYPE));
+    }
+
+    /**
+     * Add the atom that describes the usage of the data instance as a tool input
+     * or as a workflow output.
+     */
+    private void addEdgeAtom(List<Integer> model, int length, int block, int slot, int step, int inputSlot)
+            throws IOException {
+        State memoryState = getMemoryState(length, block, slot);
+        List<State> usedStates = (step <= length)
+                ? getTypeAutomaton(length).getUsedTypesBlock(step).getStates()
+                : List.of();
+        if (inputSlot >= usedStates.size()) {
+            throw new IOException("The file with the solutions does not match the run configuration.");
+        }
+        model.add(allSolutions.getMappings().add(memoryState, usedStates.get(inputSlot),
+                AtomType.MEM_TYPE_REFERENCE));
+    }
+
+    /**
+     * Get the memory state of the data instance.
+     */
+    private State getMemoryState(int length, int block, int slot) throws IOException {
+        List<State> memoryStates = (block <= length)
+                ? getTypeAutomaton(length).getMemoryTypesBlock(block).getStates()
+                : List.of();
+        if (slot >= memoryStates.size()) {
+            throw new IOException("The file with the solutions does not match the run configuration.");
+        }
+        return memoryStates.get(slot);
+    }
+
+    private ModuleAutomaton getModuleAutomaton(int length) {
+        createAutomata(length);
+        return moduleAutomata.get(length);
+    }
+
+    private TypeAutomaton getTypeAutomaton(int length) {
+        createAutomata(length);
+        return typeAutomata.get(length);
+    }
+
+    /**
+     * Create the automata of the given workflow length, in the same way as the
+     * synthesis run does.
+     */
+    private void createAutomata(int length) {
+        if (!moduleAutomata.containsKey(length)) {
+            int maxNoToolInputs = Math.max(domainSetup.getMaxNoToolInputs(), runConfig.getProgramOutputs().size());
+            int maxNoToolOutputs = Math.max(domainSetup.getMaxNoToolOutputs(), runConfig.getProgramInputs().size());
+            moduleAutomata.put(length, new ModuleAutomaton(length, maxNoToolInputs, maxNoToolOutputs));
+            typeAutomata.put(length, new TypeAutomaton(length, maxNoToolInputs, maxNoToolOutputs));
+        }
+    }
+
+    private void checkVersion(int version) throws IOException {
+        if (version != SolutionStreamWriter.VERSION) {
+            throw new IOException("Version " + version + " of the solutions file is not supported.");
+        }
+    }
+
+    /**
+     * Read the reference to an ID, see {@link SolutionStreamWriter}.
+     */
+    private String readSymbol() throws IOException {
+        int ref = readVarInt();
+        if (ref == SolutionStreamWriter.NULL_REF) {
+            return null;
+        } else if (ref == SolutionStreamWriter.NEW_REF) {
+            String symbol = binaryIn.readUTF();
+            symbols.add(symbol);
+            return symbol;
+        } else if (ref - 2 < symbols.size()) {
+            return symbols.get(ref - 2);
+        }
+        throw new IOException("The file with the solutions is corrupted.");
+    }
+
+    /**
+     * Read the non-negative integer written using 7 bits per byte.
+     */
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int currByte = binaryIn.readUnsignedByte();
+            value |= (currByte & 0x7F) << shift;
+            if ((currByte & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("The file with the solutions is corrupted.");
+    }
+}
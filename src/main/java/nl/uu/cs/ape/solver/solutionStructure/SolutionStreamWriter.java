@@ -0,0 +1,282 @@
+package nl.uu.cs.ape.solver.solutionStructure;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.SolutionStreamFormat;
+
+/**
+ * The {@code SolutionStreamWriter} class is used to write the workflow
+ * solutions to a file one by one, e.g. as soon as they are found (see
+ * {@link SolutionsList#addSolutionListener(Consumer)}), without keeping the
+ * textual representation of all the solutions in memory.
+ * <p>
+ * Each solution is described by the tools used at each step of the workflow,
+ * the simple types of the data instances and the data flow, i.e. the data
+ * instances used as tool inputs and as workflow outputs. The data instances
+ * are identified by the block and the slot of their memory state and the tool
+ * inputs by the step of the tool and the input slot (the workflow outputs use
+ * the step that follows the last tool). The abstract descriptions of the tools
+ * and types are not written. The solutions can be read using
+ * {@link SolutionStreamReader}.
+ * <p>
+ * Two formats are supported (see {@link SolutionStreamFormat}):
+ * <ul>
+ * <li>NDJSON - a header line followed by a JSON object per solution,</li>
+ * <li>BINARY - records of variable-length integers, where the IDs of the tools
+ * and types are written the first time they are used and referred to by their
+ * index afterwards.</li>
+ * </ul>
+ *
+ * @author Vedran Kasalica
+ */
+public class SolutionStreamWriter implements Consumer<SolutionWorkflow>, AutoCloseable {
+
+    /** Header of the binary format. */
+    static final byte[] BINARY_MAGIC = { 'A', 'P', 'E', 'S' };
+
+    /** Name of the format in the NDJSON header. */
+    static final String NDJSON_FORMAT = "ape-solutions";
+
+    /** Version of the formats. */
+    static final int VERSION = 1;
+
+    /** Record tags of the binary format. */
+    static final int END_TAG = 0;
+    static final int SOLUTION_TAG = 1;
+
+    /** Reference tags of the binary format, followed by the index otherwise. */
+    static final int NULL_REF = 0;
+    static final int NEW_REF = 1;
+
+    private final SolutionStreamFormat format;
+    private final DataOutputStream out;
+
+    /** Indices of the IDs written so far (binary format). */
+    private final Map<String, Integer> symbolIndices = new HashMap<>();
+
+    /** Number of the solutions written so far. */
+    private int noSolutions = 0;
+
+    /**
+     * Create a writer that writes the solutions to the file, replacing its
+     * content.
+     *
+     * @param file   File used to store the solutions.
+     * @param format Format of the file.
+     * @throws IOException Error in creating the file.
+     */
+    public SolutionStreamWriter(Path file, SolutionStreamFormat format) throws IOException {
+        this(Files.newOutputStream(file), format);
+    }
+
+    /**
+     * Create a writer that writes the solutions to the output stream. The stream
+     * is closed when the writer is closed.
+     *
+     * @param outputStream Stream used to write the solutions.
+     * @param format       Format of the stream.
+     * @throws IOException Error in writing the header.
+     */
+    public SolutionStreamWriter(OutputStream outputStream, SolutionStreamFormat format) throws IOException {
+        this.format = format;
+        this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        if (format == SolutionStreamFormat.BINARY) {
+            out.write(BINARY_MAGIC);
+            out.writeByte(VERSION);
+        } else {
+            writeLine(new JSONObject().put("format", NDJSON_FORMAT).put("version", VERSION));
+        }
+    }
+
+    /**
+     * Write the solution to the file.
+     *
+     * @param solution Solution that should be written.
+     * @throws IOException Error in writing the file.
+     */
+    public synchronized void write(SolutionWorkflow solution) throws IOException {
+        List<String> tools = new ArrayList<>();
+        for (ModuleNode moduleNode : solution.getModuleNodes()) {
+            Module usedModule = moduleNode.getUsedModule();
+            tools.add(usedModule == null ? null : usedModule.getPredicateID());
+        }
+        List<TypeNode> dataNodes = new ArrayList<>(solution.getWorkflowInputTypeStates());
+        for (ModuleNode moduleNode : solution.getModuleNodes()) {
+            dataNodes.addAll(moduleNode.getOutputTypes());
+        }
+        dataNodes.removeIf(TypeNode::isEmpty);
+        /* Each edge is a quadruple: [data block, data slot, step, input slot]. */
+        List<int[]> edges = new ArrayList<>();
+        for (int step = 0; step < solution.getModuleNodes().size(); step++) {
+            addEdges(edges, solution.getModuleNodes().get(step).getInputTypes(), step);
+        }
+        addEdges(edges, solution.getWorkflowOutputTypeStates(), solution.getSolutionLength());
+
+        if (format == SolutionStreamFormat.BINARY) {
+            out.writeByte(SOLUTION_TAG);
+            writeVarInt(solution.getIndex());
+            writeVarInt(solution.getSolutionLength());
+            writeVarInt(tools.size());
+            for (String tool : tools) {
+                writeSymbol(tool);
+            }
+            writeVarInt(dataNodes.size());
+            for (TypeNode dataNode : dataNodes) {
+                writeVarInt(dataNode.getAutomatonState().getBlockNumber());
+                writeVarInt(dataNode.getAutomatonState().getLocalStateNumber());
+                writeVarInt(dataNode.getTypes().size());
+                for (Type type : dataNode.getTypes()) {
+                    writeSymbol(type.getPredicateID());
+                }
+            }
+            writeVarInt(edges.size());
+            for (int[] edge : edges) {
+                for (int value : edge) {
+                    writeVarInt(value);
+                }
+            }
+        } else {
+            JSONArray data = new JSONArray();
+            for (TypeNode dataNode : dataNodes) {
+                JSONArray types = new JSONArray();
+                dataNode.getTypes().forEach(type -> types.put(type.getPredicateID()));
+                data.put(new JSONArray().put(dataNode.getAutomatonState().getBlockNumber())
+                        .put(dataNode.getAutomatonState().getLocalStateNumber()).put(types));
+            }
+            JSONArray edgesJSON = new JSONArray();
+            edges.forEach(edge -> edgesJSON.put(new JSONArray(edge)));
+            JSONArray toolsJSON = new JSONArray();
+            tools.forEach(tool -> toolsJSON.put(tool == null ? JSONObject.NULL : tool));
+            writeLine(new JSONObject().put("index", solution.getIndex()).put("length", solution.getSolutionLength())
+                    .put("tools", toolsJSON).put("data", data).put("edges", edgesJSON));
+        }
+        noSolutions++;
+    }
+
+    /**
+     * Write the solution to the file, used to write the solutions as soon as they
+     * are found (see {@link SolutionsList#addSolutionListener(Consumer)}).
+     *
+     * @param solution Solution that should be written.
+     * @throws UncheckedIOException Error in writing the file.
+     */
+    @Override
+    public void accept(SolutionWorkflow solution) {
+        try {
+            write(solution);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write all the solutions to the file.
+     *
+     * @param allSolutions Solutions that should be written.
+     * @throws IOException Error in writing the file.
+     */
+    public void writeAll(SolutionsList allSolutions) throws IOException {
+        for (int i = 0; i < allSolutions.size(); i++) {
+            write(allSolutions.get(i));
+        }
+    }
+
+    /**
+     * Get the number of the solutions written so far.
+     *
+     * @return Number of the solutions.
+     */
+    public int getNumberOfSolutions() {
+        return noSolutions;
+    }
+
+    /**
+     * Write the written solutions to the underlying stream.
+     *
+     * @throws IOException Error in writing the file.
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Finish the file and close it.
+     *
+     * @throws IOException Error in writing the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (format == SolutionStreamFormat.BINARY) {
+            out.writeByte(END_TAG);
+        }
+        out.close();
+    }
+
+    /**
+     * Add the edges from the data instances to the given input slots.
+     */
+    private static void addEdges(List<int[]> edges, List<TypeNode> inputs, int step) {
+        for (int slot = 0; slot < inputs.size(); slot++) {
+            TypeNode dataNode = inputs.get(slot);
+            if (dataNode != null) {
+                edges.add(new int[] { dataNode.getAutomatonState().getBlockNumber(),
+                        dataNode.getAutomatonState().getLocalStateNumber(), step, slot });
+            }
+        }
+    }
+
+    /**
+     * Write the JSON object as a single line.
+     */
+    private void writeLine(JSONObject line) throws IOException {
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    /**
+     * Write the reference to the ID, writing the ID itself the first time it is
+     * used.
+     */
+    private void writeSymbol(String symbol) throws IOException {
+        if (symbol == null) {
+            writeVarInt(NULL_REF);
+            return;
+        }
+        Integer index = symbolIndices.get(symbol);
+        if (index == null) {
+            symbolIndices.put(symbol, symbolIndices.size());
+            writeVarInt(NEW_REF);
+            out.writeUTF(symbol);
+        } else {
+            writeVarInt(index + 2);
+        }
+    }
+
+    /**
+     * Write the non-negative integer using 7 bits per byte.
+     */
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
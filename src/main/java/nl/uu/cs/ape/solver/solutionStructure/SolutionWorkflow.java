@@ -2,6 +2,7 @@ package nl.uu.cs.ape.solver.solutionStructure;
 
 import guru.nidi.graphviz.attribute.Rank.RankDir;
 import lombok.Getter;
+import lombok.Setter;
 import nl.uu.cs.ape.automaton.Block;
 import nl.uu.cs.ape.automaton.ModuleAutomaton;
 import nl.uu.cs.ape.automaton.State;
@@ -10,17 +11,21 @@ import nl.uu.cs.ape.utils.APEUtils;
 import nl.uu.cs.ape.models.AbstractModule;
 import nl.uu.cs.ape.models.AuxiliaryPredicate;
 import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.SATAtomMappings;
 import nl.uu.cs.ape.models.Type;
 import nl.uu.cs.ape.models.enums.NodeType;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxLiteral;
 import nl.uu.cs.ape.solver.SolutionInterpreter;
 import nl.uu.cs.ape.solver.minisat.SATOutput;
 import nl.uu.cs.ape.solver.minisat.SATSynthesisEngine;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutionResult;
 import nl.uu.cs.ape.solver.solutionStructure.graphviz.SolutionGraph;
 import nl.uu.cs.ape.solver.solutionStructure.graphviz.SolutionGraphFactory;
 import nl.uu.cs.ape.models.enums.AtomType;
 
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +34,13 @@ import java.util.Map;
  * The {@code SolutionWorkflow} class is used to represent a single workflow
  * solution. The workflow consists of multiple instances of
  * {@link SolutionWorkflowNode}.
+ * <p>
+ * The solution is stored in a compact form, i.e. as the array of the positive
+ * literals of the SAT solution that describe the workflow. The structure of the
+ * workflow (the workflow nodes, their textual and graphical representations)
+ * and the native solution (see {@link SATOutput}) are created from the
+ * literals when they are first accessed and they are only softly referenced,
+ * thus they are released under memory pressure and created again if needed.
  *
  * @author Vedran Kasalica
  */
@@ -38,107 +50,172 @@ public class SolutionWorkflow {
     private static final String fileNamePrefix = "candidate_workflow_";
 
     /**
-     * List of module nodes ordered according to their position in the workflow.
+     * Positive literals of the SAT solution that are interpreted by
+     * {@link SATOutput}, in the order provided by the solver.
      */
-    @Getter
-    private List<ModuleNode> moduleNodes;
+    private final int[] literals;
 
-    /**
-     * List of memory type nodes provided as the initial workflow input, ordered
-     * according the initial description (config.json file).
-     */
-    @Getter
-    private List<TypeNode> workflowInputTypeStates;
+    /** Module automaton of the synthesis problem. */
+    private final ModuleAutomaton toolAutomaton;
 
-    /**
-     * List of used type nodes provided as the final workflow output, ordered
-     * according the initial description (config.json file).
-     */
-    @Getter
-    private List<TypeNode> workflowOutputTypeStates;
+    /** Type automaton of the synthesis problem. */
+    private final TypeAutomaton typeAutomaton;
+
+    /** Mapping of the atoms. */
+    private final SATAtomMappings mappings;
+
+    /** Structure of the workflow, created on first access. */
+    private SoftReference<Structure> structure = new SoftReference<>(null);
 
     /**
-     * Map of all {@code ModuleNodes}, where key value is the {@link State} provided
-     * by the {@link ModuleAutomaton}.
+     * Non-structured solution obtained directly from the SAT output, created on
+     * first access.
      */
-    private Map<State, ModuleNode> mappedModuleNodes;
+    private SoftReference<SATOutput> nativeSolution = new SoftReference<>(null);
 
     /**
-     * Map of all {@code MemTypeNode}, where key value is the {@link State} provided
-     * by the {@link TypeAutomaton}.
+     * Canonical fingerprint of the data-flow structure of the workflow solution.
      */
-    private Map<State, TypeNode> mappedMemoryTypeNodes;
+    @Getter(lazy = true)
+    private final long fingerprint = computeFingerprint();
 
     /**
-     * Mapping used to allow us to determine the correlation between the usage of
-     * data instances and the actual tools that take the instance as input.
-     * A mapping is a pair of an Automaton {@link State} that depicts
-     * {@link AtomType#USED_TYPE} and a {@link ModuleNode}.<br>
-     * If the second is NULL, the data is used as WORKFLOW OUTPUT.
+     * Index of the solution.
      */
-    private Map<State, ModuleNode> usedType2ToolMap;
+    private int index;
 
     /**
-     * Non-structured solution obtained directly from the SAT output.
+     * Result of the local execution of the workflow, null if the workflow was
+     * not executed.
      */
     @Getter
-    private SolutionInterpreter nativeSolution;
+    @Setter
+    private volatile WorkflowExecutionResult executionResult;
 
     /**
-     * Graph representation of the control-flow workflow solution.
+     * The {@code Structure} class contains the workflow nodes of the solution and
+     * the representations derived from them. The nodes are created before the
+     * structure is published, while the representations are created on first
+     * access, possibly by concurrent threads, therefore they are volatile.
      */
-    private SolutionGraph controlflowGraph;
+    private static final class Structure {
 
-    /**
-     * Graph representation of the data-flow workflow solution.
-     */
-    private SolutionGraph dataflowGraph;
+        /**
+         * List of module nodes ordered according to their position in the workflow.
+         */
+        private final List<ModuleNode> moduleNodes = new ArrayList<>();
 
-    /**
-     * Graph representation of the workflow solution with styling based on the
-     * Apache Taverna workflow management system.
-     */
-    private SolutionGraph tavernaStyleGraph;
+        /**
+         * List of memory type nodes provided as the initial workflow input, ordered
+         * according the initial description (config.json file).
+         */
+        private final List<TypeNode> workflowInputTypeStates = new ArrayList<>();
+
+        /**
+         * List of used type nodes provided as the final workflow output, ordered
+         * according the initial description (config.json file).
+         */
+        private final List<TypeNode> workflowOutputTypeStates = new ArrayList<>();
+
+        /** Graph representation of the control-flow workflow solution. */
+        private volatile SolutionGraph controlflowGraph;
+
+        /** Graph representation of the data-flow workflow solution. */
+        private volatile SolutionGraph dataflowGraph;
+
+        /**
+         * Graph representation of the workflow solution with styling based on the
+         * Apache Taverna workflow management system.
+         */
+        private volatile SolutionGraph tavernaStyleGraph;
+
+        /** Shell script used to execute the workflow. */
+        private volatile String scriptExecution;
+
+        /** Graphviz representation of the workflow solution in the DOT format. */
+        private volatile String graphDotFormat;
+
+        /** Human readable text representation of the workflow solution. */
+        private volatile String readableSolution;
+    }
 
     /**
-     * Shell script used to execute the workflow.
+     * Create a solution workflow, based on the SAT output.
+     *
+     * @param satSolution       SAT solution, presented as array of integers.
+     * @param synthesisInstance Current synthesis instance
      */
-    @Getter(lazy = true)
-    private final String scriptExecution = SolutionGraphFactory.generateScriptExecution(this);
+    public SolutionWorkflow(int[] satSolution, SATSynthesisEngine synthesisInstance) {
+        this(satSolution, synthesisInstance.getModuleAutomaton(), synthesisInstance.getTypeAutomaton(),
+                synthesisInstance.getMappings());
+    }
 
     /**
-     * Graphviz representation of the workflow solution in the DOT format.
+     * Create a solution workflow, based on the SAT output and the automata that
+     * were used to encode the problem.
+     *
+     * @param satSolution   SAT solution, presented as array of integers.
+     * @param toolAutomaton Module automaton of the synthesis problem.
+     * @param typeAutomaton Type automaton of the synthesis problem.
+     * @param mappings      Mapping of the atoms.
      */
-    @Getter(lazy = true)
-    private final String graphDotFormat = SolutionGraphFactory.generateSolutionDotFormat(this);
+    public SolutionWorkflow(int[] satSolution, ModuleAutomaton toolAutomaton, TypeAutomaton typeAutomaton,
+            SATAtomMappings mappings) {
+        this.literals = Arrays.stream(satSolution).filter(literal -> literal >= SATOutput.MIN_INTERPRETED_LITERAL)
+                .toArray();
+        this.toolAutomaton = toolAutomaton;
+        this.typeAutomaton = typeAutomaton;
+        this.mappings = mappings;
+    }
 
     /**
-     * Human readable text representation of the workflow solution.
+     * Get the structure of the workflow, creating it if it was not created yet or
+     * if it was released.
+     *
+     * @return The structure of the workflow.
      */
-    @Getter(lazy = true)
-    private final String readableSolution = SolutionGraphFactory.generateReadableSolution(this);
+    private synchronized Structure getStructure() {
+        Structure currStructure = structure.get();
+        if (currStructure == null) {
+            currStructure = createStructure();
+            structure = new SoftReference<>(currStructure);
+        }
+        return currStructure;
+    }
 
     /**
-     * Index of the solution.
+     * Release the structure of the workflow, the native solution and the
+     * representations derived from them, as the JVM does under memory pressure.
+     * They are rebuilt from the literals of the solution when needed again.
      */
-    private int index;
+    public synchronized void release() {
+        structure = new SoftReference<>(null);
+        nativeSolution = new SoftReference<>(null);
+    }
 
     /**
-     * Create the structure of the {@link SolutionWorkflow} based on the
-     * {@link ModuleAutomaton} and {@link TypeAutomaton} provided.
+     * Create the structure of the workflow based on the {@link ModuleAutomaton}
+     * and {@link TypeAutomaton} and the literals of the solution.
      *
-     * @throws ExceptionInInitializerError exception in case of a mismatch between
-     *                                     the type of
-     *                                     automaton states and workflow nodes.
-     */
-    private SolutionWorkflow(ModuleAutomaton toolAutomaton, TypeAutomaton typeAutomaton)
-            throws ExceptionInInitializerError {
-        this.moduleNodes = new ArrayList<>();
-        this.workflowInputTypeStates = new ArrayList<>();
-        this.workflowOutputTypeStates = new ArrayList<>();
-        this.mappedModuleNodes = new HashMap<>();
-        this.mappedMemoryTypeNodes = new HashMap<>();
-        this.usedType2ToolMap = new HashMap<>();
+     * @return The structure of the workflow.
+     */
+    private Structure createStructure() {
+        Structure newStructure = new Structure();
+        List<ModuleNode> moduleNodes = newStructure.moduleNodes;
+        /*
+         * Map of all {@code ModuleNodes} and {@code MemTypeNode}, where key value is
+         * the {@link State} provided by the automaton.
+         */
+        Map<State, ModuleNode> mappedModuleNodes = new HashMap<>();
+        Map<State, TypeNode> mappedMemoryTypeNodes = new HashMap<>();
+        /*
+         * Mapping used to allow us to determine the correlation between the usage of
+         * data instances and the actual tools that take the instance as input. A
+         * mapping is a pair of an Automaton {@link State} that depicts {@link
+         * AtomType#USED_TYPE} and a {@link ModuleNode}. If the second is NULL, the
+         * data is used as WORKFLOW OUTPUT.
+         */
+        Map<State, ModuleNode> usedType2ToolMap = new HashMap<>();
 
         ModuleNode prev = null;
         for (State currState : toolAutomaton.getAllStates()) {
@@ -147,8 +224,8 @@ public class SolutionWorkflow {
             if (prev != null) {
                 prev.setNextModuleNode(currNode);
             }
-            this.moduleNodes.add(currNode);
-            this.mappedModuleNodes.put(currState, currNode);
+            moduleNodes.add(currNode);
+            mappedModuleNodes.put(currState, currNode);
             prev = currNode;
         }
 
@@ -164,11 +241,9 @@ public class SolutionWorkflow {
                 if (typeGenerator != null) {
                     typeGenerator.addOutputType(currTypeNode);
                 }
-                this.mappedMemoryTypeNodes.put(currState, currTypeNode);
+                mappedMemoryTypeNodes.put(currState, currTypeNode);
                 if (currBlock.getBlockNumber() == 0) {
-                    this.workflowInputTypeStates.add(currTypeNode);
-                } else if (currBlock.getBlockNumber() == toolAutomaton.size()) {
-                    // this.workflowOutputTypeStates.add(currTypeNode); THIS IS WRONG
+                    newStructure.workflowInputTypeStates.add(currTypeNode);
                 }
             }
         }
@@ -180,27 +255,13 @@ public class SolutionWorkflow {
         for (Block currBlock : typeAutomaton.getUsedTypesBlocks()) {
             ModuleNode inputForTool = APEUtils.safeGet(moduleNodes, currBlock.getBlockNumber());
             for (State currState : currBlock.getStates()) {
-                this.usedType2ToolMap.put(currState, inputForTool);
+                usedType2ToolMap.put(currState, inputForTool);
             }
         }
-    }
-
-    /**
-     * Create a solution workflow, based on the SAT output.
-     *
-     * @param satSolution       SAT solution, presented as array of integers.
-     * @param synthesisInstance Current synthesis instance
-     */
-    public SolutionWorkflow(int[] satSolution, SATSynthesisEngine synthesisInstance) {
-        /* Call for the default constructor. */
-        this(synthesisInstance.getModuleAutomaton(), synthesisInstance.getTypeAutomaton());
-
-        this.nativeSolution = new SATOutput(satSolution, synthesisInstance);
 
-        for (int mappedLiteral : satSolution) {
-            if (mappedLiteral >= synthesisInstance.getMappings().getInitialNumOfMappedAtoms()) {
-                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral),
-                        synthesisInstance.getMappings());
+        for (int mappedLiteral : literals) {
+            if (mappedLiteral >= mappings.getInitialNumOfMappedAtoms()) {
+                SLTLxLiteral currLiteral = new SLTLxLiteral(Integer.toString(mappedLiteral), mappings);
                 if (!currLiteral.isNegated()) {
                     // Skip elements that should not be presented.
                     if (currLiteral.getPredicate() instanceof AuxiliaryPredicate
@@ -209,14 +270,14 @@ public class SolutionWorkflow {
                             || currLiteral.isWorkflowElementType(AtomType.R_RELATION)) {
                         continue;
                     } else if (currLiteral.isWorkflowElementType(AtomType.MODULE)) {
-                        ModuleNode currNode = this.mappedModuleNodes.get(currLiteral.getUsedInStateArgument());
+                        ModuleNode currNode = mappedModuleNodes.get(currLiteral.getUsedInStateArgument());
                         if (currLiteral.getPredicate() instanceof Module) {
                             currNode.setUsedModule((Module) currLiteral.getPredicate());
                         } else {
                             currNode.addAbstractDescriptionOfUsedType((AbstractModule) currLiteral.getPredicate());
                         }
                     } else if (currLiteral.isWorkflowElementType(AtomType.MEMORY_TYPE)) {
-                        TypeNode currNode = this.mappedMemoryTypeNodes.get(currLiteral.getUsedInStateArgument());
+                        TypeNode currNode = mappedMemoryTypeNodes.get(currLiteral.getUsedInStateArgument());
                         if (currLiteral.getPredicate() instanceof Type
                                 && ((Type) currLiteral.getPredicate()).isNodeType(NodeType.LEAF)) {
                             currNode.addUsedType((Type) currLiteral.getPredicate());
@@ -233,14 +294,14 @@ public class SolutionWorkflow {
                          * pointing to null state (NULL state has AbsoluteStateNumber == -1), i.e. that
                          * are valid.
                          */
-                        ModuleNode usedTypeNode = this.usedType2ToolMap.get(currLiteral.getUsedInStateArgument());
-                        TypeNode memoryTypeNode = this.mappedMemoryTypeNodes.get(currLiteral.getPredicate());
+                        ModuleNode usedTypeNode = usedType2ToolMap.get(currLiteral.getUsedInStateArgument());
+                        TypeNode memoryTypeNode = mappedMemoryTypeNodes.get(currLiteral.getPredicate());
                         int inputIndex = currLiteral.getUsedInStateArgument().getLocalStateNumber();
                         /* = Keep the order of inputs as they were defined in the solution file. */
                         if (usedTypeNode != null) {
                             usedTypeNode.setInputType(inputIndex, memoryTypeNode);
                         } else {
-                            APEUtils.safeSet(this.workflowOutputTypeStates, inputIndex, memoryTypeNode);
+                            APEUtils.safeSet(newStructure.workflowOutputTypeStates, inputIndex, memoryTypeNode);
                         }
                         memoryTypeNode.addUsedByTool(usedTypeNode);
                     }
@@ -249,10 +310,94 @@ public class SolutionWorkflow {
         }
 
         /* Remove empty elements of the sets. */
-        this.workflowInputTypeStates.removeIf(TypeNode::isEmpty);
+        newStructure.workflowInputTypeStates.removeIf(TypeNode::isEmpty);
 
-        this.workflowOutputTypeStates.removeIf(TypeNode::isEmpty);
+        newStructure.workflowOutputTypeStates.removeIf(TypeNode::isEmpty);
 
+        return newStructure;
+    }
+
+    /**
+     * Get the list of module nodes ordered according to their position in the
+     * workflow.
+     *
+     * @return List of module nodes.
+     */
+    public List<ModuleNode> getModuleNodes() {
+        return getStructure().moduleNodes;
+    }
+
+    /**
+     * Get the list of memory type nodes provided as the initial workflow input,
+     * ordered according the initial description (config.json file).
+     *
+     * @return List of workflow inputs.
+     */
+    public List<TypeNode> getWorkflowInputTypeStates() {
+        return getStructure().workflowInputTypeStates;
+    }
+
+    /**
+     * Get the list of used type nodes provided as the final workflow output,
+     * ordered according the initial description (config.json file).
+     *
+     * @return List of workflow outputs.
+     */
+    public List<TypeNode> getWorkflowOutputTypeStates() {
+        return getStructure().workflowOutputTypeStates;
+    }
+
+    /**
+     * Get the non-structured solution obtained directly from the SAT output.
+     *
+     * @return The native solution.
+     */
+    public synchronized SolutionInterpreter getNativeSolution() {
+        SATOutput currSolution = nativeSolution.get();
+        if (currSolution == null) {
+            currSolution = new SATOutput(literals, mappings);
+            nativeSolution = new SoftReference<>(currSolution);
+        }
+        return currSolution;
+    }
+
+    /**
+     * Get the shell script used to execute the workflow.
+     *
+     * @return The shell script.
+     */
+    public String getScriptExecution() {
+        Structure currStructure = getStructure();
+        if (currStructure.scriptExecution == null) {
+            currStructure.scriptExecution = SolutionGraphFactory.generateScriptExecution(this);
+        }
+        return currStructure.scriptExecution;
+    }
+
+    /**
+     * Get the Graphviz representation of the workflow solution in the DOT format.
+     *
+     * @return The DOT representation.
+     */
+    public String getGraphDotFormat() {
+        Structure currStructure = getStructure();
+        if (currStructure.graphDotFormat == null) {
+            currStructure.graphDotFormat = SolutionGraphFactory.generateSolutionDotFormat(this);
+        }
+        return currStructure.graphDotFormat;
+    }
+
+    /**
+     * Get the human readable text representation of the workflow solution.
+     *
+     * @return The textual representation.
+     */
+    public String getReadableSolution() {
+        Structure currStructure = getStructure();
+        if (currStructure.readableSolution == null) {
+            currStructure.readableSolution = SolutionGraphFactory.generateReadableSolution(this);
+        }
+        return currStructure.readableSolution;
     }
 
     /**
@@ -265,10 +410,11 @@ public class SolutionWorkflow {
      * @return The solution graph.
      */
     public SolutionGraph getDataflowGraph(String title, RankDir orientation) {
-        if (this.dataflowGraph == null) {
-            this.dataflowGraph = SolutionGraphFactory.generateDataFlowGraph(this, title, orientation);
+        Structure currStructure = getStructure();
+        if (currStructure.dataflowGraph == null) {
+            currStructure.dataflowGraph = SolutionGraphFactory.generateDataFlowGraph(this, title, orientation);
         }
-        return this.dataflowGraph;
+        return currStructure.dataflowGraph;
     }
 
     /**
@@ -281,10 +427,11 @@ public class SolutionWorkflow {
      * @return The solution graph.
      */
     public SolutionGraph getControlflowGraph(String title, RankDir orientation) {
-        if (this.controlflowGraph == null) {
-            this.controlflowGraph = SolutionGraphFactory.generateControlflowGraph(this, title, orientation);
+        Structure currStructure = getStructure();
+        if (currStructure.controlflowGraph == null) {
+            currStructure.controlflowGraph = SolutionGraphFactory.generateControlflowGraph(this, title, orientation);
         }
-        return this.controlflowGraph;
+        return currStructure.controlflowGraph;
     }
 
     /**
@@ -296,10 +443,183 @@ public class SolutionWorkflow {
      * @return The solution graph.
      */
     public SolutionGraph getTavernaStyleGraph(String title) {
-        if (this.tavernaStyleGraph == null) {
-            this.tavernaStyleGraph = SolutionGraphFactory.generateTavernaDesignGraph(this, title);
+        Structure currStructure = getStructure();
+        if (currStructure.tavernaStyleGraph == null) {
+            currStructure.tavernaStyleGraph = SolutionGraphFactory.generateTavernaDesignGraph(this, title);
+        }
+        return currStructure.tavernaStyleGraph;
+    }
+
+    /**
+     * Compute the fingerprint of the workflow, based on the tools used, the types
+     * of the data instances and the data flow among them. The position of a tool
+     * is not taken into account, only the data it depends on, therefore
+     * reordering the tools that do not depend on each other results in the same
+     * fingerprint. The computation is linear in the size of the workflow (apart
+     * from sorting the hashes of the tools), as each tool depends only on the
+     * tools that precede it. As different workflows can have the same
+     * fingerprint, the duplicates are confirmed using
+     * {@link #hasSameDataFlow(SolutionWorkflow)}.
+     *
+     * @return 64-bit fingerprint of the workflow.
+     */
+    private long computeFingerprint() {
+        Structure currStructure = getStructure();
+        Map<ModuleNode, Long> moduleHashes = new HashMap<>();
+        long[] sortedModuleHashes = new long[currStructure.moduleNodes.size()];
+        int step = 0;
+        for (ModuleNode moduleNode : currStructure.moduleNodes) {
+            long moduleHash = hash(moduleNode.getUsedModule() == null ? ""
+                    : moduleNode.getUsedModule().getPredicateID());
+            int slot = 0;
+            for (TypeNode inputNode : moduleNode.getInputTypes()) {
+                moduleHash = combine(moduleHash, combine(slot++, dataHash(inputNode, moduleHashes)));
+            }
+            for (TypeNode outputNode : moduleNode.getOutputTypes()) {
+                moduleHash = combine(moduleHash, combine(typesHash(outputNode), outputNode.getUsedByModules().size()));
+            }
+            moduleHashes.put(moduleNode, moduleHash);
+            sortedModuleHashes[step++] = moduleHash;
+        }
+        /*
+         * The hashes of the tools are combined one by one, in a canonical order. The
+         * order of the dependent tools is captured by their hashes, which include
+         * the hashes of the tools they depend on.
+         */
+        Arrays.sort(sortedModuleHashes);
+        long fingerprint = mix(currStructure.moduleNodes.size());
+        for (long moduleHash : sortedModuleHashes) {
+            fingerprint = combine(fingerprint, moduleHash);
+        }
+        for (TypeNode outputNode : currStructure.workflowOutputTypeStates) {
+            fingerprint = combine(fingerprint, dataHash(outputNode, moduleHashes));
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Check whether the workflow has the same data flow as the other one, i.e.
+     * whether the workflows consist of the same tools that use the same data, up
+     * to reordering the tools that do not depend on each other. Unlike the
+     * comparison of the fingerprints (see {@link #getFingerprint()}), the check
+     * is exact.
+     *
+     * @param other The other workflow.
+     * @return {@code true} if the workflows have the same data flow.
+     */
+    public boolean hasSameDataFlow(SolutionWorkflow other) {
+        /* The descriptions of the tools are shared, so that they can be compared by ID. */
+        Map<String, Integer> moduleIDs = new HashMap<>();
+        return describeDataFlow(moduleIDs).equals(other.describeDataFlow(moduleIDs));
+    }
+
+    /**
+     * Describe the data flow of the workflow in the same way as the fingerprint
+     * does, where each tool is identified by the ID of its description (assigned
+     * using the given map).
+     */
+    private List<String> describeDataFlow(Map<String, Integer> moduleIDs) {
+        Structure currStructure = getStructure();
+        Map<ModuleNode, Integer> moduleNodeIDs = new HashMap<>();
+        List<Integer> sortedModuleIDs = new ArrayList<>();
+        for (ModuleNode moduleNode : currStructure.moduleNodes) {
+            StringBuilder description = new StringBuilder(moduleNode.getUsedModule() == null ? ""
+                    : moduleNode.getUsedModule().getPredicateID());
+            int slot = 0;
+            for (TypeNode inputNode : moduleNode.getInputTypes()) {
+                description.append(" in").append(slot++).append("=")
+                        .append(describeData(inputNode, moduleNodeIDs));
+            }
+            for (TypeNode outputNode : moduleNode.getOutputTypes()) {
+                description.append(" out=").append(describeTypes(outputNode)).append("/")
+                        .append(outputNode.getUsedByModules().size());
+            }
+            int moduleID = moduleIDs.computeIfAbsent(description.toString(), newDescription -> moduleIDs.size());
+            moduleNodeIDs.put(moduleNode, moduleID);
+            sortedModuleIDs.add(moduleID);
+        }
+        sortedModuleIDs.sort(null);
+        List<String> dataFlow = new ArrayList<>();
+        dataFlow.add(sortedModuleIDs.toString());
+        for (TypeNode outputNode : currStructure.workflowOutputTypeStates) {
+            dataFlow.add(describeData(outputNode, moduleNodeIDs));
+        }
+        return dataFlow;
+    }
+
+    /**
+     * Describe the data instance by its types and its origin (the tool output or
+     * the workflow input).
+     */
+    private static String describeData(TypeNode dataNode, Map<ModuleNode, Integer> moduleNodeIDs) {
+        if (dataNode == null) {
+            return "-";
+        }
+        String origin = (dataNode.getCreatedByModule() == null) ? "workflow_input"
+                : "tool" + moduleNodeIDs.get(dataNode.getCreatedByModule());
+        return origin + "." + dataNode.getAutomatonState().getLocalStateNumber() + describeTypes(dataNode);
+    }
+
+    /**
+     * Describe the types that define the data instance.
+     */
+    private static String describeTypes(TypeNode dataNode) {
+        StringBuilder types = new StringBuilder("[");
+        for (Type type : dataNode.getTypes()) {
+            types.append(type.getPredicateID()).append(";");
         }
-        return this.tavernaStyleGraph;
+        return types.append("]").toString();
+    }
+
+    /**
+     * Hash of the data instance, based on its types and its origin (the tool
+     * output or the workflow input).
+     */
+    private static long dataHash(TypeNode dataNode, Map<ModuleNode, Long> moduleHashes) {
+        if (dataNode == null) {
+            return 0;
+        }
+        long origin = (dataNode.getCreatedByModule() == null) ? hash("workflow_input")
+                : moduleHashes.get(dataNode.getCreatedByModule());
+        return combine(combine(origin, dataNode.getAutomatonState().getLocalStateNumber()), typesHash(dataNode));
+    }
+
+    /**
+     * Hash of the types that define the data instance.
+     */
+    private static long typesHash(TypeNode dataNode) {
+        long typesHash = 1;
+        for (Type type : dataNode.getTypes()) {
+            typesHash = combine(typesHash, hash(type.getPredicateID()));
+        }
+        return typesHash;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the string.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Combine the hash with the value, taking the order into account.
+     */
+    private static long combine(long hash, long value) {
+        return mix(hash * 0x9e3779b97f4a7c15L + value);
+    }
+
+    /**
+     * Finalisation step of the SplitMix64 generator, used to spread the bits.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
     }
 
     /**
@@ -313,7 +633,7 @@ public class SolutionWorkflow {
 
     public String getDescriptiveName() {
         StringBuilder descrName = new StringBuilder();
-        this.moduleNodes
+        getModuleNodes()
                 .forEach(moduleNode -> descrName.append(moduleNode.getUsedModule().getPredicateLabel()).append("->"));
         descrName.delete(descrName.length() - 2, descrName.length());
         return descrName.toString();
@@ -322,7 +642,7 @@ public class SolutionWorkflow {
     public String getDescription() {
         StringBuilder descrName = new StringBuilder();
         int stepNo = 1;
-        for (ModuleNode moduleNode : this.moduleNodes) {
+        for (ModuleNode moduleNode : getModuleNodes()) {
             descrName.append("Step ").append(stepNo++).append(": ")
                     .append(moduleNode.getUsedModule().getPredicateLabel())
                     .append("\n");
@@ -338,7 +658,7 @@ public class SolutionWorkflow {
      * @return the solution length
      */
     public int getSolutionLength() {
-        return this.moduleNodes.size();
+        return toolAutomaton.getAllStates().size();
     }
 
     /**
@@ -1,7 +1,14 @@
 package nl.uu.cs.ape.solver.solutionStructure;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +33,7 @@ public class SolutionsList {
     /**
      * Max number of solutions that should be found.
      */
-    private final int maxSolutions;
+    private int maxSolutions;
 
     /**
      * Mapping of predicates into integers (for SAT encoding).
@@ -58,6 +65,37 @@ public class SolutionsList {
      */
     private List<Pair<Integer>> solutionsPerLength;
 
+    /**
+     * Indices of the solutions in the list, grouped by their fingerprints (see
+     * {@link SolutionWorkflow#getFingerprint()}), used to filter out the
+     * duplicates.
+     */
+    private final Map<Long, int[]> fingerprints = new HashMap<>();
+
+    /**
+     * Solutions that were registered (see {@link #registerFingerprint}), but not
+     * yet added to the list, grouped by their fingerprints.
+     */
+    private final Map<Long, List<SolutionWorkflow>> pendingFingerprints = new HashMap<>();
+
+    /** Listeners notified about each solution added to the list. */
+    private final List<Consumer<SolutionWorkflow>> solutionListeners = new ArrayList<>();
+
+    /** Number of the synthesis runs created so far, used to identify the runs. */
+    private static final AtomicInteger runCounter = new AtomicInteger(0);
+
+    /**
+     * Identifier of the synthesis run, used to keep the timers of concurrent runs
+     * apart.
+     */
+    private final String runID = "run" + runCounter.incrementAndGet();
+
+    /** Time spent on encoding the synthesis problems of the run (in MS). */
+    private long encodingTimeMS = 0;
+
+    /** Time spent on SAT solving in the run (in MS). */
+    private long satSolvingTimeMS = 0;
+
     /**
      * Create an object that will contain all the solutions of the synthesis.
      *
@@ -100,6 +138,16 @@ public class SolutionsList {
         return maxSolutions;
     }
 
+    /**
+     * Set max number of solutions that should be found, used to continue the
+     * search for more solutions (see {@link nl.uu.cs.ape.solver.SynthesisSession}).
+     *
+     * @param maxSolutions Max number of solutions that should be found.
+     */
+    public void setMaxNumberOfSolutions(int maxSolutions) {
+        this.maxSolutions = maxSolutions;
+    }
+
     /**
      * Get object that contains mappings of all the atoms.
      *
@@ -146,10 +194,91 @@ public class SolutionsList {
         for (SolutionWorkflow solution : currSolutions) {
             solution.setIndex(solutionIndex++);
             this.solutions.add(solution);
+            if (!pendingFingerprints.isEmpty()) {
+                List<SolutionWorkflow> pending = pendingFingerprints.get(solution.getFingerprint());
+                if (pending != null && pending.removeIf(registered -> registered == solution)) {
+                    if (pending.isEmpty()) {
+                        pendingFingerprints.remove(solution.getFingerprint());
+                    }
+                    indexFingerprint(solution.getFingerprint(), this.solutions.size() - 1);
+                }
+            }
+            for (Consumer<SolutionWorkflow> listener : solutionListeners) {
+                listener.accept(solution);
+            }
         }
         return false;
     }
 
+    /**
+     * Add the listener that is notified about each solution as soon as it is
+     * added to the list, e.g. to write the solutions to a file as they are found
+     * (see {@link SolutionStreamWriter}).
+     *
+     * @param listener Listener notified about the new solutions.
+     */
+    public void addSolutionListener(Consumer<SolutionWorkflow> listener) {
+        this.solutionListeners.add(listener);
+    }
+
+    /**
+     * Register the fingerprint of the solution (see
+     * {@link SolutionWorkflow#getFingerprint()}), in order to recognise the
+     * solutions with the same data flow. The solutions with the same fingerprint
+     * are compared (see {@link SolutionWorkflow#hasSameDataFlow(SolutionWorkflow)}),
+     * so that a collision of the fingerprints does not drop a distinct solution.
+     *
+     * @param solution Newly found solution.
+     * @return {@code true} if no solution with the same data flow was
+     *         registered before, {@code false} if the solution is a duplicate.
+     */
+    public boolean registerFingerprint(SolutionWorkflow solution) {
+        long fingerprint = solution.getFingerprint();
+        int[] sameFingerprint = fingerprints.get(fingerprint);
+        if (sameFingerprint != null) {
+            for (int index : sameFingerprint) {
+                if (solutions.get(index).hasSameDataFlow(solution)) {
+                    return false;
+                }
+            }
+        }
+        List<SolutionWorkflow> pending = pendingFingerprints.computeIfAbsent(fingerprint,
+                newFingerprint -> new ArrayList<>(1));
+        for (SolutionWorkflow registered : pending) {
+            if (registered.hasSameDataFlow(solution)) {
+                return false;
+            }
+        }
+        pending.add(solution);
+        return true;
+    }
+
+    /**
+     * Register the fingerprints of all the solutions in the list (see
+     * {@link #registerFingerprint(SolutionWorkflow)}), e.g. once the solutions
+     * of a previous run were restored.
+     */
+    public void registerFingerprints() {
+        for (int index = 0; index < solutions.size(); index++) {
+            indexFingerprint(solutions.get(index).getFingerprint(), index);
+        }
+    }
+
+    /**
+     * Add the index of a solution in the list to the indices of the solutions
+     * with the given fingerprint.
+     */
+    private void indexFingerprint(long fingerprint, int index) {
+        int[] sameFingerprint = fingerprints.get(fingerprint);
+        if (sameFingerprint == null) {
+            fingerprints.put(fingerprint, new int[] { index });
+        } else {
+            int[] extended = Arrays.copyOf(sameFingerprint, sameFingerprint.length + 1);
+            extended[sameFingerprint.length] = index;
+            fingerprints.put(fingerprint, extended);
+        }
+    }
+
     /**
      * Get solution workflow.
      *
@@ -173,7 +302,8 @@ public class SolutionsList {
 
     /**
      * Set a specific number to be the number of solutions that are found up to the
-     * specified length.
+     * specified length. In case that the number was already set for the length
+     * (i.e. the search was continued), it is updated.
      * 
      * @param length      the length up until which the solutions are evaluated
      * @param noSolutions number of solutions that can be found up until the given
@@ -185,7 +315,12 @@ public class SolutionsList {
         if (solutionsPerLength == null) {
             solutionsPerLength = new ArrayList<>();
         }
-        solutionsPerLength.add(new Pair<>(length, noSolutions));
+        int last = solutionsPerLength.size() - 1;
+        if (last >= 0 && solutionsPerLength.get(last).getFirst().equals(length)) {
+            solutionsPerLength.set(last, new Pair<>(length, noSolutions));
+        } else {
+            solutionsPerLength.add(new Pair<>(length, noSolutions));
+        }
     }
 
     /**
@@ -216,6 +351,21 @@ public class SolutionsList {
         return this.solutions.parallelStream();
     }
 
+    /**
+     * Get the solutions that were executed successfully (see
+     * {@link nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutor}),
+     * ordered by their running time, fastest first.
+     *
+     * @return List of the executed solutions.
+     */
+    public List<SolutionWorkflow> getSolutionsRankedByRuntime() {
+        return this.solutions.stream()
+                .filter(solution -> solution.getExecutionResult() != null
+                        && solution.getExecutionResult().isSuccessful())
+                .sorted(Comparator.comparingLong(solution -> solution.getExecutionResult().getRuntimeMs()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Set the synthesis result flag, i.e., set the reason why the synthesis
      * execution was interrupted.
@@ -256,4 +406,51 @@ public class SolutionsList {
         this.synthesisTimeMS = synthesisTimeMS;
     }
 
+    /**
+     * Get the identifier of the timer that belongs to the synthesis run (see
+     * {@link nl.uu.cs.ape.utils.APEUtils#timerStart(String, Boolean)}).
+     * 
+     * @param timerName Name of the timer, unique within the run.
+     * @return Identifier of the timer, unique among the runs.
+     */
+    public String getTimerID(String timerName) {
+        return runID + "." + timerName;
+    }
+
+    /**
+     * Get the time spent on encoding the synthesis problems of the run (in MS).
+     * 
+     * @return the encoding time in MS.
+     */
+    public long getEncodingTime() {
+        return encodingTimeMS;
+    }
+
+    /**
+     * Add the time spent on encoding a synthesis problem of the run.
+     * 
+     * @param timeMS the encoding time in MS
+     */
+    public void addEncodingTime(long timeMS) {
+        this.encodingTimeMS += timeMS;
+    }
+
+    /**
+     * Get the time spent on SAT solving in the run (in MS).
+     * 
+     * @return the SAT solving time in MS.
+     */
+    public long getSatSolvingTime() {
+        return satSolvingTimeMS;
+    }
+
+    /**
+     * Add the time spent on solving a synthesis problem of the run.
+     * 
+     * @param timeMS the SAT solving time in MS
+     */
+    public void addSatSolvingTime(long timeMS) {
+        this.satSolvingTimeMS += timeMS;
+    }
+
 }
@@ -1,5 +1,10 @@
 package nl.uu.cs.ape.solver.solutionStructure.cwl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import nl.uu.cs.ape.solver.solutionStructure.ModuleFragmentCache;
 import nl.uu.cs.ape.solver.solutionStructure.ModuleNode;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 
@@ -15,10 +20,19 @@ public abstract class CWLWorkflowBase {
      * Solution.
      */
     protected SolutionWorkflow solution;
+    /**
+     * Cache of the parts of the representation that depend only on the tool.
+     */
+    protected final ModuleFragmentCache fragmentCache;
     /**
      * Indent style used.
      */
     private IndentStyle indentStyle;
+    /**
+     * Writer that receives the representation while it is generated, null if the
+     * representation is only kept in memory.
+     */
+    private Writer output;
 
     /**
      * Generate the creator base from the workflow solution.
@@ -26,7 +40,19 @@ public abstract class CWLWorkflowBase {
      * @param solution APE workflow solution
      */
     protected CWLWorkflowBase(SolutionWorkflow solution) {
+        this(solution, new ModuleFragmentCache());
+    }
+
+    /**
+     * Generate the creator base from the workflow solution, reusing the tool
+     * fragments that were generated for other solutions.
+     * 
+     * @param solution      APE workflow solution
+     * @param fragmentCache Cache of the tool fragments.
+     */
+    protected CWLWorkflowBase(SolutionWorkflow solution, ModuleFragmentCache fragmentCache) {
         this.solution = solution;
+        this.fragmentCache = fragmentCache;
         this.cwlRepresentation = new StringBuilder();
         this.indentStyle = IndentStyle.SPACES2;
     }
@@ -57,6 +83,33 @@ public abstract class CWLWorkflowBase {
      * @return The CWL representation.
      */
     public String generate() {
+        generateWorkflow();
+        return cwlRepresentation.toString();
+    }
+
+    /**
+     * Generates the CWL representation and writes it to the writer, without
+     * keeping the whole representation in memory.
+     * 
+     * @param writer Writer that receives the CWL representation.
+     * @throws IOException Error while writing the representation.
+     */
+    public void generate(Writer writer) throws IOException {
+        this.output = writer;
+        try {
+            generateWorkflow();
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.output = null;
+        }
+    }
+
+    /**
+     * Generate the whole workflow.
+     */
+    private void generateWorkflow() {
         // Top of file comment
         generateTopComment();
 
@@ -68,8 +121,26 @@ public abstract class CWLWorkflowBase {
         cwlRepresentation.append("label: ").append(getWorkflowName()).append("\n");
         generateDoc();
 
+        flush();
+
         generateCWLRepresentation();
-        return cwlRepresentation.toString();
+    }
+
+    /**
+     * Write the representation generated so far to the writer, if the
+     * representation is written while it is generated. Parts of the
+     * representation that were written can no longer be changed.
+     */
+    protected void flush() {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.append(cwlRepresentation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cwlRepresentation.setLength(0);
     }
 
     /**
@@ -142,7 +213,7 @@ public abstract class CWLWorkflowBase {
     protected abstract void generateCWLRepresentation();
 
     /**
-     * Gets the CWL representation.
+     * Gets the CWL representation generated by {@link #generate()}.
      * 
      * @return The CWL representation.
      */
@@ -159,6 +230,15 @@ public abstract class CWLWorkflowBase {
         cwlRepresentation.delete(cwlRepresentation.length() - numberOfCharToDel, cwlRepresentation.length());
     }
 
+    /**
+     * Get the indentation style used.
+     * 
+     * @return The indentation style.
+     */
+    protected IndentStyle getIndentStyle() {
+        return indentStyle;
+    }
+
     /**
      * Generate the indentation at the start of a line.
      * 
@@ -1,6 +1,7 @@
 package nl.uu.cs.ape.solver.solutionStructure.cwl;
 
 import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.solver.solutionStructure.ModuleFragmentCache;
 import nl.uu.cs.ape.solver.solutionStructure.ModuleNode;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.solver.solutionStructure.TypeNode;
@@ -8,6 +9,7 @@ import nl.uu.cs.ape.solver.solutionStructure.TypeNode;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,17 @@ public class DefaultCWLCreator extends CWLWorkflowBase {
         super(solution);
     }
 
+    /**
+     * Instantiates a new CWL creator that shares the tool fragments with the
+     * creators of other solutions.
+     * 
+     * @param solution      The solution to represent in CWL.
+     * @param fragmentCache Cache of the tool fragments.
+     */
+    public DefaultCWLCreator(SolutionWorkflow solution, ModuleFragmentCache fragmentCache) {
+        super(solution, fragmentCache);
+    }
+
 
     /**
      * Generates the CWL representation.
@@ -51,6 +64,7 @@ public class DefaultCWLCreator extends CWLWorkflowBase {
     private void generateWorkflowInputs() {
         cwlRepresentation.append("inputs:").append("\n");
         cwlRepresentation.append(getInputsInCWL(false));
+        flush();
     }
 
     /**
@@ -181,6 +195,7 @@ public class DefaultCWLCreator extends CWLWorkflowBase {
         generateDefaultStepRun(moduleNode);
         generateStepIn(moduleNode);
         generateStepOut(moduleNode);
+        flush();
     }
 
     /**
@@ -202,11 +217,15 @@ public class DefaultCWLCreator extends CWLWorkflowBase {
                     .append("\n");
         } else {
             List<TypeNode> inputs = moduleNode.getInputTypes();
+            // The keys of the inputs depend only on the tool
+            List<String> inputKeys = fragmentCache.get("cwl-step-in-" + getIndentStyle().name(),
+                    moduleNode.getUsedModule(),
+                    tool -> moduleNode.getInputCWLKeys().stream()
+                            .map(key -> ind(baseInd + 1) + key + ": ")
+                            .collect(Collectors.toList()));
             IntStream.range(0, inputs.size()).filter(i -> !inputs.get(i).isEmpty())
                     .forEach(i -> cwlRepresentation
-                            .append(ind(baseInd + 1))
-                            .append(moduleNode.getInputCWLKeys().get(i))
-                            .append(": ")
+                            .append(inputKeys.get(i))
                             .append(workflowParameters.get(inputs.get(i).getNodeID()))
                             .append("\n"));
         }
@@ -249,16 +268,15 @@ public class DefaultCWLCreator extends CWLWorkflowBase {
      */
     private void generateDefaultStepRun(ModuleNode moduleNode) {
         final int baseInd = 2;
-        String moduleReference = "add-path-to-the-implementation/" + moduleNode.getUsedModule().getPredicateID()
-                + ".cwl ";
-        if (moduleNode.getUsedModule().getCwlFileReference() != null) {
-            moduleReference = moduleNode.getUsedModule().getCwlFileReference();
-        }
-        cwlRepresentation
-                // Main key
-                .append(ind(baseInd))
-                .append("run: " + moduleReference)
-                .append("\n");
+        cwlRepresentation.append(fragmentCache.<String>get("cwl-step-run-" + getIndentStyle().name(),
+                moduleNode.getUsedModule(), tool -> {
+                    String moduleReference = "add-path-to-the-implementation/" + tool.getPredicateID() + ".cwl ";
+                    if (tool.getCwlFileReference() != null) {
+                        moduleReference = tool.getCwlFileReference();
+                    }
+                    // Main key
+                    return ind(baseInd) + "run: " + moduleReference + "\n";
+                }));
     }
 
     /**
@@ -0,0 +1,90 @@
+package nl.uu.cs.ape.solver.solutionStructure.execution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import lombok.Getter;
+import nl.uu.cs.ape.models.enums.WorkflowRunner;
+
+/**
+ * The {@code WorkflowExecutionResult} class describes the local execution of a
+ * workflow solution by the {@link WorkflowExecutor}.
+ *
+ * @author Vedran Kasalica
+ */
+@Getter
+public class WorkflowExecutionResult {
+
+    /** Index of the executed solution. */
+    private final int solutionIndex;
+
+    /** Runner used to execute the workflow. */
+    private final WorkflowRunner runner;
+
+    /**
+     * Exit code of the execution, null if the execution did not finish (see
+     * {@link #isTimedOut()} and {@link #getError()}).
+     */
+    private final Integer exitCode;
+
+    /** true iff the execution was stopped as it reached the time limit. */
+    private final boolean timedOut;
+
+    /** Running time of the execution (in ms). */
+    private final long runtimeMs;
+
+    /** Directory in which the workflow was executed. */
+    private final Path workingDirectory;
+
+    /** File that contains the standard and error output of the execution. */
+    private final Path logFile;
+
+    /** Reason why the execution could not be run, null otherwise. */
+    private final String error;
+
+    WorkflowExecutionResult(int solutionIndex, WorkflowRunner runner, Integer exitCode, boolean timedOut,
+            long runtimeMs, Path workingDirectory, Path logFile, String error) {
+        this.solutionIndex = solutionIndex;
+        this.runner = runner;
+        this.exitCode = exitCode;
+        this.timedOut = timedOut;
+        this.runtimeMs = runtimeMs;
+        this.workingDirectory = workingDirectory;
+        this.logFile = logFile;
+        this.error = error;
+    }
+
+    /**
+     * Check whether the execution finished with the exit code 0.
+     *
+     * @return true iff the workflow was executed successfully.
+     */
+    public boolean isSuccessful() {
+        return exitCode != null && exitCode == 0;
+    }
+
+    /**
+     * Read the standard and error output of the execution.
+     *
+     * @return The output of the execution.
+     * @throws IOException Error while reading the log file.
+     */
+    public String readOutput() throws IOException {
+        return Files.readString(logFile, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        String status;
+        if (timedOut) {
+            status = "timed out";
+        } else if (exitCode == null) {
+            status = "failed to run: " + error;
+        } else {
+            status = "exit code " + exitCode;
+        }
+        return String.format("Workflow %d (%s): %s after %d ms", solutionIndex + 1, runner, status, runtimeMs);
+    }
+}
@@ -0,0 +1,297 @@
+package nl.uu.cs.ape.solver.solutionStructure.execution;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import nl.uu.cs.ape.models.enums.WorkflowRunner;
+import nl.uu.cs.ape.solver.solutionStructure.ModuleFragmentCache;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.cwl.DefaultCWLCreator;
+import nl.uu.cs.ape.solver.solutionStructure.snakemake.SnakemakeCreator;
+
+/**
+ * The {@code WorkflowExecutor} class executes the workflow solutions locally,
+ * using a bounded pool of processes. Each workflow is written, in the
+ * representation required by the {@link WorkflowRunner}, to its own directory,
+ * where it is executed and where its output is captured. The execution of a
+ * workflow is stopped (together with the processes it started) once it reaches
+ * the time limit. The result of each execution (see
+ * {@link WorkflowExecutionResult}) is attached to the solution, which allows
+ * ranking the solutions by their running time (see
+ * {@link SolutionsList#getSolutionsRankedByRuntime()}).
+ * <p>
+ * The memory and CPU time limits are enforced using {@code ulimit} and are
+ * therefore ignored on Windows.
+ *
+ * @author Vedran Kasalica
+ */
+@Slf4j
+@Getter
+@Setter
+public class WorkflowExecutor {
+
+    /** Name of the file that contains the output of an execution. */
+    public static final String LOG_FILE_NAME = "execution.log";
+
+    /** Name of the CWL inputs file in the directory of an execution. */
+    public static final String CWL_INPUTS_FILE_NAME = "input.yml";
+
+    /** Representation of the workflows that is executed. */
+    private final WorkflowRunner runner;
+
+    /** Command that runs the workflow, e.g. the path to the runner. */
+    private String runnerCommand;
+
+    /** Max number of the workflows executed in parallel. */
+    private int maxParallel = Runtime.getRuntime().availableProcessors();
+
+    /** Time limit (in seconds) of each execution, no limit if not positive. */
+    private int timeoutSec = 300;
+
+    /** Virtual memory limit (in MB) of each execution, no limit if not positive. */
+    private long memoryLimitMb = 0;
+
+    /** CPU time limit (in seconds) of each execution, no limit if not positive. */
+    private int cpuLimitSec = 0;
+
+    /**
+     * Arguments given to the workflow scripts, i.e., the workflow inputs. The
+     * scripts are not executed if the number of the arguments differs from the
+     * number of their inputs.
+     */
+    private List<String> inputs = new ArrayList<>();
+
+    /** Cache of the tool fragments, shared by the CWL and Snakemake workflows. */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ModuleFragmentCache fragmentCache = new ModuleFragmentCache();
+
+    /**
+     * Create the executor of the workflows in the given representation.
+     *
+     * @param runner Representation of the workflows that is executed.
+     */
+    public WorkflowExecutor(WorkflowRunner runner) {
+        this.runner = runner;
+        this.runnerCommand = runner.getDefaultCommand();
+    }
+
+    /**
+     * Execute the first solutions, each in a subdirectory (named after the
+     * solution) of the given directory, and attach the results to the
+     * solutions. A workflow that cannot be written or started gets a result
+     * that describes the error, without affecting the other workflows.
+     *
+     * @param solutions     The solutions.
+     * @param noWorkflows   Number of the solutions that should be executed.
+     * @param executionsDir Directory in which the solutions are executed.
+     * @return The results of the executions, in the order of the solutions.
+     * @throws IOException          Error while creating the directory.
+     * @throws InterruptedException The thread was interrupted. The running
+     *                              executions are stopped.
+     */
+    public List<WorkflowExecutionResult> execute(SolutionsList solutions, int noWorkflows, Path executionsDir)
+            throws IOException, InterruptedException {
+        Files.createDirectories(executionsDir);
+        List<SolutionWorkflow> workflows = solutions.getStream()
+                .filter(solution -> solution.getIndex() < noWorkflows)
+                .collect(Collectors.toList());
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, maxParallel), runnable -> {
+            Thread thread = new Thread(runnable, "ape-execution");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<WorkflowExecutionResult>> futures = new ArrayList<>();
+            for (SolutionWorkflow workflow : workflows) {
+                futures.add(pool.submit(() -> execute(workflow, executionsDir.resolve(workflow.getFileName()))));
+            }
+            List<WorkflowExecutionResult> results = new ArrayList<>();
+            for (int i = 0; i < workflows.size(); i++) {
+                SolutionWorkflow workflow = workflows.get(i);
+                WorkflowExecutionResult result;
+                try {
+                    result = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    /* The other workflows are still executed. */
+                    log.warn("Workflow {} could not be executed: {}", workflow.getFileName(),
+                            e.getCause().toString());
+                    Path workingDir = executionsDir.resolve(workflow.getFileName());
+                    result = new WorkflowExecutionResult(workflow.getIndex(), runner, null, false, 0, workingDir,
+                            workingDir.resolve(LOG_FILE_NAME), e.getCause().toString());
+                }
+                workflow.setExecutionResult(result);
+                results.add(result);
+            }
+            return results;
+        } finally {
+            /* Interrupting the tasks stops their processes. */
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Execute the workflow in the given directory.
+     */
+    private WorkflowExecutionResult execute(SolutionWorkflow workflow, Path workingDir) throws IOException {
+        if (Files.isDirectory(workingDir)) {
+            FileUtils.deleteDirectory(workingDir.toFile());
+        }
+        Files.createDirectories(workingDir);
+        writeWorkflow(workflow, workingDir);
+        Path logFile = workingDir.resolve(LOG_FILE_NAME);
+        int noWorkflowInputs = workflow.getWorkflowInputTypeStates().size();
+        if (runner == WorkflowRunner.SCRIPT && inputs.size() != noWorkflowInputs) {
+            /* The script would stop before running any tool. */
+            String error = String.format("%d workflow input(s) expected, %d given.", noWorkflowInputs,
+                    inputs.size());
+            log.warn("Workflow {} could not be executed: {}", workflow.getFileName(), error);
+            return new WorkflowExecutionResult(workflow.getIndex(), runner, null, false, 0, workingDir, logFile,
+                    error);
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(getCommand())
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
+        long start = System.currentTimeMillis();
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            log.warn("Workflow {} could not be executed: {}", workflow.getFileName(), e.getMessage());
+            return new WorkflowExecutionResult(workflow.getIndex(), runner, null, false, 0, workingDir, logFile,
+                    e.getMessage());
+        }
+        /* The workflows do not read the standard input. */
+        process.getOutputStream().close();
+
+        boolean finished = false;
+        try {
+            if (timeoutSec > 0) {
+                finished = process.waitFor(timeoutSec, TimeUnit.SECONDS);
+            } else {
+                process.waitFor();
+                finished = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!finished) {
+                stop(process);
+            }
+        }
+        long runtimeMs = System.currentTimeMillis() - start;
+        if (!finished && Thread.currentThread().isInterrupted()) {
+            return new WorkflowExecutionResult(workflow.getIndex(), runner, null, false, runtimeMs, workingDir,
+                    logFile, "The execution was interrupted.");
+        }
+        WorkflowExecutionResult result = new WorkflowExecutionResult(workflow.getIndex(), runner,
+                finished ? process.exitValue() : null, !finished, runtimeMs, workingDir, logFile, null);
+        log.debug(result.toString());
+        return result;
+    }
+
+    /**
+     * Stop the process and the processes it started.
+     */
+    private static void stop(Process process) {
+        /* The descendants are no longer known once the process stops. */
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+        try {
+            process.waitFor(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write the workflow in the representation required by the runner.
+     */
+    private void writeWorkflow(SolutionWorkflow workflow, Path workingDir) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(workingDir.resolve(runner.getFileName()),
+                StandardCharsets.UTF_8)) {
+            switch (runner) {
+                case SCRIPT:
+                    writer.write(workflow.getScriptExecution());
+                    break;
+                case CWL:
+                    new DefaultCWLCreator(workflow, fragmentCache).generate(writer);
+                    break;
+                case SNAKEMAKE:
+                    new SnakemakeCreator(workflow, fragmentCache).generateSnakemakeRepresentation(writer);
+                    break;
+            }
+        }
+        if (runner == WorkflowRunner.CWL) {
+            Files.writeString(workingDir.resolve(CWL_INPUTS_FILE_NAME),
+                    new DefaultCWLCreator(workflow, fragmentCache).generateCWLWorkflowInputs(),
+                    StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Get the command that executes the workflow in its directory, including
+     * the resource limits.
+     */
+    private List<String> getCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(runnerCommand);
+        switch (runner) {
+            case SCRIPT:
+                command.add(runner.getFileName());
+                command.addAll(inputs);
+                break;
+            case CWL:
+                command.add("--outdir");
+                command.add("outputs");
+                command.add(runner.getFileName());
+                command.add(CWL_INPUTS_FILE_NAME);
+                break;
+            case SNAKEMAKE:
+                command.add("--snakefile");
+                command.add(runner.getFileName());
+                command.add("--cores");
+                command.add("1");
+                break;
+        }
+        if ((memoryLimitMb <= 0 && cpuLimitSec <= 0) || isWindows()) {
+            return command;
+        }
+        StringBuilder limits = new StringBuilder();
+        if (memoryLimitMb > 0) {
+            limits.append("ulimit -v ").append(memoryLimitMb * 1024).append(" && ");
+        }
+        if (cpuLimitSec > 0) {
+            limits.append("ulimit -t ").append(cpuLimitSec).append(" && ");
+        }
+        limits.append("exec \"$@\"");
+        List<String> limitedCommand = new ArrayList<>(List.of("bash", "-c", limits.toString(), "ape-limits"));
+        limitedCommand.addAll(command);
+        return limitedCommand;
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().startsWith("windows");
+    }
+}
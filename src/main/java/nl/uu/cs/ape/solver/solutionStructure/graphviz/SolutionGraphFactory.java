@@ -275,7 +275,7 @@ public class SolutionGraphFactory {
         script.append("if [ $# -ne " + workflowInputs.size() + " ]\n\tthen\n");
         script
                 .append("\t\techo \"" + workflowInputs.size()
-                        + " argument(s) expected.\"\n\t\texit\nfi\n");
+                        + " argument(s) expected.\"\n\t\texit 1\nfi\n");
         int in = 1;
         for (TypeNode input : workflowInputs) {
             script.append(input.getShortNodeID() + "=$" + (in++) + "\n");
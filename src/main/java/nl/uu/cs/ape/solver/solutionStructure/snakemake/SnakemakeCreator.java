@@ -3,10 +3,14 @@ package nl.uu.cs.ape.solver.solutionStructure.snakemake;
 import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.solver.solutionStructure.cwl.CWLWorkflowBase.IndentStyle;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import nl.uu.cs.ape.solver.solutionStructure.ModuleFragmentCache;
 import nl.uu.cs.ape.solver.solutionStructure.ModuleNode;
 import nl.uu.cs.ape.solver.solutionStructure.TypeNode;
 
@@ -21,6 +25,10 @@ public class SnakemakeCreator {
     protected final StringBuilder snakemakeRepresentation;
     protected SolutionWorkflow solution;
     private IndentStyle indentStyle;
+    /** Cache of the parts of the rules that depend only on the tool. */
+    private final ModuleFragmentCache fragmentCache;
+    /** Writer that receives the representation while it is generated, if any. */
+    private Writer output;
 
     private final HashMap<String, String> workflowParameters = new HashMap<>();
     
@@ -30,7 +38,19 @@ public class SnakemakeCreator {
      * @param solution The solution to represent in Snakemake.
      */
     public SnakemakeCreator(SolutionWorkflow solution) {
+        this(solution, new ModuleFragmentCache());
+    }
+
+    /**
+     * Instantiates a new Snakemake creator that shares the tool fragments with
+     * the creators of other solutions.
+     * 
+     * @param solution      The solution to represent in Snakemake.
+     * @param fragmentCache Cache of the tool fragments.
+     */
+    public SnakemakeCreator(SolutionWorkflow solution, ModuleFragmentCache fragmentCache) {
         this.solution = solution;
+        this.fragmentCache = fragmentCache;
         this.snakemakeRepresentation = new StringBuilder();
         this.indentStyle = IndentStyle.SPACES4;
     }
@@ -39,10 +59,38 @@ public class SnakemakeCreator {
      * Generates the Snakemake representation.
      */
     public String generateSnakemakeRepresentation() {
+        try {
+            generateWorkflow();
+        } catch (IOException e) {
+            // The representation is only kept in memory
+            throw new IllegalStateException(e);
+        }
+        return snakemakeRepresentation.toString();
+    }
+
+    /**
+     * Generates the Snakemake representation and writes it to the writer, rule
+     * by rule, without keeping the whole representation in memory.
+     * 
+     * @param writer Writer that receives the Snakemake representation.
+     * @throws IOException Error while writing the representation.
+     */
+    public void generateSnakemakeRepresentation(Writer writer) throws IOException {
+        this.output = writer;
+        try {
+            generateWorkflow();
+            flush();
+        } finally {
+            this.output = null;
+        }
+    }
+
+    private void generateWorkflow() throws IOException {
         generateTopComment();
         snakemakeRepresentation.append("\n");
         addWorkflowInputs();
         generateRuleAll();
+        flush();
         for (ModuleNode moduleNode : solution.getModuleNodes()) {
             snakemakeRepresentation
                     .append("rule ")
@@ -52,9 +100,20 @@ public class SnakemakeCreator {
             generateRuleOutput(moduleNode);
             generateRuleShell(moduleNode);
             snakemakeRepresentation.append("\n");
+            flush();
         }
+    }
 
-        return snakemakeRepresentation.toString();
+    /**
+     * Write the representation generated so far to the writer, if the
+     * representation is written while it is generated.
+     */
+    private void flush() throws IOException {
+        if (output == null) {
+            return;
+        }
+        output.append(snakemakeRepresentation);
+        snakemakeRepresentation.setLength(0);
     }
 
     /**
@@ -126,14 +185,15 @@ public class SnakemakeCreator {
                 .append("output:\n");
         
         List<TypeNode> outputs = moduleNode.getOutputTypes();
+        List<String> names = getOutputNames(moduleNode);
+        List<String> lines = fragmentCache.get("snakemake-rule-output-" + indentStyle.name(),
+                moduleNode.getUsedModule(),
+                tool -> names.stream().map(name -> ind(2) + String.format("'add-path/%s'", name) + ",\n")
+                        .collect(Collectors.toList()));
         IntStream.range(0, outputs.size()).filter(i -> !outputs.get(i).isEmpty())
                 .forEach(i -> {
-                    String name = generateInputOrOutputName(moduleNode, "out", i + 1);
-                    addNewParameterToMap(outputs.get(i), String.format("%s", name));
-                    snakemakeRepresentation
-                            .append(ind(2))
-                            .append(String.format("'add-path/%s'", name))
-                            .append(",\n");
+                    addNewParameterToMap(outputs.get(i), names.get(i));
+                    snakemakeRepresentation.append(lines.get(i));
                 });
         if (moduleNode.hasOutputTypes()) {
             // Remove the last comma
@@ -148,11 +208,24 @@ public class SnakemakeCreator {
      * @param moduleNode The {@link ModuleNode} corresponding to the rule.
      */
     private void generateRuleShell(ModuleNode moduleNode) {
-        String name = moduleNode.getUsedModule().getPredicateLabel();
-        snakemakeRepresentation
-                .append(ind(1))
-                .append(String.format("shell: 'add-path-to-implementation/%s {input} {output}'", name))
-                .append("\n");
+        snakemakeRepresentation.append(fragmentCache.<String>get("snakemake-rule-shell-" + indentStyle.name(),
+                moduleNode.getUsedModule(),
+                tool -> ind(1)
+                        + String.format("shell: 'add-path-to-implementation/%s {input} {output}'", tool.getPredicateLabel())
+                        + "\n"));
+    }
+
+    /**
+     * Get the names of the outputs of the tool used in the workflow step.
+     * 
+     * @param moduleNode The {@link ModuleNode} that is the workflow step.
+     * @return The names of the outputs, in the order of the outputs.
+     */
+    private List<String> getOutputNames(ModuleNode moduleNode) {
+        return fragmentCache.get("snakemake-output-names", moduleNode.getUsedModule(),
+                tool -> IntStream.range(0, moduleNode.getOutputTypes().size())
+                        .mapToObj(i -> generateInputOrOutputName(moduleNode, "out", i + 1))
+                        .collect(Collectors.toList()));
     }
 
     private String addNewParameterToMap(TypeNode typeNode, String name) {
@@ -18,11 +18,12 @@ import nl.uu.cs.ape.models.logic.constructs.PredicateLabel;
 import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxAtom;
 import nl.uu.cs.ape.models.sltlxStruc.SLTLxAtomVar;
-import nl.uu.cs.ape.solver.minisat.SATSynthesisEngine;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 
 import lombok.AccessLevel;
@@ -39,7 +40,7 @@ import lombok.extern.slf4j.Slf4j;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class APEUtils {
 
-	private static final Map<String, Long> timers = new HashMap<>();
+	private static final Map<String, Long> timers = new ConcurrentHashMap<>();
 	private static final PrintStream original = System.err;
 	private static final PrintStream nullStream = new PrintStream(new OutputStream() {
 		@Override
@@ -439,22 +440,31 @@ public final class APEUtils {
 	/**
 	 * Timer print solutions.
 	 *
-	 * @param timerID        the timer id
-	 * @param solutionsFound the solutions found
+	 * @param timerID      the timer id
+	 * @param allSolutions the solutions found in the run
 	 * @return The time counted by the timer.
 	 */
-	public static long timerPrintSolutions(String timerID, int solutionsFound) {
+	public static long timerPrintSolutions(String timerID, SolutionsList allSolutions) {
 		if (timers.get(timerID) == -1) {
 			return -1;
 		}
 		long printTime = System.currentTimeMillis() - timers.get(timerID);
-		log.info("APE found " + solutionsFound + " solutions.");
+		log.info("APE found " + allSolutions.getNumberOfSolutions() + " solutions.");
 		log.info("Total APE runtime: \t\t" + (printTime / 1000F) + " sec.");
-		log.info("Total encoding time: \t\t" + (SATSynthesisEngine.getTotalEncodingTime() / 1000F) + " sec.");
-		log.info("Total SAT solving time: \t" + (SATSynthesisEngine.getTotalSolvingTime() / 1000F) + " sec.");
+		log.info("Total encoding time: \t\t" + (allSolutions.getEncodingTime() / 1000F) + " sec.");
+		log.info("Total SAT solving time: \t" + (allSolutions.getSatSolvingTime() / 1000F) + " sec.");
 		return printTime;
 	}
 
+	/**
+	 * Remove the timer, once it is no longer used.
+	 *
+	 * @param timerID the timer id
+	 */
+	public static void timerRemove(String timerID) {
+		timers.remove(timerID);
+	}
+
 	/**
 	 * Timer print text.
 	 *
@@ -0,0 +1,77 @@
+package nl.uu.cs.ape.sat.test.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * The {@code SolutionSets} class is used to compare the solutions of synthesis
+ * runs that should find the same workflows, e.g. runs with and without an
+ * optimisation of the encoding, independently of the order in which the
+ * solutions were found.
+ *
+ * @author Vedran Kasalica
+ */
+public class SolutionSets {
+
+    /** Prefix of the IRIs in the GMT use case. */
+    private static final String GMT_PREFIX = "http://www.co-ode.org/ontologies/ont.owl#";
+
+    /**
+     * @param noSolutions: max number of the solutions
+     * @param maxLength:   max length of the solutions
+     * @return run configuration of the GMT use case, in which the solutions of
+     *         the given lengths can be enumerated quickly
+     */
+    public static JSONObject getGMTConfig(int noSolutions, int maxLength) {
+        return TestResources.getConfigResource(
+                "cli/gmt/base_config.json",
+                "cli/gmt/GMT_UseCase_taxonomy.owl",
+                "cli/gmt/tool_annotations.json",
+                "cli/gmt/constraints_e0.json",
+                "cli/gmt")
+                .put("solutions", noSolutions)
+                .put("solution_length", new JSONObject().put("min", 1).put("max", maxLength));
+    }
+
+    /**
+     * @param solution: a solution workflow
+     * @return description of the solution, that is the same for the solutions
+     *         with the same tools and data flow
+     */
+    public static String describe(SolutionWorkflow solution) {
+        return solution.getSolutionLength() + " " + solution.getReadableSolution().replace("\n", " ");
+    }
+
+    /**
+     * @param solutions: solutions of a synthesis run
+     * @return sorted descriptions of the solutions, including the duplicates
+     */
+    public static List<String> describe(SolutionsList solutions) {
+        return solutions.getStream().map(SolutionSets::describe).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * @param solutions: solutions of a synthesis run in the GMT use case
+     * @return sorted descriptions of the solutions, without the IRI prefix of
+     *         the use case
+     */
+    public static List<String> describeGMT(SolutionsList solutions) {
+        return describe(solutions).stream().map(solution -> solution.replace(GMT_PREFIX, ""))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param resource: relative path of a text resource with one solution
+     *                  description per line (see {@link #describeGMT})
+     * @return the descriptions of the solutions
+     */
+    public static List<String> readSolutions(String resource) {
+        return Arrays.asList(TestResources.getTextResource(resource).split("\\R"));
+    }
+}
@@ -0,0 +1,133 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the split of the search space into cubes and their enumeration. The
+ * test is in the package of {@link CubeEnumeration}, as the class is not
+ * public.
+ */
+class CubeEnumerationTest {
+
+    private SATSynthesisEngine engine;
+
+    @BeforeEach
+    void encode() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        APERunConfig runConfig = new APERunConfig(config, ape.getDomainSetup());
+        engine = new SATSynthesisEngine(runConfig.getApeDomainSetup(), new SolutionsList(runConfig), runConfig, 5);
+        assertTrue(engine.synthesisEncoding());
+    }
+
+    @AfterEach
+    void deleteEncoding() throws Exception {
+        engine.deleteTempFiles();
+    }
+
+    @Test
+    void cubesAreDisjoint() {
+        List<int[]> cubes = CubeEnumeration.createCubes(engine, 16);
+        assertTrue(cubes.size() > 1);
+        for (int i = 0; i < cubes.size(); i++) {
+            for (int j = i + 1; j < cubes.size(); j++) {
+                assertTrue(conflict(cubes.get(i), cubes.get(j)), "Cubes " + i + " and " + j + " overlap");
+            }
+        }
+
+        /* Each solution is found in exactly one of the cubes. */
+        CubeEnumeration enumeration = new CubeEnumeration(engine, 2);
+        try {
+            List<SolutionWorkflow> solutions = enumeration.enumerate(200, 60000, new CancellationToken());
+            assertEquals(200, solutions.size());
+            for (SolutionWorkflow solution : solutions) {
+                Set<Integer> model = positiveLiterals(solution);
+                assertEquals(1, cubes.stream().filter(cube -> satisfies(model, cube)).count());
+            }
+        } finally {
+            enumeration.close();
+        }
+    }
+
+    @Test
+    void threadsAreReusedAcrossCalls() throws Exception {
+        CubeEnumeration enumeration = new CubeEnumeration(engine, 2);
+        Set<Thread> threads = new HashSet<>();
+        try {
+            int found = 0;
+            for (int i = 0; i < 4; i++) {
+                found += enumeration.enumerate(5, 60000, new CancellationToken()).size();
+                threads.addAll(solverThreads());
+            }
+            assertEquals(20, found);
+            /* The threads of the pool, created by the first call. */
+            assertEquals(2, threads.size());
+        } finally {
+            enumeration.close();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    private static boolean conflict(int[] cube, int[] other) {
+        for (int literal : cube) {
+            for (int otherLiteral : other) {
+                if (literal == -otherLiteral) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean satisfies(Set<Integer> model, int[] cube) {
+        for (int literal : cube) {
+            if (model.contains(Math.abs(literal)) != (literal > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the variables that are true in the solution
+     */
+    private static Set<Integer> positiveLiterals(SolutionWorkflow solution) {
+        Set<Integer> model = new HashSet<>();
+        for (String literal : ((SATOutput) solution.getNativeSolution()).getOriginalSATSolution().trim()
+                .split("\\s+")) {
+            model.add(Integer.parseInt(literal));
+        }
+        return model;
+    }
+
+    private static Set<Thread> solverThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("ape-solver")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+}
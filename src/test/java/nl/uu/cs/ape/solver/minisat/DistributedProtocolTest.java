@@ -0,0 +1,96 @@
+package nl.uu.cs.ape.solver.minisat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the messages exchanged with the workers are read back as they
+ * were written and that the malformed ones are rejected. The test is in the
+ * package of {@link DistributedProtocol}, as the class is not public.
+ */
+class DistributedProtocolTest {
+
+    @Test
+    void messagesAreReadAsWritten() throws IOException {
+        int[] literals = { 5, -3, 0, Integer.MAX_VALUE, -Integer.MAX_VALUE };
+        int[] model = { 7, 1, 200000, 42 };
+        byte[] bytes = new byte[200000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(message);
+        DistributedProtocol.writeLiterals(out, literals);
+        DistributedProtocol.writeModel(out, model);
+        DistributedProtocol.writeBytes(out, bytes);
+
+        DataInputStream in = read(message);
+        assertArrayEquals(literals, DistributedProtocol.readLiterals(in, 5));
+        assertArrayEquals(new int[] { 1, 7, 42, 200000 }, DistributedProtocol.readModel(in, 200000));
+        assertArrayEquals(bytes, DistributedProtocol.readBytes(in));
+    }
+
+    @Test
+    void invalidSizesAreRejected() throws IOException {
+        /* Negative size. */
+        assertThrows(IOException.class, () -> DistributedProtocol.readLiterals(read(size(-1)), 10));
+        assertThrows(IOException.class, () -> DistributedProtocol.readModel(read(size(Integer.MIN_VALUE)), 10));
+        assertThrows(IOException.class, () -> DistributedProtocol.readBytes(read(size(-5))));
+
+        /* Size above the limit. */
+        assertThrows(IOException.class, () -> DistributedProtocol.readLiterals(read(size(11)), 10));
+        assertThrows(IOException.class, () -> DistributedProtocol.readModel(read(size(11)), 10));
+        assertThrows(IOException.class,
+                () -> DistributedProtocol.readBytes(read(size(DistributedProtocol.MAX_BYTES + 1))));
+
+        /* Size that is allowed, but the content is missing. */
+        assertThrows(IOException.class,
+                () -> DistributedProtocol.readBytes(read(size(DistributedProtocol.MAX_BYTES))));
+    }
+
+    @Test
+    void invalidModelsAreRejected() {
+        assertDoesNotThrow(() -> SynthesisCoordinator.checkModel(new int[] { 1, 5, 10 }, 10));
+        assertDoesNotThrow(() -> SynthesisCoordinator.checkModel(new int[0], 10));
+
+        /* Variable out of range. */
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(new int[] { 1, 11 }, 10));
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(new int[] { 0, 1 }, 10));
+        /* Duplicate literal. */
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(new int[] { 1, 5, 5 }, 10));
+        /* Contradictory literals. */
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(new int[] { -5, 5 }, 10));
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(new int[] { 5, -5 }, 10));
+    }
+
+    @Test
+    void modelsWithRepeatedLiteralsAreRejected() throws IOException {
+        /* A model with a zero difference, i.e. a repeated literal. */
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(message);
+        DistributedProtocol.writeVarInt(out, 2);
+        DistributedProtocol.writeVarInt(out, 3);
+        DistributedProtocol.writeVarInt(out, 0);
+        int[] model = DistributedProtocol.readModel(read(message), 10);
+        assertThrows(IOException.class, () -> SynthesisCoordinator.checkModel(model, 10));
+    }
+
+    private static ByteArrayOutputStream size(int size) throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        DistributedProtocol.writeVarInt(new DataOutputStream(message), size);
+        return message;
+    }
+
+    private static DataInputStream read(ByteArrayOutputStream message) {
+        return new DataInputStream(new ByteArrayInputStream(message.toByteArray()));
+    }
+}
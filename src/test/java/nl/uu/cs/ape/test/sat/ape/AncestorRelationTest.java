@@ -0,0 +1,33 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.sat.test.utils.TestResources;
+
+/**
+ * Tests the encoding of the ancestor relation (R), which follows the order of
+ * the data flow, against the solutions of the encoding over all the pairs and
+ * triples of states.
+ */
+class AncestorRelationTest {
+
+    @Test
+    void dataFlowConstraintKeepsTheSolutions() throws Exception {
+        /* Solutions found by the encoding over all the states, up to length 4. */
+        List<String> expected = SolutionSets.readSolutions("cli/gmt/r_relation_solutions.txt");
+
+        JSONObject config = SolutionSets.getGMTConfig(500, 4).put("constraints_path",
+                TestResources.getAbsoluteResourcePath("cli/gmt/constraints_r_relation.json"));
+        List<String> solutions = SolutionSets.describeGMT(new APE(config).runSynthesis(config));
+
+        assertEquals(61, expected.size());
+        assertEquals(expected, solutions);
+    }
+}
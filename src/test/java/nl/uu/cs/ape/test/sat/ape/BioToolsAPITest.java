@@ -1,23 +1,37 @@
 package nl.uu.cs.ape.test.sat.ape;
 
 import nl.uu.cs.ape.domain.BioToolsAPI;
+import nl.uu.cs.ape.domain.BioToolsClientConfig;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 
 class BioToolsAPITest {
 
@@ -36,6 +50,184 @@ class BioToolsAPITest {
         Files.writeString(Path.of(testFile.getAbsolutePath()), sampleToolIDs.toString(4));
     }
 
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Restore the default settings of the bio.tools client, as they are shared by
+     * all the tests.
+     */
+    @AfterEach
+    void resetConfig() {
+        BioToolsAPI.setConfig(BioToolsClientConfig.DEFAULT);
+    }
+
+    @Test
+    void testCacheIsOptIn() {
+        assertNull(BioToolsClientConfig.DEFAULT.getCacheDirectory());
+        BioToolsClientConfig config = BioToolsClientConfig.DEFAULT.withBaseURL("http://localhost/api")
+                .withCache(tempDir.toFile(), 1024);
+        assertEquals("http://localhost/api/", config.getBaseURL());
+        assertEquals(tempDir.toFile(), config.getCacheDirectory());
+        assertEquals(BioToolsClientConfig.DEFAULT_BASE_URL, BioToolsClientConfig.DEFAULT.getBaseURL());
+        assertNull(config.withoutCache().getCacheDirectory());
+    }
+
+    /**
+     * Fetch tools concurrently from a local stub server, and check that the order
+     * is preserved and that the cached responses are revalidated (ETag) instead of
+     * downloaded again.
+     */
+    @Test
+    void testConcurrentCachedFetchFromStub() throws IOException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        AtomicInteger notModifiedResponses = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/", exchange -> {
+            String id = exchange.getRequestURI().getPath().substring("/api/".length());
+            String etag = "\"" + id + "-v1\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", etag);
+            respond(exchange, new JSONObject().put("biotoolsID", id).put("name", id).toString());
+        });
+        server.start();
+        try {
+            BioToolsAPI.setConfig(BioToolsClientConfig.DEFAULT
+                    .withBaseURL("http://localhost:" + server.getAddress().getPort() + "/api")
+                    .withCache(tempDir.resolve("cache").toFile(), 1024 * 1024)
+                    .withParallelism(3)
+                    .withRateLimit(0));
+
+            List<String> toolIDs = List.of("a", "b", "c", "d", "e");
+            JSONArray first = BioToolsAPI.getToolListFromBioTools(toolIDs);
+            JSONArray second = BioToolsAPI.getToolListFromBioTools(toolIDs);
+
+            for (int i = 0; i < toolIDs.size(); i++) {
+                assertEquals(toolIDs.get(i), first.getJSONObject(i).getString("biotoolsID"));
+                assertEquals(toolIDs.get(i), second.getJSONObject(i).getString("biotoolsID"));
+            }
+            assertEquals(toolIDs.size(), fullResponses.get(), "Each tool should be downloaded only once.");
+            assertEquals(toolIDs.size(), notModifiedResponses.get(), "Cached tools should be revalidated.");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Fetch a paginated list of tools from a local stub server, and check that the
+     * pages after the first one are requested concurrently and that the tools are
+     * kept in the order of the pages.
+     */
+    @Test
+    void testParallelPaginatedFetchFromStub() throws Exception {
+        int noTools = 25;
+        int pageSize = 5;
+        int noPages = (noTools + pageSize - 1) / pageSize;
+        /* The remaining pages are answered only once all of them were requested. */
+        CountDownLatch remainingPages = new CountDownLatch(noPages - 1);
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/t", exchange -> {
+            requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            int page = query.contains("page=") ? Integer.parseInt(query.replaceAll(".*page=(\\d+).*", "$1")) : 1;
+            if (page > 1) {
+                remainingPages.countDown();
+                try {
+                    remainingPages.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            JSONArray tools = new JSONArray();
+            for (int i = (page - 1) * pageSize; i < Math.min(page * pageSize, noTools); i++) {
+                tools.put(createTool(i));
+            }
+            respond(exchange, new JSONObject().put("count", noTools)
+                    .put("next", page < noPages ? "?page=" + (page + 1) : JSONObject.NULL)
+                    .put("list", tools).toString());
+        });
+        server.start();
+        try {
+            BioToolsAPI.setConfig(BioToolsClientConfig.DEFAULT
+                    .withBaseURL("http://localhost:" + server.getAddress().getPort() + "/api")
+                    .withParallelism(noPages - 1)
+                    .withRateLimit(0));
+
+            JSONArray functions = BioToolsAPI.getToolsFromDomain("proteomics", false).getJSONArray("functions");
+
+            assertEquals(0, remainingPages.getCount(), "The remaining pages should be requested concurrently.");
+            assertEquals(noPages, requests.get());
+            assertEquals(noTools, functions.length());
+            for (int i = 0; i < noTools; i++) {
+                assertEquals("tool" + i, functions.getJSONObject(i).getString("biotoolsID"));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static JSONObject createTool(int i) {
+        JSONObject type = new JSONObject().put("uri", "http://edamontology.org/data_000" + i);
+        JSONObject format = new JSONObject().put("uri", "http://edamontology.org/format_000" + i);
+        JSONObject io = new JSONObject().put("data", type).put("format", new JSONArray().put(format));
+        JSONObject function = new JSONObject()
+                .put("operation", new JSONArray().put(new JSONObject().put("uri", "op" + i)))
+                .put("input", new JSONArray().put(io))
+                .put("output", new JSONArray().put(io));
+        return new JSONObject().put("name", "tool" + i).put("biotoolsID", "tool" + i)
+                .put("function", new JSONArray().put(function));
+    }
+
+    /**
+     * Convert a bio.tools dump in a streaming fashion and compare the result with
+     * the in-memory conversion.
+     */
+    @Test
+    void testConvertBioToolsDump() throws IOException {
+        JSONArray tools = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            JSONObject type = new JSONObject().put("uri", "http://edamontology.org/data_000" + i);
+            JSONObject format = new JSONObject().put("uri", "http://edamontology.org/format_000" + i);
+            JSONObject io = new JSONObject().put("data", type).put("format", new JSONArray().put(format));
+            JSONObject function = new JSONObject()
+                    .put("operation", new JSONArray().put(new JSONObject().put("uri", "op" + i)))
+                    .put("input", new JSONArray().put(io))
+                    .put("output", i == 1 ? new JSONArray() : new JSONArray().put(io));
+            tools.put(new JSONObject().put("name", "tool" + i).put("biotoolsID", "tool" + i)
+                    .put("function", new JSONArray().put(function)));
+        }
+        JSONObject expected = BioToolsAPI.convertBioTools2Ape(tools, true);
+
+        File dump = tempDir.resolve("biotoolsDump.json").toFile();
+        File destination = tempDir.resolve("apeTools.json").toFile();
+        Files.writeString(dump.toPath(), new JSONObject().put("count", 3).put("next", JSONObject.NULL)
+                .put("list", tools).toString());
+
+        int created = BioToolsAPI.convertBioToolsDump2Ape(dump, destination, true);
+
+        assertEquals(2, created, "Tool without outputs should be excluded");
+        JSONObject result = new JSONObject(Files.readString(destination.toPath()));
+        assertTrue(expected.similar(result), "Streaming and in-memory conversion should match");
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
     @Test
     void testGetAndConvertToolListFromFile() throws IOException {
         // Call the method and get the result
@@ -0,0 +1,234 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.minisat.CNFPreprocessor;
+import nl.uu.cs.ape.solver.minisat.DimacsSymbolTable;
+
+/**
+ * Tests the simplification of the CNF encodings.
+ */
+class CNFPreprocessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void preprocessingKeepsTheSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> solutions = SolutionSets
+                .describe(ape.runSynthesis(new JSONObject(config.toString()).put("cnf_preprocessing", false)));
+        List<String> preprocessedSolutions = SolutionSets
+                .describe(ape.runSynthesis(new JSONObject(config.toString()).put("cnf_preprocessing", true)));
+        assertEquals(32, solutions.size());
+        assertEquals(solutions, preprocessedSolutions);
+    }
+
+    @Test
+    void unfrozenVariableIsEliminated() {
+        List<int[]> formula = List.of(new int[] { 1, 2 }, new int[] { -2, 3 });
+        CNFPreprocessor preprocessor = preprocess(formula, 3, var -> var != 2);
+
+        assertEquals(1, preprocessor.getClauses().size());
+        assertArrayEquals(new int[] { 1, 3 }, preprocessor.getClauses().get(0));
+    }
+
+    @Test
+    void chainOfUnfrozenVariablesIsEliminated() {
+        /* x1 -> y2 -> ... -> y9 -> x10, where only the x variables are frozen. */
+        List<int[]> formula = new ArrayList<>();
+        for (int var = 1; var < 10; var++) {
+            formula.add(new int[] { -var, var + 1 });
+        }
+        CNFPreprocessor preprocessor = preprocess(formula, 10, var -> var == 1 || var == 10);
+
+        assertEquals(1, preprocessor.getClauses().size());
+        assertArrayEquals(new int[] { -1, 10 }, preprocessor.getClauses().get(0));
+    }
+
+    @Test
+    void synthesisEncodingIsReduced() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        Path cnfFile = tempDir.resolve("problem.cnf");
+        DimacsSymbolTable symbolTable = ape.exportProblem(config, 5, cnfFile, tempDir.resolve("problem.json"));
+
+        /* Only the variables that describe the solutions are frozen. */
+        Set<Integer> describedVariables = new HashSet<>();
+        JSONObject atoms = symbolTable.toJSON().getJSONObject("atoms");
+        for (String atomType : atoms.keySet()) {
+            JSONArray values = atoms.getJSONArray(atomType);
+            for (int i = 0; i < values.length(); i += 3) {
+                describedVariables.add(values.getInt(i));
+            }
+        }
+        CNFPreprocessor preprocessor = CNFPreprocessor.fromDimacs(cnfFile.toFile(), describedVariables::contains);
+        assertTrue(preprocessor.simplify());
+
+        String[] header = Files.readAllLines(cnfFile, StandardCharsets.UTF_8).stream()
+                .filter(line -> line.startsWith("p")).findFirst().orElseThrow().trim().split("\\s+");
+        int noVariables = Integer.parseInt(header[2]);
+        int noClauses = Integer.parseInt(header[3]);
+        List<int[]> clauses = preprocessor.getClauses();
+        assertTrue(clauses.size() < noClauses, clauses.size() + " >= " + noClauses);
+
+        Set<Integer> remainingVariables = new HashSet<>();
+        clauses.forEach(clause -> {
+            for (int literal : clause) {
+                remainingVariables.add(Math.abs(literal));
+            }
+        });
+        remainingVariables.removeAll(describedVariables);
+        assertTrue(remainingVariables.size() < noVariables - describedVariables.size());
+    }
+
+    @Test
+    void frozenVariableIsKept() {
+        List<int[]> formula = List.of(new int[] { 1, 2 }, new int[] { -2, 3 });
+        CNFPreprocessor preprocessor = preprocess(formula, 3, var -> true);
+
+        assertEquals(2, preprocessor.getClauses().size());
+        assertTrue(preprocessor.getClauses().stream().allMatch(clause -> contains(clause, 2)));
+    }
+
+    @Test
+    void fixedFrozenVariablesAreKeptAsUnits() {
+        List<int[]> formula = List.of(new int[] { 1 }, new int[] { -1, -2 }, new int[] { 2, 3, 4 });
+        CNFPreprocessor preprocessor = preprocess(formula, 4, var -> var <= 2);
+
+        List<int[]> clauses = preprocessor.getClauses();
+        assertTrue(clauses.stream().anyMatch(clause -> clause.length == 1 && clause[0] == 1));
+        assertTrue(clauses.stream().anyMatch(clause -> clause.length == 1 && clause[0] == -2));
+        assertTrue(clauses.stream().noneMatch(clause -> contains(clause, 3) || contains(clause, 4)));
+    }
+
+    @Test
+    void contradictionIsDetected() {
+        CNFPreprocessor preprocessor = new CNFPreprocessor(2, var -> true);
+        preprocessor.addClause(new int[] { 1, 2 });
+        preprocessor.addClause(new int[] { -1 });
+        preprocessor.addClause(new int[] { -2 });
+
+        assertFalse(preprocessor.simplify());
+        assertThrows(ContradictionException.class, () -> preprocessor.load(SolverFactory.newDefault()));
+    }
+
+    @Test
+    void simplifiedFormulaHasTheSameModelsOfTheFrozenVariables() {
+        Random random = new Random(42);
+        int noVariables = 8;
+        IntPredicate frozen = var -> var % 2 == 1;
+        for (int formulaNo = 0; formulaNo < 300; formulaNo++) {
+            List<int[]> formula = new ArrayList<>();
+            int noClauses = 4 + random.nextInt(24);
+            for (int i = 0; i < noClauses; i++) {
+                int[] clause = new int[1 + random.nextInt(3)];
+                for (int j = 0; j < clause.length; j++) {
+                    int var = 1 + random.nextInt(noVariables);
+                    clause[j] = random.nextBoolean() ? var : -var;
+                }
+                formula.add(clause);
+            }
+            CNFPreprocessor preprocessor = new CNFPreprocessor(noVariables, frozen);
+            formula.forEach(preprocessor::addClause);
+            boolean satisfiable = preprocessor.simplify();
+            List<int[]> simplified = satisfiable ? preprocessor.getClauses() : List.of(new int[0]);
+
+            /* Compare the formulas under each assignment of the frozen variables. */
+            for (int frozenValues = 0; frozenValues < (1 << noVariables); frozenValues++) {
+                if (!isFrozenAssignment(frozenValues, noVariables, frozen)) {
+                    continue;
+                }
+                assertEquals(isSatisfiable(formula, noVariables, frozen, frozenValues),
+                        isSatisfiable(simplified, noVariables, frozen, frozenValues),
+                        "Formula " + formulaNo + " differs under the assignment " + frozenValues);
+            }
+        }
+    }
+
+    private static CNFPreprocessor preprocess(List<int[]> formula, int noVariables, IntPredicate frozen) {
+        CNFPreprocessor preprocessor = new CNFPreprocessor(noVariables, frozen);
+        formula.forEach(preprocessor::addClause);
+        assertTrue(preprocessor.simplify());
+        return preprocessor;
+    }
+
+    private static boolean contains(int[] clause, int var) {
+        for (int literal : clause) {
+            if (Math.abs(literal) == var) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the assignment (a bit per variable) sets only the frozen
+     * variables.
+     */
+    private static boolean isFrozenAssignment(int assignment, int noVariables, IntPredicate frozen) {
+        for (int var = 1; var <= noVariables; var++) {
+            if (!frozen.test(var) && (assignment & (1 << (var - 1))) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the formula has a model that extends the assignment of the
+     * frozen variables.
+     */
+    private static boolean isSatisfiable(List<int[]> formula, int noVariables, IntPredicate frozen,
+            int frozenValues) {
+        for (int assignment = 0; assignment < (1 << noVariables); assignment++) {
+            boolean extendsFrozen = true;
+            for (int var = 1; var <= noVariables && extendsFrozen; var++) {
+                int bit = 1 << (var - 1);
+                extendsFrozen = !frozen.test(var) || (assignment & bit) == (frozenValues & bit);
+            }
+            if (extendsFrozen && satisfies(formula, assignment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean satisfies(List<int[]> formula, int assignment) {
+        for (int[] clause : formula) {
+            boolean satisfied = false;
+            for (int literal : clause) {
+                boolean value = (assignment & (1 << (Math.abs(literal) - 1))) != 0;
+                satisfied |= (literal > 0) == value;
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.models.enums.SynthesisFlag;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests that a synthesis run stops once it is cancelled or its deadline is
+ * reached, returning the solutions found so far.
+ */
+class CancellationTest {
+
+    /**
+     * @return configuration of a run that would take much longer than the tests,
+     *         i.e. an unconstrained run with long workflows
+     */
+    private static JSONObject getLongRunConfig() {
+        JSONObject config = SolutionSets.getGMTConfig(1000000, 10);
+        config.remove("constraints_path");
+        return config;
+    }
+
+    @Test
+    void cancelledRunStops() throws Exception {
+        JSONObject config = getLongRunConfig();
+        APE ape = new APE(config);
+        CancellationToken cancellation = new CancellationToken();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SolutionsList> run = executor.submit(() -> ape.runSynthesis(config, cancellation));
+            Thread.sleep(2000);
+            assertFalse(run.isDone());
+            cancellation.cancel();
+            SolutionsList solutions = run.get(30, TimeUnit.SECONDS);
+
+            assertEquals(SynthesisFlag.CANCELLED, solutions.getFlag());
+            assertTrue(solutions.getNumberOfSolutions() < 1000000);
+            /* The solutions found before the cancellation are kept. */
+            assertSolutionsOfShortWorkflows(solutions);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredDeadlineStopsRun() throws Exception {
+        JSONObject config = getLongRunConfig();
+        APE ape = new APE(config);
+        long start = System.currentTimeMillis();
+        SolutionsList solutions = ape.runSynthesis(config, CancellationToken.withTimeout(2000));
+
+        assertTrue(System.currentTimeMillis() - start < 30000);
+        assertEquals(SynthesisFlag.TIMEOUT, solutions.getFlag());
+        assertSolutionsOfShortWorkflows(solutions);
+    }
+
+    @Test
+    void cancelledTokenStopsBeforeEncoding() throws Exception {
+        JSONObject config = getLongRunConfig();
+        APE ape = new APE(config);
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+        SolutionsList solutions = ape.runSynthesis(config, cancellation);
+
+        assertEquals(SynthesisFlag.CANCELLED, solutions.getFlag());
+        assertEquals(0, solutions.getNumberOfSolutions());
+    }
+
+    /**
+     * Check that the solutions of the interrupted run of length up to 3 are the
+     * same as the ones of the complete run.
+     */
+    private static void assertSolutionsOfShortWorkflows(SolutionsList solutions) {
+        List<String> expected = SolutionSets.readSolutions("cli/gmt/solutions_unconstrained.txt");
+        List<String> found = SolutionSets.describeGMT(solutions);
+        for (String solution : found) {
+            if (Integer.parseInt(solution.substring(0, solution.indexOf(' '))) <= 3) {
+                assertTrue(expected.contains(solution), solution);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.minisat.DimacsSymbolTable;
+
+/**
+ * Tests solving the exported DIMACS problems by an external solver.
+ */
+class DimacsExportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void importedModelsMatchTheSynthesis() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        config.put("solution_length", new JSONObject().put("min", 5).put("max", 5));
+        APE ape = new APE(config);
+        List<String> solutions = SolutionSets.describe(ape.runSynthesis(config));
+        assertEquals(32, solutions.size());
+
+        Path cnfFile = tempDir.resolve("problem.cnf");
+        Path symbolsFile = tempDir.resolve("problem.symbols.json");
+        DimacsSymbolTable symbolTable = ape.exportProblem(config, 5, cnfFile, symbolsFile);
+
+        /* Enumerate the models that differ in the variables describing the solutions. */
+        Path modelFile = tempDir.resolve("models.txt");
+        Files.writeString(modelFile, "s SATISFIABLE\n" + enumerateModels(cnfFile, describedVariables(symbolTable)),
+                StandardCharsets.UTF_8);
+        List<String> importedSolutions = SolutionSets
+                .describe(ape.importModels(config, symbolsFile, List.of(modelFile)));
+        assertEquals(solutions, importedSolutions);
+    }
+
+    /**
+     * Get the variables of the problem that are described by the symbol table.
+     */
+    private static Set<Integer> describedVariables(DimacsSymbolTable symbolTable) {
+        Set<Integer> variables = new HashSet<>();
+        JSONObject atoms = symbolTable.toJSON().getJSONObject("atoms");
+        for (String atomType : atoms.keySet()) {
+            JSONArray values = atoms.getJSONArray(atomType);
+            for (int i = 0; i < values.length(); i += 3) {
+                variables.add(values.getInt(i));
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Find all the models of the problem using sat4j, as an external solver
+     * would, and write them in the SAT competition format.
+     */
+    private static String enumerateModels(Path cnfFile, Set<Integer> describedVariables) throws Exception {
+        ISolver solver = SolverFactory.newDefault();
+        try (InputStream input = new FileInputStream(cnfFile.toFile())) {
+            new DimacsReader(solver).parseInstance(input);
+        }
+        StringBuilder models = new StringBuilder();
+        try {
+            while (solver.isSatisfiable()) {
+                int[] model = solver.model();
+                models.append("v");
+                List<Integer> blockingClause = new ArrayList<>();
+                for (int literal : model) {
+                    models.append(" ").append(literal);
+                    if (literal > 0 && describedVariables.contains(literal)) {
+                        blockingClause.add(-literal);
+                    }
+                }
+                models.append(" 0\n");
+                solver.addClause(new VecInt(blockingClause.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        } catch (ContradictionException e) {
+            /* All the models were found. */
+        }
+        return models.toString();
+    }
+}
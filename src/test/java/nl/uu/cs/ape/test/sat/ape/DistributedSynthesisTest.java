@@ -0,0 +1,43 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.minisat.SynthesisCoordinator;
+
+/**
+ * Tests the enumeration of the solutions by worker processes.
+ */
+class DistributedSynthesisTest {
+
+    @Test
+    void workersFindTheSameSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> solutions = SolutionSets.describe(ape.runSynthesis(new JSONObject(config.toString())));
+        assertEquals(32, solutions.size());
+
+        try (SynthesisCoordinator coordinator = new SynthesisCoordinator(0)) {
+            coordinator.startLocalWorkers(2);
+            List<String> distributedSolutions = SolutionSets.describe(ape.runDistributedSynthesis(
+                    new JSONObject(config.toString()), coordinator, new CancellationToken()));
+            assertEquals(solutions, distributedSolutions);
+
+            /* The workers are reused by the next run. */
+            List<String> boundedSolutions = SolutionSets.describe(ape.runDistributedSynthesis(
+                    SolutionSets.getGMTConfig(20, 5), coordinator, new CancellationToken()));
+            assertEquals(20, boundedSolutions.size());
+            assertEquals(20, new HashSet<>(boundedSolutions).size());
+            assertTrue(solutions.containsAll(boundedSolutions));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.sat.test.utils.TestResources;
+
+/**
+ * Tests reading an ontology whose subclass hierarchy contains cycles.
+ */
+class OntologyCycleTest {
+
+    private static final String PREFIX = "http://www.co-ode.org/ontologies/ont.owl#";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void cyclicSubclassesAreIgnored() throws Exception {
+        String ontology = Files.readString(
+                Path.of(TestResources.getAbsoluteResourcePath("cli/gmt/GMT_UseCase_taxonomy.owl")),
+                StandardCharsets.UTF_8);
+        /* Close a cycle in the tool and in the type taxonomy. */
+        ontology = addSuperClass(ontology, "Adding_data", "Adding_color_palette");
+        ontology = addSuperClass(ontology, "Data_tables", "ASCII");
+        Path ontologyFile = tempDir.resolve("cyclic_taxonomy.owl");
+        Files.writeString(ontologyFile, ontology, StandardCharsets.UTF_8);
+
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5).put("ontology_path", ontologyFile.toString());
+        APE ape = new APE(config);
+        assertNotNull(ape.getDomainSetup().getAllModules().get(PREFIX + "Adding_color_palette"));
+        assertNotNull(ape.getDomainSetup().getAllTypes().get(PREFIX + "ASCII", PREFIX + "TypesTaxonomy"));
+        assertEquals(32, ape.runSynthesis(config).getNumberOfSolutions());
+    }
+
+    private static String addSuperClass(String ontology, String subClass, String superClass) {
+        String declaration = "<owl:Class rdf:about=\"" + PREFIX + subClass + "\">";
+        return ontology.replace(declaration,
+                declaration + "\n        <rdfs:subClassOf rdf:resource=\"" + PREFIX + superClass + "\"/>");
+    }
+}
@@ -0,0 +1,53 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+
+/**
+ * Tests the enumeration of the solutions by several solvers in parallel.
+ */
+class ParallelEnumerationTest {
+
+    @Test
+    void parallelSolversFindTheSameSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> solutions = run(ape, config, 1);
+        assertEquals(32, solutions.size());
+        assertEquals(solutions, run(ape, config, 4));
+    }
+
+    @Test
+    void parallelSolversRespectTheNumberOfSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> allSolutions = run(ape, config, 1);
+
+        List<String> solutions = run(ape, SolutionSets.getGMTConfig(20, 5), 4);
+        assertEquals(20, solutions.size());
+        assertEquals(20, new HashSet<>(solutions).size());
+        assertTrue(allSolutions.containsAll(solutions));
+
+        /* The shorter workflows are all found before the longer ones. */
+        List<String> longerSolutions = run(ape, SolutionSets.getGMTConfig(40, 6), 4);
+        assertEquals(40, longerSolutions.size());
+        assertEquals(40, new HashSet<>(longerSolutions).size());
+        assertEquals(allSolutions, longerSolutions.stream().filter(solution -> solution.startsWith("5 "))
+                .collect(Collectors.toList()));
+    }
+
+    private static List<String> run(APE ape, JSONObject config, int noThreads) throws Exception {
+        return SolutionSets.describe(ape.runSynthesis(new JSONObject(config.toString())
+                .put("solver_threads", noThreads)));
+    }
+}
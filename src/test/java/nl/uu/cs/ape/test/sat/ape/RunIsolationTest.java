@@ -0,0 +1,97 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.models.AllTypes;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+
+/**
+ * Tests that synthesis runs over the same domain, with different workflow
+ * inputs and outputs, do not affect each other or the loaded domain.
+ */
+class RunIsolationTest {
+
+    /**
+     * @return configuration of an unconstrained run of the GMT use case
+     */
+    private static JSONObject getUnconstrainedConfig() {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 3);
+        config.remove("constraints_path");
+        return config;
+    }
+
+    /**
+     * @return configuration of a run with a different, labelled workflow input
+     */
+    private static JSONObject getLabelledConfig() {
+        return getUnconstrainedConfig().put("inputs", new JSONArray().put(new JSONObject()
+                .put("TypesTaxonomy", new JSONArray().put("NetCDF_files"))
+                .put(AllTypes.getLabelRootID(), new JSONArray().put("my_table"))));
+    }
+
+    @Test
+    void concurrentRunsAreIsolated() throws Exception {
+        APE ape = new APE(getUnconstrainedConfig());
+        List<String> unconstrained = SolutionSets.readSolutions("cli/gmt/solutions_unconstrained.txt");
+        List<String> labelled = SolutionSets.describeGMT(new APE(getLabelledConfig())
+                .runSynthesis(getLabelledConfig()));
+        assertFalse(labelled.isEmpty());
+        assertFalse(labelled.equals(unconstrained));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<List<String>>> runs = new ArrayList<>();
+            List<List<String>> expected = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                /* Configurations given as JSON objects. */
+                runs.add(() -> SolutionSets.describeGMT(ape.runSynthesis(getUnconstrainedConfig())));
+                expected.add(unconstrained);
+                runs.add(() -> SolutionSets.describeGMT(ape.runSynthesis(getLabelledConfig())));
+                expected.add(labelled);
+                /* Configurations created over the loaded domain. */
+                runs.add(() -> SolutionSets.describeGMT(
+                        ape.runSynthesis(new APERunConfig(getLabelledConfig(), ape.getDomainSetup()))));
+                expected.add(labelled);
+            }
+            List<Future<List<String>>> results = executor.invokeAll(runs);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get(i), results.get(i).get(), "Run " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void runsDoNotModifyTheDomain() throws Exception {
+        APE ape = new APE(getUnconstrainedConfig());
+        AllTypes allTypes = ape.getDomainSetup().getAllTypes();
+        int noTypes = allTypes.size();
+        int noLabels = allTypes.getLabelRoot().getSubPredicates().size();
+
+        APERunConfig runConfig = new APERunConfig(getLabelledConfig(), ape.getDomainSetup());
+        ape.runSynthesis(runConfig);
+        ape.runSynthesis(getLabelledConfig());
+
+        assertNull(allTypes.get("my_table"));
+        assertEquals(noLabels, allTypes.getLabelRoot().getSubPredicates().size());
+        assertEquals(noTypes, allTypes.size());
+        assertEquals(SolutionSets.readSolutions("cli/gmt/solutions_unconstrained.txt"),
+                SolutionSets.describeGMT(ape.runSynthesis(getUnconstrainedConfig())));
+    }
+}
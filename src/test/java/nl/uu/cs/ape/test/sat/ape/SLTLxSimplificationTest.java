@@ -0,0 +1,111 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.models.sltlxStruc.SLTLxFormula;
+import nl.uu.cs.ape.models.sltlxStruc.SLTLxVariableSubstitutionCollection;
+import nl.uu.cs.ape.parserSLTLx.SLTLxSATVisitor;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.sat.test.utils.TestResources;
+import nl.uu.cs.ape.solver.minisat.SATSynthesisEngine;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the simplification of the SLTLx formulas before their encoding.
+ */
+class SLTLxSimplificationTest {
+
+    /**
+     * Formulas with constants, double negations and negated boolean operators,
+     * which are rewritten by the simplification.
+     */
+    private static final List<String> FORMULAS = List.of(
+            "!(!(F <'psxy_l'(;)> true) | !true)",
+            "G (<'pscoast_I'(;)> true -> !(!true | !!(X F <'pscoast_W'(;)> true)))",
+            "!(F <'pscoast_S'(;)> true & (true <-> !!true))");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void simplificationKeepsTheSolutions() throws Exception {
+        JSONObject config = getConfig();
+        APE ape = new APE(config);
+        List<String> solutions = SolutionSets
+                .describe(ape.runSynthesis(new JSONObject(config.toString()).put("sltlx_simplification", false)));
+        List<String> simplifiedSolutions = SolutionSets
+                .describe(ape.runSynthesis(new JSONObject(config.toString()).put("sltlx_simplification", true)));
+        assertEquals(12, solutions.size());
+        assertEquals(solutions, simplifiedSolutions);
+    }
+
+    @Test
+    void simplificationReducesTheEncoding() throws Exception {
+        JSONObject config = getConfig();
+        APE ape = new APE(config);
+        APERunConfig runConfig = new APERunConfig(config, ape.getDomainSetup());
+        SATSynthesisEngine engine = new SATSynthesisEngine(runConfig.getApeDomainSetup(),
+                new SolutionsList(runConfig), runConfig, 5);
+        int[] size = new int[2];
+        int[] simplifiedSize = new int[2];
+        try {
+            for (String formula : FORMULAS) {
+                for (SLTLxFormula fact : SLTLxSATVisitor.parseFormula(engine, formula)) {
+                    int[] factSize = encodingSize(fact, engine);
+                    int[] simplifiedFactSize = encodingSize(fact.simplify(), engine);
+                    assertTrue(simplifiedFactSize[0] <= factSize[0], formula);
+                    assertTrue(simplifiedFactSize[1] <= factSize[1], formula);
+                    for (int i = 0; i < 2; i++) {
+                        size[i] += factSize[i];
+                        simplifiedSize[i] += simplifiedFactSize[i];
+                    }
+                }
+            }
+        } finally {
+            engine.deleteTempFiles();
+        }
+        assertTrue(simplifiedSize[0] < size[0], simplifiedSize[0] + " >= " + size[0] + " clauses");
+        assertTrue(simplifiedSize[1] < size[1], simplifiedSize[1] + " >= " + size[1] + " literals");
+    }
+
+    /**
+     * @return the number of clauses and the number of literals of the encoding of
+     *         the formula
+     */
+    private static int[] encodingSize(SLTLxFormula formula, SATSynthesisEngine engine) {
+        Set<String> clauses = formula.getCNFEncoding(0, new SLTLxVariableSubstitutionCollection(), engine);
+        int literals = 0;
+        for (String clause : clauses) {
+            /* Each clause is terminated by 0. */
+            literals += clause.trim().split("\\s+").length - 1;
+        }
+        return new int[] { clauses.size(), literals };
+    }
+
+    private JSONObject getConfig() throws Exception {
+        JSONObject constraints = new JSONObject(Files.readString(
+                Path.of(TestResources.getAbsoluteResourcePath("cli/gmt/constraints_e0.json")),
+                StandardCharsets.UTF_8));
+        JSONArray constraintList = constraints.getJSONArray("constraints");
+        for (String formula : FORMULAS) {
+            constraintList.put(new JSONObject().put("constraintid", "SLTLx").put("formula", formula));
+        }
+        Path constraintsFile = tempDir.resolve("constraints.json");
+        Files.writeString(constraintsFile, constraints.toString(), StandardCharsets.UTF_8);
+        return SolutionSets.getGMTConfig(1000, 5).put("constraints_path", constraintsFile.toString());
+    }
+}
@@ -0,0 +1,52 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * Tests the recognition of the solutions with the same data flow.
+ */
+class SolutionFingerprintTest {
+
+    @Test
+    void fingerprintsAgreeWithTheDataFlow() throws Exception {
+        List<SolutionWorkflow> solutions = run(false);
+        assertEquals(300, solutions.size());
+        /* The tools that do not depend on each other can be reordered. */
+        assertTrue(solutions.stream().map(SolutionWorkflow::getFingerprint).distinct().count() < solutions.size());
+        for (SolutionWorkflow solution : solutions) {
+            assertTrue(solution.hasSameDataFlow(solution));
+            for (SolutionWorkflow other : solutions) {
+                assertEquals(solution.hasSameDataFlow(other), solution.getFingerprint() == other.getFingerprint(),
+                        SolutionSets.describe(solution) + " / " + SolutionSets.describe(other));
+            }
+        }
+    }
+
+    @Test
+    void duplicatesAreFilteredOut() throws Exception {
+        List<SolutionWorkflow> solutions = run(true);
+        assertEquals(300, solutions.size());
+        for (int i = 0; i < solutions.size(); i++) {
+            for (int j = i + 1; j < solutions.size(); j++) {
+                assertFalse(solutions.get(i).hasSameDataFlow(solutions.get(j)));
+            }
+        }
+    }
+
+    private static List<SolutionWorkflow> run(boolean filterDuplicates) throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(300, 6).put("filter_duplicates", filterDuplicates);
+        return new APE(config).runSynthesis(config).getStream().collect(Collectors.toList());
+    }
+}
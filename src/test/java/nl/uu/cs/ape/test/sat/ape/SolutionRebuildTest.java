@@ -0,0 +1,54 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.cwl.DefaultCWLCreator;
+
+/**
+ * Tests that the structure of the solutions, once released, is rebuilt from
+ * the stored literals into the same workflows.
+ */
+class SolutionRebuildTest {
+
+    @Test
+    void releasedSolutionsAreRebuiltIdentically() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        SolutionsList solutions = new APE(config).runSynthesis(config);
+        assertEquals(32, solutions.getNumberOfSolutions());
+
+        List<List<String>> outputs = new ArrayList<>();
+        List<Object> moduleNodes = new ArrayList<>();
+        for (int i = 0; i < solutions.getNumberOfSolutions(); i++) {
+            SolutionWorkflow solution = solutions.get(i);
+            outputs.add(describe(solution));
+            moduleNodes.add(solution.getModuleNodes());
+            solution.release();
+        }
+        for (int i = 0; i < solutions.getNumberOfSolutions(); i++) {
+            SolutionWorkflow solution = solutions.get(i);
+            assertEquals(outputs.get(i), describe(solution));
+            assertNotSame(moduleNodes.get(i), solution.getModuleNodes());
+        }
+    }
+
+    /**
+     * @return the representations of the solution that are derived from its
+     *         structure
+     */
+    private static List<String> describe(SolutionWorkflow solution) {
+        return List.of(solution.getReadableSolution(), solution.getGraphDotFormat(),
+                solution.getScriptExecution(), new DefaultCWLCreator(solution).generate(),
+                solution.getNativeSolution().getRelevantSolution(), Long.toString(solution.getFingerprint()));
+    }
+}
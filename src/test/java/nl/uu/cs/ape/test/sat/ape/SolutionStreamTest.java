@@ -0,0 +1,94 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.models.enums.SolutionStreamFormat;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.SynthesisSession;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionStreamWriter;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.cwl.DefaultCWLCreator;
+
+/**
+ * Tests writing the solutions while they are found and reading them back.
+ */
+class SolutionStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void ndjsonRoundTrip() throws Exception {
+        roundTrip(SolutionStreamFormat.NDJSON);
+    }
+
+    @Test
+    void binaryRoundTrip() throws Exception {
+        roundTrip(SolutionStreamFormat.BINARY);
+    }
+
+    @Test
+    void binaryFormatIsSmallerThanNdjson() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        SolutionsList solutions = new APE(config).runSynthesis(new JSONObject(config.toString()));
+        Path ndjsonFile = tempDir.resolve(SolutionStreamFormat.NDJSON.getFileName());
+        Path binaryFile = tempDir.resolve(SolutionStreamFormat.BINARY.getFileName());
+        try (SolutionStreamWriter ndjson = new SolutionStreamWriter(ndjsonFile, SolutionStreamFormat.NDJSON);
+                SolutionStreamWriter binary = new SolutionStreamWriter(binaryFile, SolutionStreamFormat.BINARY)) {
+            ndjson.writeAll(solutions);
+            binary.writeAll(solutions);
+        }
+        assertTrue(Files.size(binaryFile) < Files.size(ndjsonFile));
+    }
+
+    @Test
+    void solutionsAreWrittenWhileFound() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        Path solutionsFile = tempDir.resolve(SolutionStreamFormat.NDJSON.getFileName());
+
+        try (SynthesisSession session = ape.startSession(new JSONObject(config.toString()));
+                SolutionStreamWriter writer = new SolutionStreamWriter(solutionsFile, SolutionStreamFormat.NDJSON)) {
+            session.getSolutions().addSolutionListener(writer);
+            SolutionsList solutions = session.next(5);
+            writer.flush();
+
+            /* The header and a line per solution found so far. */
+            assertEquals(6, Files.readAllLines(solutionsFile).size());
+            assertEquals(SolutionSets.describe(solutions),
+                    SolutionSets.describe(ape.readSolutions(new JSONObject(config.toString()), solutionsFile)));
+        }
+    }
+
+    private void roundTrip(SolutionStreamFormat format) throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5).put("solutions_dir_path", tempDir.toString());
+        APE ape = new APE(config);
+        APERunConfig runConfig = new APERunConfig(new JSONObject(config.toString()), ape.getDomainSetup());
+        SolutionsList synthesisedSolutions = ape.runSynthesis(runConfig, new CancellationToken(), format);
+        List<String> solutions = SolutionSets.describe(synthesisedSolutions);
+        assertEquals(32, solutions.size());
+
+        Path solutionsFile = tempDir.resolve(format.getFileName());
+        assertTrue(Files.exists(solutionsFile));
+        SolutionsList readSolutions = ape.readSolutions(new JSONObject(config.toString()), solutionsFile);
+        assertEquals(solutions, SolutionSets.describe(readSolutions));
+
+        /* The solutions are read in the order they were found, with the same data flow. */
+        for (int i = 0; i < synthesisedSolutions.getNumberOfSolutions(); i++) {
+            assertEquals(new DefaultCWLCreator(synthesisedSolutions.get(i)).generate(),
+                    new DefaultCWLCreator(readSolutions.get(i)).generate());
+        }
+    }
+}
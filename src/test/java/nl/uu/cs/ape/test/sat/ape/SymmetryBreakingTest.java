@@ -0,0 +1,57 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * Tests the symmetry breaking over the independent tools.
+ */
+class SymmetryBreakingTest {
+
+    @Test
+    void symmetryBreakingKeepsTheDataFlows() throws Exception {
+        /* The symmetry breaking is applied only to the order independent constraints. */
+        JSONObject config = SolutionSets.getGMTConfig(100000, 3);
+        config.remove("constraints_path");
+        APE ape = new APE(config);
+        List<SolutionWorkflow> solutions = run(ape, config, false);
+        List<SolutionWorkflow> reducedSolutions = run(ape, config, true);
+
+        assertTrue(reducedSolutions.size() < solutions.size());
+        for (SolutionWorkflow solution : solutions) {
+            assertTrue(reducedSolutions.stream().anyMatch(solution::hasSameDataFlow),
+                    "Missing data flow of " + SolutionSets.describe(solution));
+        }
+        for (SolutionWorkflow solution : reducedSolutions) {
+            assertTrue(solutions.stream().anyMatch(solution::hasSameDataFlow),
+                    "Unexpected solution " + SolutionSets.describe(solution));
+        }
+    }
+
+    @Test
+    void orderDependentConstraintsKeepTheSolutions() throws Exception {
+        /* The constraints of the use case refer to the order of the tools. */
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> solutions = SolutionSets.describe(ape.runSynthesis(config));
+        assertEquals(32, solutions.size());
+        assertEquals(solutions, SolutionSets.describe(
+                ape.runSynthesis(new JSONObject(config.toString()).put("symmetry_breaking", true))));
+    }
+
+    private static List<SolutionWorkflow> run(APE ape, JSONObject config, boolean symmetryBreaking)
+            throws Exception {
+        return ape.runSynthesis(new JSONObject(config.toString()).put("symmetry_breaking", symmetryBreaking))
+                .getStream().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,126 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.enums.SynthesisFlag;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.sat.test.utils.TestResources;
+import nl.uu.cs.ape.solver.CancellationToken;
+import nl.uu.cs.ape.solver.SynthesisResultCache;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the reuse of the synthesis results stored in the cache.
+ */
+class SynthesisResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void repeatedRunHitsTheCache() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        SynthesisResultCache cache = new SynthesisResultCache(10);
+        ape.setResultCache(cache);
+        String key = computeKey(ape, config);
+
+        assertNull(lookup(cache, key, ape, config));
+        SolutionsList synthesisedSolutions = ape.runSynthesis(new JSONObject(config.toString()));
+        List<String> solutions = SolutionSets.describe(synthesisedSolutions);
+        assertEquals(32, solutions.size());
+        assertTrue(synthesisedSolutions.getEncodingTime() > 0);
+
+        SolutionsList cachedSolutions = lookup(cache, key, ape, config);
+        assertNotNull(cachedSolutions);
+        assertEquals(solutions, SolutionSets.describe(cachedSolutions));
+
+        /* The repeated run is neither encoded nor solved. */
+        SolutionsList repeatedSolutions = ape.runSynthesis(new JSONObject(config.toString()));
+        assertEquals(solutions, SolutionSets.describe(repeatedSolutions));
+        assertEquals(0, repeatedSolutions.getEncodingTime());
+        assertEquals(0, repeatedSolutions.getSatSolvingTime());
+        assertEquals(synthesisedSolutions.getFlag(), repeatedSolutions.getFlag());
+
+        cache.clear();
+        assertNull(lookup(cache, key, ape, config));
+    }
+
+    @Test
+    void interruptedRunIsNotCached() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        SynthesisResultCache cache = new SynthesisResultCache(10);
+        ape.setResultCache(cache);
+        CancellationToken cancellation = new CancellationToken();
+        cancellation.cancel();
+
+        SolutionsList solutions = ape.runSynthesis(new JSONObject(config.toString()), cancellation);
+        assertEquals(SynthesisFlag.CANCELLED, solutions.getFlag());
+        assertNull(lookup(cache, computeKey(ape, config), ape, config));
+    }
+
+    @Test
+    void storedResultsAreReadFromTheDirectory() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        ape.setResultCache(new SynthesisResultCache(10, tempDir));
+        List<String> solutions = SolutionSets.describe(ape.runSynthesis(new JSONObject(config.toString())));
+
+        SynthesisResultCache reopenedCache = new SynthesisResultCache(10, tempDir);
+        SolutionsList cachedSolutions = lookup(reopenedCache, computeKey(ape, config), ape, config);
+        assertNotNull(cachedSolutions);
+        assertEquals(solutions, SolutionSets.describe(cachedSolutions));
+    }
+
+    @Test
+    void keyDependsOnTheSpecificationOnly() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        String key = computeKey(ape, config);
+
+        /* The order of the constraints does not matter. */
+        JSONArray constraints = TestResources.getJSONResource("cli/gmt/constraints_e0.json")
+                .getJSONArray("constraints");
+        JSONArray reversedConstraints = new JSONArray();
+        for (int i = constraints.length() - 1; i >= 0; i--) {
+            reversedConstraints.put(constraints.get(i));
+        }
+        JSONObject reordered = new JSONObject(config.toString());
+        reordered.remove("constraints_path");
+        reordered.put("constraints", reversedConstraints);
+        assertEquals(key, computeKey(ape, reordered));
+
+        assertNotEquals(key, computeKey(ape, SolutionSets.getGMTConfig(1000, 6)));
+        assertNotEquals(key, computeKey(ape, SolutionSets.getGMTConfig(10, 5)));
+        assertNotEquals(key, computeKey(ape, new JSONObject(config.toString()).put("tool_seq_repeat", false)));
+    }
+
+    private static String computeKey(APE ape, JSONObject config) throws IOException {
+        APEDomainSetup domainSetup = ape.getDomainSetup().createRunOverlay();
+        return SynthesisResultCache.computeKey(new APERunConfig(new JSONObject(config.toString()), domainSetup),
+                domainSetup);
+    }
+
+    private static SolutionsList lookup(SynthesisResultCache cache, String key, APE ape, JSONObject config)
+            throws IOException {
+        APEDomainSetup domainSetup = ape.getDomainSetup().createRunOverlay();
+        return cache.lookup(key, new APERunConfig(new JSONObject(config.toString()), domainSetup), domainSetup);
+    }
+}
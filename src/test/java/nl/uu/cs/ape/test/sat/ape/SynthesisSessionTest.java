@@ -0,0 +1,80 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.SynthesisSession;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the continued search of the synthesis sessions.
+ */
+class SynthesisSessionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void continuedSessionFindsAllSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> expected = SolutionSets.describe(ape.runSynthesis(new JSONObject(config.toString())));
+
+        try (SynthesisSession session = ape.startSession(new JSONObject(config.toString()))) {
+            session.next(4);
+            assertEquals(4, session.getSolutions().getNumberOfSolutions());
+            assertFalse(session.isFinished());
+            session.next(1000);
+            assertEquals(expected, SolutionSets.describe(session.getSolutions()));
+            assertTrue(session.isFinished());
+        }
+    }
+
+    @Test
+    void resumedSessionNeitherRepeatsNorSkipsSolutions() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        List<String> expected = SolutionSets.describe(ape.runSynthesis(new JSONObject(config.toString())));
+
+        Path stateFile = tempDir.resolve("session.json");
+        List<String> foundBefore;
+        try (SynthesisSession session = ape.startSession(new JSONObject(config.toString()))) {
+            foundBefore = SolutionSets.describe(session.next(10));
+            session.save(stateFile);
+        }
+        assertEquals(10, foundBefore.size());
+
+        APE resumedApe = new APE(config);
+        try (SynthesisSession session = resumedApe.resumeSession(new JSONObject(config.toString()), stateFile)) {
+            assertEquals(foundBefore, SolutionSets.describe(session.getSolutions()));
+
+            List<SolutionWorkflow> notified = new ArrayList<>();
+            session.getSolutions().addSolutionListener(notified::add);
+            SolutionsList solutions = session.next(1000);
+            assertEquals(expected, SolutionSets.describe(solutions));
+
+            /* The resumed search finds only the solutions that were not found before. */
+            List<String> foundAfter = notified.stream().map(SolutionSets::describe).collect(Collectors.toList());
+            assertEquals(expected.size() - foundBefore.size(), foundAfter.size());
+            assertTrue(Collections.disjoint(foundBefore, foundAfter));
+            List<String> all = new ArrayList<>(foundBefore);
+            all.addAll(foundAfter);
+            Collections.sort(all);
+            assertEquals(expected, all);
+        }
+    }
+}
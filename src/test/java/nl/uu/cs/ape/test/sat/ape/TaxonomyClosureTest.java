@@ -0,0 +1,155 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.models.AllPredicates;
+import nl.uu.cs.ape.models.AllTypes;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.enums.NodeType;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.utils.APEUtils;
+
+/**
+ * Tests the indices and the closures of the taxonomies, which are used to
+ * represent sets of predicates as bit sets.
+ */
+class TaxonomyClosureTest {
+
+    @Test
+    void closuresMatchTheTaxonomy() throws Exception {
+        APE ape = new APE(SolutionSets.getGMTConfig(1, 1));
+        for (AllPredicates allPredicates : List.of(ape.getDomainSetup().getAllModules(),
+                ape.getDomainSetup().getAllTypes())) {
+            List<TaxonomyPredicate> predicates = predicates(allPredicates);
+            for (TaxonomyPredicate predicate : predicates) {
+                assertEquals(walk(allPredicates, predicate, true), allPredicates.getDescendants(predicate),
+                        "Descendants of " + predicate.getPredicateID());
+                BitSet ancestors = walk(allPredicates, predicate, false);
+                assertEquals(ancestors, allPredicates.getAncestors(predicate),
+                        "Ancestors of " + predicate.getPredicateID());
+                for (TaxonomyPredicate other : predicates) {
+                    assertEquals(ancestors.get(allPredicates.getPredicateIndex(other)),
+                            allPredicates.isSubPredicateOf(predicate, other));
+                }
+            }
+        }
+    }
+
+    @Test
+    void indicesFollowTheOrderOfThePredicates() throws Exception {
+        AllTypes allTypes = new APE(SolutionSets.getGMTConfig(1, 1)).getDomainSetup().getAllTypes();
+        AllTypes otherTypes = new APE(SolutionSets.getGMTConfig(1, 1)).getDomainSetup().getAllTypes();
+
+        /* Query the second taxonomy in a different order, the indices must not change. */
+        List<TaxonomyPredicate> shuffled = predicates(otherTypes);
+        Collections.shuffle(shuffled, new Random(42));
+        shuffled.forEach(otherTypes::getDescendants);
+
+        int previous = -1;
+        for (TaxonomyPredicate predicate : new TreeSet<>(predicates(allTypes))) {
+            int index = allTypes.getPredicateIndex(predicate);
+            assertTrue(index > previous);
+            assertEquals(index, otherTypes.getPredicateIndex(otherTypes.get(predicate.getPredicateID())));
+            previous = index;
+        }
+    }
+
+    @Test
+    void concurrentLookupsAgree() throws Exception {
+        AllTypes allTypes = new APE(SolutionSets.getGMTConfig(1, 1)).getDomainSetup().getAllTypes();
+        List<TaxonomyPredicate> predicates = predicates(allTypes);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Map<String, BitSet>>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Random random = new Random(i);
+                lookups.add(() -> {
+                    List<TaxonomyPredicate> order = new ArrayList<>(predicates);
+                    Collections.shuffle(order, random);
+                    Map<String, BitSet> descendants = new HashMap<>();
+                    for (TaxonomyPredicate predicate : order) {
+                        descendants.put(predicate.getPredicateID(), allTypes.getDescendants(predicate));
+                    }
+                    return descendants;
+                });
+            }
+            List<Future<Map<String, BitSet>>> results = executor.invokeAll(lookups);
+            for (Future<Map<String, BitSet>> result : results) {
+                assertEquals(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void extendingACopyKeepsTheIndices() throws Exception {
+        AllTypes allTypes = new APE(SolutionSets.getGMTConfig(1, 1)).getDomainSetup().getAllTypes();
+        Map<String, Integer> indices = new HashMap<>();
+        for (TaxonomyPredicate predicate : predicates(allTypes)) {
+            indices.put(predicate.getPredicateID(), allTypes.getPredicateIndex(predicate));
+        }
+        BitSet labels = allTypes.getDescendants(allTypes.getLabelRoot());
+
+        AllTypes copy = new AllTypes(allTypes);
+        Type newLabel = new Type("new_label", "new_label", AllTypes.getLabelRootID(), NodeType.LEAF);
+        copy.getLabelRoot().addSubPredicate(newLabel);
+        newLabel.addParentPredicate(copy.getLabelRoot());
+        copy.addPredicate(newLabel);
+
+        indices.forEach((id, index) -> assertEquals(index, copy.getPredicateIndex(copy.get(id))));
+        int newIndex = copy.getPredicateIndex(newLabel);
+        assertFalse(indices.containsValue(newIndex));
+        BitSet copyLabels = copy.getDescendants(copy.getLabelRoot());
+        assertTrue(copyLabels.get(newIndex));
+        copyLabels.clear(newIndex);
+        assertEquals(labels, copyLabels);
+        assertTrue(copy.isSubPredicateOf(newLabel, copy.getLabelRoot()));
+        assertEquals(labels, allTypes.getDescendants(allTypes.getLabelRoot()));
+    }
+
+    private static List<TaxonomyPredicate> predicates(AllPredicates allPredicates) {
+        List<TaxonomyPredicate> predicates = new ArrayList<>();
+        for (TaxonomyPredicate root : allPredicates.getRootPredicates()) {
+            for (TaxonomyPredicate predicate : allPredicates.getSubTaxonomy(root)) {
+                if (allPredicates.get(predicate.getPredicateID()) == predicate) {
+                    predicates.add(predicate);
+                }
+            }
+        }
+        return predicates;
+    }
+
+    /**
+     * Compute the closure of the sub-predicate (or parent-predicate) relation by
+     * a recursive walk over the taxonomy.
+     */
+    private static BitSet walk(AllPredicates allPredicates, TaxonomyPredicate predicate, boolean downwards) {
+        BitSet closure = new BitSet();
+        closure.set(allPredicates.getPredicateIndex(predicate));
+        for (TaxonomyPredicate next : APEUtils
+                .safe(downwards ? predicate.getSubPredicates() : predicate.getParentPredicates())) {
+            closure.or(walk(allPredicates, next, downwards));
+        }
+        return closure;
+    }
+}
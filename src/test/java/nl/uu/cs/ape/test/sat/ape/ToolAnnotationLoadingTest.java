@@ -0,0 +1,91 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.configuration.APECoreConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.domain.OWLReader;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.utils.APEFiles;
+import nl.uu.cs.ape.utils.APEUtils;
+
+/**
+ * Tests loading the tool annotations, which are parsed in parallel before they
+ * are added to the domain.
+ */
+class ToolAnnotationLoadingTest {
+
+    @Test
+    void parallelLoadingMatchesSerialLoading() throws Exception {
+        APECoreConfig config = new APECoreConfig(SolutionSets.getGMTConfig(1, 1));
+        JSONObject annotations = APEFiles.readFileToJSONObject(config.getToolAnnotationsFile());
+
+        APEDomainSetup parallelDomain = readOntology(config);
+        parallelDomain.annotateToolFromJson(annotations);
+
+        APEDomainSetup serialDomain = readOntology(config);
+        for (JSONObject jsonModule : APEUtils.getListFromJson(annotations, "functions", JSONObject.class)) {
+            serialDomain.updateModuleFromJsonAPE(jsonModule);
+        }
+
+        List<String> modules = describe(parallelDomain.getAllModules().getModules());
+        assertEquals(describe(serialDomain.getAllModules().getModules()), modules);
+        assertEquals(describe(serialDomain.getAllTypes().getTypes()),
+                describe(parallelDomain.getAllTypes().getTypes()));
+        /* The tools with the same ID are told apart in the order of the annotations. */
+        assertEquals(1, modules.stream().filter(module -> module.startsWith(
+                "http://www.co-ode.org/ontologies/ont.owl#psconvert[tool] ")).count());
+    }
+
+    private static APEDomainSetup readOntology(APECoreConfig config) throws Exception {
+        APEDomainSetup domainSetup = new APEDomainSetup(config);
+        new OWLReader(domainSetup, config.getOntologyFile()).readOntology();
+        return domainSetup;
+    }
+
+    /**
+     * Describe the predicates, including their position in the taxonomy and, for
+     * the tools, their inputs and outputs.
+     */
+    private static List<String> describe(Collection<? extends TaxonomyPredicate> predicates) {
+        List<String> descriptions = new ArrayList<>();
+        for (TaxonomyPredicate predicate : predicates) {
+            StringBuilder description = new StringBuilder(predicate.getPredicateID()).append(" ")
+                    .append(predicate.getPredicateLabel()).append(" ").append(predicate.getNodeType())
+                    .append(" parents=").append(ids(predicate.getParentPredicates()))
+                    .append(" subs=").append(ids(predicate.getSubPredicates()));
+            if (predicate instanceof Module) {
+                Module module = (Module) predicate;
+                description.append(" in=").append(typeIDs(module.getModuleInput()))
+                        .append(" out=").append(typeIDs(module.getModuleOutput()))
+                        .append(" code=").append(module.getExecutionCommand());
+            }
+            descriptions.add(description.toString());
+        }
+        descriptions.sort(null);
+        return descriptions;
+    }
+
+    private static List<String> ids(Collection<TaxonomyPredicate> predicates) {
+        if (predicates == null) {
+            return List.of();
+        }
+        return predicates.stream().map(TaxonomyPredicate::getPredicateID).sorted().collect(Collectors.toList());
+    }
+
+    private static List<String> typeIDs(List<Type> types) {
+        return types.stream().map(type -> type.getPredicateID() + ids(type.getSubPredicates()))
+                .collect(Collectors.toList());
+    }
+}
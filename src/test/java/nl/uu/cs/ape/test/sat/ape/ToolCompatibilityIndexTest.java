@@ -0,0 +1,60 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.automaton.State;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.Type;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.minisat.ToolCompatibilityIndex;
+
+/**
+ * Tests the pruning of the data references that can never match the types.
+ */
+class ToolCompatibilityIndexTest {
+
+    private static final String PREFIX = "http://www.co-ode.org/ontologies/ont.owl#";
+
+    @Test
+    void pruningKeepsTheSolutions() throws Exception {
+        /* Solutions found by the encoding of all the references. */
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        assertEquals(SolutionSets.readSolutions("cli/gmt/solutions_e0.txt"),
+                SolutionSets.describeGMT(new APE(config).runSynthesis(config)));
+
+        JSONObject unconstrainedConfig = SolutionSets.getGMTConfig(1000, 3);
+        unconstrainedConfig.remove("constraints_path");
+        assertEquals(SolutionSets.readSolutions("cli/gmt/solutions_unconstrained.txt"),
+                SolutionSets.describeGMT(new APE(unconstrainedConfig).runSynthesis(unconstrainedConfig)));
+    }
+
+    @Test
+    void incompatibleReferencesArePruned() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1, 5);
+        APEDomainSetup domainSetup = new APE(config).getDomainSetup().createRunOverlay();
+        APERunConfig runConfig = new APERunConfig(config, domainSetup);
+        TypeAutomaton typeAutomaton = new TypeAutomaton(5, domainSetup.getMaxNoToolInputs(),
+                domainSetup.getMaxNoToolOutputs());
+        ToolCompatibilityIndex index = new ToolCompatibilityIndex(domainSetup, runConfig.getProgramInputs(),
+                runConfig.getProgramOutputs(), typeAutomaton);
+
+        /* The XYZ table given as the workflow input cannot be the PostScript workflow output. */
+        State workflowInput = typeAutomaton.getWorkflowInputBlock().getState(0);
+        assertFalse(index.isReferencePossible(workflowInput, typeAutomaton.getWorkflowOutputBlock().getState(0)));
+        assertTrue(index.isReferencePossible(workflowInput, typeAutomaton.getUsedTypesBlock(0).getState(0)));
+
+        Type table = (Type) domainSetup.getAllTypes().get(PREFIX + "XYZ_table_file");
+        Type palette = (Type) domainSetup.getAllTypes().get(PREFIX + "Color_palette_table");
+        assertTrue(index.areCompatible(table, table));
+        assertFalse(index.areCompatible(table, palette));
+        assertFalse(index.areCompatible(palette, table));
+    }
+}
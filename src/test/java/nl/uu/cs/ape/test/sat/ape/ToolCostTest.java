@@ -0,0 +1,107 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APEConfigException;
+import nl.uu.cs.ape.models.MappingsException;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.models.SATAtomMappings;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.sat.test.utils.TestResources;
+import nl.uu.cs.ape.solver.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+
+/**
+ * Tests the tool costs and the ordering of the solutions by their cost.
+ */
+class ToolCostTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void solutionsAreOrderedByCost() throws Exception {
+        JSONObject annotations = readAnnotations();
+        JSONArray tools = annotations.getJSONArray("functions");
+        for (int i = 0; i < tools.length(); i++) {
+            tools.getJSONObject(i).put("cost", 1 + (i * 7) % 5);
+        }
+        JSONObject config = getConfig(annotations).put("optimization_objective", "TOOL_COST");
+        List<SolutionWorkflow> solutions = new APE(config).runSynthesis(config).getStream()
+                .collect(Collectors.toList());
+        assertEquals(32, solutions.size());
+        for (int i = 1; i < solutions.size(); i++) {
+            assertTrue(cost(solutions.get(i - 1)) <= cost(solutions.get(i)),
+                    "Solution " + (i + 1) + " is cheaper than the solution before it.");
+        }
+        assertTrue(cost(solutions.get(0)) < cost(solutions.get(solutions.size() - 1)));
+    }
+
+    @Test
+    void nonPositiveCostsAreRejected() throws Exception {
+        for (Object cost : List.of(0, -2, "cheap")) {
+            JSONObject annotations = readAnnotations();
+            annotations.getJSONArray("functions").getJSONObject(0).put("cost", cost);
+            JSONObject config = getConfig(annotations);
+            assertThrows(APEConfigException.class, () -> new APE(config));
+        }
+    }
+
+    @Test
+    void tooLargeObjectiveIsRejected() throws Exception {
+        JSONObject annotations = readAnnotations();
+        JSONArray tools = annotations.getJSONArray("functions");
+        for (int i = 0; i < tools.length(); i++) {
+            tools.getJSONObject(i).put("cost", 1000);
+        }
+        JSONObject config = getConfig(annotations).put("optimization_objective", "TOOL_COST");
+        APE ape = new APE(config);
+        assertThrows(APEConfigException.class, () -> ape.runSynthesis(config));
+    }
+
+    @Test
+    void auxiliaryVariablesAreBounded() {
+        SATAtomMappings mappings = new SATAtomMappings();
+        int last = mappings.getNextAuxNum();
+        try {
+            while (true) {
+                last = mappings.getNextAuxNum();
+            }
+        } catch (MappingsException e) {
+            /* The first 100000 numbers are reserved for the auxiliary variables. */
+            assertEquals(100000, last);
+        }
+        assertThrows(MappingsException.class, mappings::getNextAuxNum);
+    }
+
+    private static int cost(SolutionWorkflow solution) {
+        return solution.getModuleNodes().stream().map(ModuleNode::getUsedModule).mapToInt(Module::getCost)
+                .sum();
+    }
+
+    private static JSONObject readAnnotations() throws Exception {
+        return new JSONObject(Files.readString(
+                Path.of(TestResources.getAbsoluteResourcePath("cli/gmt/tool_annotations.json")),
+                StandardCharsets.UTF_8));
+    }
+
+    private JSONObject getConfig(JSONObject annotations) throws Exception {
+        Path annotationsFile = tempDir.resolve("tool_annotations.json");
+        Files.writeString(annotationsFile, annotations.toString(), StandardCharsets.UTF_8);
+        return SolutionSets.getGMTConfig(1000, 5).put("tool_annotations_path", annotationsFile.toString());
+    }
+}
@@ -0,0 +1,92 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.automaton.TypeAutomaton;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.domain.APEDomainSetup;
+import nl.uu.cs.ape.models.Module;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.minisat.ToolCompatibilityIndex;
+import nl.uu.cs.ape.solver.minisat.ToolReachability;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the pruning of the tools that cannot be reached in a state.
+ */
+class ToolReachabilityTest {
+
+    private static final String PREFIX = "http://www.co-ode.org/ontologies/ont.owl#";
+
+    @Test
+    void pruningKeepsTheSolutions() throws Exception {
+        /* Solutions found by the encoding of all the tools in all the states. */
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5).put("use_all_generated_data", "ONE");
+        assertEquals(SolutionSets.readSolutions("cli/gmt/solutions_e0.txt"),
+                SolutionSets.describeGMT(new APE(config).runSynthesis(config)));
+
+        /* Unused outputs may be represented by a different type, thus only the tools are compared. */
+        JSONObject unusedDataConfig = SolutionSets.getGMTConfig(1000, 2).put("use_all_generated_data", "NONE");
+        unusedDataConfig.remove("constraints_path");
+        assertEquals(List.of("initGMT pstext", "initGMT pstext", "initGMT psxy_l", "initGMT psxy_l",
+                "initGMT psxy_p", "initGMT psxy_p", "initGMT xyz2grd", "xyz2grd initGMT"),
+                describeTools(new APE(unusedDataConfig).runSynthesis(unusedDataConfig)));
+    }
+
+    @Test
+    void unreachableToolsArePruned() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1, 5);
+        APE ape = new APE(config);
+        ToolReachability reachability = getReachability(ape, config);
+        ModuleAutomaton moduleAutomaton = new ModuleAutomaton(5, 1, 1);
+        Module initGMT = getTool(ape, "initGMT");
+        Module psxy = getTool(ape, "psxy_l");
+        Module xyz2grd = getTool(ape, "xyz2grd");
+
+        /* The PostScript input of psxy is not available in the first state. */
+        assertTrue(reachability.isReachable(initGMT, moduleAutomaton.get(0)));
+        assertFalse(reachability.isReachable(psxy, moduleAutomaton.get(0)));
+        assertTrue(reachability.isReachable(psxy, moduleAutomaton.get(1)));
+        /* The NetCDF output of xyz2grd cannot be used after the last state. */
+        assertTrue(reachability.isReachable(xyz2grd, moduleAutomaton.get(3)));
+        assertFalse(reachability.isReachable(xyz2grd, moduleAutomaton.get(4)));
+
+        ToolReachability unusedDataReachability = getReachability(ape,
+                SolutionSets.getGMTConfig(1, 5).put("use_all_generated_data", "NONE"));
+        assertTrue(unusedDataReachability.isReachable(xyz2grd, moduleAutomaton.get(4)));
+    }
+
+    private static Module getTool(APE ape, String toolID) {
+        return (Module) ape.getDomainSetup().getAllModules().get(PREFIX + toolID + "[tool]");
+    }
+
+    private static ToolReachability getReachability(APE ape, JSONObject config) throws Exception {
+        APEDomainSetup domainSetup = ape.getDomainSetup().createRunOverlay();
+        APERunConfig runConfig = new APERunConfig(config, domainSetup);
+        int maxNoToolInputs = domainSetup.getMaxNoToolInputs();
+        int maxNoToolOutputs = domainSetup.getMaxNoToolOutputs();
+        ToolCompatibilityIndex compatibilityIndex = new ToolCompatibilityIndex(domainSetup,
+                runConfig.getProgramInputs(), runConfig.getProgramOutputs(),
+                new TypeAutomaton(5, maxNoToolInputs, maxNoToolOutputs));
+        return new ToolReachability(domainSetup, runConfig, compatibilityIndex,
+                new ModuleAutomaton(5, maxNoToolInputs, maxNoToolOutputs));
+    }
+
+    private static List<String> describeTools(SolutionsList solutions) {
+        return solutions.getStream()
+                .map(solution -> solution.getModuleNodes().stream()
+                        .map(node -> node.getUsedModule().getPredicateLabel())
+                        .collect(Collectors.joining(" ")))
+                .sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,168 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.models.enums.WorkflowRunner;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutionResult;
+import nl.uu.cs.ape.solver.solutionStructure.execution.WorkflowExecutor;
+
+/**
+ * Tests the local execution of the workflow scripts. The scripts are run by a
+ * bash runner that replaces the actual tools and behaves as each test requires.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class WorkflowExecutorTest {
+
+    /** Number of the executed workflows. */
+    private static final int NO_WORKFLOWS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exitCodeIsCaptured() throws Exception {
+        SolutionsList solutions = synthesize();
+        WorkflowExecutor executor = executor("echo \"running $@\"\nexit 3");
+
+        List<WorkflowExecutionResult> results = execute(executor, solutions);
+        for (WorkflowExecutionResult result : results) {
+            assertEquals(3, result.getExitCode());
+            assertFalse(result.isSuccessful());
+            assertFalse(result.isTimedOut());
+            assertNull(result.getError());
+            assertEquals("running workflow.sh input.xyz\n", result.readOutput());
+        }
+        assertTrue(solutions.getSolutionsRankedByRuntime().isEmpty());
+    }
+
+    @Test
+    void timeoutStopsTheExecutionAndItsProcesses() throws Exception {
+        SolutionsList solutions = synthesize();
+        WorkflowExecutor executor = executor("sleep 60 &\necho $! > child.pid\nwait");
+        executor.setTimeoutSec(1);
+
+        long start = System.currentTimeMillis();
+        List<WorkflowExecutionResult> results = execute(executor, solutions);
+        assertTrue(System.currentTimeMillis() - start < 30000);
+        for (WorkflowExecutionResult result : results) {
+            assertTrue(result.isTimedOut());
+            assertNull(result.getExitCode());
+            assertFalse(result.isSuccessful());
+            long childPid = Long.parseLong(Files.readString(result.getWorkingDirectory().resolve("child.pid"),
+                    StandardCharsets.UTF_8).trim());
+            ProcessHandle.of(childPid).ifPresent(child -> {
+                try {
+                    child.onExit().get(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new AssertionError("The process started by the workflow is still running.", e);
+                }
+            });
+        }
+        assertTrue(solutions.getSolutionsRankedByRuntime().isEmpty());
+    }
+
+    @Test
+    void scriptWithWrongNumberOfInputsIsNotRun() throws Exception {
+        SolutionsList solutions = synthesize();
+        WorkflowExecutor executor = executor("touch started");
+        executor.setInputs(List.of());
+
+        for (WorkflowExecutionResult result : execute(executor, solutions)) {
+            assertNotNull(result.getError());
+            assertNull(result.getExitCode());
+            assertFalse(result.isTimedOut());
+            assertFalse(result.isSuccessful());
+            assertFalse(Files.exists(result.getWorkingDirectory().resolve("started")));
+        }
+        assertTrue(solutions.getSolutionsRankedByRuntime().isEmpty());
+    }
+
+    @Test
+    void solutionsAreRankedByRuntime() throws Exception {
+        SolutionsList solutions = synthesize();
+        /* The n-th workflow runs for (5 - n) * 0.4 s, except the 2nd one, which fails. */
+        WorkflowExecutor executor = executor("n=$(basename \"$PWD\" | tr -dc 0-9)\n"
+                + "if [ \"$n\" -eq 2 ]; then exit 1; fi\n"
+                + "sleep $(( (5 - n) * 4 / 10 )).$(( (5 - n) * 4 % 10 ))");
+
+        execute(executor, solutions);
+        List<Integer> ranking = solutions.getSolutionsRankedByRuntime().stream()
+                .map(solution -> solution.getIndex() + 1)
+                .collect(Collectors.toList());
+        assertEquals(List.of(5, 4, 3, 1), ranking);
+    }
+
+    @Test
+    void failedExecutionDoesNotStopTheOthers() throws Exception {
+        SolutionsList solutions = synthesize();
+        WorkflowExecutor executor = executor("exit 0");
+        /* The directory of the first workflow cannot be created. */
+        Path executionsDir = tempDir.resolve("executions");
+        Files.createDirectories(executionsDir);
+        Files.writeString(executionsDir.resolve(solutions.get(0).getFileName()), "not a directory");
+
+        List<WorkflowExecutionResult> results = executor.execute(solutions, NO_WORKFLOWS, executionsDir);
+        assertEquals(NO_WORKFLOWS, results.size());
+        assertNotNull(results.get(0).getError());
+        assertNull(results.get(0).getExitCode());
+        assertFalse(results.get(0).isSuccessful());
+        assertEquals(results.get(0), solutions.get(0).getExecutionResult());
+        for (WorkflowExecutionResult result : results.subList(1, NO_WORKFLOWS)) {
+            assertTrue(result.isSuccessful());
+        }
+        List<SolutionWorkflow> ranking = solutions.getSolutionsRankedByRuntime();
+        assertEquals(NO_WORKFLOWS - 1, ranking.size());
+        assertFalse(ranking.contains(solutions.get(0)));
+    }
+
+    private static SolutionsList synthesize() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(NO_WORKFLOWS, 5);
+        SolutionsList solutions = new APE(config).runSynthesis(config);
+        assertEquals(NO_WORKFLOWS, solutions.getNumberOfSolutions());
+        return solutions;
+    }
+
+    /**
+     * @return executor of the workflow scripts that uses the given bash script as
+     *         the runner, with a single workflow input
+     */
+    private WorkflowExecutor executor(String runnerScript) throws Exception {
+        Path runner = tempDir.resolve("runner.sh");
+        Files.writeString(runner, "#!/bin/bash\n" + runnerScript + "\n", StandardCharsets.UTF_8);
+        assertTrue(runner.toFile().setExecutable(true));
+        WorkflowExecutor executor = new WorkflowExecutor(WorkflowRunner.SCRIPT);
+        executor.setRunnerCommand(runner.toString());
+        executor.setMaxParallel(NO_WORKFLOWS);
+        executor.setInputs(List.of("input.xyz"));
+        return executor;
+    }
+
+    private List<WorkflowExecutionResult> execute(WorkflowExecutor executor, SolutionsList solutions)
+            throws Exception {
+        List<WorkflowExecutionResult> results = executor.execute(solutions, NO_WORKFLOWS,
+                tempDir.resolve("executions"));
+        assertEquals(NO_WORKFLOWS, results.size());
+        return results;
+    }
+}
@@ -0,0 +1,59 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.configuration.APERunConfig;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+import nl.uu.cs.ape.solver.solutionStructure.cwl.DefaultCWLCreator;
+import nl.uu.cs.ape.solver.solutionStructure.snakemake.SnakemakeCreator;
+
+/**
+ * Tests that the workflow files, which are written in parallel using the
+ * fragments shared by all the solutions, are the same as the representations
+ * generated for each solution on its own.
+ */
+class WorkflowFragmentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sharedFragmentsDoNotChangeTheWorkflows() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5)
+                .put("solutions_dir_path", tempDir.toString())
+                .put("number_of_cwl_files", 1000)
+                .put("number_of_snakemake_files", 1000);
+        SolutionsList solutions = new APE(config).runSynthesis(config);
+        assertEquals(32, solutions.getNumberOfSolutions());
+
+        assertTrue(APE.writeCWLWorkflows(solutions));
+        assertTrue(APE.writeSnakemakeWorkflows(solutions));
+
+        APERunConfig runConfig = solutions.getRunConfiguration();
+        for (int i = 0; i < solutions.getNumberOfSolutions(); i++) {
+            SolutionWorkflow solution = solutions.get(i);
+            assertArrayEquals(new DefaultCWLCreator(solution).generate().getBytes(StandardCharsets.UTF_8),
+                    Files.readAllBytes(runConfig.getSolutionDirPath2CWL().resolve(solution.getFileName() + ".cwl")),
+                    "CWL of solution " + i);
+            assertArrayEquals(
+                    new SnakemakeCreator(solution).generateSnakemakeRepresentation()
+                            .getBytes(StandardCharsets.UTF_8),
+                    Files.readAllBytes(runConfig.getSolutionDirPath2Snakemake()
+                            .resolve(solution.getFileName() + "_snakefile")),
+                    "Snakefile of solution " + i);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package nl.uu.cs.ape.test.sat.ape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import nl.uu.cs.ape.APE;
+import nl.uu.cs.ape.sat.test.utils.SolutionSets;
+import nl.uu.cs.ape.solver.SynthesisSession;
+import nl.uu.cs.ape.solver.solutionStructure.SolutionsList;
+
+/**
+ * Tests the lower bound on the workflow length, which is used to skip the
+ * lengths that cannot have solutions.
+ */
+class WorkflowLengthBoundTest {
+
+    @Test
+    void boundKeepsTheSolutions() throws Exception {
+        /* The required operations (e.g. Draw_water) need a PostScript input, created in the first step. */
+        JSONObject config = SolutionSets.getGMTConfig(1000, 5);
+        APE ape = new APE(config);
+        try (SynthesisSession session = ape.startSession(new JSONObject(config.toString()))) {
+            assertEquals(2, session.getSolutionLength());
+        }
+        assertEquals(SolutionSets.readSolutions("cli/gmt/solutions_e0.txt"),
+                SolutionSets.describeGMT(ape.runSynthesis(config)));
+
+        JSONObject unconstrainedConfig = SolutionSets.getGMTConfig(1000, 3);
+        unconstrainedConfig.remove("constraints_path");
+        try (SynthesisSession session = ape.startSession(unconstrainedConfig)) {
+            assertEquals(1, session.getSolutionLength());
+        }
+    }
+
+    @Test
+    void unreachableSpecificationIsSkipped() throws Exception {
+        JSONObject config = SolutionSets.getGMTConfig(1000, 1);
+        APE ape = new APE(config);
+        try (SynthesisSession session = ape.startSession(new JSONObject(config.toString()))) {
+            assertEquals(2, session.getSolutionLength());
+        }
+        SolutionsList solutions = ape.runSynthesis(config);
+        assertEquals(0, solutions.getNumberOfSolutions());
+    }
+}